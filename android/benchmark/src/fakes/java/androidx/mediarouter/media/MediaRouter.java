@@ -0,0 +1,53 @@
+package androidx.mediarouter.media;
+
+import android.os.Bundle;
+
+/**
+ * Fake of the MediaRouter for the benchmarks, only holds the RouteInfo values.
+ */
+public final class MediaRouter {
+
+    private MediaRouter() {
+        //not called
+    }
+
+    /**
+     * A route, as listed by a route scan.
+     */
+    public static final class RouteInfo {
+
+        private final String id;
+        private final String name;
+        private final String description;
+        private final boolean isGroup;
+        private final Bundle extras;
+
+        public RouteInfo(String id, String name, String description, boolean isGroup, Bundle extras) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.isGroup = isGroup;
+            this.extras = extras;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public boolean isGroup() {
+            return isGroup;
+        }
+
+        public Bundle getExtras() {
+            return extras;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.getcapacitor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Fake of the Capacitor JSObject for the benchmarks, with the same put methods that don't throw.
+ */
+public class JSObject extends JSONObject {
+
+    public JSObject() {
+        super();
+    }
+
+    public JSObject(String json) throws JSONException {
+        super(json);
+    }
+
+    public JSObject(JSONObject object, String[] names) throws JSONException {
+        super(object, names);
+    }
+
+    public static JSObject fromJSONObject(JSONObject object) throws JSONException {
+        Iterator<String> keys = object.keys();
+        List<String> names = new ArrayList<>();
+        while (keys.hasNext()) {
+            names.add(keys.next());
+        }
+        return new JSObject(object, names.toArray(new String[0]));
+    }
+
+    @Override
+    public JSObject put(String key, boolean value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException e) {}
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, int value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException e) {}
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, long value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException e) {}
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, double value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException e) {}
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, Object value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException e) {}
+        return this;
+    }
+
+    public JSObject put(String key, String value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException e) {}
+        return this;
+    }
+}
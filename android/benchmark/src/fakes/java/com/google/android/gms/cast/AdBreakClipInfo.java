@@ -0,0 +1,59 @@
+package com.google.android.gms.cast;
+
+import org.json.JSONObject;
+
+/**
+ * Fake of the Cast SDK AdBreakClipInfo for the benchmarks, the fixtures have no break clips.
+ */
+public class AdBreakClipInfo {
+
+    private AdBreakClipInfo() {}
+
+    public String getId() {
+        return null;
+    }
+
+    public String getTitle() {
+        return null;
+    }
+
+    public long getDurationInMs() {
+        return 0;
+    }
+
+    public String getContentUrl() {
+        return null;
+    }
+
+    public String getMimeType() {
+        return null;
+    }
+
+    public String getClickThroughUrl() {
+        return null;
+    }
+
+    public JSONObject getCustomData() {
+        return null;
+    }
+
+    public String getContentId() {
+        return null;
+    }
+
+    public String getImageUrl() {
+        return null;
+    }
+
+    public long getWhenSkippableInMs() {
+        return -1;
+    }
+
+    public String getHlsSegmentFormat() {
+        return null;
+    }
+
+    public VastAdsRequest getVastAdsRequest() {
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.google.android.gms.cast;
+
+/**
+ * Fake of the Cast SDK AdBreakInfo for the benchmarks, the fixtures have no breaks.
+ */
+public class AdBreakInfo {
+
+    private AdBreakInfo() {}
+
+    public String getId() {
+        return null;
+    }
+
+    public long getPlaybackPositionInMs() {
+        return 0;
+    }
+
+    public long getDurationInMs() {
+        return 0;
+    }
+
+    public String[] getBreakClipIds() {
+        return null;
+    }
+
+    public boolean isWatched() {
+        return false;
+    }
+
+    public boolean isEmbedded() {
+        return false;
+    }
+}
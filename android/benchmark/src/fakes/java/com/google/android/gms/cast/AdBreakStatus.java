@@ -0,0 +1,47 @@
+package com.google.android.gms.cast;
+
+/**
+ * Fake of the Cast SDK AdBreakStatus for the benchmarks.
+ */
+public class AdBreakStatus {
+
+    private final String breakId;
+    private final String breakClipId;
+    private final long currentBreakTimeInMs;
+    private final long currentBreakClipTimeInMs;
+    private final long whenSkippableInMs;
+
+    public AdBreakStatus(
+        String breakId,
+        String breakClipId,
+        long currentBreakTimeInMs,
+        long currentBreakClipTimeInMs,
+        long whenSkippableInMs
+    ) {
+        this.breakId = breakId;
+        this.breakClipId = breakClipId;
+        this.currentBreakTimeInMs = currentBreakTimeInMs;
+        this.currentBreakClipTimeInMs = currentBreakClipTimeInMs;
+        this.whenSkippableInMs = whenSkippableInMs;
+    }
+
+    public String getBreakId() {
+        return breakId;
+    }
+
+    public String getBreakClipId() {
+        return breakClipId;
+    }
+
+    public long getCurrentBreakTimeInMs() {
+        return currentBreakTimeInMs;
+    }
+
+    public long getCurrentBreakClipTimeInMs() {
+        return currentBreakClipTimeInMs;
+    }
+
+    public long getWhenSkippableInMs() {
+        return whenSkippableInMs;
+    }
+}
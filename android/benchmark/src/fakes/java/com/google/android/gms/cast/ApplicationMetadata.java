@@ -0,0 +1,32 @@
+package com.google.android.gms.cast;
+
+import com.google.android.gms.common.images.WebImage;
+import java.util.List;
+
+/**
+ * Fake of the Cast SDK ApplicationMetadata for the benchmarks.
+ */
+public class ApplicationMetadata {
+
+    private final String applicationId;
+    private final String name;
+    private final List<WebImage> images;
+
+    public ApplicationMetadata(String applicationId, String name, List<WebImage> images) {
+        this.applicationId = applicationId;
+        this.name = name;
+        this.images = images;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<WebImage> getImages() {
+        return images;
+    }
+}
@@ -0,0 +1,56 @@
+package com.google.android.gms.cast;
+
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * Fake of the Cast SDK CastDevice for the benchmarks, stored in the route extras like the real one.
+ */
+public class CastDevice implements Parcelable {
+
+    private static final String EXTRA_CAST_DEVICE = "com.google.android.gms.cast.EXTRA_CAST_DEVICE";
+
+    private final String deviceId;
+    private final String friendlyName;
+    private final boolean onLocalNetwork;
+
+    public CastDevice(String deviceId, String friendlyName, boolean onLocalNetwork) {
+        this.deviceId = deviceId;
+        this.friendlyName = friendlyName;
+        this.onLocalNetwork = onLocalNetwork;
+    }
+
+    public static CastDevice getFromBundle(Bundle extras) {
+        if (extras == null) {
+            return null;
+        }
+        return extras.getParcelable(EXTRA_CAST_DEVICE);
+    }
+
+    public void putInBundle(Bundle extras) {
+        extras.putParcelable(EXTRA_CAST_DEVICE, this);
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public String getFriendlyName() {
+        return friendlyName;
+    }
+
+    public boolean isOnLocalNetwork() {
+        return onLocalNetwork;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        // Never parceled in the benchmarks
+    }
+}
@@ -0,0 +1,119 @@
+package com.google.android.gms.cast;
+
+import java.util.List;
+import org.json.JSONObject;
+
+/**
+ * Fake of the Cast SDK MediaInfo for the benchmarks.
+ */
+public class MediaInfo {
+
+    public static final int STREAM_TYPE_INVALID = -1;
+    public static final int STREAM_TYPE_NONE = 0;
+    public static final int STREAM_TYPE_BUFFERED = 1;
+    public static final int STREAM_TYPE_LIVE = 2;
+
+    private String contentId;
+    private String contentType;
+    private JSONObject customData;
+    private int streamType = STREAM_TYPE_BUFFERED;
+    private long streamDuration = -1;
+    private MediaMetadata metadata;
+    private TextTrackStyle textTrackStyle;
+    private List<MediaTrack> mediaTracks;
+
+    MediaInfo(String contentId) {
+        this.contentId = contentId;
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public JSONObject getCustomData() {
+        return customData;
+    }
+
+    public int getStreamType() {
+        return streamType;
+    }
+
+    public long getStreamDuration() {
+        return streamDuration;
+    }
+
+    public MediaMetadata getMetadata() {
+        return metadata;
+    }
+
+    public TextTrackStyle getTextTrackStyle() {
+        return textTrackStyle;
+    }
+
+    public List<MediaTrack> getMediaTracks() {
+        return mediaTracks;
+    }
+
+    public List<AdBreakClipInfo> getAdBreakClips() {
+        return null;
+    }
+
+    public List<AdBreakInfo> getAdBreaks() {
+        return null;
+    }
+
+    /**
+     * Builds a MediaInfo.
+     */
+    public static class Builder {
+
+        private final MediaInfo mediaInfo;
+
+        public Builder(String contentId) {
+            mediaInfo = new MediaInfo(contentId);
+        }
+
+        public Builder setContentType(String contentType) {
+            mediaInfo.contentType = contentType;
+            return this;
+        }
+
+        public Builder setCustomData(JSONObject customData) {
+            mediaInfo.customData = customData;
+            return this;
+        }
+
+        public Builder setStreamType(int streamType) {
+            mediaInfo.streamType = streamType;
+            return this;
+        }
+
+        public Builder setStreamDuration(long streamDuration) {
+            mediaInfo.streamDuration = streamDuration;
+            return this;
+        }
+
+        public Builder setMetadata(MediaMetadata metadata) {
+            mediaInfo.metadata = metadata;
+            return this;
+        }
+
+        public Builder setTextTrackStyle(TextTrackStyle textTrackStyle) {
+            mediaInfo.textTrackStyle = textTrackStyle;
+            return this;
+        }
+
+        public Builder setMediaTracks(List<MediaTrack> mediaTracks) {
+            mediaInfo.mediaTracks = mediaTracks;
+            return this;
+        }
+
+        public MediaInfo build() {
+            return mediaInfo;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.google.android.gms.cast;
+
+/**
+ * Fake of the Cast SDK MediaLiveSeekableRange for the benchmarks.
+ */
+public class MediaLiveSeekableRange {
+
+    private final long startTime;
+    private final long endTime;
+    private final boolean isMovingWindow;
+    private final boolean isLiveDone;
+
+    public MediaLiveSeekableRange(long startTime, long endTime, boolean isMovingWindow, boolean isLiveDone) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.isMovingWindow = isMovingWindow;
+        this.isLiveDone = isLiveDone;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public boolean isMovingWindow() {
+        return isMovingWindow;
+    }
+
+    public boolean isLiveDone() {
+        return isLiveDone;
+    }
+}
@@ -0,0 +1,129 @@
+package com.google.android.gms.cast;
+
+import com.google.android.gms.common.images.WebImage;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fake of the Cast SDK MediaMetadata for the benchmarks, the values are kept in a map like the real one.
+ */
+public class MediaMetadata {
+
+    public static final int MEDIA_TYPE_GENERIC = 0;
+    public static final int MEDIA_TYPE_MOVIE = 1;
+    public static final int MEDIA_TYPE_TV_SHOW = 2;
+    public static final int MEDIA_TYPE_MUSIC_TRACK = 3;
+    public static final int MEDIA_TYPE_PHOTO = 4;
+    public static final int MEDIA_TYPE_AUDIOBOOK_CHAPTER = 5;
+    public static final int MEDIA_TYPE_USER = 100;
+
+    public static final String KEY_ALBUM_ARTIST = "com.google.android.gms.cast.metadata.ALBUM_ARTIST";
+    public static final String KEY_ALBUM_TITLE = "com.google.android.gms.cast.metadata.ALBUM_TITLE";
+    public static final String KEY_ARTIST = "com.google.android.gms.cast.metadata.ARTIST";
+    public static final String KEY_BOOK_TITLE = "com.google.android.gms.cast.metadata.BOOK_TITLE";
+    public static final String KEY_BROADCAST_DATE = "com.google.android.gms.cast.metadata.BROADCAST_DATE";
+    public static final String KEY_CHAPTER_NUMBER = "com.google.android.gms.cast.metadata.CHAPTER_NUMBER";
+    public static final String KEY_CHAPTER_TITLE = "com.google.android.gms.cast.metadata.CHAPTER_TITLE";
+    public static final String KEY_COMPOSER = "com.google.android.gms.cast.metadata.COMPOSER";
+    public static final String KEY_CREATION_DATE = "com.google.android.gms.cast.metadata.CREATION_DATE";
+    public static final String KEY_DISC_NUMBER = "com.google.android.gms.cast.metadata.DISC_NUMBER";
+    public static final String KEY_EPISODE_NUMBER = "com.google.android.gms.cast.metadata.EPISODE_NUMBER";
+    public static final String KEY_HEIGHT = "com.google.android.gms.cast.metadata.HEIGHT";
+    public static final String KEY_LOCATION_LATITUDE = "com.google.android.gms.cast.metadata.LOCATION_LATITUDE";
+    public static final String KEY_LOCATION_LONGITUDE = "com.google.android.gms.cast.metadata.LOCATION_LONGITUDE";
+    public static final String KEY_LOCATION_NAME = "com.google.android.gms.cast.metadata.LOCATION_NAME";
+    public static final String KEY_QUEUE_ITEM_ID = "com.google.android.gms.cast.metadata.QUEUE_ITEM_ID";
+    public static final String KEY_RELEASE_DATE = "com.google.android.gms.cast.metadata.RELEASE_DATE";
+    public static final String KEY_SEASON_NUMBER = "com.google.android.gms.cast.metadata.SEASON_NUMBER";
+    public static final String KEY_SECTION_DURATION = "com.google.android.gms.cast.metadata.SECTION_DURATION";
+    public static final String KEY_SECTION_START_ABSOLUTE_TIME = "com.google.android.gms.cast.metadata.SECTION_START_ABSOLUTE_TIME";
+    public static final String KEY_SECTION_START_TIME_IN_CONTAINER = "com.google.android.gms.cast.metadata.SECTION_START_TIME_IN_CONTAINER";
+    public static final String KEY_SECTION_START_TIME_IN_MEDIA = "com.google.android.gms.cast.metadata.SECTION_START_TIME_IN_MEDIA";
+    public static final String KEY_SERIES_TITLE = "com.google.android.gms.cast.metadata.SERIES_TITLE";
+    public static final String KEY_STUDIO = "com.google.android.gms.cast.metadata.STUDIO";
+    public static final String KEY_SUBTITLE = "com.google.android.gms.cast.metadata.SUBTITLE";
+    public static final String KEY_TITLE = "com.google.android.gms.cast.metadata.TITLE";
+    public static final String KEY_TRACK_NUMBER = "com.google.android.gms.cast.metadata.TRACK_NUMBER";
+    public static final String KEY_WIDTH = "com.google.android.gms.cast.metadata.WIDTH";
+
+    private final int mediaType;
+    private final Map<String, Object> values = new HashMap<>();
+    private final List<WebImage> images = new ArrayList<>();
+
+    public MediaMetadata() {
+        this(MEDIA_TYPE_GENERIC);
+    }
+
+    public MediaMetadata(int mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public int getMediaType() {
+        return mediaType;
+    }
+
+    public Set<String> keySet() {
+        return values.keySet();
+    }
+
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    public void putString(String key, String value) {
+        values.put(key, value);
+    }
+
+    public String getString(String key) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    public void putInt(String key, int value) {
+        values.put(key, value);
+    }
+
+    public int getInt(String key) {
+        Object value = values.get(key);
+        return value instanceof Integer ? (Integer) value : 0;
+    }
+
+    public void putDouble(String key, double value) {
+        values.put(key, value);
+    }
+
+    public double getDouble(String key) {
+        Object value = values.get(key);
+        return value instanceof Double ? (Double) value : 0;
+    }
+
+    public void putDate(String key, Calendar value) {
+        values.put(key, value);
+    }
+
+    public Calendar getDate(String key) {
+        Object value = values.get(key);
+        return value instanceof Calendar ? (Calendar) value : null;
+    }
+
+    public void putTimeMillis(String key, long value) {
+        values.put(key, value);
+    }
+
+    public long getTimeMillis(String key) {
+        Object value = values.get(key);
+        return value instanceof Long ? (Long) value : 0;
+    }
+
+    public List<WebImage> getImages() {
+        return images;
+    }
+
+    public void addImage(WebImage image) {
+        images.add(image);
+    }
+}
@@ -0,0 +1,23 @@
+package com.google.android.gms.cast;
+
+/**
+ * Fake of the Cast SDK MediaQueueData for the benchmarks.
+ */
+public class MediaQueueData {
+
+    private final int repeatMode;
+    private final int startIndex;
+
+    public MediaQueueData(int repeatMode, int startIndex) {
+        this.repeatMode = repeatMode;
+        this.startIndex = startIndex;
+    }
+
+    public int getRepeatMode() {
+        return repeatMode;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+}
@@ -0,0 +1,108 @@
+package com.google.android.gms.cast;
+
+import org.json.JSONObject;
+
+/**
+ * Fake of the Cast SDK MediaQueueItem for the benchmarks.
+ */
+public class MediaQueueItem {
+
+    public static final int INVALID_ITEM_ID = 0;
+
+    private final MediaInfo media;
+    private int itemId = INVALID_ITEM_ID;
+    private boolean autoplay = true;
+    private double startTime = Double.NaN;
+    private double playbackDuration = Double.POSITIVE_INFINITY;
+    private double preloadTime;
+    private long[] activeTrackIds;
+    private JSONObject customData;
+
+    MediaQueueItem(MediaInfo media) {
+        this.media = media;
+    }
+
+    public MediaInfo getMedia() {
+        return media;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public boolean getAutoplay() {
+        return autoplay;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public double getPlaybackDuration() {
+        return playbackDuration;
+    }
+
+    public double getPreloadTime() {
+        return preloadTime;
+    }
+
+    public long[] getActiveTrackIds() {
+        return activeTrackIds;
+    }
+
+    public JSONObject getCustomData() {
+        return customData;
+    }
+
+    /**
+     * Builds a MediaQueueItem.
+     */
+    public static class Builder {
+
+        private final MediaQueueItem item;
+
+        public Builder(MediaInfo media) {
+            item = new MediaQueueItem(media);
+        }
+
+        /** Only the receiver assigns the item ids, the fake lets the benchmarks do it. */
+        public Builder setItemId(int itemId) {
+            item.itemId = itemId;
+            return this;
+        }
+
+        public Builder setAutoplay(boolean autoplay) {
+            item.autoplay = autoplay;
+            return this;
+        }
+
+        public Builder setStartTime(double startTime) {
+            item.startTime = startTime;
+            return this;
+        }
+
+        public Builder setPlaybackDuration(double playbackDuration) {
+            item.playbackDuration = playbackDuration;
+            return this;
+        }
+
+        public Builder setPreloadTime(double preloadTime) {
+            item.preloadTime = preloadTime;
+            return this;
+        }
+
+        public Builder setActiveTrackIds(long[] activeTrackIds) {
+            item.activeTrackIds = activeTrackIds;
+            return this;
+        }
+
+        public Builder setCustomData(JSONObject customData) {
+            item.customData = customData;
+            return this;
+        }
+
+        public MediaQueueItem build() {
+            return item;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.google.android.gms.cast;
+
+import org.json.JSONObject;
+
+/**
+ * Fake of the Cast SDK MediaStatus for the benchmarks.  The real one is only built by the SDK from the
+ * receiver messages, the fake has setters instead.
+ */
+public class MediaStatus {
+
+    public static final int PLAYER_STATE_UNKNOWN = 0;
+    public static final int PLAYER_STATE_IDLE = 1;
+    public static final int PLAYER_STATE_PLAYING = 2;
+    public static final int PLAYER_STATE_PAUSED = 3;
+    public static final int PLAYER_STATE_BUFFERING = 4;
+    public static final int PLAYER_STATE_LOADING = 5;
+
+    public static final int IDLE_REASON_NONE = 0;
+    public static final int IDLE_REASON_FINISHED = 1;
+    public static final int IDLE_REASON_CANCELED = 2;
+    public static final int IDLE_REASON_INTERRUPTED = 3;
+    public static final int IDLE_REASON_ERROR = 4;
+
+    public static final int REPEAT_MODE_REPEAT_OFF = 0;
+    public static final int REPEAT_MODE_REPEAT_ALL = 1;
+    public static final int REPEAT_MODE_REPEAT_SINGLE = 2;
+    public static final int REPEAT_MODE_REPEAT_ALL_AND_SHUFFLE = 3;
+
+    public static final long COMMAND_PAUSE = 1;
+    public static final long COMMAND_SEEK = 2;
+    public static final long COMMAND_SET_VOLUME = 4;
+    public static final long COMMAND_TOGGLE_MUTE = 8;
+    public static final long COMMAND_SKIP_FORWARD = 16;
+    public static final long COMMAND_SKIP_BACKWARD = 32;
+    public static final long COMMAND_QUEUE_NEXT = 64;
+    public static final long COMMAND_QUEUE_PREVIOUS = 128;
+    public static final long COMMAND_QUEUE_SHUFFLE = 256;
+    public static final long COMMAND_QUEUE_REPEAT_ALL = 1024;
+    public static final long COMMAND_QUEUE_REPEAT_ONE = 2048;
+    public static final long COMMAND_EDIT_TRACKS = 4096;
+    public static final long COMMAND_PLAYBACK_RATE = 8192;
+
+    private final MediaInfo mediaInfo;
+    private int playerState = PLAYER_STATE_PLAYING;
+    private int idleReason = IDLE_REASON_NONE;
+    private int currentItemId;
+    private int loadingItemId;
+    private int preloadedItemId;
+    private long streamPosition;
+    private double playbackRate = 1;
+    private double streamVolume = 1;
+    private boolean mute;
+    private long[] activeTrackIds;
+    private JSONObject customData;
+    private MediaQueueData queueData;
+    private int queueRepeatMode = REPEAT_MODE_REPEAT_OFF;
+    private long supportedMediaCommands;
+    private AdBreakStatus adBreakStatus;
+    private MediaLiveSeekableRange liveSeekableRange;
+    private VideoInfo videoInfo;
+
+    public MediaStatus(MediaInfo mediaInfo) {
+        this.mediaInfo = mediaInfo;
+    }
+
+    public MediaInfo getMediaInfo() {
+        return mediaInfo;
+    }
+
+    public int getPlayerState() {
+        return playerState;
+    }
+
+    public void setPlayerState(int playerState) {
+        this.playerState = playerState;
+    }
+
+    public int getIdleReason() {
+        return idleReason;
+    }
+
+    public void setIdleReason(int idleReason) {
+        this.idleReason = idleReason;
+    }
+
+    public int getCurrentItemId() {
+        return currentItemId;
+    }
+
+    public void setCurrentItemId(int currentItemId) {
+        this.currentItemId = currentItemId;
+    }
+
+    public int getLoadingItemId() {
+        return loadingItemId;
+    }
+
+    public int getPreloadedItemId() {
+        return preloadedItemId;
+    }
+
+    public long getStreamPosition() {
+        return streamPosition;
+    }
+
+    public void setStreamPosition(long streamPosition) {
+        this.streamPosition = streamPosition;
+    }
+
+    public double getPlaybackRate() {
+        return playbackRate;
+    }
+
+    public double getStreamVolume() {
+        return streamVolume;
+    }
+
+    public boolean isMute() {
+        return mute;
+    }
+
+    public long[] getActiveTrackIds() {
+        return activeTrackIds;
+    }
+
+    public void setActiveTrackIds(long[] activeTrackIds) {
+        this.activeTrackIds = activeTrackIds;
+    }
+
+    public JSONObject getCustomData() {
+        return customData;
+    }
+
+    public void setCustomData(JSONObject customData) {
+        this.customData = customData;
+    }
+
+    public MediaQueueData getQueueData() {
+        return queueData;
+    }
+
+    public void setQueueData(MediaQueueData queueData) {
+        this.queueData = queueData;
+    }
+
+    public int getQueueRepeatMode() {
+        return queueRepeatMode;
+    }
+
+    public void setQueueRepeatMode(int queueRepeatMode) {
+        this.queueRepeatMode = queueRepeatMode;
+    }
+
+    public long getSupportedMediaCommands() {
+        return supportedMediaCommands;
+    }
+
+    public void setSupportedMediaCommands(long supportedMediaCommands) {
+        this.supportedMediaCommands = supportedMediaCommands;
+    }
+
+    public AdBreakStatus getAdBreakStatus() {
+        return adBreakStatus;
+    }
+
+    public void setAdBreakStatus(AdBreakStatus adBreakStatus) {
+        this.adBreakStatus = adBreakStatus;
+    }
+
+    public MediaLiveSeekableRange getLiveSeekableRange() {
+        return liveSeekableRange;
+    }
+
+    public void setLiveSeekableRange(MediaLiveSeekableRange liveSeekableRange) {
+        this.liveSeekableRange = liveSeekableRange;
+    }
+
+    public VideoInfo getVideoInfo() {
+        return videoInfo;
+    }
+
+    public void setVideoInfo(VideoInfo videoInfo) {
+        this.videoInfo = videoInfo;
+    }
+}
@@ -0,0 +1,114 @@
+package com.google.android.gms.cast;
+
+import org.json.JSONObject;
+
+/**
+ * Fake of the Cast SDK MediaTrack for the benchmarks.
+ */
+public class MediaTrack {
+
+    public static final int TYPE_UNKNOWN = 0;
+    public static final int TYPE_TEXT = 1;
+    public static final int TYPE_AUDIO = 2;
+    public static final int TYPE_VIDEO = 3;
+
+    public static final int SUBTYPE_UNKNOWN = -1;
+    public static final int SUBTYPE_NONE = 0;
+    public static final int SUBTYPE_SUBTITLES = 1;
+    public static final int SUBTYPE_CAPTIONS = 2;
+    public static final int SUBTYPE_DESCRIPTIONS = 3;
+    public static final int SUBTYPE_CHAPTERS = 4;
+    public static final int SUBTYPE_METADATA = 5;
+
+    private final long id;
+    private final int type;
+    private int subtype = SUBTYPE_NONE;
+    private String name;
+    private String language;
+    private String contentId;
+    private String contentType;
+    private JSONObject customData;
+
+    MediaTrack(long id, int type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getSubtype() {
+        return subtype;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public JSONObject getCustomData() {
+        return customData;
+    }
+
+    /**
+     * Builds a MediaTrack.
+     */
+    public static class Builder {
+
+        private final MediaTrack track;
+
+        public Builder(long id, int type) {
+            track = new MediaTrack(id, type);
+        }
+
+        public Builder setSubtype(int subtype) {
+            track.subtype = subtype;
+            return this;
+        }
+
+        public Builder setName(String name) {
+            track.name = name;
+            return this;
+        }
+
+        public Builder setLanguage(String language) {
+            track.language = language;
+            return this;
+        }
+
+        public Builder setContentId(String contentId) {
+            track.contentId = contentId;
+            return this;
+        }
+
+        public Builder setContentType(String contentType) {
+            track.contentType = contentType;
+            return this;
+        }
+
+        public Builder setCustomData(JSONObject customData) {
+            track.customData = customData;
+            return this;
+        }
+
+        public MediaTrack build() {
+            return track;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.google.android.gms.cast;
+
+import org.json.JSONObject;
+
+/**
+ * Fake of the Cast SDK TextTrackStyle for the benchmarks.
+ */
+public class TextTrackStyle {
+
+    public static final int EDGE_TYPE_UNSPECIFIED = -1;
+    public static final int EDGE_TYPE_NONE = 0;
+    public static final int EDGE_TYPE_OUTLINE = 1;
+    public static final int EDGE_TYPE_DROP_SHADOW = 2;
+    public static final int EDGE_TYPE_RAISED = 3;
+    public static final int EDGE_TYPE_DEPRESSED = 4;
+
+    public static final int FONT_FAMILY_UNSPECIFIED = -1;
+    public static final int FONT_FAMILY_SANS_SERIF = 0;
+    public static final int FONT_FAMILY_MONOSPACED_SANS_SERIF = 1;
+    public static final int FONT_FAMILY_SERIF = 2;
+    public static final int FONT_FAMILY_MONOSPACED_SERIF = 3;
+    public static final int FONT_FAMILY_CASUAL = 4;
+    public static final int FONT_FAMILY_CURSIVE = 5;
+    public static final int FONT_FAMILY_SMALL_CAPITALS = 6;
+
+    public static final int FONT_STYLE_UNSPECIFIED = -1;
+    public static final int FONT_STYLE_NORMAL = 0;
+    public static final int FONT_STYLE_BOLD = 1;
+    public static final int FONT_STYLE_ITALIC = 2;
+    public static final int FONT_STYLE_BOLD_ITALIC = 3;
+
+    public static final int WINDOW_TYPE_UNSPECIFIED = -1;
+    public static final int WINDOW_TYPE_NONE = 0;
+    public static final int WINDOW_TYPE_NORMAL = 1;
+    public static final int WINDOW_TYPE_ROUNDED = 2;
+
+    private int backgroundColor;
+    private int edgeColor;
+    private int foregroundColor;
+    private int windowColor;
+    private int windowCornerRadius;
+    private int edgeType = EDGE_TYPE_UNSPECIFIED;
+    private int fontGenericFamily = FONT_FAMILY_UNSPECIFIED;
+    private int fontStyle = FONT_STYLE_UNSPECIFIED;
+    private int windowType = WINDOW_TYPE_UNSPECIFIED;
+    private String fontFamily;
+    private float fontScale = 1f;
+    private JSONObject customData;
+
+    public int getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    public void setBackgroundColor(int backgroundColor) {
+        this.backgroundColor = backgroundColor;
+    }
+
+    public int getEdgeColor() {
+        return edgeColor;
+    }
+
+    public void setEdgeColor(int edgeColor) {
+        this.edgeColor = edgeColor;
+    }
+
+    public int getForegroundColor() {
+        return foregroundColor;
+    }
+
+    public void setForegroundColor(int foregroundColor) {
+        this.foregroundColor = foregroundColor;
+    }
+
+    public int getWindowColor() {
+        return windowColor;
+    }
+
+    public int getWindowCornerRadius() {
+        return windowCornerRadius;
+    }
+
+    public int getEdgeType() {
+        return edgeType;
+    }
+
+    public int getFontGenericFamily() {
+        return fontGenericFamily;
+    }
+
+    public int getFontStyle() {
+        return fontStyle;
+    }
+
+    public int getWindowType() {
+        return windowType;
+    }
+
+    public String getFontFamily() {
+        return fontFamily;
+    }
+
+    public float getFontScale() {
+        return fontScale;
+    }
+
+    public JSONObject getCustomData() {
+        return customData;
+    }
+}
@@ -0,0 +1,17 @@
+package com.google.android.gms.cast;
+
+/**
+ * Fake of the Cast SDK VastAdsRequest for the benchmarks.
+ */
+public class VastAdsRequest {
+
+    private VastAdsRequest() {}
+
+    public String getAdTagUrl() {
+        return null;
+    }
+
+    public String getAdsResponse() {
+        return null;
+    }
+}
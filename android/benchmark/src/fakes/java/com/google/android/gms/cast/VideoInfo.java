@@ -0,0 +1,35 @@
+package com.google.android.gms.cast;
+
+/**
+ * Fake of the Cast SDK VideoInfo for the benchmarks.
+ */
+public class VideoInfo {
+
+    public static final int HDR_TYPE_UNKNOWN = 0;
+    public static final int HDR_TYPE_SDR = 1;
+    public static final int HDR_TYPE_HDR10 = 2;
+    public static final int HDR_TYPE_DV = 3;
+    public static final int HDR_TYPE_HDR = 4;
+
+    private final int width;
+    private final int height;
+    private final int hdrType;
+
+    public VideoInfo(int width, int height, int hdrType) {
+        this.width = width;
+        this.height = height;
+        this.hdrType = hdrType;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getHdrType() {
+        return hdrType;
+    }
+}
@@ -0,0 +1,54 @@
+package com.google.android.gms.cast.framework;
+
+import com.google.android.gms.cast.ApplicationMetadata;
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+
+/**
+ * Fake of the Cast SDK CastSession for the benchmarks, a connected session that only holds its state.
+ */
+public class CastSession {
+
+    private final String sessionId;
+    private final CastDevice castDevice;
+    private final ApplicationMetadata applicationMetadata;
+    private final RemoteMediaClient remoteMediaClient;
+    private double volume = 1;
+    private boolean mute;
+
+    public CastSession(
+        String sessionId,
+        CastDevice castDevice,
+        ApplicationMetadata applicationMetadata,
+        RemoteMediaClient remoteMediaClient
+    ) {
+        this.sessionId = sessionId;
+        this.castDevice = castDevice;
+        this.applicationMetadata = applicationMetadata;
+        this.remoteMediaClient = remoteMediaClient;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public CastDevice getCastDevice() {
+        return castDevice;
+    }
+
+    public ApplicationMetadata getApplicationMetadata() {
+        return applicationMetadata;
+    }
+
+    public RemoteMediaClient getRemoteMediaClient() {
+        return remoteMediaClient;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public boolean isMute() {
+        return mute;
+    }
+}
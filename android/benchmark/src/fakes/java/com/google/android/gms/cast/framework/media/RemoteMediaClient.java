@@ -0,0 +1,28 @@
+package com.google.android.gms.cast.framework.media;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaStatus;
+
+/**
+ * Fake of the Cast SDK RemoteMediaClient for the benchmarks, only gives the last media status.
+ */
+public class RemoteMediaClient {
+
+    private MediaStatus mediaStatus;
+
+    public RemoteMediaClient(MediaStatus mediaStatus) {
+        this.mediaStatus = mediaStatus;
+    }
+
+    public MediaStatus getMediaStatus() {
+        return mediaStatus;
+    }
+
+    public void setMediaStatus(MediaStatus mediaStatus) {
+        this.mediaStatus = mediaStatus;
+    }
+
+    public MediaInfo getMediaInfo() {
+        return mediaStatus != null ? mediaStatus.getMediaInfo() : null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.google.android.gms.common.images;
+
+import android.net.Uri;
+
+/**
+ * Fake of the Cast SDK WebImage for the benchmarks.
+ */
+public class WebImage {
+
+    private final Uri url;
+    private final int width;
+    private final int height;
+
+    public WebImage(Uri url) {
+        this(url, 0, 0);
+    }
+
+    public WebImage(Uri url, int width, int height) {
+        this.url = url;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Uri getUrl() {
+        return url;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
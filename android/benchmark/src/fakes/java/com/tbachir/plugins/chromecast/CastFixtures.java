@@ -0,0 +1,153 @@
+package com.tbachir.plugins.chromecast;
+
+import android.os.Bundle;
+import androidx.mediarouter.media.MediaRouter;
+import com.google.android.gms.cast.ApplicationMetadata;
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.MediaQueueData;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.cast.MediaTrack;
+import com.google.android.gms.cast.VideoInfo;
+import com.google.android.gms.cast.framework.CastSession;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The sessions, requests and routes the benchmarks and the allocation tests run on: a TV show episode
+ * with two tracks playing in a queue of 20 items, and a scan with 10 routes.
+ */
+final class CastFixtures {
+
+    static final String SESSION_ID = "session-id";
+    static final int QUEUE_SIZE = 20;
+    static final int ROUTE_COUNT = 10;
+
+    private CastFixtures() {
+        //not called
+    }
+
+    /**
+     * @return the metadata of a load request (chrome.cast.media.TvShowMediaMetadata)
+     */
+    static JSONObject createMetadataRequest() throws JSONException {
+        return new JSONObject()
+            .put("metadataType", MediaMetadata.MEDIA_TYPE_TV_SHOW)
+            .put("title", "Episode 1")
+            .put("seriesTitle", "Series")
+            .put("season", 2)
+            .put("episode", 1)
+            .put("originalAirDate", 1704067200000L)
+            .put("images", new JSONArray().put(new JSONObject().put("url", "https://example.com/poster.jpg")));
+    }
+
+    /**
+     * @return a queue item of a queue load request (chrome.cast.media.QueueItem)
+     */
+    static JSONObject createQueueItemRequest() throws JSONException {
+        return new JSONObject()
+            .put(
+                "media",
+                new JSONObject()
+                    .put("contentId", "https://example.com/videos/episode-1.mp4")
+                    .put("contentType", "video/mp4")
+                    .put("streamType", "buffered")
+                    .put("duration", 1800)
+                    .put("metadata", createMetadataRequest())
+            )
+            .put("autoplay", true)
+            .put("preloadTime", 10)
+            .put("startTime", 0)
+            .put("activeTrackIds", new JSONArray().put(1));
+    }
+
+    /**
+     * @param kilobytes the approximate size of the customData once serialized
+     * @return the customData of a load request with DRM data: a license server and content keys
+     */
+    static JSONObject createCustomData(int kilobytes) throws JSONException {
+        JSONArray keys = new JSONArray();
+        // One key is about 100 bytes once serialized
+        for (int i = 0; i < kilobytes * 10; i++) {
+            String id = String.format("%032x", i);
+            keys.put(new JSONObject().put("kid", id).put("key", new StringBuilder(id).reverse().toString()).put("type", "CONTENT"));
+        }
+        return new JSONObject()
+            .put("drm", new JSONObject().put("type", "widevine").put("licenseUrl", "https://license.example.com/widevine"))
+            .put("userId", "user-1")
+            .put("keys", keys);
+    }
+
+    /**
+     * @return the media of the session
+     */
+    static MediaInfo createMediaInfo() throws JSONException {
+        return new MediaInfo.Builder("https://example.com/videos/episode-1.mp4")
+            .setContentType("video/mp4")
+            .setStreamType(MediaInfo.STREAM_TYPE_BUFFERED)
+            .setStreamDuration(1800000)
+            .setMetadata(ChromecastUtilities.createMediaMetadata(createMetadataRequest()))
+            .setMediaTracks(
+                Arrays.asList(
+                    new MediaTrack.Builder(1, MediaTrack.TYPE_TEXT).setName("English").setLanguage("en").build(),
+                    new MediaTrack.Builder(2, MediaTrack.TYPE_AUDIO).setName("Francais").setLanguage("fr").build()
+                )
+            )
+            .setTextTrackStyle(ChromecastUtilities.parseTextTrackStyle(new JSONObject()))
+            .build();
+    }
+
+    /**
+     * @param mediaInfo the media being played
+     * @return a connected session playing the media
+     */
+    static CastSession createSession(MediaInfo mediaInfo) {
+        MediaStatus status = new MediaStatus(mediaInfo);
+        status.setCurrentItemId(1);
+        status.setStreamPosition(120000);
+        status.setActiveTrackIds(new long[] { 1 });
+        status.setQueueData(new MediaQueueData(MediaStatus.REPEAT_MODE_REPEAT_OFF, 0));
+        status.setSupportedMediaCommands(MediaStatus.COMMAND_PAUSE | MediaStatus.COMMAND_SEEK | MediaStatus.COMMAND_QUEUE_NEXT);
+        status.setVideoInfo(new VideoInfo(1920, 1080, VideoInfo.HDR_TYPE_SDR));
+        return new CastSession(
+            SESSION_ID,
+            new CastDevice("device-id", "Living Room", true),
+            new ApplicationMetadata("CC1AD845", "Default Media Receiver", Collections.emptyList()),
+            new RemoteMediaClient(status)
+        );
+    }
+
+    /**
+     * @param mediaInfo the media of every item
+     * @return the queue items of the session
+     */
+    static QueueSnapshot createQueue(MediaInfo mediaInfo) {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < QUEUE_SIZE; i++) {
+            MediaQueueItem item = new MediaQueueItem.Builder(mediaInfo).setItemId(i + 1).build();
+            items.put(ChromecastUtilities.createQueueItem(item, i));
+        }
+        return new QueueSnapshot(1, SESSION_ID, items);
+    }
+
+    /**
+     * @return the routes of a scan, half of them on the local network
+     */
+    static List<MediaRouter.RouteInfo> createRoutes() {
+        List<MediaRouter.RouteInfo> routes = new ArrayList<>();
+        for (int i = 0; i < ROUTE_COUNT; i++) {
+            Bundle extras = new Bundle();
+            new CastDevice("device-" + i, "Device " + i, i % 2 == 0).putInBundle(extras);
+            routes.add(new MediaRouter.RouteInfo("route-" + i, "Device " + i, "Chromecast", false, extras));
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,101 @@
+package com.tbachir.plugins.chromecast;
+
+import androidx.mediarouter.media.MediaRouter;
+import com.getcapacitor.JSObject;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.framework.CastSession;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the hot paths of ChromecastUtilities against fakes of the Cast SDK objects: the media
+ * object sent on every status update, the metadata and queue items read from the load requests,
+ * the route list sent on every scan update and the content type detection of loadMedia.
+ * The inputs are the ones of CastFixtures.
+ *
+ * Run with: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChromecastUtilitiesBenchmark {
+
+    private static final String[] URLS = {
+        "https://example.com/live/master.m3u8?token=abcdef",
+        "https://example.com/vod/manifest.mpd",
+        "https://example.com/videos/movie.mp4",
+        "https://example.com/videos/clip.webm",
+        "https://example.com/videos/episode.mkv",
+        "https://example.com/stream"
+    };
+
+    private CastSession session;
+    private QueueSnapshot queue;
+    private JSONObject metadata;
+    private JSONObject queueItem;
+    private List<MediaRouter.RouteInfo> routes;
+
+    @Setup
+    public void setUp() throws JSONException {
+        MediaInfo mediaInfo = CastFixtures.createMediaInfo();
+        session = CastFixtures.createSession(mediaInfo);
+        queue = CastFixtures.createQueue(mediaInfo);
+        metadata = CastFixtures.createMetadataRequest();
+        queueItem = CastFixtures.createQueueItemRequest();
+        routes = CastFixtures.createRoutes();
+    }
+
+    /** A status update of the current media, its media info object comes from the cache. */
+    @Benchmark
+    public JSObject createMediaObject() {
+        return ChromecastUtilities.createMediaObject(session, queue);
+    }
+
+    /** The first status update of a media, its media info object is built. */
+    @Benchmark
+    public JSObject createMediaObjectNewMedia() {
+        ChromecastUtilities.clearMediaInfoCache();
+        return ChromecastUtilities.createMediaObject(session, queue);
+    }
+
+    @Benchmark
+    public MediaMetadata createMediaMetadata() {
+        return ChromecastUtilities.createMediaMetadata(metadata);
+    }
+
+    @Benchmark
+    public MediaQueueItem createMediaQueueItem() throws JSONException {
+        return ChromecastUtilities.createMediaQueueItem(queueItem);
+    }
+
+    @Benchmark
+    public JSONArray createRoutesArray() {
+        return ChromecastUtilities.createRoutesArray(routes);
+    }
+
+    @Benchmark
+    public void detectContentType(Blackhole blackhole) {
+        for (String url : URLS) {
+            blackhole.consume(ChromecastUtilities.detectContentType(url, null));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.MediaQueueItem;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how the customData of the load requests gets to the Cast SDK, for 1, 64 and 512 KB of
+ * DRM data: passed through as an object, parsed once from a string, and the copy through a string
+ * it replaces.
+ *
+ * Run with: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomDataBenchmark {
+
+    /** Size of the customData, in KB. */
+    @Param({ "1", "64", "512" })
+    public int kilobytes;
+
+    private JSONObject customData;
+    private String customDataJson;
+    private JSONObject queueItem;
+    private JSONObject queueItemJson;
+
+    @Setup
+    public void setUp() throws JSONException {
+        customData = CastFixtures.createCustomData(kilobytes);
+        customDataJson = customData.toString();
+        queueItem = CastFixtures.createQueueItemRequest().put("customData", customData);
+        queueItemJson = CastFixtures.createQueueItemRequest().put("customData", customDataJson);
+    }
+
+    /** The request's object, handed over as it is. */
+    @Benchmark
+    public JSONObject passthroughObject() {
+        return ChromecastUtilities.getCustomData(customData);
+    }
+
+    /** An object the app sent already serialized, parsed once. */
+    @Benchmark
+    public JSONObject passthroughString() {
+        return ChromecastUtilities.getCustomData(customDataJson);
+    }
+
+    /** The copy through a string, for comparison. */
+    @Benchmark
+    public JSONObject copyThroughString() throws JSONException {
+        return new JSONObject(customData.toString());
+    }
+
+    /** loadMediaWithHeaders adds the auth values to a copy of the top level only. */
+    @Benchmark
+    public JSONObject copyTopLevel() {
+        return ChromecastUtilities.copyTopLevel(customData);
+    }
+
+    @Benchmark
+    public MediaQueueItem parseQueueItem() {
+        return new MediaRequestParser().parseQueueItem(queueItem, null);
+    }
+
+    @Benchmark
+    public MediaQueueItem parseQueueItemString() {
+        return new MediaRequestParser().parseQueueItem(queueItemJson, null);
+    }
+}
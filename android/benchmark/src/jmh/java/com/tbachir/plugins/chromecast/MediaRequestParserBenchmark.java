@@ -0,0 +1,50 @@
+package com.tbachir.plugins.chromecast;
+
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the parsing of a 500 item queue load request where every item only has a contentId
+ * and a title, so almost every field of the schema is missing.
+ *
+ * Run with: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MediaRequestParserBenchmark {
+
+    private JSONObject request;
+
+    @Setup
+    public void setUp() throws JSONException {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < 500; i++) {
+            JSONObject media = new JSONObject()
+                .put("contentId", "https://example.com/video-" + i + ".mp4")
+                .put("metadata", new JSONObject().put("title", "Video " + i));
+            items.put(new JSONObject().put("media", media));
+        }
+        request = new JSONObject().put("items", items).put("startIndex", 0).put("repeatMode", "REPEAT_OFF");
+    }
+
+    @Benchmark
+    public MediaRequestParser.QueueLoadRequest parseSparseQueue() {
+        return new MediaRequestParser().parseQueueLoadRequest(request);
+    }
+}
@@ -0,0 +1,108 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the metadata key translation, in both directions, for 5, 25 and 100 keys: the well
+ * known keys first, then custom ones.
+ *
+ * Run with: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataKeyBenchmark {
+
+    /** Client keys, the well known ones first. */
+    private static final String[] CLIENT_KEYS = {
+        "title",
+        "subtitle",
+        "artist",
+        "albumName",
+        "releaseDate",
+        "albumArtist",
+        "bookTitle",
+        "broadcastDate",
+        "chapterNumber",
+        "chapterTitle",
+        "composer",
+        "creationDate",
+        "discNumber",
+        "episode",
+        "height",
+        "latitude",
+        "longitude",
+        "locationName",
+        "queueItemId",
+        "season",
+        "sectionDuration",
+        "sectionStartAbsoluteTime",
+        "sectionStartTimeInContainer",
+        "sectionStartTimeInMedia",
+        "seriesTitle",
+        "studio",
+        "trackNumber",
+        "width"
+    };
+
+    /** Number of metadata keys. */
+    @Param({ "5", "25", "100" })
+    public int count;
+
+    private JSONObject clientMetadata;
+    private MediaMetadata metadata;
+    private final JSONObject empty = new JSONObject();
+
+    @Setup
+    public void setUp() throws JSONException {
+        clientMetadata = new JSONObject().put("metadataType", MediaMetadata.MEDIA_TYPE_GENERIC);
+        for (int i = 0; i < count; i++) {
+            String key = i < CLIENT_KEYS.length ? CLIENT_KEYS[i] : "custom" + i;
+            switch (ChromecastUtilities.getMetadataType(ChromecastUtilities.getAndroidMetadataName(key))) {
+                case "int":
+                    clientMetadata.put(key, i);
+                    break;
+                case "double":
+                    clientMetadata.put(key, i + 0.5);
+                    break;
+                case "date":
+                case "ms":
+                    clientMetadata.put(key, 1600000000000L + i);
+                    break;
+                default:
+                    clientMetadata.put(key, "value " + i);
+            }
+        }
+        metadata = ChromecastUtilities.createMediaInfo("id", empty, "video/mp4", 0, "buffered", clientMetadata, empty).getMetadata();
+    }
+
+    /** The metadata of a load request, client keys to Android keys. */
+    @Benchmark
+    public MediaInfo clientToAndroid() {
+        return ChromecastUtilities.createMediaInfo("id", empty, "video/mp4", 0, "buffered", clientMetadata, empty);
+    }
+
+    /** The metadata of a media object, Android keys to client keys. */
+    @Benchmark
+    public JSONObject androidToClient() {
+        return ChromecastUtilities.createMetadataObject(metadata);
+    }
+}
@@ -0,0 +1,109 @@
+package com.tbachir.plugins.chromecast;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the bookkeeping of the queue controller while a window of 3, 50 or 500 items is fetched:
+ * the window is refreshed, every item is requested, then arrives in itemsUpdatedAtIndexes calls of
+ * 20 items like the MediaQueue fetches them.  The BitSet / IntSet bookkeeping is compared with the
+ * boxed ArrayList / HashSet one it replaces, which went through the whole window on each call.
+ *
+ * Run with: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueIndexBenchmark {
+
+    /** Number of items the MediaQueue fetches at once. */
+    private static final int FETCH_BATCH = 20;
+    /** Item ids start here, so that they differ from the indexes. */
+    private static final int FIRST_ITEM_ID = 1000;
+
+    /** Number of items in the window. */
+    @Param({ "3", "50", "500" })
+    public int window;
+
+    /** The indexes of each itemsUpdatedAtIndexes call. */
+    private int[][] callbacks;
+
+    private final BitSet lookingForIndexes = new BitSet();
+    private final IntSet fetchingItemIds = new IntSet(8);
+
+    @Setup
+    public void setUp() {
+        callbacks = new int[(window + FETCH_BATCH - 1) / FETCH_BATCH][];
+        for (int i = 0; i < callbacks.length; i++) {
+            int start = i * FETCH_BATCH;
+            callbacks[i] = new int[Math.min(FETCH_BATCH, window - start)];
+            for (int j = 0; j < callbacks[i].length; j++) {
+                callbacks[i][j] = start + j;
+            }
+        }
+    }
+
+    @Benchmark
+    public int primitive() {
+        lookingForIndexes.clear();
+        lookingForIndexes.set(0, window);
+        for (int i = 0; i < window; i++) {
+            fetchingItemIds.add(FIRST_ITEM_ID + i);
+        }
+        int found = 0;
+        for (int[] indexes : callbacks) {
+            for (int index : indexes) {
+                boolean fetched = fetchingItemIds.remove(FIRST_ITEM_ID + index);
+                if (fetched && lookingForIndexes.get(index)) {
+                    lookingForIndexes.clear(index);
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int boxed() {
+        ArrayList<Integer> looking = new ArrayList<>();
+        HashSet<Integer> fetching = new HashSet<>();
+        for (int i = 0; i < window; i++) {
+            looking.add(i);
+            fetching.add(FIRST_ITEM_ID + i);
+        }
+        int found = 0;
+        boolean[] arrived = new boolean[window];
+        for (int[] indexes : callbacks) {
+            for (int index : indexes) {
+                boolean fetched = fetching.remove(FIRST_ITEM_ID + index);
+                if (fetched && looking.indexOf(index) != -1) {
+                    arrived[index] = true;
+                }
+            }
+            // Every call went through the whole window again
+            found = 0;
+            for (int index : looking) {
+                if (arrived[index]) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+}
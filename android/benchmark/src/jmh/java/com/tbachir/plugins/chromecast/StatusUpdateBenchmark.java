@@ -0,0 +1,54 @@
+package com.tbachir.plugins.chromecast;
+
+import com.getcapacitor.JSObject;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.framework.CastSession;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the main thread time of a status update: only capturing the snapshot, which is what
+ * onStatusUpdated does, against capturing it and building the media object there as it used to.
+ *
+ * Run with: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusUpdateBenchmark {
+
+    private CastSession session;
+    private QueueSnapshot queue;
+
+    @Setup
+    public void setUp() throws JSONException {
+        MediaInfo mediaInfo = CastFixtures.createMediaInfo();
+        session = CastFixtures.createSession(mediaInfo);
+        queue = CastFixtures.createQueue(mediaInfo);
+    }
+
+    /** The snapshot only, the media object is built on the event thread. */
+    @Benchmark
+    public MediaStatusSnapshot captureOnly() {
+        return MediaStatusSnapshot.capture(session, queue);
+    }
+
+    /** The snapshot and the media object, all on the main thread. */
+    @Benchmark
+    public JSObject captureAndBuild() {
+        return ChromecastUtilities.createMediaObject(MediaStatusSnapshot.capture(session, queue));
+    }
+}
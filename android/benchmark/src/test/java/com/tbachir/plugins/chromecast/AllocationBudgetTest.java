@@ -0,0 +1,147 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import androidx.mediarouter.media.MediaRouter;
+import com.getcapacitor.JSObject;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.framework.CastSession;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import org.json.JSONException;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Fails when a code path run for every status update allocates more than its budget.
+ *
+ * The budgets, in allocation-budget.properties, are relative to the allocations of a baseline object
+ * measured in the same run, so that they hold on any 64 bit HotSpot JVM whatever its object layout
+ * (compressed oops or not).  A change that needs a higher budget raises it in the same commit, so the
+ * review shows by how much.  The status listener of ChromecastSession itself is checked by
+ * MediaUpdateAllocationTest in the plugin tests.
+ */
+public class AllocationBudgetTest {
+
+    private static final int ITERATIONS = 5000;
+    /** Members of the baseline object. */
+    private static final String[] BASELINE_KEYS = { "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l" };
+
+    private static Properties budgets;
+    /** Bytes allocated by the baseline object. */
+    private static long baseline;
+
+    private CastSession session;
+    private QueueSnapshot queue;
+    private List<MediaRouter.RouteInfo> routes;
+    /** Keeps the results alive so the work isn't optimized away. */
+    private Object sink;
+
+    @BeforeClass
+    public static void loadBudgets() throws IOException {
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budget.properties")) {
+            budgets.load(in);
+        }
+    }
+
+    @Before
+    public void setUp() throws JSONException {
+        Assume.assumeTrue(AllocationCounter.isSupported());
+        MediaInfo mediaInfo = CastFixtures.createMediaInfo();
+        session = CastFixtures.createSession(mediaInfo);
+        queue = CastFixtures.createQueue(mediaInfo);
+        routes = CastFixtures.createRoutes();
+        if (baseline == 0) {
+            baseline =
+                AllocationCounter.bytesPerRun(
+                    ITERATIONS,
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            sink = createBaseline();
+                        }
+                    }
+                );
+        }
+    }
+
+    /**
+     * @return an object with 8 string members and a nested object with 4 more, the unit of the budgets
+     */
+    private static JSObject createBaseline() {
+        JSObject out = new JSObject();
+        for (int i = 0; i < 8; i++) {
+            out.put(BASELINE_KEYS[i], BASELINE_KEYS[i]);
+        }
+        JSObject nested = new JSObject();
+        for (int i = 8; i < BASELINE_KEYS.length; i++) {
+            nested.put(BASELINE_KEYS[i], BASELINE_KEYS[i]);
+        }
+        return out.put("nested", nested);
+    }
+
+    private void assertWithinBudget(String name, Runnable code) {
+        String budget = budgets.getProperty(name);
+        assertNotNull("No budget for " + name, budget);
+        long bytes = AllocationCounter.bytesPerRun(ITERATIONS, code);
+        assertNotNull(sink);
+        double ratio = (double) bytes / baseline;
+        assertTrue(
+            String.format(
+                Locale.US,
+                "%s allocates %d bytes per call, %.2f times the baseline (%d bytes), its budget is %s",
+                name,
+                bytes,
+                ratio,
+                baseline,
+                budget
+            ),
+            ratio <= Double.parseDouble(budget)
+        );
+    }
+
+    @Test
+    public void testCreateMediaObject() {
+        assertWithinBudget(
+            "createMediaObject",
+            new Runnable() {
+                @Override
+                public void run() {
+                    sink = ChromecastUtilities.createMediaObject(session, queue);
+                }
+            }
+        );
+    }
+
+    @Test
+    public void testCreateSessionObject() {
+        assertWithinBudget(
+            "createSessionObject",
+            new Runnable() {
+                @Override
+                public void run() {
+                    sink = ChromecastUtilities.createSessionObject(session, queue);
+                }
+            }
+        );
+    }
+
+    @Test
+    public void testCreateRoutesArray() {
+        assertWithinBudget(
+            "createRoutesArray",
+            new Runnable() {
+                @Override
+                public void run() {
+                    sink = ChromecastUtilities.createRoutesArray(routes);
+                }
+            }
+        );
+    }
+}
@@ -3,10 +3,11 @@ package com.tbachir.plugins.chromecast;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.mediarouter.media.MediaRouter;
-import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
@@ -20,7 +21,11 @@ import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GoogleApiAvailability;
 import com.google.android.gms.common.api.ResultCallback;
 import com.google.android.gms.common.api.Status;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -51,6 +56,125 @@ public class Chromecast extends Plugin {
      * In the case that chromecast can't be used.
      **/
     private String noChromecastError;
+    /**
+     * Coalesces high frequency events before they are sent to the JS-side.
+     */
+    private ChromecastEventDispatcher eventDispatcher;
+    /**
+     * Groups the events of a burst into EVENT_BATCH events when enabled.
+     */
+    private EventBatcher eventBatcher;
+    /**
+     * Thread the media and session updates are built and sent on, keeps the JSON work off the main thread.
+     */
+    private HandlerThread eventThread;
+    /**
+     * Handler of the eventThread.
+     */
+    private Handler eventHandler;
+    /**
+     * Runs the event work on the eventThread, control events ahead of the telemetry.
+     */
+    private EventScheduler eventScheduler;
+    /**
+     * Encodes MEDIA_UPDATE payloads as patches when the "delta" update mode is enabled.
+     */
+    private final MediaUpdateEncoder mediaUpdateEncoder = new MediaUpdateEncoder();
+    /**
+     * The fields of the media object each media event should contain, set by initialize.
+     */
+    private volatile Map<String, FieldMask> eventFields = Collections.emptyMap();
+    /**
+     * Period in ms of the MEDIA_PROGRESS events, 0 disables them.
+     */
+    private volatile long progressInterval = DEFAULT_PROGRESS_INTERVAL;
+    /**
+     * The queue items sent with the media objects and prefetched, set by initialize.
+     */
+    private QueueWindow queueWindow = QueueWindow.DEFAULT;
+    /**
+     * True while the app is in the background, MEDIA_PROGRESS events are paused.
+     */
+    private volatile boolean paused = false;
+
+    /** Default period in ms of the MEDIA_PROGRESS events. */
+    static final long DEFAULT_PROGRESS_INTERVAL = 1000;
+    /** Default number of items of a getQueueItems page. */
+    static final int DEFAULT_QUEUE_PAGE_SIZE = 20;
+    /** Maximum number of items of a getQueueItems page. */
+    static final int MAX_QUEUE_PAGE_SIZE = 100;
+
+    @Override
+    public void load() {
+        eventThread = new HandlerThread("ChromecastEvents");
+        eventThread.start();
+        eventHandler = new Handler(eventThread.getLooper());
+        eventScheduler = new EventScheduler(eventHandler, EventScheduler.DEFAULT_TELEMETRY_CAPACITY);
+        eventBatcher =
+            new EventBatcher(
+                eventHandler,
+                new ChromecastEventDispatcher.Sink() {
+                    @Override
+                    public boolean hasListeners(String eventName) {
+                        return Chromecast.this.hasListeners(eventName);
+                    }
+
+                    @Override
+                    public void deliver(String eventName, JSObject data) {
+                        notifyListeners(eventName, data);
+                    }
+                }
+            );
+        eventDispatcher =
+            new ChromecastEventDispatcher(
+                eventHandler,
+                new ChromecastEventDispatcher.Sink() {
+                    @Override
+                    public boolean hasListeners(String eventName) {
+                        boolean listening = isListening(eventName);
+                        if (!listening && "MEDIA_UPDATE".equals(eventName)) {
+                            // The next listener has to start from a snapshot
+                            mediaUpdateEncoder.reset();
+                        }
+                        return listening;
+                    }
+
+                    @Override
+                    public void deliver(String eventName, JSObject data) {
+                        if ("MEDIA_UPDATE".equals(eventName) && mediaUpdateEncoder.isEnabled()) {
+                            data = mediaUpdateEncoder.encode(data);
+                            if (data == null) {
+                                // Nothing changed since the last update
+                                return;
+                            }
+                        }
+                        eventBatcher.add(eventName, data);
+                    }
+                }
+            );
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        paused = true;
+        updateMediaProgress();
+    }
+
+    @Override
+    protected void handleOnResume() {
+        super.handleOnResume();
+        paused = false;
+        updateMediaProgress();
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        super.handleOnDestroy();
+        if (eventThread != null) {
+            eventThread.quitSafely();
+        }
+    }
 
     /**
      * Initialize all of the MediaRouter stuff with the AppId.
@@ -63,6 +187,22 @@ public class Chromecast extends Plugin {
         String appId = resolveAppId(pluginCall);
         Log.d(TAG, "Initialize called with App ID: " + appId);
 
+        MetadataKeyRegistry metadataKeys;
+        try {
+            metadataKeys = MetadataKeyRegistry.withCustomKeys(resolveMetadataKeys(pluginCall));
+        } catch (IllegalArgumentException e) {
+            pluginCall.reject(e.getMessage(), "invalid_parameter");
+            return;
+        }
+        // Published before the session starts sending events, the cached media objects used the previous keys
+        MetadataKeyRegistry.setDefault(metadataKeys);
+        ChromecastUtilities.clearMediaInfoCache();
+        eventDispatcher.setWindow(resolveCoalesceWindow(pluginCall));
+        eventBatcher.setWindow(resolveBatchWindow(pluginCall));
+        eventFields = resolveEventFields(pluginCall);
+        progressInterval = resolveProgressInterval(pluginCall);
+        queueWindow = QueueWindow.parse(resolveQueueWindow(pluginCall));
+        mediaUpdateEncoder.configure("delta".equals(resolveMediaUpdates(pluginCall)), resolveSnapshotInterval(pluginCall));
         setup();
 
         try {
@@ -82,17 +222,18 @@ public class Chromecast extends Plugin {
                                             media.setSession(castSession);
                                         }
                                         // Create a full session object like iOS does
-                                        JSONObject sessionObject = ChromecastUtilities.createSessionObject(castSession, "connected");
+                                        ChromecastEventDispatcher.Payload sessionObject = createSessionPayload(castSession, "connected");
                                         // Fire both SESSION_STARTED and SESSION_UPDATE for compatibility with iOS
-                                        sendEvent("SESSION_STARTED", JSObject.fromJSONObject(sessionObject));
-                                        sendEvent("SESSION_UPDATE", JSObject.fromJSONObject(sessionObject));
+                                        mediaUpdateEncoder.reset();
+                                        sendEvent("SESSION_STARTED", sessionObject);
+                                        sendEvent("SESSION_UPDATE", sessionObject);
                                         Log.d(TAG, "Session started and connected: " + sessionId);
                                     } else {
                                         // Fallback to basic info
-                                        JSONObject result = new JSONObject();
+                                        JSObject result = new JSObject();
                                         result.put("isConnected", session.isConnected());
                                         result.put("sessionId", sessionId);
-                                        sendEvent("SESSION_STARTED", JSObject.fromJSONObject(result));
+                                        sendEvent("SESSION_STARTED", ChromecastUtilities.toJSObject(result));
                                     }
                                 } catch (JSONException e) {
                                     Log.e(TAG, "Error creating SESSION_STARTED event", e);
@@ -106,15 +247,14 @@ public class Chromecast extends Plugin {
                                     if (session instanceof CastSession) {
                                         CastSession castSession = (CastSession) session;
                                         String status = error != 0 ? "error" : "stopped";
-                                        JSONObject sessionObject = ChromecastUtilities.createSessionObject(castSession, status);
-                                        sendEvent("SESSION_ENDED", JSObject.fromJSONObject(sessionObject));
+                                        sendEvent("SESSION_ENDED", createSessionPayload(castSession, status));
                                         Log.d(TAG, "Session ended with status: " + status);
                                     } else {
                                         // Fallback to basic info
-                                        JSONObject result = new JSONObject();
+                                        JSObject result = new JSObject();
                                         result.put("isConnected", session.isConnected());
                                         result.put("error", error);
-                                        sendEvent("SESSION_ENDED", JSObject.fromJSONObject(result));
+                                        sendEvent("SESSION_ENDED", ChromecastUtilities.toJSObject(result));
                                     }
                                 } catch (JSONException e) {
                                     Log.e(TAG, "Error creating SESSION_ENDED event", e);
@@ -138,17 +278,18 @@ public class Chromecast extends Plugin {
                                             media.setSession(castSession);
                                         }
                                         // Create a full session object like iOS does
-                                        JSONObject sessionObject = ChromecastUtilities.createSessionObject(castSession, "connected");
+                                        ChromecastEventDispatcher.Payload sessionObject = createSessionPayload(castSession, "connected");
                                         // Fire SESSION_RESUMED and SESSION_LISTENER/SESSION_UPDATE for compatibility
-                                        sendEvent("SESSION_RESUMED", JSObject.fromJSONObject(sessionObject));
-                                        sendEvent("SESSION_LISTENER", JSObject.fromJSONObject(sessionObject));
+                                        mediaUpdateEncoder.reset();
+                                        sendEvent("SESSION_RESUMED", sessionObject);
+                                        sendEvent("SESSION_LISTENER", sessionObject);
                                         Log.d(TAG, "Session resumed: " + castSession.getSessionId());
                                     } else {
                                         // Fallback to basic info
-                                        JSONObject result = new JSONObject();
+                                        JSObject result = new JSObject();
                                         result.put("isConnected", session.isConnected());
                                         result.put("wasSuspended", wasSuspended);
-                                        sendEvent("SESSION_RESUMED", JSObject.fromJSONObject(result));
+                                        sendEvent("SESSION_RESUMED", ChromecastUtilities.toJSObject(result));
                                     }
                                 } catch (JSONException e) {
                                     Log.e(TAG, "Error creating SESSION_RESUMED event", e);
@@ -161,10 +302,10 @@ public class Chromecast extends Plugin {
                             @Override
                             public void onSessionStartFailed(Session session, int error) {
                                 try {
-                                    JSONObject result = new JSONObject();
+                                    JSObject result = new JSObject();
                                     result.put("isConnected", session.isConnected());
                                     result.put("error", error);
-                                    sendEvent("SESSION_START_FAILED", JSObject.fromJSONObject(result));
+                                    sendEvent("SESSION_START_FAILED", ChromecastUtilities.toJSObject(result));
                                 } catch (JSONException e) {
                                     Log.e(TAG, "Error creating SESSION_START_FAILED event", e);
                                 }
@@ -179,7 +320,7 @@ public class Chromecast extends Plugin {
                             @Override
                             public void onSessionRejoin(JSONObject jsonSession) {
                                 try {
-                                    sendEvent("SESSION_LISTENER", JSObject.fromJSONObject(jsonSession));
+                                    sendEvent("SESSION_LISTENER", ChromecastUtilities.toJSObject(jsonSession));
                                 } catch (JSONException e) {
                                     Log.e(TAG, "Error creating SESSION_LISTENER event", e);
                                 }
@@ -188,7 +329,11 @@ public class Chromecast extends Plugin {
                             @Override
                             public void onSessionUpdate(JSONObject jsonSession) {
                                 try {
-                                    sendEvent("SESSION_UPDATE", JSObject.fromJSONObject(jsonSession));
+                                    sendCoalescedEvent(
+                                        "SESSION_UPDATE",
+                                        ChromecastEventDispatcher.getSessionStateKey(jsonSession),
+                                        ChromecastUtilities.toJSObject(jsonSession)
+                                    );
                                 } catch (JSONException e) {
                                     Log.e(TAG, "Error creating SESSION_UPDATE event", e);
                                 }
@@ -200,14 +345,48 @@ public class Chromecast extends Plugin {
                             }
 
                             @Override
-                            public void onReceiverAvailableUpdate(boolean available) {
-                                sendEvent("RECEIVER_LISTENER", new JSObject().put("available", available).put("isAvailable", available));
+                            public boolean isListening(String eventName) {
+                                return Chromecast.this.isListening(eventName);
+                            }
+
+                            @Override
+                            public FieldMask getFields(String eventName) {
+                                FieldMask fields = eventFields.get(eventName);
+                                return fields != null ? fields : FieldMask.ALL;
+                            }
+
+                            @Override
+                            public void onReceiverAvailableUpdate(final boolean available) {
+                                sendEvent(
+                                    "RECEIVER_LISTENER",
+                                    new ChromecastEventDispatcher.Payload() {
+                                        @Override
+                                        public JSObject create() {
+                                            return new JSObject().put("available", available).put("isAvailable", available);
+                                        }
+                                    }
+                                );
+                            }
+
+                            @Override
+                            public void onMediaProgress(JSObject progress) {
+                                sendEvent("MEDIA_PROGRESS", progress);
+                            }
+
+                            @Override
+                            public void onQueueItemsChanged(JSObject change) {
+                                sendEvent("QUEUE_ITEMS_CHANGED", change);
+                            }
+
+                            @Override
+                            public void onQueueLoadProgress(JSObject progress) {
+                                sendEvent("QUEUE_LOAD_PROGRESS", progress);
                             }
 
                             @Override
                             public void onMediaLoaded(JSONObject jsonMedia) {
                                 try {
-                                    sendEvent("MEDIA_LOAD", JSObject.fromJSONObject(jsonMedia));
+                                    sendEvent("MEDIA_LOAD", ChromecastUtilities.toJSObject(jsonMedia));
                                 } catch (JSONException e) {
                                     Log.e(TAG, "Error creating MEDIA_LOAD event", e);
                                 }
@@ -217,7 +396,11 @@ public class Chromecast extends Plugin {
                             public void onMediaUpdate(JSONObject jsonMedia) {
                                 try {
                                     if (jsonMedia != null) {
-                                        sendEvent("MEDIA_UPDATE", JSObject.fromJSONObject(jsonMedia));
+                                        sendCoalescedEvent(
+                                            "MEDIA_UPDATE",
+                                            ChromecastEventDispatcher.getMediaStateKey(jsonMedia),
+                                            ChromecastUtilities.toJSObject(jsonMedia)
+                                        );
                                     }
                                 } catch (JSONException e) {
                                     Log.e(TAG, "Error creating MEDIA_UPDATE event", e);
@@ -225,14 +408,27 @@ public class Chromecast extends Plugin {
                             }
 
                             @Override
-                            public void onMessageReceived(CastDevice device, String namespace, String message) {
+                            public void onMessageReceived(CastDevice device, final String namespace, final String message) {
                                 Log.d(TAG, "onMessageReceived - namespace: " + namespace + ", message: " + message);
-                                sendEvent("RECEIVER_MESSAGE", new JSObject().put("namespace", namespace).put("message", message));
+                                sendEvent(
+                                    "RECEIVER_MESSAGE",
+                                    new ChromecastEventDispatcher.Payload() {
+                                        @Override
+                                        public JSObject create() {
+                                            return new JSObject().put("namespace", namespace).put("message", message);
+                                        }
+                                    }
+                                );
                             }
-                        }
+                        },
+                        eventScheduler
                     );
             }
             this.media = connection.getChromecastSession();
+            updateMediaProgress();
+            if (media != null) {
+                media.setQueueWindow(queueWindow);
+            }
         } catch (RuntimeException e) {
             Log.e(TAG, "Error initializing Chromecast connection: " + e.getMessage());
             noChromecastError = "Could not initialize chromecast: " + e.getMessage();
@@ -263,7 +459,7 @@ public class Chromecast extends Plugin {
                 @Override
                 public void onJoin(JSONObject jsonSession) {
                     try {
-                        pluginCall.resolve(JSObject.fromJSONObject(jsonSession));
+                        pluginCall.resolve(ChromecastUtilities.toJSObject(jsonSession));
                     } catch (JSONException e) {
                         Log.e(TAG, "Error parsing session JSON", e);
                         pluginCall.reject("session_parse_error", e.getMessage());
@@ -336,7 +532,7 @@ public class Chromecast extends Plugin {
                 @Override
                 public void onJoin(JSONObject jsonSession) {
                     try {
-                        pluginCall.resolve(JSObject.fromJSONObject(jsonSession));
+                        pluginCall.resolve(ChromecastUtilities.toJSObject(jsonSession));
                     } catch (JSONException e) {
                         pluginCall.reject("json_parse_error", e);
                     }
@@ -345,7 +541,7 @@ public class Chromecast extends Plugin {
                 @Override
                 public void onError(JSONObject message) {
                     try {
-                        pluginCall.resolve(JSObject.fromJSONObject(message));
+                        pluginCall.resolve(ChromecastUtilities.toJSObject(message));
                     } catch (JSONException e) {
                         pluginCall.reject("json_parse_error", e);
                     }
@@ -444,6 +640,23 @@ public class Chromecast extends Plugin {
         pluginCall.resolve();
     }
 
+    /**
+     * Reads the customData of a load request, passed through as it is (getObject would copy it).
+     * Rejects the call with invalid_parameter if it is neither an object nor a JSON object string.
+     *
+     * @param pluginCall the load request
+     * @return the customData, an empty object if there is none, or null if the call was rejected
+     */
+    private static JSONObject readCustomData(PluginCall pluginCall) {
+        MediaRequestParser parser = new MediaRequestParser();
+        JSONObject customData = parser.parseCustomData(pluginCall.getData(), null);
+        if (parser.hasErrors()) {
+            pluginCall.reject(parser.getErrorMessage(), "invalid_parameter");
+            return null;
+        }
+        return customData != null ? customData : new JSONObject();
+    }
+
     /**
      * Loads some media on the Chromecast using the media APIs.
      *
@@ -451,8 +664,11 @@ public class Chromecast extends Plugin {
      */
     @PluginMethod
     public void loadMedia(final PluginCall pluginCall) {
+        JSONObject customData = readCustomData(pluginCall);
+        if (customData == null) {
+            return;
+        }
         String contentId = pluginCall.getString("contentId");
-        JSObject customData = pluginCall.getObject("customData", new JSObject());
         String contentType = pluginCall.getString("contentType", "");
         Integer duration = pluginCall.getInt("duration", 0);
         String streamType = pluginCall.getString("streamType", "");
@@ -462,7 +678,7 @@ public class Chromecast extends Plugin {
         JSObject textTrackStyle = pluginCall.getObject("textTrackStyle", new JSObject());
 
         // Auto-detect content type if not specified
-        String detectedContentType = detectContentType(contentId, contentType);
+        String detectedContentType = ChromecastUtilities.detectContentType(contentId, contentType);
         if (!detectedContentType.equals(contentType)) {
             Log.d(TAG, "ContentType corrected from '" + contentType + "' to '" + detectedContentType + "'");
             contentType = detectedContentType;
@@ -503,8 +719,11 @@ public class Chromecast extends Plugin {
      */
     @PluginMethod
     public void loadMediaWithHeaders(final PluginCall pluginCall) {
+        JSONObject customData = readCustomData(pluginCall);
+        if (customData == null) {
+            return;
+        }
         String contentId = pluginCall.getString("contentId");
-        JSObject customData = pluginCall.getObject("customData", new JSObject());
         String contentType = pluginCall.getString("contentType", "");
         Integer duration = pluginCall.getInt("duration", 0);
         String streamType = pluginCall.getString("streamType", "");
@@ -515,6 +734,12 @@ public class Chromecast extends Plugin {
         JSObject authHeaders = pluginCall.getObject("authHeaders", new JSObject());
         String authToken = pluginCall.getString("authToken", "");
 
+        // The auth values go in a copy, the request's customData is left as it is (only the top level
+        // is copied, the values are shared)
+        if ((authHeaders != null && authHeaders.length() > 0) || (authToken != null && !authToken.isEmpty())) {
+            customData = ChromecastUtilities.copyTopLevel(customData);
+        }
+
         // Add auth headers to custom data
         if (authHeaders != null && authHeaders.length() > 0) {
             try {
@@ -536,7 +761,7 @@ public class Chromecast extends Plugin {
         }
 
         // Auto-detect content type
-        String detectedContentType = detectContentType(contentId, contentType);
+        String detectedContentType = ChromecastUtilities.detectContentType(contentId, contentType);
         if (!detectedContentType.equals(contentType)) {
             contentType = detectedContentType;
         }
@@ -598,7 +823,7 @@ public class Chromecast extends Plugin {
 
         try {
             JSObject customData = new JSObject();
-            String contentType = detectContentType(mediaUrl, null);
+            String contentType = ChromecastUtilities.detectContentType(mediaUrl, null);
             Integer duration = 0;
             String streamType = "BUFFERED";
 
@@ -611,28 +836,19 @@ public class Chromecast extends Plugin {
             JSObject metadata = new JSObject();
             JSObject textTrackStyle = new JSObject();
 
-            try {
-                JSONObject customDataJSON = new JSONObject(customData.toString());
-                JSONObject metadataJSON = new JSONObject(metadata.toString());
-                JSONObject textTrackStyleJSON = new JSONObject(textTrackStyle.toString());
-
-                this.connection.getChromecastSession()
-                    .loadMedia(
-                        mediaUrl,
-                        customDataJSON,
-                        contentType,
-                        duration.longValue(),
-                        streamType,
-                        autoPlay,
-                        currentTime.doubleValue(),
-                        metadataJSON,
-                        textTrackStyleJSON,
-                        pluginCall
-                    );
-            } catch (JSONException e) {
-                Log.e(TAG, "JSON conversion error: " + e.getMessage());
-                pluginCall.reject("json_error", e);
-            }
+            this.connection.getChromecastSession()
+                .loadMedia(
+                    mediaUrl,
+                    customData,
+                    contentType,
+                    duration.longValue(),
+                    streamType,
+                    autoPlay,
+                    currentTime.doubleValue(),
+                    metadata,
+                    textTrackStyle,
+                    pluginCall
+                );
         } catch (Exception e) {
             Log.e(TAG, "Exception launching media: " + e.getMessage());
             e.printStackTrace();
@@ -763,16 +979,26 @@ public class Chromecast extends Plugin {
             public void run() {
                 clientScan =
                     new ChromecastConnection.ScanCallback() {
+                        /** Only the routes that changed are serialized again. */
+                        private final RouteListCache routeCache = new RouteListCache();
+                        private boolean resolved = false;
+
                         @Override
                         void onRouteUpdate(List<MediaRouter.RouteInfo> routes) {
                             if (scanPluginCall != null) {
-                                JSObject ret = new JSObject();
-                                JSArray retArr = new JSArray();
-
-                                for (int i = 0; i < routes.size(); i++) {
-                                    retArr.put(routes.get(i));
+                                RouteListCache.Diff diff = routeCache.update(routes);
+                                if (resolved && diff.isEmpty()) {
+                                    return;
                                 }
-                                ret.put("routes", retArr);
+                                resolved = true;
+                                if (isListening("ROUTES_UPDATE")) {
+                                    sendEvent(
+                                        "ROUTES_UPDATE",
+                                        new JSObject().put("added", diff.added).put("removed", diff.removed).put("changed", diff.changed)
+                                    );
+                                }
+                                JSObject ret = new JSObject();
+                                ret.put("routes", routeCache.getRoutes());
 
                                 scanPluginCall.resolve(ret);
                             } else {
@@ -814,6 +1040,133 @@ public class Chromecast extends Plugin {
         );
     }
 
+    /**
+     * Sends the current media as a full MEDIA_UPDATE snapshot.
+     * Only does something in the "delta" update mode, eg. after the JS-side noticed a gap in the sequence numbers.
+     *
+     * @param pluginCall called with .success or .error depending on the result
+     */
+    @PluginMethod(returnType = PluginMethod.RETURN_NONE)
+    public void requestMediaSnapshot(PluginCall pluginCall) {
+        if (mediaUpdateEncoder.isEnabled()) {
+            JSObject lastMedia = mediaUpdateEncoder.requestSnapshot();
+            if (lastMedia != null) {
+                sendEvent("MEDIA_UPDATE", lastMedia);
+            }
+        }
+        pluginCall.resolve();
+    }
+
+    /**
+     * Estimates the current playback position from the last media status, without a round trip to the receiver.
+     *
+     * @param pluginCall called with the position, or .error if there is no media
+     */
+    @PluginMethod
+    public void getEstimatedPosition(PluginCall pluginCall) {
+        if (this.media == null) this.media = connection.getChromecastSession();
+        if (this.media == null) {
+            pluginCall.reject("No active session");
+            return;
+        }
+        JSObject position = this.media.getEstimatedPosition();
+        if (position == null) {
+            pluginCall.reject("No media");
+            return;
+        }
+        pluginCall.resolve(position);
+    }
+
+    /**
+     * Loads a queue of media (chrome.cast.media.QueueLoadRequest), in chunks if a chunkSize is given.
+     *
+     * @param pluginCall called with the media object once playback can start, or .error
+     */
+    @PluginMethod
+    public void queueLoad(PluginCall pluginCall) {
+        if (this.media == null) this.media = connection.getChromecastSession();
+        if (this.media == null) {
+            pluginCall.reject("No active session");
+            return;
+        }
+        this.media.queueLoad(pluginCall.getData(), pluginCall.getInt("chunkSize", 0), pluginCall);
+    }
+
+    /**
+     * Stops inserting the remaining items of a chunked queueLoad.
+     *
+     * @param pluginCall called with .success
+     */
+    @PluginMethod(returnType = PluginMethod.RETURN_NONE)
+    public void cancelQueueLoad(PluginCall pluginCall) {
+        if (this.media == null) this.media = connection.getChromecastSession();
+        if (this.media != null) {
+            this.media.cancelQueueLoad();
+        }
+        pluginCall.resolve();
+    }
+
+    /**
+     * Reads a page of the receiver queue, the items that aren't cached are requested from the receiver.
+     *
+     * @param pluginCall called with the page once all of its items arrived, or .error if there is no session
+     */
+    @PluginMethod
+    public void getQueueItems(PluginCall pluginCall) {
+        if (this.media == null) this.media = connection.getChromecastSession();
+        if (this.media == null) {
+            pluginCall.reject("No active session");
+            return;
+        }
+        int offset = pluginCall.getInt("offset", 0);
+        int limit = pluginCall.getInt("limit", DEFAULT_QUEUE_PAGE_SIZE);
+        if (offset < 0 || limit < 1) {
+            pluginCall.reject("offset must be >= 0 and limit > 0");
+            return;
+        }
+        this.media.getQueueItems(offset, Math.min(limit, MAX_QUEUE_PAGE_SIZE), pluginCall);
+    }
+
+    @Override
+    @PluginMethod(returnType = PluginMethod.RETURN_CALLBACK)
+    public void addListener(PluginCall pluginCall) {
+        super.addListener(pluginCall);
+        updateMediaProgress();
+    }
+
+    @Override
+    @PluginMethod(returnType = PluginMethod.RETURN_NONE)
+    public void removeListener(PluginCall pluginCall) {
+        super.removeListener(pluginCall);
+        updateMediaProgress();
+    }
+
+    @Override
+    @PluginMethod
+    public void removeAllListeners(PluginCall pluginCall) {
+        super.removeAllListeners(pluginCall);
+        updateMediaProgress();
+    }
+
+    /**
+     * @param eventName the name of an event
+     * @return true if the event would reach the JS-side, directly or as part of an EVENT_BATCH
+     */
+    private boolean isListening(String eventName) {
+        return hasListeners(eventName) || eventBatcher.isBatching();
+    }
+
+    /**
+     * MEDIA_PROGRESS updates only run while someone listens to them and the app is in the foreground.
+     */
+    private void updateMediaProgress() {
+        if (media == null) {
+            return;
+        }
+        boolean active = !paused && isListening("MEDIA_PROGRESS");
+        media.setProgressInterval(active ? progressInterval : 0);
+    }
+
     /**
      * Network diagnostic method.
      *
@@ -892,40 +1245,100 @@ public class Chromecast extends Plugin {
     }
 
     /**
-     * Auto-detect content type based on URL.
+     * This triggers an event on the JS-side.
+     *
+     * @param eventName - The name of the JS event to trigger
+     * @param args      - The arguments to pass the JS event
      */
-    private String detectContentType(String url, String providedContentType) {
-        if (url == null) {
-            return providedContentType != null ? providedContentType : "video/mp4";
-        }
+    private void sendEvent(final String eventName, final JSObject args) {
+        runOnEventThread(
+            eventName,
+            "MEDIA_PROGRESS".equals(eventName) ? eventName : null,
+            new Runnable() {
+                @Override
+                public void run() {
+                    eventDispatcher.send(eventName, args);
+                }
+            }
+        );
+    }
 
-        String baseUrl = url.split("\\?")[0].toLowerCase();
+    /**
+     * This triggers an event on the JS-side.
+     * The payload is only created if the JS-side listens to the event.
+     *
+     * @param eventName - The name of the JS event to trigger
+     * @param payload   - Creates the arguments to pass the JS event
+     */
+    private void sendEvent(final String eventName, final ChromecastEventDispatcher.Payload payload) {
+        runOnEventThread(
+            eventName,
+            null,
+            new Runnable() {
+                @Override
+                public void run() {
+                    eventDispatcher.send(eventName, payload);
+                }
+            }
+        );
+    }
 
-        if (baseUrl.endsWith(".m3u8")) {
-            Log.d(TAG, "Detected HLS stream (.m3u8)");
-            return "application/x-mpegURL";
-        } else if (baseUrl.endsWith(".mpd")) {
-            Log.d(TAG, "Detected DASH stream (.mpd)");
-            return "application/dash+xml";
-        } else if (baseUrl.endsWith(".mp4")) {
-            return "video/mp4";
-        } else if (baseUrl.endsWith(".webm")) {
-            return "video/webm";
-        } else if (baseUrl.endsWith(".mkv")) {
-            return "video/x-matroska";
-        }
+    /**
+     * Captures the session now and builds the session object the first time it is needed,
+     * the object is shared by all the events sent with the payload.
+     *
+     * @param session - The session, must be called on the main thread
+     * @param status  - The status of the session
+     */
+    private ChromecastEventDispatcher.Payload createSessionPayload(CastSession session, final String status) {
+        final SessionSnapshot snapshot = SessionSnapshot.capture(session, media != null ? media.getQueue() : null);
+        return new ChromecastEventDispatcher.Payload() {
+            private JSObject sessionObject;
 
-        return providedContentType != null && !providedContentType.isEmpty() ? providedContentType : "video/mp4";
+            @Override
+            public synchronized JSObject create() {
+                if (sessionObject == null) {
+                    sessionObject = ChromecastUtilities.createSessionObject(snapshot).put("status", status);
+                }
+                return sessionObject;
+            }
+        };
     }
 
     /**
-     * This triggers an event on the JS-side.
+     * This triggers a high frequency event on the JS-side.
+     * Updates within the coalescing window are merged, the latest one wins.
      *
      * @param eventName - The name of the JS event to trigger
+     * @param stateKey  - Identifies the state of the payload, a change is sent immediately
      * @param args      - The arguments to pass the JS event
      */
-    private void sendEvent(String eventName, JSObject args) {
-        notifyListeners(eventName, args);
+    private void sendCoalescedEvent(final String eventName, final String stateKey, final JSObject args) {
+        // A pending update of the same state is superseded, the dispatcher would merge it anyway
+        runOnEventThread(
+            eventName,
+            eventName + "|" + stateKey,
+            new Runnable() {
+                @Override
+                public void run() {
+                    eventDispatcher.coalesce(eventName, stateKey, args);
+                }
+            }
+        );
+    }
+
+    /**
+     * Events are sent from the eventThread so that they keep their order
+     * with the updates built there by the ChromecastSession.
+     * Control events jump ahead of the pending telemetry (MEDIA_UPDATE, MEDIA_PROGRESS, RECEIVER_MESSAGE),
+     * except SESSION_ENDED which is sent after it.
+     *
+     * @param eventName - The name of the JS event the runnable sends
+     * @param key       - Pending telemetry with the same key is replaced, null to never supersede the event
+     * @param runnable  - Sends the event
+     */
+    private void runOnEventThread(String eventName, String key, Runnable runnable) {
+        eventScheduler.schedule(eventName, key, runnable);
     }
 
     /**
@@ -950,4 +1363,109 @@ public class Chromecast extends Plugin {
 
         return CastMediaControlIntent.DEFAULT_MEDIA_RECEIVER_APPLICATION_ID;
     }
+
+    /**
+     * Resolve the event coalescing window from initialize call, then Capacitor configuration.
+     * Defaults to 0 which sends every update as it happens.
+     */
+    private long resolveCoalesceWindow(PluginCall pluginCall) {
+        Integer callWindow = pluginCall.getInt("coalesceWindow");
+        if (callWindow != null) {
+            return callWindow;
+        }
+        return getConfig().getInt("coalesceWindow", 0);
+    }
+
+    /**
+     * Resolve the MEDIA_PROGRESS period in ms from initialize call, then Capacitor configuration.
+     */
+    private long resolveProgressInterval(PluginCall pluginCall) {
+        Integer callInterval = pluginCall.getInt("progressInterval");
+        if (callInterval != null) {
+            return Math.max(0, callInterval);
+        }
+        return Math.max(0, getConfig().getInt("progressInterval", (int) DEFAULT_PROGRESS_INTERVAL));
+    }
+
+    /**
+     * Resolve the fields of each media event from initialize call, then Capacitor configuration.
+     * Events that are not listed contain every field.
+     */
+    private Map<String, FieldMask> resolveEventFields(PluginCall pluginCall) {
+        JSONObject fields = pluginCall.getObject("fields");
+        if (fields == null) {
+            fields = getConfig().getObject("fields");
+        }
+        Map<String, FieldMask> out = new HashMap<>();
+        if (fields != null) {
+            Iterator<String> eventNames = fields.keys();
+            while (eventNames.hasNext()) {
+                String eventName = eventNames.next();
+                out.put(eventName, FieldMask.parse(fields.optJSONArray(eventName)));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Resolve the EVENT_BATCH window from initialize call, then Capacitor configuration.
+     * Batching is off unless batchEvents is set, the default window of 0 batches the events of the same event thread turn.
+     */
+    private long resolveBatchWindow(PluginCall pluginCall) {
+        Boolean callBatch = pluginCall.getBoolean("batchEvents");
+        boolean batch = callBatch != null ? callBatch : getConfig().getBoolean("batchEvents", false);
+        if (!batch) {
+            return -1;
+        }
+        Integer callWindow = pluginCall.getInt("batchWindow");
+        if (callWindow != null) {
+            return Math.max(0, callWindow);
+        }
+        return Math.max(0, getConfig().getInt("batchWindow", 0));
+    }
+
+    /**
+     * Resolve the queue window ({ before, after, prefetch, fetchRate }) from initialize call, then Capacitor configuration.
+     */
+    private JSONObject resolveQueueWindow(PluginCall pluginCall) {
+        JSONObject callWindow = pluginCall.getObject("queueWindow");
+        if (callWindow != null) {
+            return callWindow;
+        }
+        return getConfig().getObject("queueWindow");
+    }
+
+    /**
+     * Resolve the app metadata keys ({ name: type }) from initialize call, then Capacitor configuration.
+     */
+    private JSONObject resolveMetadataKeys(PluginCall pluginCall) {
+        JSONObject callKeys = pluginCall.getObject("metadataKeys");
+        if (callKeys != null) {
+            return callKeys;
+        }
+        return getConfig().getObject("metadataKeys");
+    }
+
+    /**
+     * Resolve the MEDIA_UPDATE mode ("full" or "delta") from initialize call, then Capacitor configuration.
+     */
+    private String resolveMediaUpdates(PluginCall pluginCall) {
+        String callMode = pluginCall.getString("mediaUpdates");
+        if (callMode != null) {
+            return callMode;
+        }
+        return getConfig().getString("mediaUpdates", "full");
+    }
+
+    /**
+     * Resolve the number of delta MEDIA_UPDATE events between two full snapshots
+     * from initialize call, then Capacitor configuration.
+     */
+    private int resolveSnapshotInterval(PluginCall pluginCall) {
+        Integer callInterval = pluginCall.getInt("snapshotInterval");
+        if (callInterval != null) {
+            return callInterval;
+        }
+        return getConfig().getInt("snapshotInterval", MediaUpdateEncoder.DEFAULT_SNAPSHOT_INTERVAL);
+    }
 }
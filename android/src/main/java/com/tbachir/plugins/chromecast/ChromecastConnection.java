@@ -11,6 +11,7 @@ import androidx.mediarouter.app.MediaRouteChooserDialog;
 import androidx.mediarouter.media.MediaRouteSelector;
 import androidx.mediarouter.media.MediaRouter;
 import androidx.mediarouter.media.MediaRouter.RouteInfo;
+import com.getcapacitor.JSObject;
 import com.getcapacitor.PluginCall;
 import com.google.android.gms.cast.CastDevice;
 import com.google.android.gms.cast.CastMediaControlIntent;
@@ -49,6 +50,17 @@ public class ChromecastConnection {
      * @param connectionListener client callbacks for specific events
      */
     ChromecastConnection(final Activity act, final Listener connectionListener) {
+        this(act, connectionListener, null);
+    }
+
+    /**
+     * Constructor.
+     * @param act the current context
+     * @param connectionListener client callbacks for specific events
+     * @param serializer scheduler used by the ChromecastSession to build and send media and session updates,
+     *                   null to do it on the main thread
+     */
+    ChromecastConnection(final Activity act, final Listener connectionListener, final EventScheduler serializer) {
         this.activity = act;
 
         act.runOnUiThread(
@@ -58,7 +70,7 @@ public class ChromecastConnection {
                     settings = activity.getSharedPreferences("CORDOVA-PLUGIN-CHROMECAST_ChromecastConnection", 0);
                     appId = settings.getString("appId", CastMediaControlIntent.DEFAULT_MEDIA_RECEIVER_APPLICATION_ID);
                     listener = connectionListener;
-                    media = new ChromecastSession(activity, listener);
+                    media = new ChromecastSession(activity, listener, serializer);
 
                     // Set the initial appId
                     CastOptionsProvider.setAppId(appId);
@@ -128,7 +140,7 @@ public class ChromecastConnection {
                                     if (session != null) {
                                         // Let the client know
                                         media.setSession(session);
-                                        listener.onSessionRejoin(ChromecastUtilities.createSessionObject(session));
+                                        listener.onSessionRejoin(ChromecastUtilities.createSessionObject(session, media.getQueue()));
                                     }
                                 }
                             }
@@ -394,7 +406,7 @@ public class ChromecastConnection {
                     } else {
                         // Already connected: resolve with current session and show the device list
                         // so the user can see the connected device and switch to another if desired
-                        callback.onJoin(ChromecastUtilities.createSessionObject(session));
+                        callback.onJoin(ChromecastUtilities.createSessionObject(session, media.getQueue()));
                         MediaRouteChooserDialog chooserDialog = new MediaRouteChooserDialog(
                             activity,
                             androidx.appcompat.R.style.Theme_AppCompat_NoActionBar
@@ -423,7 +435,7 @@ public class ChromecastConnection {
                 public void onSessionStarted(CastSession castSession, String sessionId) {
                     getSessionManager().removeSessionManagerListener(this, CastSession.class);
                     media.setSession(castSession);
-                    callback.onJoin(ChromecastUtilities.createSessionObject(castSession));
+                    callback.onJoin(ChromecastUtilities.createSessionObject(castSession, media.getQueue()));
                 }
 
                 @Override
@@ -544,9 +556,8 @@ public class ChromecastConnection {
                                     if (pluginCall != null) {
                                         pluginCall.resolve();
                                     }
-                                    listener.onSessionEnd(
-                                        ChromecastUtilities.createSessionObject(castSession, stopCasting ? "stopped" : "disconnected")
-                                    );
+                                    String state = stopCasting ? "stopped" : "disconnected";
+                                    listener.onSessionEnd(ChromecastUtilities.createSessionObject(castSession, media.getQueue(), state));
                                 }
                             },
                             CastSession.class
@@ -683,7 +694,8 @@ public class ChromecastConnection {
                 // or multizone duplicates https://github.com/jellyfin/cordova-plugin-chromecast/issues/32
                 Bundle extras = route.getExtras();
                 if (extras != null) {
-                    CastDevice.getFromBundle(extras);
+                    // Lets the extras be read, the CastDevice itself is only read for the routes sent to the client
+                    extras.setClassLoader(CastDevice.class.getClassLoader());
                     if (extras.getString("com.google.android.gms.cast.EXTRA_SESSION_ID") != null) {
                         continue;
                     }
@@ -721,6 +733,20 @@ public class ChromecastConnection {
 
         abstract void onSessionRejoin(JSONObject jsonSession);
 
+        /** ChromecastSession.Listener functions - to be overridden by implementers. */
+        @Override
+        public boolean isListening(String eventName) {
+            return true;
+        }
+
+        @Override
+        public FieldMask getFields(String eventName) {
+            return FieldMask.ALL;
+        }
+
+        @Override
+        public void onMediaProgress(JSObject progress) {}
+
         /** CastStateListener functions. */
         @Override
         public void onCastStateChanged(int state) {
@@ -0,0 +1,269 @@
+package com.tbachir.plugins.chromecast;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import com.getcapacitor.JSObject;
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONObject;
+
+/**
+ * Sits in front of the plugin's event delivery so that high frequency events
+ * (eg. MEDIA_UPDATE while a receiver is playing) don't flood the WebView bridge.
+ *
+ * Events sent with {@link #coalesce} are delivered at most once per window for each
+ * event name, the latest payload wins.  If the state key of an event changes
+ * (eg. the playerState or currentItemId of a MEDIA_UPDATE) it is delivered immediately.
+ *
+ * Events nobody listens to are dropped, a {@link Payload} is only created when its event is
+ * actually delivered so a dropped or superseded event costs nothing.
+ */
+final class ChromecastEventDispatcher {
+
+    interface Sink {
+        /**
+         * @param eventName the name of the event
+         * @return true if the JS-side listens to the event
+         */
+        boolean hasListeners(String eventName);
+
+        /**
+         * Called whenever an event should actually be sent out.
+         * @param eventName the name of the event
+         * @param data the event payload
+         */
+        void deliver(String eventName, JSObject data);
+    }
+
+    /**
+     * A lazily created event payload.
+     */
+    interface Payload {
+        /**
+         * Called at most once, when the event is delivered.
+         * @return the event payload, null to drop the event
+         */
+        JSObject create();
+    }
+
+    /** Where the events end up. */
+    private final Sink sink;
+    /** Used to send out the trailing update of a coalesced event. */
+    private final Handler handler;
+    /** Minimum time in ms between two deliveries of the same coalesced event, 0 disables coalescing. */
+    private long window = 0;
+    /** The coalescing state of each event name. */
+    private final Map<String, Slot> slots = new HashMap<>();
+
+    /**
+     * ChromecastEventDispatcher constructor.
+     * @param handler handler used to schedule trailing deliveries
+     * @param sink receives the events that should be sent out
+     */
+    ChromecastEventDispatcher(Handler handler, Sink sink) {
+        this.handler = handler;
+        this.sink = sink;
+    }
+
+    /**
+     * Sets the coalescing window.
+     * @param windowMs minimum time between two deliveries of the same event, 0 to disable
+     */
+    synchronized void setWindow(long windowMs) {
+        this.window = Math.max(0, windowMs);
+        if (this.window == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends an event immediately, ahead of any pending coalesced event (except for SESSION_ENDED).
+     * @param eventName the name of the event
+     * @param data the event payload
+     */
+    synchronized void send(String eventName, JSObject data) {
+        send(eventName, of(data));
+    }
+
+    /**
+     * Sends an event immediately, the payload is only created if the event has listeners.
+     * SESSION_ENDED first sends out the pending coalesced events, so that no update of the ended
+     * session is delivered after it.
+     * @param eventName the name of the event
+     * @param payload creates the event payload
+     */
+    synchronized void send(String eventName, Payload payload) {
+        if ("SESSION_ENDED".equals(eventName)) {
+            flush();
+            clear();
+        }
+        deliver(eventName, payload);
+    }
+
+    /**
+     * Sends an event that may be merged with other events of the same name.
+     * @param eventName the name of the event
+     * @param stateKey identifies the state of the payload, a change is delivered immediately
+     * @param data the event payload
+     */
+    synchronized void coalesce(String eventName, String stateKey, JSObject data) {
+        coalesce(eventName, stateKey, of(data));
+    }
+
+    /**
+     * Sends an event that may be merged with other events of the same name.
+     * The payload is only created if it is the one that gets delivered.
+     * @param eventName the name of the event
+     * @param stateKey identifies the state of the payload, a change is delivered immediately
+     * @param data creates the event payload
+     */
+    synchronized void coalesce(String eventName, String stateKey, Payload data) {
+        if (window <= 0) {
+            deliver(eventName, data);
+            return;
+        }
+        Slot slot = slots.get(eventName);
+        if (slot == null) {
+            slot = new Slot(eventName);
+            slots.put(eventName, slot);
+        }
+        long now = SystemClock.uptimeMillis();
+        boolean stateChanged = slot.delivered && !equals(stateKey, slot.stateKey);
+        boolean windowOver = !slot.delivered || now - slot.lastDelivery >= window;
+        if (stateChanged || (slot.pending == null && windowOver)) {
+            deliver(slot, stateKey, data, now);
+            return;
+        }
+        // Latest wins, wait for the end of the window
+        slot.pending = data;
+        slot.pendingStateKey = stateKey;
+        if (!slot.scheduled) {
+            slot.scheduled = true;
+            handler.postAtTime(slot, slot.lastDelivery + window);
+        }
+    }
+
+    /**
+     * Immediately sends out all pending coalesced events.
+     */
+    synchronized void flush() {
+        for (Slot slot : slots.values()) {
+            if (slot.pending != null) {
+                deliver(slot, slot.pendingStateKey, slot.pending, SystemClock.uptimeMillis());
+            }
+        }
+    }
+
+    /**
+     * Drops all pending events and forgets the last delivered states.
+     */
+    synchronized void clear() {
+        for (Slot slot : slots.values()) {
+            handler.removeCallbacks(slot);
+        }
+        slots.clear();
+    }
+
+    /**
+     * Builds the state key of a media object.
+     * A change in any of these values is considered a state transition
+     * that the client should get without delay.
+     * @param media the media object
+     * @return the state key
+     */
+    static String getMediaStateKey(JSONObject media) {
+        return media.optString("playerState") + "|" + media.optInt("currentItemId") + "|" + media.optString("idleReason");
+    }
+
+    /**
+     * Builds the state key of a media status, the same as the one of its media object.
+     * @param status the media status
+     * @return the state key
+     */
+    static String getMediaStateKey(MediaStatusSnapshot status) {
+        String playerState = ChromecastUtilities.getMediaPlayerState(status.playerState);
+        String idleReason = ChromecastUtilities.getMediaIdleReason(status.idleReason);
+        return (playerState != null ? playerState : "") + "|" + status.currentItemId + "|" + (idleReason != null ? idleReason : "");
+    }
+
+    /**
+     * Builds the state key of a session object.
+     * @param session the session object
+     * @return the state key
+     */
+    static String getSessionStateKey(JSONObject session) {
+        return session.optString("sessionId") + "|" + session.optString("status");
+    }
+
+    private void deliver(Slot slot, String stateKey, Payload data, long now) {
+        if (slot.scheduled) {
+            handler.removeCallbacks(slot);
+            slot.scheduled = false;
+        }
+        slot.pending = null;
+        slot.pendingStateKey = null;
+        slot.stateKey = stateKey;
+        slot.delivered = true;
+        slot.lastDelivery = now;
+        deliver(slot.eventName, data);
+    }
+
+    private void deliver(String eventName, Payload payload) {
+        if (!sink.hasListeners(eventName)) {
+            return;
+        }
+        JSObject data = payload.create();
+        if (data != null) {
+            sink.deliver(eventName, data);
+        }
+    }
+
+    private static Payload of(final JSObject data) {
+        return new Payload() {
+            @Override
+            public JSObject create() {
+                return data;
+            }
+        };
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Coalescing state of a single event name.
+     * Runs as the trailing delivery of the pending payload.
+     */
+    private final class Slot implements Runnable {
+
+        /** The event name. */
+        private final String eventName;
+        /** The payload waiting for the end of the window. */
+        private Payload pending;
+        /** The state key of the pending payload. */
+        private String pendingStateKey;
+        /** The state key of the last delivered payload. */
+        private String stateKey;
+        /** Whether anything was delivered yet. */
+        private boolean delivered = false;
+        /** Uptime of the last delivery. */
+        private long lastDelivery;
+        /** Whether the trailing delivery is scheduled. */
+        private boolean scheduled = false;
+
+        Slot(String eventName) {
+            this.eventName = eventName;
+        }
+
+        @Override
+        public void run() {
+            synchronized (ChromecastEventDispatcher.this) {
+                scheduled = false;
+                if (pending != null) {
+                    deliver(this, pendingStateKey, pending, SystemClock.uptimeMillis());
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.tbachir.plugins.chromecast;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.PluginCall;
@@ -19,9 +22,13 @@ import com.google.android.gms.common.api.ResultCallback;
 import com.google.android.gms.common.api.Status;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.cordova.CallbackContext;
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
 /*
@@ -41,12 +48,44 @@ public class ChromecastSession {
     private boolean requestingMedia = false;
     /** Handles and used to trigger queue updates. **/
     private MediaQueueController mediaQueueCallback;
+    /** The queue items of the current session, replaced on each change and read by the updates on any thread. **/
+    private final AtomicReference<QueueSnapshot> queue = new AtomicReference<>(QueueSnapshot.EMPTY);
+    /** The queue items sent with the media objects, around the current item. **/
+    private QueueWindow queueWindow = QueueWindow.DEFAULT;
+    /** Runs the delayed queue item fetches on the main thread. **/
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     /** Stores a callback that should be called when the queue is loaded. **/
     private Runnable queueReloadCallback;
     /** Stores a callback that should be called when the queue status is updated. **/
     private Runnable queueStatusUpdatedCallback;
+    /** The chunked queueLoad inserting its remaining items, null if there is none. **/
+    private QueueLoader queueLoader;
     /** Stores namespaces that need message listeners registered when session becomes available. **/
     private java.util.Set<String> pendingMessageNamespaces = new java.util.HashSet<>();
+    /** Builds the media and session objects of the updates and calls the listener, null to do it on the calling thread. **/
+    private final EventScheduler serializer;
+    /** State key of the last MEDIA_UPDATE scheduled, to tell the transitions from the updates that can be superseded. **/
+    private String lastMediaStateKey;
+    /** Period in ms of the MEDIA_PROGRESS updates, 0 when they are paused. **/
+    private long progressInterval = 0;
+    /** The client progressListener is registered on. **/
+    private RemoteMediaClient progressClient;
+    /** Estimates the playback position from the last media status. **/
+    private final PlaybackClock playbackClock = new PlaybackClock();
+    /** Captures the media status of each update. **/
+    private final MediaStatusTracker mediaStatusTracker = new MediaStatusTracker(playbackClock);
+    /** Reports the playback position without building the media object. **/
+    private final RemoteMediaClient.ProgressListener progressListener = new RemoteMediaClient.ProgressListener() {
+        @Override
+        public void onProgressUpdated(long progressMs, long durationMs) {
+            long now = SystemClock.elapsedRealtime();
+            JSObject progress = playbackClock.createPositionObject(now);
+            if (progress == null) {
+                progress = PlaybackClock.createPositionObject(progressMs, durationMs, 0, now);
+            }
+            clientListener.onMediaProgress(progress);
+        }
+    };
 
     /**
      * ChromecastSession constructor.
@@ -54,8 +93,19 @@ public class ChromecastSession {
      * @param listener callback that will notify of certain events
      */
     public ChromecastSession(Activity act, @NonNull Listener listener) {
+        this(act, listener, null);
+    }
+
+    /**
+     * ChromecastSession constructor.
+     * @param act the current activity
+     * @param listener callback that will notify of certain events
+     * @param serializer scheduler the updates are built and sent on, null to do it on the calling thread
+     */
+    ChromecastSession(Activity act, @NonNull Listener listener, EventScheduler serializer) {
         this.activity = act;
         this.clientListener = listener;
+        this.serializer = serializer;
     }
 
     /**
@@ -68,6 +118,11 @@ public class ChromecastSession {
                 public void run() {
                     if (castSession == null) {
                         client = null;
+                        updateProgressListener();
+                        if (mediaQueueCallback != null) {
+                            mediaQueueCallback.cancelPages();
+                        }
+                        stopQueueLoad();
                         return;
                     }
                     if (castSession.equals(session)) {
@@ -76,6 +131,9 @@ public class ChromecastSession {
                     }
                     session = castSession;
                     client = session.getRemoteMediaClient();
+                    // The items of the previous session must not be sent with this one
+                    publishQueue(session.getSessionId(), null);
+                    updateProgressListener();
 
                     // Register any pending message listeners now that session is available
                     registerPendingMessageListeners();
@@ -103,7 +161,7 @@ public class ChromecastSession {
                                     if (status.getPlayerState() == MediaStatus.PLAYER_STATE_LOADING) {
                                         // It appears the queue has advanced to the next item
                                         // So send an update to indicate the previous has finished
-                                        clientListener.onMediaUpdate(createMediaObject(MediaStatus.IDLE_REASON_FINISHED));
+                                        sendMediaUpdate(MediaStatus.IDLE_REASON_FINISHED);
                                         shouldSkipUpdate = true;
                                     }
                                     if (
@@ -128,7 +186,7 @@ public class ChromecastSession {
                                     }
                                 }
                                 // Send update
-                                clientListener.onMediaUpdate(createMediaObject());
+                                sendMediaUpdate(null);
                             }
 
                             @Override
@@ -144,32 +202,32 @@ public class ChromecastSession {
                         new Cast.Listener() {
                             @Override
                             public void onApplicationStatusChanged() {
-                                clientListener.onSessionUpdate(createSessionObject());
+                                sendSessionUpdate();
                             }
 
                             @Override
                             public void onApplicationMetadataChanged(ApplicationMetadata appMetadata) {
-                                clientListener.onSessionUpdate(createSessionObject());
+                                sendSessionUpdate();
                             }
 
                             @Override
                             public void onApplicationDisconnected(int i) {
-                                clientListener.onSessionEnd(ChromecastUtilities.createSessionObject(session, "stopped"));
+                                sendSessionEnd("stopped");
                             }
 
                             @Override
                             public void onActiveInputStateChanged(int i) {
-                                clientListener.onSessionUpdate(createSessionObject());
+                                sendSessionUpdate();
                             }
 
                             @Override
                             public void onStandbyStateChanged(int i) {
-                                clientListener.onSessionUpdate(createSessionObject());
+                                sendSessionUpdate();
                             }
 
                             @Override
                             public void onVolumeChanged() {
-                                clientListener.onSessionUpdate(createSessionObject());
+                                sendSessionUpdate();
                             }
                         }
                     );
@@ -416,16 +474,14 @@ public class ChromecastSession {
                         .setCurrentTime((long) currentTime * 1000)
                         .build();
 
+                    // The new media replaces the queue being loaded
+                    stopQueueLoad();
                     requestingMedia = true;
                     setQueueReloadCallback(
                         new Runnable() {
                             @Override
                             public void run() {
-                                try {
-                                    callback.resolve(JSObject.fromJSONObject(createMediaObject()));
-                                } catch (JSONException e) {
-                                    callback.reject(e.getMessage(), e);
-                                }
+                                callback.resolve(createMediaObject());
                             }
                         }
                     );
@@ -647,46 +703,341 @@ public class ChromecastSession {
      * Sets up the objects and listeners required for queue functionality.
      */
     private void setupQueue() {
-        MediaQueue queue = client.getMediaQueue();
+        MediaQueue mediaQueue = client.getMediaQueue();
         setQueueReloadCallback(null);
-        mediaQueueCallback = new MediaQueueController(queue);
-        queue.registerCallback(mediaQueueCallback);
+        if (mediaQueueCallback != null) {
+            mediaQueueCallback.release();
+            mediaQueueCallback.cancelPages();
+        }
+        stopQueueLoad();
+        mediaQueueCallback = new MediaQueueController(mediaQueue, session.getSessionId(), queueWindow);
+        mediaQueue.registerCallback(mediaQueueCallback);
+    }
+
+    /**
+     * Sets the queue items sent with the media objects, the current queue is read again with the new window.
+     * @param window the items around the current one to send and to prefetch
+     */
+    void setQueueWindow(final QueueWindow window) {
+        activity.runOnUiThread(
+            new Runnable() {
+                public void run() {
+                    queueWindow = window;
+                    if (mediaQueueCallback == null) {
+                        return;
+                    }
+                    mediaQueueCallback.release();
+                    mediaQueueCallback.setWindow(window);
+                    if (client != null && client.getMediaStatus() != null) {
+                        mediaQueueCallback.refreshQueueItems();
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Publishes the queue items read from a session, the media caches are dropped with the previous items.
+     * @param sessionId the session the items were read from
+     * @param items the items, must not be modified afterwards
+     */
+    private void publishQueue(String sessionId, JSONArray items) {
+        QueueSnapshot current;
+        do {
+            current = queue.get();
+        } while (!queue.compareAndSet(current, current.next(sessionId, items)));
+        ChromecastUtilities.clearMediaInfoCache();
+    }
+
+    /**
+     * @return the queue items of the current session, can be called from any thread
+     */
+    QueueSnapshot getQueue() {
+        return queue.get();
+    }
+
+    /**
+     * Reads a page of the receiver queue.  The items that aren't in the MediaQueue cache are requested
+     * from the receiver and the call is resolved once they all arrived, without waiting on the main thread.
+     * @param offset index of the first item
+     * @param limit maximum number of items
+     * @param callback resolved with the page ({ offset, total, items })
+     */
+    void getQueueItems(final int offset, final int limit, final PluginCall callback) {
+        if (client == null || session == null) {
+            callback.reject("session_error");
+            return;
+        }
+        activity.runOnUiThread(
+            new Runnable() {
+                public void run() {
+                    if (mediaQueueCallback == null) {
+                        callback.reject("session_error");
+                        return;
+                    }
+                    mediaQueueCallback.readPage(new QueuePage(callback, offset, limit));
+                }
+            }
+        );
+    }
+
+    /**
+     * A getQueueItems call and the items found for it so far.
+     */
+    private static final class QueuePage {
+
+        /** Time in ms a page waits for its missing items before it is rejected. **/
+        static final long TIMEOUT = 15000;
+
+        final PluginCall call;
+        /** Index of the first item. **/
+        final int offset;
+        /** Maximum number of items. **/
+        final int limit;
+        /** Uptime past which the page is rejected if items are still missing. **/
+        long deadline;
+        /** Number of items in the queue. **/
+        int total;
+        /** The item objects, null for the ones still missing. **/
+        JSONObject[] items;
+        /** Number of items still missing. **/
+        int missing;
+
+        QueuePage(PluginCall call, int offset, int limit) {
+            this.call = call;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        /**
+         * Drops the items found so far, they may have moved.
+         * @param count number of items in the queue
+         */
+        void reset(int count) {
+            total = count;
+            int length = (int) Math.max(0, Math.min((long) offset + limit, count) - offset);
+            items = new JSONObject[length];
+            missing = length;
+        }
+
+        /**
+         * Drops the item found at this index, it changed on the receiver and is read again.
+         * @param index index of the item in the queue
+         */
+        void invalidate(int index) {
+            int i = index - offset;
+            if (i >= 0 && i < items.length && items[i] != null) {
+                items[i] = null;
+                missing++;
+            }
+        }
+
+        void resolve() {
+            JSONArray out = new JSONArray();
+            for (JSONObject item : items) {
+                out.put(item);
+            }
+            call.resolve(new JSObject().put("offset", offset).put("total", total).put("items", out));
+        }
     }
 
     private class MediaQueueController extends MediaQueue.Callback {
 
         /** The MediaQueue object. **/
         private MediaQueue queue;
-        /** Contains the item indexes that we need before sending out an update. **/
-        private ArrayList<Integer> lookingForIndexes = new ArrayList<Integer>();
-        /** Keeps track of the queueItems. **/
-        private JSONArray queueItems;
+        /** Id of the session the queue belongs to. **/
+        private final String sessionId;
+        /** Contains the item indexes that we still need before sending out an update, from windowStart. **/
+        private final BitSet lookingForIndexes = new BitSet();
+        /** The items of the window found so far, by index from windowStart, published once they have all been found. **/
+        private JSONObject[] queueItems = new JSONObject[0];
+        /** Index of the first item of the window. **/
+        private int windowStart = 0;
+        /** The items sent with the media objects and the ones to prefetch. **/
+        private QueueWindow window;
+        /** Limits the number of items fetched from the receiver. **/
+        private FetchLimiter fetchLimiter;
+        /** Ids of the items requested from the receiver that haven't arrived yet. **/
+        private final IntSet fetchingItemIds = new IntSet(8);
+        /** Indexes of the items that changed in an itemsUpdatedAtIndexes call, reused by each call. **/
+        private int[] changedIndexes = new int[8];
+        /** Indexes of the items to fetch ahead of need, around the current window. **/
+        private int[] prefetchIndexes = new int[0];
+        /** Looks for the items again once the fetch limit allows it. **/
+        private final Runnable retryFetch = new Runnable() {
+            @Override
+            public void run() {
+                synchronized (queue) {
+                    retryScheduled = false;
+                    if (!lookingForIndexes.isEmpty()) {
+                        checkLookingForIndexes();
+                    } else {
+                        prefetch(SystemClock.elapsedRealtime());
+                    }
+                }
+            }
+        };
+        /** True while retryFetch is posted. **/
+        private boolean retryScheduled = false;
+        /** The item ids of the queue and the item objects that were built. **/
+        private final QueueMirror mirror = new QueueMirror();
+        /** Index of the current item when the window was last refreshed, -1 if there was none. **/
+        private int windowCurrent = -1;
+        /** The serialized queue items for the pages of getQueueItems. **/
+        private final QueueItemCache itemCache = new QueueItemCache(QueueItemCache.DEFAULT_MAX_SIZE);
+        /** The getQueueItems calls waiting for items from the receiver. **/
+        private final List<QueuePage> pages = new ArrayList<>();
+        /** Rejects the pages that waited too long for their items. **/
+        private final Runnable pageTimeout = new Runnable() {
+            @Override
+            public void run() {
+                synchronized (queue) {
+                    expirePages(SystemClock.uptimeMillis());
+                }
+            }
+        };
 
-        MediaQueueController(MediaQueue q) {
+        MediaQueueController(MediaQueue q, String sessionId, QueueWindow window) {
             this.queue = q;
+            this.sessionId = sessionId;
+            setWindow(window);
+        }
+
+        /**
+         * @param newWindow the items to send and to prefetch from the next refresh on
+         */
+        void setWindow(QueueWindow newWindow) {
+            window = newWindow;
+            fetchLimiter = new FetchLimiter(newWindow.fetchRate);
+        }
+
+        /**
+         * Cancels the pending retry, the controller is replaced or gets a new window.
+         */
+        void release() {
+            mainHandler.removeCallbacks(retryFetch);
+            retryScheduled = false;
         }
 
         /**
-         * Given i == currentItemId, get items [i-1, i, i+1].
+         * Rejects the getQueueItems calls still waiting for items, the session is gone.
+         */
+        void cancelPages() {
+            synchronized (queue) {
+                mainHandler.removeCallbacks(pageTimeout);
+                for (QueuePage page : pages) {
+                    page.call.reject("session_error");
+                }
+                pages.clear();
+            }
+        }
+
+        /**
+         * Reads a page of the queue, it is resolved now if all of its items are in the cache,
+         * otherwise once they arrived, or rejected with "timeout" if they don't in time.
+         */
+        void readPage(QueuePage page) {
+            synchronized (queue) {
+                page.reset(queue.getItemCount());
+                if (!fillPage(page, SystemClock.elapsedRealtime())) {
+                    page.deadline = SystemClock.uptimeMillis() + QueuePage.TIMEOUT;
+                    if (pages.isEmpty()) {
+                        mainHandler.removeCallbacks(pageTimeout);
+                        mainHandler.postAtTime(pageTimeout, page.deadline);
+                    }
+                    pages.add(page);
+                }
+            }
+        }
+
+        /**
+         * Rejects the pages past their deadline, and waits for the next deadline.
+         */
+        private void expirePages(long uptime) {
+            Iterator<QueuePage> it = pages.iterator();
+            while (it.hasNext()) {
+                QueuePage page = it.next();
+                if (page.deadline <= uptime) {
+                    it.remove();
+                    page.call.reject(page.missing + " queue items did not arrive in time", "timeout");
+                }
+            }
+            mainHandler.removeCallbacks(pageTimeout);
+            if (!pages.isEmpty()) {
+                // The pages are in the order they were read, so the first one has the next deadline
+                mainHandler.postAtTime(pageTimeout, pages.get(0).deadline);
+            }
+        }
+
+        /**
+         * Looks for the missing items of a page, within the fetch limit.
+         * @return true if the page was complete and got resolved
+         */
+        private boolean fillPage(QueuePage page, long now) {
+            for (int i = 0; i < page.items.length && page.missing > 0; i++) {
+                if (page.items[i] != null) {
+                    continue;
+                }
+                int index = page.offset + i;
+                MediaQueueItem item = getItem(index, now);
+                if (item != null) {
+                    page.items[i] = itemCache.getQueueItem(queue.itemIdAtIndex(index), item, index);
+                    page.missing--;
+                }
+            }
+            if (page.missing > 0) {
+                return false;
+            }
+            page.resolve();
+            return true;
+        }
+
+        /**
+         * Resolves the waiting pages that got all of their items.
+         */
+        private void checkPages(long now) {
+            Iterator<QueuePage> it = pages.iterator();
+            while (it.hasNext()) {
+                if (fillPage(it.next(), now)) {
+                    it.remove();
+                }
+            }
+        }
+
+        /**
+         * The items moved, the waiting pages are read again from their offset.
+         */
+        private void resetPages() {
+            int count = queue.getItemCount();
+            for (QueuePage page : pages) {
+                page.reset(count);
+            }
+        }
+
+        /**
+         * Given i == index of the current item, get the items of the window, [i-1, i, i+1] by
+         * default (matches chrome desktop implementation).
          * Note: Exclude items out of range, eg. < 0 and > queue.length.
-         * Therefore, it is always 2-3 items (matches chrome desktop implementation).
          */
         void refreshQueueItems() {
-            int len = queue.getItemIds().length;
+            int len = queue.getItemCount();
             int index = getCurrentItemIndex();
 
             // Reset lookingForIndexes
-            lookingForIndexes = new ArrayList<>();
+            lookingForIndexes.clear();
+            prefetchIndexes = new int[0];
+            windowCurrent = index;
+            windowStart = 0;
+            int count = 0;
 
             // Only add indexes to look for it the currentItemIndex is valid
             if (index != -1) {
-                // init i-1, i, i+1 (exclude items out of range), so always 2-3 items
-                for (int i = index - 1; i <= index + 1; i++) {
-                    if (i >= 0 && i < len) {
-                        lookingForIndexes.add(i);
-                    }
-                }
+                windowStart = window.getStart(index);
+                count = Math.max(0, window.getEnd(index, len) - windowStart + 1);
+                lookingForIndexes.set(0, count);
+                prefetchIndexes = window.getPrefetchIndexes(index, len);
             }
+            queueItems = new JSONObject[count];
             checkLookingForIndexes();
         }
 
@@ -699,43 +1050,139 @@ public class ChromecastSession {
          * After all have been found, send out an update.
          */
         private void checkLookingForIndexes() {
-            // reset queueItems
-            queueItems = new JSONArray();
-
             // Can we get all items in lookingForIndex?
-            MediaQueueItem item;
-            boolean foundAllIndexes = true;
-            for (int index : lookingForIndexes) {
-                item = queue.getItemAtIndex(index, true);
+            long now = SystemClock.elapsedRealtime();
+            for (int i = lookingForIndexes.nextSetBit(0); i >= 0; i = lookingForIndexes.nextSetBit(i + 1)) {
+                int index = windowStart + i;
+                MediaQueueItem item = getItem(index, now);
                 // If this returns null that means the item is not in the cache, which will
-                // trigger itemsUpdatedAtIndexes, which will trigger checkLookingForIndexes again
+                // trigger itemsUpdatedAtIndexes, which will trigger checkArrivedIndexes
                 if (item != null) {
-                    queueItems.put(ChromecastUtilities.createQueueItem(item, index));
-                } else {
-                    foundAllIndexes = false;
+                    queueItems[i] = mirror.getQueueItem(index, item);
+                    lookingForIndexes.clear(i);
                 }
             }
-            if (foundAllIndexes) {
-                lookingForIndexes.clear();
+            if (lookingForIndexes.isEmpty()) {
                 updateFinished();
             }
+            prefetch(now);
+        }
+
+        /**
+         * @return true if the item of the window at this index is still missing
+         */
+        private boolean isLookingFor(int index) {
+            return index >= windowStart && lookingForIndexes.get(index - windowStart);
+        }
+
+        /**
+         * Only reads the items that just arrived, the other ones are still missing.
+         * @param indexes the indexes of itemsUpdatedAtIndexes
+         */
+        private void checkArrivedIndexes(int[] indexes) {
+            for (int index : indexes) {
+                if (isLookingFor(index)) {
+                    MediaQueueItem item = queue.getItemAtIndex(index, false);
+                    if (item != null) {
+                        queueItems[index - windowStart] = mirror.getQueueItem(index, item);
+                        lookingForIndexes.clear(index - windowStart);
+                    }
+                }
+            }
+            if (lookingForIndexes.isEmpty()) {
+                updateFinished();
+            }
+        }
+
+        /**
+         * Requests the items around the window that aren't in the cache yet, within the fetch limit.
+         * The window items go first, then the ones of the waiting pages, the prefetch only uses what
+         * is left of the limit.
+         */
+        private void prefetch(long now) {
+            checkPages(now);
+            for (int index : prefetchIndexes) {
+                if (retryScheduled) {
+                    // Out of fetches, retryFetch goes on with the rest
+                    return;
+                }
+                getItem(index, now);
+            }
+        }
+
+        /**
+         * Reads an item from the cache, or requests it from the receiver if the fetch limit allows it,
+         * otherwise the items are looked for again once it does.
+         * @return the item, or null if it isn't in the cache
+         */
+        private MediaQueueItem getItem(int index, long now) {
+            MediaQueueItem item = queue.getItemAtIndex(index, false);
+            if (item != null) {
+                return item;
+            }
+            int itemId = queue.itemIdAtIndex(index);
+            if (fetchingItemIds.contains(itemId)) {
+                return null;
+            }
+            if (!fetchLimiter.tryAcquire(now)) {
+                if (!retryScheduled) {
+                    retryScheduled = true;
+                    mainHandler.postDelayed(retryFetch, fetchLimiter.getDelay(now));
+                }
+                return null;
+            }
+            fetchingItemIds.add(itemId);
+            return queue.getItemAtIndex(index, true);
         }
 
         private void updateFinished() {
-            // Update the queueItems
-            ChromecastUtilities.setQueueItems(queueItems);
+            // Publish the queueItems, a new array is built for the next update
+            JSONArray items = new JSONArray();
+            for (JSONObject item : queueItems) {
+                items.put(item);
+            }
+            publishQueue(sessionId, items);
             if (queueReloadCallback != null && queue.getItemCount() > 0) {
                 queueReloadCallback.run();
                 setQueueReloadCallback(null);
             }
-            clientListener.onMediaUpdate(createMediaObject());
+            sendMediaUpdate(null);
+        }
+
+        /**
+         * @param start index of the first item that was inserted or removed (before the removal)
+         * @return true if the items of the window, or their positions, may have changed
+         */
+        private boolean isWindowAffected(int start) {
+            return windowCurrent == -1 || !lookingForIndexes.isEmpty() || start <= (long) windowCurrent + window.after;
+        }
+
+        /**
+         * Sends the change, or reloads the mirror and sends the whole queue if it got out of sync.
+         * @return true if the mirror was reloaded
+         */
+        private boolean sendQueueChange(JSObject change) {
+            boolean reloaded = false;
+            if (mirror.size() != queue.getItemCount()) {
+                change = mirror.reload(queue.getItemIds());
+                reloaded = true;
+            }
+            if (clientListener.isListening("QUEUE_ITEMS_CHANGED")) {
+                clientListener.onQueueItemsChanged(change.put("sessionId", sessionId));
+            }
+            return reloaded;
         }
 
         @Override
         public void itemsReloaded() {
             synchronized (queue) {
+                fetchingItemIds.clear();
+                itemCache.clear();
+                resetPages();
+                sendQueueChange(mirror.reload(queue.getItemIds()));
                 int itemCount = queue.getItemCount();
                 if (itemCount == 0) {
+                    checkPages(SystemClock.elapsedRealtime());
                     return;
                 }
                 if (queueReloadCallback == null) {
@@ -744,7 +1191,7 @@ public class ChromecastSession {
                             @Override
                             public void run() {
                                 // This was externally loaded
-                                clientListener.onMediaLoaded(createMediaObject());
+                                sendMediaLoaded();
                             }
                         }
                     );
@@ -757,32 +1204,91 @@ public class ChromecastSession {
         public void itemsUpdatedAtIndexes(int[] ints) {
             synchronized (queue) {
                 // Check if we were looking for all the ints
+                if (changedIndexes.length < ints.length) {
+                    changedIndexes = new int[ints.length];
+                }
+                int changedCount = 0;
                 for (int i = 0; i < ints.length; i++) {
-                    // If we weren't looking for an ints, that means it was changed
-                    // (rather than just retrieved from the cache)
-                    if (lookingForIndexes.indexOf(ints[i]) == -1) {
-                        // So refresh the queue (the changed item might not be part
-                        // of the items we want to output anyways, so let refresh
-                        // handle it.
+                    boolean fetched = fetchingItemIds.remove(queue.itemIdAtIndex(ints[i]));
+                    // If we weren't looking for an ints nor prefetching it, that means it was
+                    // changed (rather than just retrieved from the cache)
+                    if (!fetched && !isLookingFor(ints[i])) {
+                        changedIndexes[changedCount++] = ints[i];
+                    }
+                }
+                if (changedCount > 0) {
+                    int[] changed = Arrays.copyOf(changedIndexes, changedCount);
+                    MediaQueueItem[] items = new MediaQueueItem[changedCount];
+                    boolean inWindow = windowCurrent == -1;
+                    for (int i = 0; i < changedCount; i++) {
+                        items[i] = queue.getItemAtIndex(changed[i], false);
+                        inWindow |= window.contains(windowCurrent, changed[i]);
+                    }
+                    // The pages must not be resolved with the items as they were before the change
+                    for (QueuePage page : pages) {
+                        for (int index : changed) {
+                            page.invalidate(index);
+                        }
+                    }
+                    boolean reloaded = sendQueueChange(mirror.update(changed, items));
+                    if (reloaded || inWindow) {
+                        // So refresh the queue, only the changed items are built again
                         refreshQueueItems();
                         return;
                     }
                 }
-                // Else, we got new items from the cache
-                checkLookingForIndexes();
+                // Else, we got new items from the cache, a prefetched item alone doesn't need an update
+                if (!lookingForIndexes.isEmpty()) {
+                    checkArrivedIndexes(ints);
+                }
+                if (!pages.isEmpty()) {
+                    checkPages(SystemClock.elapsedRealtime());
+                }
             }
         }
 
         @Override
         public void itemsInsertedInRange(int startIndex, int insertCount) {
             synchronized (queue) {
-                refreshQueueItems();
+                int[] itemIds = new int[insertCount];
+                for (int i = 0; i < insertCount; i++) {
+                    itemIds[i] = queue.itemIdAtIndex(startIndex + i);
+                }
+                resetPages();
+                boolean reloaded = sendQueueChange(mirror.insert(startIndex, itemIds));
+                // Items inserted past the window don't change the media objects
+                if (reloaded || isWindowAffected(startIndex)) {
+                    refreshQueueItems();
+                } else {
+                    checkPages(SystemClock.elapsedRealtime());
+                }
             }
         }
 
         @Override
         public void itemsRemovedAtIndexes(int[] ints) {
             synchronized (queue) {
+                int start = Integer.MAX_VALUE;
+                for (int index : ints) {
+                    start = Math.min(start, index);
+                    itemCache.remove(mirror.getItemId(index));
+                }
+                resetPages();
+                boolean reloaded = sendQueueChange(mirror.remove(ints));
+                // Items removed past the window don't change the media objects
+                if (reloaded || isWindowAffected(start)) {
+                    refreshQueueItems();
+                } else {
+                    checkPages(SystemClock.elapsedRealtime());
+                }
+            }
+        }
+
+        @Override
+        public void itemsReorderedAtIndexes(List<Integer> indexes, int insertBeforeIndex) {
+            synchronized (queue) {
+                resetPages();
+                sendQueueChange(mirror.reorder(queue.getItemIds()));
                 refreshQueueItems();
             }
         }
@@ -790,61 +1296,153 @@ public class ChromecastSession {
 
     /**
      * Loads a queue of media to the Chromecast.
+     * The request is parsed on the calling thread.  With a chunkSize, only the items from startIndex
+     * that fit in a chunk are loaded at first, and the rest is inserted in batches once playback started,
+     * see {@link QueueLoader}.  The progress of the batches is sent with onQueueLoadProgress.
      * @param queueLoadRequest chrome.cast.media.QueueLoadRequest
-     * @param callback called with success or error
+     * @param chunkSize maximum number of items per message, 0 to load all of them at once
+     * @param callback called with the media object once the first chunk is loaded, or error
      */
-    public void queueLoad(final JSONObject queueLoadRequest, final CallbackContext callback) {
+    public void queueLoad(final JSONObject queueLoadRequest, final int chunkSize, final PluginCall callback) {
         if (client == null || session == null) {
-            callback.error("session_error");
+            callback.reject("session_error");
             return;
         }
+        MediaRequestParser parser = new MediaRequestParser();
+        final MediaRequestParser.QueueLoadRequest request = parser.parseQueueLoadRequest(queueLoadRequest);
+        if (request == null) {
+            callback.reject(parser.getErrorMessage(), "invalid_parameter");
+            return;
+        }
+        final QueueLoader loader = new QueueLoader(request.items, request.startIndex, chunkSize);
         activity.runOnUiThread(
             new Runnable() {
                 public void run() {
-                    try {
-                        JSONArray qItems = queueLoadRequest.getJSONArray("items");
-                        MediaQueueItem[] items = new MediaQueueItem[qItems.length()];
-                        for (int i = 0; i < qItems.length(); i++) {
-                            items[i] = ChromecastUtilities.createMediaQueueItem(qItems.getJSONObject(i));
-                        }
-
-                        int startIndex = queueLoadRequest.getInt("startIndex");
-                        int repeatMode = ChromecastUtilities.getAndroidRepeatMode(queueLoadRequest.getString("repeatMode"));
-                        long playPosition = Double.valueOf(items[startIndex].getStartTime() * 1000).longValue();
-                        JSONObject customData = null;
-                        try {
-                            customData = queueLoadRequest.getJSONObject("customData");
-                        } catch (JSONException e) {}
+                    stopQueueLoad();
+                    final MediaQueueItem[] items = loader.getFirstChunk();
+                    int startIndex = loader.getFirstStartIndex();
+                    long playPosition = Double.valueOf(items[startIndex].getStartTime() * 1000).longValue();
 
-                        setQueueReloadCallback(
-                            new Runnable() {
+                    if (loader.isChunked()) {
+                        queueLoader = loader;
+                    }
+                    final Runnable resolve = new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.resolve(createMediaObject());
+                        }
+                    };
+                    setQueueReloadCallback(resolve);
+                    client
+                        .queueLoad(items, startIndex, request.repeatMode, playPosition, request.customData)
+                        .setResultCallback(
+                            new ResultCallback<MediaChannelResult>() {
                                 @Override
-                                public void run() {
-                                    callback.success(createMediaObject());
-                                }
-                            }
-                        );
-                        client
-                            .queueLoad(items, startIndex, repeatMode, playPosition, customData)
-                            .setResultCallback(
-                                new ResultCallback<MediaChannelResult>() {
-                                    @Override
-                                    public void onResult(@NonNull MediaChannelResult result) {
-                                        if (!result.getStatus().isSuccess()) {
-                                            callback.error("session_error");
+                                public void onResult(@NonNull MediaChannelResult result) {
+                                    if (!result.getStatus().isSuccess()) {
+                                        callback.reject("session_error");
+                                        setQueueReloadCallback(null);
+                                        if (queueLoader == loader) {
+                                            queueLoader = null;
+                                        }
+                                        return;
+                                    }
+                                    if (queueLoader != loader) {
+                                        return;
+                                    }
+                                    // The items before the start item are inserted before it
+                                    if (loader.needsAnchor() && !loader.findAnchor(client.getMediaStatus())) {
+                                        queueLoader = null;
+                                        sendQueueLoadProgress(loader, "FAILED");
+                                        if (queueReloadCallback == resolve) {
                                             setQueueReloadCallback(null);
+                                            callback.reject("The start item is not in the loaded queue", "session_error");
                                         }
+                                        return;
                                     }
+                                    loader.onLoaded(items.length);
+                                    sendQueueLoadProgress(loader, "LOADING");
+                                    insertNextBatch(loader);
                                 }
-                            );
-                    } catch (JSONException e) {
-                        callback.error(ChromecastUtilities.createError("invalid_parameter", e.getMessage()));
-                    }
+                            }
+                        );
                 }
             }
         );
     }
 
+    /**
+     * Stops inserting the remaining items of a chunked queueLoad, the items already loaded stay in the queue.
+     */
+    void cancelQueueLoad() {
+        activity.runOnUiThread(
+            new Runnable() {
+                public void run() {
+                    stopQueueLoad();
+                }
+            }
+        );
+    }
+
+    /**
+     * Stops the chunked queueLoad in progress if any, must be called on the main thread.
+     */
+    private void stopQueueLoad() {
+        QueueLoader loader = queueLoader;
+        if (loader != null) {
+            queueLoader = null;
+            sendQueueLoadProgress(loader, "CANCELLED");
+        }
+    }
+
+    /**
+     * Inserts the next batch of a chunked queueLoad, once the receiver accepted the previous one.
+     */
+    private void insertNextBatch(final QueueLoader loader) {
+        final QueueLoader.Batch batch = loader.nextBatch();
+        if (batch == null) {
+            queueLoader = null;
+            sendQueueLoadProgress(loader, "COMPLETED");
+            return;
+        }
+        int insertBefore = batch.beforeAnchor ? loader.getAnchorItemId() : MediaQueueItem.INVALID_ITEM_ID;
+        client
+            .queueInsertItems(batch.items, insertBefore, null)
+            .setResultCallback(
+                new ResultCallback<MediaChannelResult>() {
+                    @Override
+                    public void onResult(@NonNull MediaChannelResult result) {
+                        if (queueLoader != loader) {
+                            // Cancelled, or replaced by another load
+                            return;
+                        }
+                        if (!result.getStatus().isSuccess()) {
+                            queueLoader = null;
+                            sendQueueLoadProgress(loader, "FAILED");
+                            return;
+                        }
+                        loader.onLoaded(batch.items.length);
+                        sendQueueLoadProgress(loader, "LOADING");
+                        insertNextBatch(loader);
+                    }
+                }
+            );
+    }
+
+    private void sendQueueLoadProgress(QueueLoader loader, String state) {
+        if (!clientListener.isListening("QUEUE_LOAD_PROGRESS")) {
+            return;
+        }
+        JSObject progress = new JSObject()
+            .put("state", state)
+            .put("loaded", loader.getLoaded())
+            .put("total", loader.getTotal());
+        if (session != null) {
+            progress.put("sessionId", session.getSessionId());
+        }
+        clientListener.onQueueLoadProgress(progress);
+    }
+
     /**
      * Plays the item with itemId in the queue.
      * @param itemId The ID of the item to jump to.
@@ -863,7 +1461,7 @@ public class ChromecastSession {
                         new Runnable() {
                             @Override
                             public void run() {
-                                clientListener.onMediaUpdate(createMediaObject(MediaStatus.IDLE_REASON_INTERRUPTED));
+                                sendMediaUpdate(MediaStatus.IDLE_REASON_INTERRUPTED);
                             }
                         }
                     );
@@ -968,31 +1566,191 @@ public class ChromecastSession {
         };
     }
 
-    private JSONObject createSessionObject() {
-        return ChromecastUtilities.createSessionObject(session);
+    /**
+     * Sends a SESSION_UPDATE.
+     * The session is read on the calling thread (main thread) and the object is built by the serializer.
+     */
+    private void sendSessionUpdate() {
+        if (!clientListener.isListening("SESSION_UPDATE")) {
+            return;
+        }
+        final SessionSnapshot snapshot = SessionSnapshot.capture(session, queue.get());
+        serialize(
+            "SESSION_UPDATE",
+            null,
+            new Runnable() {
+                @Override
+                public void run() {
+                    clientListener.onSessionUpdate(ChromecastUtilities.createSessionObject(snapshot));
+                }
+            }
+        );
     }
 
-    /** Last sent media object. **/
-    private JSONObject lastMediaObject;
+    private void sendSessionEnd(final String state) {
+        if (!clientListener.isListening("SESSION_UPDATE")) {
+            return;
+        }
+        final SessionSnapshot snapshot = SessionSnapshot.capture(session, queue.get());
+        serialize(
+            "SESSION_UPDATE",
+            null,
+            new Runnable() {
+                @Override
+                public void run() {
+                    clientListener.onSessionEnd(ChromecastUtilities.createSessionObject(snapshot).put("status", state));
+                }
+            }
+        );
+    }
 
-    private JSONObject createMediaObject() {
-        return createMediaObject(null);
+    /**
+     * Sends a MEDIA_UPDATE.
+     * The media status is read on the calling thread (main thread) and the object is built by the serializer.
+     * @param idleReason if set, the last sent media is sent again as idle with this reason
+     */
+    private void sendMediaUpdate(Integer idleReason) {
+        final MediaStatusSnapshot status = captureMediaStatus(idleReason);
+        String stateKey = status != null ? ChromecastEventDispatcher.getMediaStateKey(status) : null;
+        // Only an update in the same state as the previous one may be superseded, a transition is always sent
+        boolean supersedable = idleReason == null && stateKey != null && stateKey.equals(lastMediaStateKey);
+        lastMediaStateKey = stateKey;
+        if (!clientListener.isListening("MEDIA_UPDATE")) {
+            return;
+        }
+        final FieldMask fields = clientListener.getFields("MEDIA_UPDATE");
+        serialize(
+            "MEDIA_UPDATE",
+            supersedable ? "MEDIA_UPDATE" : null,
+            new Runnable() {
+                @Override
+                public void run() {
+                    clientListener.onMediaUpdate(ChromecastUtilities.createMediaObject(status, fields));
+                }
+            }
+        );
     }
 
-    private JSONObject createMediaObject(Integer idleReason) {
-        if (idleReason != null && lastMediaObject != null) {
-            try {
-                lastMediaObject.put("playerState", ChromecastUtilities.getMediaPlayerState(MediaStatus.PLAYER_STATE_IDLE));
-                lastMediaObject.put("idleReason", ChromecastUtilities.getMediaIdleReason(idleReason));
-                return lastMediaObject;
-            } catch (JSONException e) {}
+    private void sendMediaLoaded() {
+        final MediaStatusSnapshot status = captureMediaStatus(null);
+        if (!clientListener.isListening("MEDIA_LOAD")) {
+            return;
         }
-        JSONObject out = ChromecastUtilities.createMediaObject(session);
-        lastMediaObject = out;
-        return out;
+        final FieldMask fields = clientListener.getFields("MEDIA_LOAD");
+        serialize(
+            "MEDIA_LOAD",
+            null,
+            new Runnable() {
+                @Override
+                public void run() {
+                    clientListener.onMediaLoaded(ChromecastUtilities.createMediaObject(status, fields));
+                }
+            }
+        );
+    }
+
+    /**
+     * Starts, changes or pauses the MEDIA_PROGRESS updates.
+     * @param intervalMs period of the updates in ms, 0 to pause them
+     */
+    void setProgressInterval(final long intervalMs) {
+        activity.runOnUiThread(
+            new Runnable() {
+                public void run() {
+                    if (progressInterval == intervalMs) {
+                        return;
+                    }
+                    progressInterval = intervalMs;
+                    // The period of a registered listener can't be changed, register it again
+                    if (progressClient != null) {
+                        progressClient.removeProgressListener(progressListener);
+                        progressClient = null;
+                    }
+                    updateProgressListener();
+                }
+            }
+        );
+    }
+
+    /**
+     * Moves the progress listener to the current client, must be called on the main thread.
+     */
+    private void updateProgressListener() {
+        RemoteMediaClient target = progressInterval > 0 ? client : null;
+        if (progressClient == target) {
+            return;
+        }
+        if (progressClient != null) {
+            progressClient.removeProgressListener(progressListener);
+        }
+        progressClient = target;
+        if (progressClient != null) {
+            progressClient.addProgressListener(progressListener, progressInterval);
+        }
+    }
+
+    /**
+     * Runs the runnable on the serializer.
+     * @param eventName the event the runnable sends
+     * @param key pending updates with the same key are superseded, null if the update must not be superseded
+     * @param runnable builds and sends the update
+     */
+    private void serialize(String eventName, String key, Runnable runnable) {
+        if (serializer != null) {
+            serializer.schedule(eventName, key, runnable);
+        } else {
+            runnable.run();
+        }
+    }
+
+    private MediaStatusSnapshot captureMediaStatus(Integer idleReason) {
+        return mediaStatusTracker.capture(session, queue.get(), idleReason, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Estimates the current playback position from the last media status, without asking the receiver.
+     * @return the position object, or null if there is no media
+     */
+    JSObject getEstimatedPosition() {
+        return playbackClock.createPositionObject(SystemClock.elapsedRealtime());
+    }
+
+    private JSObject createMediaObject() {
+        return ChromecastUtilities.createMediaObject(captureMediaStatus(null));
     }
 
     interface Listener extends Cast.MessageReceivedCallback {
+        /**
+         * Updates for events nobody listens to are not built.
+         * @param eventName the event (eg. MEDIA_UPDATE) the update would be sent as
+         * @return true if the update should be built and sent
+         */
+        boolean isListening(String eventName);
+
+        /**
+         * @param eventName the event (eg. MEDIA_UPDATE) the media object is sent as
+         * @return the fields of the media object the client wants
+         */
+        FieldMask getFields(String eventName);
+
+        /**
+         * Called periodically while MEDIA_PROGRESS updates are enabled, on the main thread.
+         * @param progress the estimated position, see {@link PlaybackClock#createPositionObject(long)}
+         */
+        void onMediaProgress(JSObject progress);
+
+        /**
+         * Called on the main thread with each change of the queue, while someone listens to QUEUE_ITEMS_CHANGED.
+         * @param change the change, see {@link QueueMirror}
+         */
+        void onQueueItemsChanged(JSObject change);
+
+        /**
+         * Called on the main thread as a chunked queueLoad inserts its items, while someone listens to QUEUE_LOAD_PROGRESS.
+         * @param progress { state, loaded, total, sessionId }, state is LOADING, COMPLETED, CANCELLED or FAILED
+         */
+        void onQueueLoadProgress(JSObject progress);
+
         void onMediaLoaded(JSONObject jsonMedia);
         void onMediaUpdate(JSONObject jsonMedia);
         void onSessionUpdate(JSONObject jsonSession);
@@ -4,17 +4,18 @@ import android.graphics.Color;
 import android.net.Uri;
 import androidx.annotation.NonNull;
 import androidx.mediarouter.media.MediaRouter;
-import com.google.android.gms.cast.ApplicationMetadata;
+import com.getcapacitor.JSObject;
 import com.google.android.gms.cast.CastDevice;
 import com.google.android.gms.cast.MediaInfo;
 import com.google.android.gms.cast.MediaMetadata;
-import com.google.android.gms.cast.MediaQueueData;
 import com.google.android.gms.cast.MediaQueueItem;
 import com.google.android.gms.cast.MediaStatus;
 import com.google.android.gms.cast.MediaTrack;
 import com.google.android.gms.cast.TextTrackStyle;
+import com.google.android.gms.cast.VideoInfo;
 import com.google.android.gms.cast.framework.CastSession;
 import com.google.android.gms.common.images.WebImage;
+import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.Iterator;
 import java.util.List;
@@ -25,20 +26,31 @@ import org.json.JSONObject;
 
 final class ChromecastUtilities {
 
-    /** Stores a cache of the queueItems for building Media Objects. */
-    private static JSONArray queueItems = null;
-
+    /** Serialized media sub-objects of the current item, reused by the status updates. */
+    private static final MediaInfoCache mediaInfoCache = new MediaInfoCache(MediaInfoCache.DEFAULT_CAPACITY);
     private ChromecastUtilities() {
         //not called
     }
 
     /**
-     * Sets the queueItems to be returned with the media object so they don't have to be calculated
-     * every time we need to send an update.
-     * @param items queueItems
+     * Drops the cached media sub-objects.
      */
-    static void setQueueItems(JSONArray items) {
-        queueItems = items;
+    static void clearMediaInfoCache() {
+        mediaInfoCache.clear();
+    }
+
+    /**
+     * Returns the object as the type sent over the bridge.
+     * The event and result objects are built as JSObject so this doesn't copy them.
+     * @param object the object to send
+     * @return the object itself if it is a JSObject, else a copy
+     * @throws JSONException if the object can't be copied
+     */
+    static JSObject toJSObject(JSONObject object) throws JSONException {
+        if (object == null || object instanceof JSObject) {
+            return (JSObject) object;
+        }
+        return JSObject.fromJSONObject(object);
     }
 
     static String getMediaIdleReason(int idleReason) {
@@ -75,6 +87,24 @@ final class ChromecastUtilities {
         }
     }
 
+    /**
+     * @param hdrType a VideoInfo HDR type
+     * @return the chrome.cast.media.HdrType, or null if unknown
+     */
+    static String getHdrType(int hdrType) {
+        switch (hdrType) {
+            case VideoInfo.HDR_TYPE_SDR:
+                return "sdr";
+            case VideoInfo.HDR_TYPE_HDR:
+            case VideoInfo.HDR_TYPE_HDR10:
+                return "hdr";
+            case VideoInfo.HDR_TYPE_DV:
+                return "dv";
+            default:
+                return null;
+        }
+    }
+
     static String getMediaInfoStreamType(MediaInfo mediaInfo) {
         switch (mediaInfo.getStreamType()) {
             case MediaInfo.STREAM_TYPE_BUFFERED:
@@ -199,6 +229,18 @@ final class ChromecastUtilities {
     }
 
     static int getAndroidRepeatMode(String clientRepeatMode) throws JSONException {
+        int repeatMode = findAndroidRepeatMode(clientRepeatMode);
+        if (repeatMode < 0) {
+            throw new JSONException("Invalid repeat mode: " + clientRepeatMode);
+        }
+        return repeatMode;
+    }
+
+    /**
+     * @param clientRepeatMode the client repeat mode
+     * @return the Android repeat mode, or -1 if the client repeat mode is invalid
+     */
+    static int findAndroidRepeatMode(String clientRepeatMode) {
         switch (clientRepeatMode) {
             case "REPEAT_OFF":
                 return MediaStatus.REPEAT_MODE_REPEAT_OFF;
@@ -209,176 +251,22 @@ final class ChromecastUtilities {
             case "REPEAT_ALL_AND_SHUFFLE":
                 return MediaStatus.REPEAT_MODE_REPEAT_ALL_AND_SHUFFLE;
             default:
-                throw new JSONException("Invalid repeat mode: " + clientRepeatMode);
+                return -1;
         }
     }
 
     static String getAndroidMetadataName(String clientName) {
-        switch (clientName) {
-            case "albumArtist":
-                return MediaMetadata.KEY_ALBUM_ARTIST;
-            case "albumName":
-                return MediaMetadata.KEY_ALBUM_TITLE;
-            case "artist":
-                return MediaMetadata.KEY_ARTIST;
-            case "bookTitle":
-                return MediaMetadata.KEY_BOOK_TITLE;
-            case "broadcastDate":
-                return MediaMetadata.KEY_BROADCAST_DATE;
-            case "chapterNumber":
-                return MediaMetadata.KEY_CHAPTER_NUMBER;
-            case "chapterTitle":
-                return MediaMetadata.KEY_CHAPTER_TITLE;
-            case "composer":
-                return MediaMetadata.KEY_COMPOSER;
-            case "creationDate":
-            case "creationDateTime":
-                return MediaMetadata.KEY_CREATION_DATE;
-            case "discNumber":
-                return MediaMetadata.KEY_DISC_NUMBER;
-            case "episode":
-                return MediaMetadata.KEY_EPISODE_NUMBER;
-            case "height":
-                return MediaMetadata.KEY_HEIGHT;
-            case "latitude":
-                return MediaMetadata.KEY_LOCATION_LATITUDE;
-            case "longitude":
-                return MediaMetadata.KEY_LOCATION_LONGITUDE;
-            case "locationName":
-                return MediaMetadata.KEY_LOCATION_NAME;
-            case "queueItemId":
-                return MediaMetadata.KEY_QUEUE_ITEM_ID;
-            case "releaseDate":
-            case "originalAirDate":
-                return MediaMetadata.KEY_RELEASE_DATE;
-            case "season":
-                return MediaMetadata.KEY_SEASON_NUMBER;
-            case "sectionDuration":
-                return MediaMetadata.KEY_SECTION_DURATION;
-            case "sectionStartAbsoluteTime":
-                return MediaMetadata.KEY_SECTION_START_ABSOLUTE_TIME;
-            case "sectionStartTimeInContainer":
-                return MediaMetadata.KEY_SECTION_START_TIME_IN_CONTAINER;
-            case "sectionStartTimeInMedia":
-                return MediaMetadata.KEY_SECTION_START_TIME_IN_MEDIA;
-            case "seriesTitle":
-                return MediaMetadata.KEY_SERIES_TITLE;
-            case "studio":
-                return MediaMetadata.KEY_STUDIO;
-            case "subtitle":
-                return MediaMetadata.KEY_SUBTITLE;
-            case "title":
-                return MediaMetadata.KEY_TITLE;
-            case "trackNumber":
-                return MediaMetadata.KEY_TRACK_NUMBER;
-            case "width":
-                return MediaMetadata.KEY_WIDTH;
-            default:
-                return clientName;
-        }
+        MetadataKeyRegistry.Key key = MetadataKeyRegistry.getDefault().fromClient(clientName);
+        return key != null ? key.androidName : clientName;
     }
 
     static String getClientMetadataName(String androidName) {
-        switch (androidName) {
-            case MediaMetadata.KEY_ALBUM_ARTIST:
-                return "albumArtist";
-            case MediaMetadata.KEY_ALBUM_TITLE:
-                return "albumName";
-            case MediaMetadata.KEY_ARTIST:
-                return "artist";
-            case MediaMetadata.KEY_BOOK_TITLE:
-                return "bookTitle";
-            case MediaMetadata.KEY_BROADCAST_DATE:
-                return "broadcastDate";
-            case MediaMetadata.KEY_CHAPTER_NUMBER:
-                return "chapterNumber";
-            case MediaMetadata.KEY_CHAPTER_TITLE:
-                return "chapterTitle";
-            case MediaMetadata.KEY_COMPOSER:
-                return "composer";
-            case MediaMetadata.KEY_CREATION_DATE:
-                return "creationDate";
-            case MediaMetadata.KEY_DISC_NUMBER:
-                return "discNumber";
-            case MediaMetadata.KEY_EPISODE_NUMBER:
-                return "episode";
-            case MediaMetadata.KEY_HEIGHT:
-                return "height";
-            case MediaMetadata.KEY_LOCATION_LATITUDE:
-                return "latitude";
-            case MediaMetadata.KEY_LOCATION_LONGITUDE:
-                return "longitude";
-            case MediaMetadata.KEY_LOCATION_NAME:
-                return "location";
-            case MediaMetadata.KEY_QUEUE_ITEM_ID:
-                return "queueItemId";
-            case MediaMetadata.KEY_RELEASE_DATE:
-                return "releaseDate";
-            case MediaMetadata.KEY_SEASON_NUMBER:
-                return "season";
-            case MediaMetadata.KEY_SECTION_DURATION:
-                return "sectionDuration";
-            case MediaMetadata.KEY_SECTION_START_ABSOLUTE_TIME:
-                return "sectionStartAbsoluteTime";
-            case MediaMetadata.KEY_SECTION_START_TIME_IN_CONTAINER:
-                return "sectionStartTimeInContainer";
-            case MediaMetadata.KEY_SECTION_START_TIME_IN_MEDIA:
-                return "sectionStartTimeInMedia";
-            case MediaMetadata.KEY_SERIES_TITLE:
-                return "seriesTitle";
-            case MediaMetadata.KEY_STUDIO:
-                return "studio";
-            case MediaMetadata.KEY_SUBTITLE:
-                return "subtitle";
-            case MediaMetadata.KEY_TITLE:
-                return "title";
-            case MediaMetadata.KEY_TRACK_NUMBER:
-                return "trackNumber";
-            case MediaMetadata.KEY_WIDTH:
-                return "width";
-            default:
-                return androidName;
-        }
+        MetadataKeyRegistry.Key key = MetadataKeyRegistry.getDefault().fromAndroid(androidName);
+        return key != null ? key.clientName : androidName;
     }
 
     static String getMetadataType(String androidName) {
-        switch (androidName) {
-            case MediaMetadata.KEY_ALBUM_ARTIST:
-            case MediaMetadata.KEY_ALBUM_TITLE:
-            case MediaMetadata.KEY_ARTIST:
-            case MediaMetadata.KEY_BOOK_TITLE:
-            case MediaMetadata.KEY_CHAPTER_NUMBER:
-            case MediaMetadata.KEY_CHAPTER_TITLE:
-            case MediaMetadata.KEY_COMPOSER:
-            case MediaMetadata.KEY_LOCATION_NAME:
-            case MediaMetadata.KEY_SERIES_TITLE:
-            case MediaMetadata.KEY_STUDIO:
-            case MediaMetadata.KEY_SUBTITLE:
-            case MediaMetadata.KEY_TITLE:
-                return "string"; // 1 in MediaMetadata
-            case MediaMetadata.KEY_DISC_NUMBER:
-            case MediaMetadata.KEY_EPISODE_NUMBER:
-            case MediaMetadata.KEY_HEIGHT:
-            case MediaMetadata.KEY_QUEUE_ITEM_ID:
-            case MediaMetadata.KEY_SEASON_NUMBER:
-            case MediaMetadata.KEY_TRACK_NUMBER:
-            case MediaMetadata.KEY_WIDTH:
-                return "int"; // 2 in MediaMetadata
-            case MediaMetadata.KEY_LOCATION_LATITUDE:
-            case MediaMetadata.KEY_LOCATION_LONGITUDE:
-                return "double"; // 3 in MediaMetadata
-            case MediaMetadata.KEY_BROADCAST_DATE:
-            case MediaMetadata.KEY_CREATION_DATE:
-            case MediaMetadata.KEY_RELEASE_DATE:
-                return "date"; // 4 in MediaMetadata
-            case MediaMetadata.KEY_SECTION_DURATION:
-            case MediaMetadata.KEY_SECTION_START_ABSOLUTE_TIME:
-            case MediaMetadata.KEY_SECTION_START_TIME_IN_CONTAINER:
-            case MediaMetadata.KEY_SECTION_START_TIME_IN_MEDIA:
-                return "ms"; // 5 in MediaMetadata
-            default:
-                return "custom";
-        }
+        return MetadataKeyRegistry.getTypeName(MetadataKeyRegistry.getDefault().getType(androidName));
     }
 
     static TextTrackStyle parseTextTrackStyle(JSONObject textTrackSytle) {
@@ -409,306 +297,151 @@ final class ChromecastUtilities {
         return "#" + Integer.toHexString(color);
     }
 
-    static JSONObject createSessionObject(CastSession session, String state) {
-        JSONObject s = createSessionObject(session);
+    static JSObject createSessionObject(CastSession session, QueueSnapshot queue, String state) {
+        JSObject s = createSessionObject(session, queue);
         if (state != null) {
-            try {
-                s.put("status", state);
-            } catch (JSONException e) {}
+            s.put("status", state);
         }
         return s;
     }
 
-    static JSONObject createSessionObject(CastSession session) {
-        JSONObject out = new JSONObject();
-
-        try {
-            ApplicationMetadata metadata = session.getApplicationMetadata();
-            out.put("appId", metadata.getApplicationId());
-            try {
-                out.put("appImages", createImagesArray(metadata.getImages()));
-            } catch (NullPointerException e) {}
-            out.put("displayName", metadata.getName());
-            out.put("media", createMediaArray(session));
-            out.put("receiver", createReceiverObject(session));
-            out.put("sessionId", session.getSessionId());
-        } catch (JSONException e) {} catch (NullPointerException e) {} catch (IllegalStateException e) {}
-
-        return out;
+    static JSObject createSessionObject(CastSession session, QueueSnapshot queue) {
+        return createSessionObject(SessionSnapshot.capture(session, queue));
     }
 
-    private static JSONArray createImagesArray(List<WebImage> images) throws JSONException {
-        JSONArray appImages = new JSONArray();
-        JSONObject img;
-        for (WebImage o : images) {
-            img = new JSONObject();
-            img.put("url", o.getUrl().toString());
-            appImages.put(img);
-        }
-        return appImages;
-    }
-
-    private static JSONObject createReceiverObject(CastSession session) {
-        JSONObject out = new JSONObject();
-        try {
-            out.put("friendlyName", session.getCastDevice().getFriendlyName());
-            out.put("label", session.getCastDevice().getDeviceId());
-
-            JSONObject volume = new JSONObject();
-            try {
-                volume.put("level", session.getVolume());
-                volume.put("muted", session.isMute());
-            } catch (JSONException e) {}
-            out.put("volume", volume);
-        } catch (JSONException e) {} catch (NullPointerException e) {}
-        return out;
+    /**
+     * Builds the session object from a snapshot, can be called from any thread.
+     * @param snapshot the captured session
+     * @return the session object
+     */
+    static JSObject createSessionObject(SessionSnapshot snapshot) {
+        return SessionCodec.createSession(snapshot, FieldMask.ALL);
     }
 
-    static JSONArray createMediaArray(CastSession session) {
+    static JSONArray createMediaArray(MediaStatusSnapshot status) {
         JSONArray out = new JSONArray();
-        JSONObject mediaInfoObj = createMediaObject(session);
+        JSONObject mediaInfoObj = createMediaObject(status);
         if (mediaInfoObj != null) {
             out.put(mediaInfoObj);
         }
         return out;
     }
 
-    static JSONObject createMediaObject(CastSession session) {
-        return createMediaObject(session, queueItems);
+    static JSObject createMediaObject(CastSession session, QueueSnapshot queue) {
+        return createMediaObject(MediaStatusSnapshot.capture(session, queue));
     }
 
-    static JSONObject createMediaObject(CastSession session, JSONArray items) {
-        JSONObject out = new JSONObject();
-
-        try {
-            MediaStatus mediaStatus = session.getRemoteMediaClient().getMediaStatus();
-
-            // TODO: Missing attributes are commented out.
-            //  These are returned by the chromecast desktop SDK, we should probbaly return them too
-            //out.put("breakStatus",);
-            out.put("currentItemId", mediaStatus.getCurrentItemId());
-            out.put("currentTime", mediaStatus.getStreamPosition() / 1000.0);
-            out.put("customData", mediaStatus.getCustomData());
-            //out.put("extendedStatus",);
-            String idleReason = ChromecastUtilities.getMediaIdleReason(mediaStatus.getIdleReason());
-            if (idleReason != null) {
-                out.put("idleReason", idleReason);
-            }
-            out.put("items", items);
-            out.put("isAlive", mediaStatus.getPlayerState() != MediaStatus.PLAYER_STATE_IDLE);
-            //out.put("liveSeekableRange",);
-            out.put("loadingItemId", mediaStatus.getLoadingItemId());
-            out.put("media", createMediaInfoObject(session.getRemoteMediaClient().getMediaInfo()));
-            out.put("mediaSessionId", 1);
-            out.put("playbackRate", mediaStatus.getPlaybackRate());
-            out.put("playerState", ChromecastUtilities.getMediaPlayerState(mediaStatus.getPlayerState()));
-            out.put("preloadedItemId", mediaStatus.getPreloadedItemId());
-            out.put("queueData", createQueueData(mediaStatus));
-            out.put("repeatMode", getRepeatMode(mediaStatus.getQueueRepeatMode()));
-            out.put("sessionId", session.getSessionId());
-            //out.put("supportedMediaCommands", );
-            //out.put("videoInfo", );
-
-            JSONObject volume = new JSONObject();
-            volume.put("level", mediaStatus.getStreamVolume());
-            volume.put("muted", mediaStatus.isMute());
-            out.put("volume", volume);
-            out.put("activeTrackIds", createActiveTrackIds(mediaStatus.getActiveTrackIds()));
-        } catch (JSONException e) {} catch (NullPointerException e) {
-            return null;
-        }
-
-        return out;
+    /**
+     * Builds the media object from a snapshot, can be called from any thread.
+     * @param status the captured media status
+     * @return the media object, or null if there is no media status
+     */
+    static JSObject createMediaObject(MediaStatusSnapshot status) {
+        return createMediaObject(status, FieldMask.ALL);
     }
 
-    private static JSONArray createActiveTrackIds(long[] activeTrackIds) {
-        JSONArray out = new JSONArray();
-        try {
-            if (activeTrackIds.length == 0) {
-                return null;
-            }
-            for (long id : activeTrackIds) {
-                out.put(id);
-            }
-        } catch (NullPointerException e) {
+    /**
+     * Builds the media object from a snapshot, only the fields included in the mask are computed.
+     * @param status the captured media status
+     * @param fields the fields to include
+     * @return the media object, or null if there is no media status
+     */
+    static JSObject createMediaObject(MediaStatusSnapshot status, FieldMask fields) {
+        if (status == null) {
             return null;
         }
-        return out;
+        return MediaStatusCodec.createMediaStatus(status, fields);
     }
 
-    static JSONObject createQueueData(MediaStatus status) {
-        JSONObject out = new JSONObject();
-        try {
-            MediaQueueData data = status.getQueueData();
-            if (data == null) {
-                return null;
-            }
-            out.put("repeatMode", ChromecastUtilities.getRepeatMode(data.getRepeatMode()));
-            out.put("shuffle", data.getRepeatMode() == MediaStatus.REPEAT_MODE_REPEAT_ALL_AND_SHUFFLE);
-            out.put("startIndex", data.getStartIndex());
-        } catch (JSONException e) {
-            e.printStackTrace();
-            throw new RuntimeException("See above stack trace for error: " + e.getMessage());
-        }
-        return out;
+    /**
+     * Builds a queue item object.
+     * @param item the item
+     * @param orderId the position of the item in the queue
+     * @return the queue item object
+     */
+    static JSObject createQueueItem(@NonNull MediaQueueItem item, int orderId) {
+        return QueueCodec.createQueueItem(item, orderId, FieldMask.ALL);
     }
 
-    static JSONObject createQueueItem(@NonNull MediaQueueItem item, int orderId) {
-        JSONObject out = new JSONObject();
-        try {
-            out.put("activeTrackIds", createActiveTrackIds(item.getActiveTrackIds()));
-            out.put("autoplay", item.getAutoplay());
-            out.put("customData", item.getCustomData());
-            out.put("itemId", item.getItemId());
-            out.put("media", createMediaInfoObject(item.getMedia()));
-            out.put("orderId", orderId);
-            Double playbackDuration = item.getPlaybackDuration();
-            if (Double.isInfinite(playbackDuration)) {
-                playbackDuration = null;
-            }
-            out.put("playbackDuration", playbackDuration);
-            out.put("preloadTime", item.getPreloadTime());
-            Double startTime = item.getStartTime();
-            if (Double.isNaN(startTime)) {
-                startTime = null;
-            }
-            out.put("startTime", startTime);
-        } catch (JSONException e) {
-            e.printStackTrace();
-            throw new RuntimeException("See above stack trace for error: " + e.getMessage());
+    /**
+     * Returns the media sub-object of a status, serialized once per MediaInfo instance.
+     * @param status the captured media status
+     * @param fields the fields of the media sub-object
+     * @return the media sub-object, shared between updates so it must not be modified, null if there is no media
+     */
+    static JSONObject getMediaInfoObject(MediaStatusSnapshot status, FieldMask fields) {
+        if (status.mediaInfo == null) {
+            return null;
+        }
+        JSONObject out = mediaInfoCache.get(status.currentItemId, status.mediaInfo, fields);
+        if (out == null) {
+            out = MediaInfoCodec.createMediaInfo(status.mediaInfo, fields);
+            mediaInfoCache.put(status.currentItemId, status.mediaInfo, fields, out);
         }
         return out;
     }
 
-    private static JSONArray createMediaInfoTracks(MediaInfo mediaInfo) {
-        JSONArray out = new JSONArray();
-
-        try {
-            if (mediaInfo.getMediaTracks() == null) {
-                return out;
-            }
-
-            for (MediaTrack track : mediaInfo.getMediaTracks()) {
-                JSONObject jsonTrack = new JSONObject();
-
-                // TODO: Missing attributes are commented out.
-                //  These are returned by the chromecast desktop SDK, we should probbaly return them too
-
-                jsonTrack.put("trackId", track.getId());
-                jsonTrack.put("customData", track.getCustomData());
-                jsonTrack.put("language", track.getLanguage());
-                jsonTrack.put("name", track.getName());
-                jsonTrack.put("subtype", ChromecastUtilities.getTrackSubtype(track));
-                jsonTrack.put("trackContentId", track.getContentId());
-                jsonTrack.put("trackContentType", track.getContentType());
-                jsonTrack.put("type", ChromecastUtilities.getTrackType(track));
-
-                out.put(jsonTrack);
-            }
-        } catch (JSONException e) {} catch (NullPointerException e) {}
-
-        return out;
-    }
-
-    private static JSONObject createMediaInfoObject(MediaInfo mediaInfo) {
-        JSONObject out = new JSONObject();
-
-        try {
-            // TODO: Missing attributes are commented out.
-            //  These are returned by the chromecast desktop SDK, we should probably return them too
-            //out.put("breakClips",);
-            //out.put("breaks",);
-            out.put("contentId", mediaInfo.getContentId());
-            out.put("contentType", mediaInfo.getContentType());
-            out.put("customData", mediaInfo.getCustomData());
-            out.put("duration", mediaInfo.getStreamDuration() / 1000.0);
-            //out.put("mediaCategory",);
-            out.put("metadata", createMetadataObject(mediaInfo.getMetadata()));
-            out.put("streamType", ChromecastUtilities.getMediaInfoStreamType(mediaInfo));
-            out.put("tracks", createMediaInfoTracks(mediaInfo));
-            out.put("textTrackStyle", ChromecastUtilities.createTextTrackObject(mediaInfo.getTextTrackStyle()));
-        } catch (JSONException e) {} catch (NullPointerException e) {}
-
-        return out;
-    }
-
-    static JSONObject createMetadataObject(MediaMetadata metadata) {
-        JSONObject out = new JSONObject();
+    static JSObject createMetadataObject(MediaMetadata metadata) {
+        JSObject out = new JSObject();
         if (metadata == null) {
             return out;
         }
-        try {
-            try {
-                // Must be in own try catch
-                out.put("images", createImagesArray(metadata.getImages()));
-            } catch (Exception e) {}
-            out.put("metadataType", metadata.getMediaType());
-            out.put("type", metadata.getMediaType());
-
-            Set<String> keys = metadata.keySet();
-            String outKey;
-            // First translate and add the Android specific keys
-            for (String key : keys) {
-                outKey = ChromecastUtilities.getClientMetadataName(key);
-                if (outKey.equals(key) || outKey.equals("type")) {
-                    continue;
-                }
-                switch (ChromecastUtilities.getMetadataType(key)) {
-                    case "string":
-                        out.put(outKey, metadata.getString(key));
-                        break;
-                    case "int":
-                        out.put(outKey, metadata.getInt(key));
-                        break;
-                    case "double":
-                        out.put(outKey, metadata.getDouble(key));
-                        break;
-                    case "date":
-                        out.put(outKey, metadata.getDate(key).getTimeInMillis());
-                        break;
-                    case "ms":
-                        out.put(outKey, metadata.getTimeMillis(key));
-                        break;
-                    default:
-                }
+        JSONArray images = new JSONArray();
+        for (WebImage image : metadata.getImages()) {
+            images.put(MediaInfoCodec.createImage(image, FieldMask.ALL));
+        }
+        out.put("images", images);
+        out.put("metadataType", metadata.getMediaType());
+        out.put("type", metadata.getMediaType());
+
+        MetadataKeyRegistry registry = MetadataKeyRegistry.getDefault();
+        Set<String> keys = metadata.keySet();
+        MetadataKeyRegistry.Key metadataKey;
+        String outKey;
+        // First translate and add the Android specific keys
+        for (String key : keys) {
+            metadataKey = registry.fromAndroid(key);
+            if (metadataKey == null || metadataKey.clientName.equals("type")) {
+                continue;
             }
-            // Then add the non-Android specific keys ensuring we don't overwrite existing keys
-            for (String key : keys) {
-                outKey = ChromecastUtilities.getClientMetadataName(key);
-                if (!outKey.equals(key) || out.has(outKey) || outKey.equals("type")) {
-                    continue;
-                }
-                if (outKey.startsWith("cordova-plugin-chromecast_metadata_key=")) {
-                    outKey = outKey.substring("cordova-plugin-chromecast_metadata_key=".length());
-                }
-                out.put(outKey, metadata.getString(key));
+            outKey = metadataKey.clientName;
+            switch (metadataKey.type) {
+                case MetadataKeyRegistry.TYPE_STRING:
+                    out.put(outKey, metadata.getString(key));
+                    break;
+                case MetadataKeyRegistry.TYPE_INT:
+                    out.put(outKey, metadata.getInt(key));
+                    break;
+                case MetadataKeyRegistry.TYPE_DOUBLE:
+                    double value = metadata.getDouble(key);
+                    if (Double.isFinite(value)) {
+                        out.put(outKey, value);
+                    }
+                    break;
+                case MetadataKeyRegistry.TYPE_DATE:
+                    Calendar date = metadata.getDate(key);
+                    if (date != null) {
+                        out.put(outKey, date.getTimeInMillis());
+                    }
+                    break;
+                case MetadataKeyRegistry.TYPE_MS:
+                    out.put(outKey, metadata.getTimeMillis(key));
+                    break;
+                default:
+                    out.put(outKey, metadata.getString(key));
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-
-        return out;
-    }
-
-    private static JSONObject createTextTrackObject(TextTrackStyle textTrackStyle) {
-        if (textTrackStyle == null) {
-            return null;
+        // Then add the non-Android specific keys ensuring we don't overwrite existing keys
+        for (String key : keys) {
+            if (registry.fromAndroid(key) != null || out.has(key) || key.equals("type")) {
+                continue;
+            }
+            outKey = key;
+            if (outKey.startsWith("cordova-plugin-chromecast_metadata_key=")) {
+                outKey = outKey.substring("cordova-plugin-chromecast_metadata_key=".length());
+            }
+            out.put(outKey, metadata.getString(key));
         }
-        JSONObject out = new JSONObject();
-        try {
-            out.put("backgroundColor", getHexColor(textTrackStyle.getBackgroundColor()));
-            out.put("customData", textTrackStyle.getCustomData());
-            out.put("edgeColor", getHexColor(textTrackStyle.getEdgeColor()));
-            out.put("edgeType", getEdgeType(textTrackStyle));
-            out.put("fontFamily", textTrackStyle.getFontFamily());
-            out.put("fontGenericFamily", getFontGenericFamily(textTrackStyle));
-            out.put("fontScale", textTrackStyle.getFontScale());
-            out.put("fontStyle", getFontStyle(textTrackStyle));
-            out.put("foregroundColor", getHexColor(textTrackStyle.getForegroundColor()));
-            out.put("windowColor", getHexColor(textTrackStyle.getWindowColor()));
-            out.put("windowRoundedCornerRadius", textTrackStyle.getWindowCornerRadius());
-            out.put("windowType", getWindowType(textTrackStyle));
-        } catch (JSONException e) {}
 
         return out;
     }
@@ -721,23 +454,64 @@ final class ChromecastUtilities {
     static JSONArray createRoutesArray(List<MediaRouter.RouteInfo> routes) {
         JSONArray routesArray = new JSONArray();
         for (MediaRouter.RouteInfo route : routes) {
-            try {
-                JSONObject obj = new JSONObject();
-                obj.put("name", route.getName());
-                obj.put("id", route.getId());
-
-                CastDevice device = CastDevice.getFromBundle(route.getExtras());
-                if (device != null) {
-                    obj.put("isNearbyDevice", !device.isOnLocalNetwork());
-                    obj.put("isCastGroup", route.isGroup());
-                }
-
-                routesArray.put(obj);
-            } catch (JSONException e) {}
+            CastDevice device = CastDevice.getFromBundle(route.getExtras());
+            routesArray.put(createRouteObject(route.getId(), route.getName(), route.getDescription(), route.isGroup(), device));
         }
         return routesArray;
     }
 
+    /**
+     * Creates a route object (RouteInfo in definitions.ts).
+     * @param id the route id
+     * @param name the route name
+     * @param description the route description
+     * @param isGroup whether the route is a cast group
+     * @param device the device of the route, null if it has none
+     * @return the route object
+     */
+    static JSONObject createRouteObject(String id, String name, String description, boolean isGroup, CastDevice device) {
+        JSONObject obj = new JSONObject();
+        try {
+            obj.put("name", name);
+            obj.put("id", id);
+            obj.put("description", description);
+
+            if (device != null) {
+                obj.put("isNearbyDevice", !device.isOnLocalNetwork());
+                obj.put("isCastGroup", isGroup);
+            }
+        } catch (JSONException e) {}
+        return obj;
+    }
+
+    /**
+     * Detects the content type of a media from the extension of its url.
+     * @param url the url of the media, can be null
+     * @param providedContentType the content type given by the client, used if the extension is unknown
+     * @return the content type, video/mp4 if none was found
+     */
+    static String detectContentType(String url, String providedContentType) {
+        if (url == null) {
+            return providedContentType != null ? providedContentType : "video/mp4";
+        }
+
+        String baseUrl = url.split("\\?")[0].toLowerCase();
+
+        if (baseUrl.endsWith(".m3u8")) {
+            return "application/x-mpegURL";
+        } else if (baseUrl.endsWith(".mpd")) {
+            return "application/dash+xml";
+        } else if (baseUrl.endsWith(".mp4")) {
+            return "video/mp4";
+        } else if (baseUrl.endsWith(".webm")) {
+            return "video/webm";
+        } else if (baseUrl.endsWith(".mkv")) {
+            return "video/x-matroska";
+        }
+
+        return providedContentType != null && !providedContentType.isEmpty() ? providedContentType : "video/mp4";
+    }
+
     static JSONObject createError(String code, String message) {
         JSONObject out = new JSONObject();
         try {
@@ -756,71 +530,61 @@ final class ChromecastUtilities {
      * @throws JSONException If the input mediaQueueItem is incorrect
      */
     static MediaQueueItem createMediaQueueItem(JSONObject mediaQueueItem) throws JSONException {
-        MediaInfo mediaInfo = createMediaInfo(mediaQueueItem.getJSONObject("media"));
-        MediaQueueItem.Builder builder = new MediaQueueItem.Builder(mediaInfo);
-
-        try {
-            long[] activeTrackIds;
-            JSONArray trackIds = mediaQueueItem.getJSONArray("activeTrackIds");
-            activeTrackIds = new long[trackIds.length()];
-            for (int i = 0; i < trackIds.length(); i++) {
-                activeTrackIds[i] = trackIds.getLong(i);
-            }
-            builder.setActiveTrackIds(activeTrackIds);
-        } catch (JSONException e) {}
-        try {
-            builder.setAutoplay(mediaQueueItem.getBoolean("autoplay"));
-        } catch (JSONException e) {}
-        JSONObject customData = new JSONObject();
-        try {
-            customData.getJSONObject("customData");
-        } catch (JSONException e) {}
-        try {
-            builder.setPlaybackDuration(mediaQueueItem.getDouble("playbackDuration"));
-        } catch (JSONException e) {}
-        try {
-            builder.setPreloadTime(mediaQueueItem.getDouble("preloadTime"));
-        } catch (JSONException e) {}
-        try {
-            builder.setStartTime(mediaQueueItem.getDouble("startTime"));
-        } catch (JSONException e) {}
-        return builder.build();
+        MediaRequestParser parser = new MediaRequestParser();
+        MediaQueueItem item = parser.parseQueueItem(mediaQueueItem, null);
+        if (parser.hasErrors()) {
+            throw new JSONException(parser.getErrorMessage());
+        }
+        return item;
     }
 
+    /**
+     * Creates a MediaInfo from a JSONObject representation of a MediaInfo.
+     * Invalid fields are ignored, the missing ones get defaults.
+     * @param mediaInfo chrome.cast.media.MediaInfo
+     * @return the MediaInfo
+     */
     static MediaInfo createMediaInfo(JSONObject mediaInfo) {
-        // Set defaults
-        String contentId = "";
-        JSONObject customData = new JSONObject();
-        String contentType = "unknown";
-        long duration = 0;
-        String streamType = "unknown";
-        JSONObject metadata = new JSONObject();
-        JSONObject textTrackStyle = new JSONObject();
-
-        // Try to get the actual values
-        try {
-            contentId = mediaInfo.getString("contentId");
-        } catch (JSONException e) {}
-        try {
-            customData = mediaInfo.getJSONObject("customData");
-        } catch (JSONException e) {}
-        try {
-            contentType = mediaInfo.getString("contentType");
-        } catch (JSONException e) {}
-        try {
-            duration = mediaInfo.getLong("duration");
-        } catch (JSONException e) {}
-        try {
-            streamType = mediaInfo.getString("streamType");
-        } catch (JSONException e) {}
-        try {
-            metadata = mediaInfo.getJSONObject("metadata");
-        } catch (JSONException e) {}
-        try {
-            textTrackStyle = mediaInfo.getJSONObject("textTrackStyle");
-        } catch (JSONException e) {}
+        return new MediaRequestParser().parseMediaInfo(mediaInfo, null);
+    }
+
+    /**
+     * Reads the customData of a request without copying it.  An object is used as it is, and the
+     * apps can also send it already serialized (eg. large DRM or licensing data), it is then parsed
+     * once, so the Cast SDK gets it after at most one conversion.
+     * @param value the customData of the request
+     * @return the customData, or null if it is missing or isn't an object
+     */
+    static JSONObject getCustomData(Object value) {
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        if (value instanceof String) {
+            try {
+                return new JSONObject((String) value);
+            } catch (JSONException e) {
+                return null;
+            }
+        }
+        return null;
+    }
 
-        return createMediaInfo(contentId, customData, contentType, duration, streamType, metadata, textTrackStyle);
+    /**
+     * @param json an object
+     * @return a new object with the same members, the values aren't copied
+     */
+    static JSONObject copyTopLevel(JSONObject json) {
+        JSONObject out = new JSONObject();
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            try {
+                out.put(key, json.opt(key));
+            } catch (JSONException e) {
+                // Not possible, the values come from an object
+            }
+        }
+        return out;
     }
 
     static MediaInfo createMediaInfo(
@@ -860,27 +624,32 @@ final class ChromecastUtilities {
         return mediaInfoBuilder.build();
     }
 
-    private static MediaMetadata createMediaMetadata(JSONObject metadata) {
-        MediaMetadata mediaMetadata;
-        try {
-            mediaMetadata = new MediaMetadata(metadata.getInt("metadataType"));
-        } catch (JSONException e) {
-            mediaMetadata = new MediaMetadata(MediaMetadata.MEDIA_TYPE_GENERIC);
-        }
+    /**
+     * Creates a MediaMetadata from chrome.cast.media.*MediaMetadata.
+     * @param metadata the client metadata
+     * @return the MediaMetadata
+     */
+    static MediaMetadata createMediaMetadata(JSONObject metadata) {
+        MediaMetadata mediaMetadata = new MediaMetadata(metadata.optInt("metadataType", MediaMetadata.MEDIA_TYPE_GENERIC));
         // Add any images
-        try {
-            JSONArray images = metadata.getJSONArray("images");
+        JSONArray images = metadata.optJSONArray("images");
+        if (images != null) {
             for (int i = 0; i < images.length(); i++) {
-                JSONObject imageObj = images.getJSONObject(i);
+                JSONObject imageObj = images.optJSONObject(i);
+                if (imageObj == null || imageObj.isNull("url")) {
+                    continue;
+                }
                 try {
-                    Uri imageURI = Uri.parse(imageObj.getString("url"));
+                    Uri imageURI = Uri.parse(imageObj.optString("url"));
                     mediaMetadata.addImage(new WebImage(imageURI));
                 } catch (Exception e) {}
             }
-        } catch (JSONException e) {}
+        }
 
         // Dynamically add other parameters
+        MetadataKeyRegistry registry = MetadataKeyRegistry.getDefault();
         Iterator<String> keys = metadata.keys();
+        MetadataKeyRegistry.Key metadataKey;
         String key;
         String convertedKey;
         Object value;
@@ -891,19 +660,20 @@ final class ChromecastUtilities {
             }
             try {
                 value = metadata.get(key);
-                convertedKey = ChromecastUtilities.getAndroidMetadataName(key);
+                metadataKey = registry.fromClient(key);
+                convertedKey = metadataKey != null ? metadataKey.androidName : key;
                 // Try to add the translated version of the key
-                switch (ChromecastUtilities.getMetadataType(convertedKey)) {
-                    case "string":
+                switch (metadataKey != null ? metadataKey.type : registry.getType(key)) {
+                    case MetadataKeyRegistry.TYPE_STRING:
                         mediaMetadata.putString(convertedKey, metadata.getString(key));
                         break;
-                    case "int":
+                    case MetadataKeyRegistry.TYPE_INT:
                         mediaMetadata.putInt(convertedKey, metadata.getInt(key));
                         break;
-                    case "double":
+                    case MetadataKeyRegistry.TYPE_DOUBLE:
                         mediaMetadata.putDouble(convertedKey, metadata.getDouble(key));
                         break;
-                    case "date":
+                    case MetadataKeyRegistry.TYPE_DATE:
                         GregorianCalendar c = new GregorianCalendar();
                         if (
                             value instanceof java.lang.Integer ||
@@ -926,7 +696,7 @@ final class ChromecastUtilities {
                                 .printStackTrace();
                         }
                         break;
-                    case "ms":
+                    case MetadataKeyRegistry.TYPE_MS:
                         mediaMetadata.putTimeMillis(convertedKey, metadata.getLong(key));
                         break;
                     default:
@@ -940,6 +710,9 @@ final class ChromecastUtilities {
                     // It is is really stubborn and if you try to add the key "subtitle" that is
                     // also stripped.  (Hence the "cordova-plugin-chromecast_metadata_key=" prefix
                     convertedKey = "cordova-plugin-chromecast_metadata_key=" + key;
+                } else if (metadataKey != null) {
+                    // An app key registered under its own name, a string would replace its typed value
+                    continue;
                 }
                 mediaMetadata.putString(convertedKey, metadata.getString(key));
             } catch (JSONException e) {
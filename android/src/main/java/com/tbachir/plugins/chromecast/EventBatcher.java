@@ -0,0 +1,106 @@
+package com.tbachir.plugins.chromecast;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+/**
+ * Groups the events of a burst (eg. SESSION_STARTED + SESSION_UPDATE, or MEDIA_LOAD + MEDIA_UPDATEs)
+ * into a single EVENT_BATCH event, so that they cross the WebView bridge at once.
+ *
+ * Batching only happens while it is enabled and the JS-side listens to EVENT_BATCH, otherwise
+ * events are delivered one by one.  The events of a batch are kept in the order they were raised.
+ */
+final class EventBatcher {
+
+    /** Name of the event the batches are sent as. */
+    static final String EVENT_BATCH = "EVENT_BATCH";
+
+    /** Where the events and batches end up. */
+    private final ChromecastEventDispatcher.Sink sink;
+    /** Used to send out the batch at the end of the window. */
+    private final Handler handler;
+    /** Time in ms events are buffered for, 0 for the current handler turn, negative disables batching. */
+    private long window = -1;
+    /** The buffered events, null if there are none. */
+    private JSArray pending;
+    /** Sends out the pending batch. */
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * EventBatcher constructor.
+     * @param handler handler of the thread the events are raised on
+     * @param sink receives the events and the batches
+     */
+    EventBatcher(Handler handler, ChromecastEventDispatcher.Sink sink) {
+        this.handler = handler;
+        this.sink = sink;
+    }
+
+    /**
+     * Sets the batching window.
+     * @param windowMs time events are buffered for, 0 for the current handler turn, negative to disable
+     */
+    synchronized void setWindow(long windowMs) {
+        this.window = windowMs;
+        if (windowMs < 0) {
+            flush();
+        }
+    }
+
+    /**
+     * @return true if events are sent as EVENT_BATCH
+     */
+    synchronized boolean isBatching() {
+        return window >= 0 && sink.hasListeners(EVENT_BATCH);
+    }
+
+    /**
+     * Adds an event to the current batch, or sends it right away if batching is off.
+     * @param eventName the name of the event
+     * @param data the event payload
+     */
+    synchronized void add(String eventName, JSObject data) {
+        if (!isBatching()) {
+            flush();
+            sink.deliver(eventName, data);
+            return;
+        }
+        if (pending == null) {
+            pending = new JSArray();
+            handler.postAtTime(flushRunnable, SystemClock.uptimeMillis() + window);
+        }
+        JSObject event = new JSObject();
+        event.put("eventName", eventName);
+        event.put("data", data);
+        pending.put(event);
+    }
+
+    /**
+     * Immediately sends out the pending batch.
+     */
+    synchronized void flush() {
+        handler.removeCallbacks(flushRunnable);
+        if (pending == null) {
+            return;
+        }
+        JSObject batch = new JSObject();
+        batch.put("events", pending);
+        pending = null;
+        sink.deliver(EVENT_BATCH, batch);
+    }
+
+    /**
+     * Drops the pending batch.
+     */
+    synchronized void clear() {
+        handler.removeCallbacks(flushRunnable);
+        pending = null;
+    }
+}
@@ -0,0 +1,258 @@
+package com.tbachir.plugins.chromecast;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the event work on the event thread in two lanes.
+ *
+ * Control tasks (session lifecycle, errors, MEDIA_LOAD) run before any pending telemetry task
+ * and are never dropped.  Telemetry tasks (MEDIA_UPDATE, MEDIA_PROGRESS, RECEIVER_MESSAGE) run one
+ * per handler message, so a stop or an error never waits behind a backlog of updates.
+ *
+ * A telemetry task sent with a key replaces the pending one with the same key.  Every pending telemetry
+ * task counts toward the capacity of the lane.  When it is full, the oldest keyed task is dropped first,
+ * then the oldest receiver message, and only when the lane holds nothing else the oldest task without a
+ * key (a state transition).  The other tasks without a key run in order.  SESSION_ENDED runs after all
+ * the pending telemetry, so no update of the ended session is sent after it.
+ */
+final class EventScheduler {
+
+    private static final String TAG = "Chromecast";
+
+    /** Default maximum number of pending telemetry tasks. */
+    static final int DEFAULT_TELEMETRY_CAPACITY = 64;
+    /** The high frequency events, every other event is a control event. */
+    private static final Set<String> TELEMETRY_EVENTS = new HashSet<>(Arrays.asList("MEDIA_UPDATE", "MEDIA_PROGRESS", "RECEIVER_MESSAGE"));
+    /** The control event that runs after the pending telemetry instead of ahead of it. */
+    private static final String SESSION_ENDED = "SESSION_ENDED";
+    /** Prefix of the keys given to the telemetry tasks sent without a key. */
+    private static final String UNKEYED = "#";
+    /** Prefix of the keys given to the receiver messages, dropped before the other tasks without a key. */
+    private static final String MESSAGE = UNKEYED + "RECEIVER_MESSAGE#";
+
+    /** Handler of the event thread. */
+    private final Handler handler;
+    /** Maximum number of pending telemetry tasks. */
+    private final int telemetryCapacity;
+    /** Pending control tasks. */
+    private final ArrayDeque<Runnable> control = new ArrayDeque<>();
+    /** Pending telemetry tasks by key, oldest first. */
+    private final LinkedHashMap<String, Runnable> telemetry = new LinkedHashMap<>();
+    /** Used to build the keys of the telemetry tasks that are not coalesced. */
+    private long sequence = 0;
+    /** Whether a drain is posted for the telemetry lane. */
+    private boolean scheduled = false;
+    /** Number of telemetry tasks dropped because the lane was full. */
+    private long dropped = 0;
+    /** Runs the pending control tasks then the oldest telemetry task. */
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            runControl();
+            Runnable task = pollTelemetry();
+            if (task != null) {
+                task.run();
+            }
+        }
+    };
+    /** Runs the pending control tasks. */
+    private final Runnable controlDrain = new Runnable() {
+        @Override
+        public void run() {
+            runControl();
+        }
+    };
+
+    /**
+     * EventScheduler constructor.
+     * @param handler handler of the event thread
+     * @param telemetryCapacity maximum number of pending telemetry tasks
+     */
+    EventScheduler(Handler handler, int telemetryCapacity) {
+        this.handler = handler;
+        this.telemetryCapacity = Math.max(1, telemetryCapacity);
+    }
+
+    /**
+     * @param eventName the name of an event
+     * @return true if the event goes in the telemetry lane
+     */
+    static boolean isTelemetry(String eventName) {
+        return TELEMETRY_EVENTS.contains(eventName);
+    }
+
+    /**
+     * Runs the task in the lane of the event.
+     * @param eventName the name of the event the task sends
+     * @param key telemetry tasks with the same key are coalesced, null if the task must not be superseded
+     * @param task the task
+     */
+    void schedule(String eventName, String key, Runnable task) {
+        if (isTelemetry(eventName)) {
+            telemetry(eventName, key, task);
+        } else if (SESSION_ENDED.equals(eventName)) {
+            control(afterTelemetry(task));
+        } else {
+            control(task);
+        }
+    }
+
+    /**
+     * Runs a control task ahead of all the pending telemetry.
+     * @param task the task
+     */
+    void control(Runnable task) {
+        if (isEventThread()) {
+            task.run();
+            return;
+        }
+        synchronized (this) {
+            control.add(task);
+        }
+        handler.postAtFrontOfQueue(controlDrain);
+    }
+
+    /**
+     * Runs a telemetry task.
+     * @param eventName the name of the event the task sends
+     * @param key tasks with the same key are coalesced, the latest one wins.  Null if the task must not be
+     *            superseded, it is then dropped only when the lane is full of tasks without a key.
+     * @param task the task
+     */
+    void telemetry(String eventName, String key, Runnable task) {
+        if (isEventThread()) {
+            task.run();
+            return;
+        }
+        synchronized (this) {
+            if (key == null) {
+                key = ("RECEIVER_MESSAGE".equals(eventName) ? MESSAGE : UNKEYED) + sequence++;
+            } else {
+                // Latest wins, and moves to the end of the lane
+                telemetry.remove(key);
+            }
+            if (telemetry.size() >= telemetryCapacity) {
+                dropOldest();
+            }
+            telemetry.put(key, task);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        handler.post(drain);
+    }
+
+    /**
+     * @return the number of telemetry tasks dropped so far because the lane was full
+     */
+    synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Drops the oldest keyed task, else the oldest receiver message, else the oldest task.
+     * The new task is always kept.
+     */
+    private void dropOldest() {
+        String victim = null;
+        String message = null;
+        for (String key : telemetry.keySet()) {
+            if (!key.startsWith(UNKEYED)) {
+                victim = key;
+                break;
+            }
+            if (message == null && key.startsWith(MESSAGE)) {
+                message = key;
+            }
+        }
+        if (victim == null) {
+            victim = message != null ? message : telemetry.keySet().iterator().next();
+        }
+        telemetry.remove(victim);
+        dropped++;
+        if (dropped == 1 || dropped % 100 == 0) {
+            Log.w(TAG, "Telemetry lane full, " + dropped + " events dropped");
+        }
+    }
+
+    /**
+     * @return the number of pending telemetry tasks
+     */
+    synchronized int getTelemetrySize() {
+        return telemetry.size();
+    }
+
+    /**
+     * Wraps a task so that it runs after all the pending telemetry.
+     */
+    private Runnable afterTelemetry(final Runnable task) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                Runnable pending;
+                while ((pending = takeTelemetry()) != null) {
+                    pending.run();
+                }
+                task.run();
+            }
+        };
+    }
+
+    private void runControl() {
+        Runnable task;
+        while ((task = pollControl()) != null) {
+            task.run();
+        }
+    }
+
+    private synchronized Runnable pollControl() {
+        return control.poll();
+    }
+
+    /**
+     * Takes the oldest telemetry task, and posts the next drain if more are pending.
+     */
+    private synchronized Runnable pollTelemetry() {
+        Iterator<Runnable> oldest = telemetry.values().iterator();
+        if (!oldest.hasNext()) {
+            scheduled = false;
+            return null;
+        }
+        Runnable task = removeOldest(oldest);
+        if (telemetry.isEmpty()) {
+            scheduled = false;
+        } else {
+            // One task per message, so the control tasks and the other event thread work can run in between
+            handler.post(drain);
+        }
+        return task;
+    }
+
+    /**
+     * Takes the oldest telemetry task without posting anything, a posted drain finds the lane empty.
+     */
+    private synchronized Runnable takeTelemetry() {
+        Iterator<Runnable> oldest = telemetry.values().iterator();
+        return oldest.hasNext() ? removeOldest(oldest) : null;
+    }
+
+    private static Runnable removeOldest(Iterator<Runnable> oldest) {
+        Runnable task = oldest.next();
+        oldest.remove();
+        return task;
+    }
+
+    private boolean isEventThread() {
+        return Looper.myLooper() == handler.getLooper();
+    }
+}
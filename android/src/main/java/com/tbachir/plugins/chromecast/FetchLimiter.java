@@ -0,0 +1,59 @@
+package com.tbachir.plugins.chromecast;
+
+/**
+ * Limits the number of queue items fetched from the receiver per second, so that a large window or
+ * prefetch on a large queue doesn't send a storm of item requests at once.
+ *
+ * The fetches are counted per period of one second, a fetch that doesn't fit in the current period
+ * has to wait for the next one (see getDelay).  Must be used from one thread.
+ */
+final class FetchLimiter {
+
+    /** Default maximum number of fetches per second. */
+    static final int DEFAULT_FETCH_RATE = 20;
+    /** Length in ms of a period. */
+    static final long PERIOD = 1000;
+
+    /** Maximum number of fetches per period. */
+    private final int maxFetches;
+    /** Start of the current period. */
+    private long periodStart = Long.MIN_VALUE;
+    /** Number of fetches in the current period. */
+    private int fetches;
+
+    /**
+     * FetchLimiter constructor.
+     * @param maxFetches maximum number of fetches per second, at least 1
+     */
+    FetchLimiter(int maxFetches) {
+        this.maxFetches = Math.max(1, maxFetches);
+    }
+
+    /**
+     * Counts a fetch if there is room for it in the current period.
+     * @param now the current time in ms (SystemClock.elapsedRealtime)
+     * @return true if the item can be fetched now
+     */
+    boolean tryAcquire(long now) {
+        if (periodStart == Long.MIN_VALUE || now - periodStart >= PERIOD) {
+            periodStart = now;
+            fetches = 0;
+        }
+        if (fetches >= maxFetches) {
+            return false;
+        }
+        fetches++;
+        return true;
+    }
+
+    /**
+     * @param now the current time in ms (SystemClock.elapsedRealtime)
+     * @return the time in ms until the next fetch is allowed, 0 if it is allowed now
+     */
+    long getDelay(long now) {
+        if (periodStart == Long.MIN_VALUE || fetches < maxFetches) {
+            return 0;
+        }
+        return Math.max(0, periodStart + PERIOD - now);
+    }
+}
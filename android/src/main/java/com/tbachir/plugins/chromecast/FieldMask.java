@@ -0,0 +1,94 @@
+package com.tbachir.plugins.chromecast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONArray;
+
+/**
+ * The fields of an event payload the client wants, eg. ["playerState", "currentTime", "media.duration"].
+ *
+ * Nested fields are separated with dots, a field without sub fields includes the whole value.
+ * Objects are only built for the fields the mask includes, so a progress bar that only needs
+ * currentTime doesn't pay for the metadata, tracks and queue items on every update.
+ */
+final class FieldMask {
+
+    /** Includes every field. */
+    static final FieldMask ALL = new FieldMask(null);
+    /** Includes no field. */
+    private static final FieldMask NONE = new FieldMask(Collections.<String, FieldMask>emptyMap());
+
+    /** Included field -> mask of its sub fields, null if every field is included. */
+    private final Map<String, FieldMask> fields;
+
+    private FieldMask(Map<String, FieldMask> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a list of field paths.
+     * @param paths the field paths, null to include every field
+     * @return the mask
+     */
+    static FieldMask parse(JSONArray paths) {
+        if (paths == null) {
+            return ALL;
+        }
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < paths.length(); i++) {
+            String path = paths.optString(i, null);
+            if (path != null && !path.isEmpty()) {
+                list.add(path);
+            }
+        }
+        return parse(list);
+    }
+
+    private static FieldMask parse(List<String> paths) {
+        // Group the sub paths by field, a null group means the whole field
+        Map<String, List<String>> groups = new HashMap<>();
+        for (String path : paths) {
+            int dot = path.indexOf('.');
+            String field = dot < 0 ? path : path.substring(0, dot);
+            boolean whole = dot < 0 || dot == path.length() - 1;
+            if (whole) {
+                groups.put(field, null);
+            } else if (!groups.containsKey(field) || groups.get(field) != null) {
+                List<String> group = groups.get(field);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(field, group);
+                }
+                group.add(path.substring(dot + 1));
+            }
+        }
+        Map<String, FieldMask> fields = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : groups.entrySet()) {
+            fields.put(entry.getKey(), entry.getValue() == null ? ALL : parse(entry.getValue()));
+        }
+        return new FieldMask(fields);
+    }
+
+    /**
+     * @param field the name of a field
+     * @return true if the field, or some of its sub fields, should be built
+     */
+    boolean includes(String field) {
+        return fields == null || fields.containsKey(field);
+    }
+
+    /**
+     * @param field the name of a field
+     * @return the mask of the sub fields of the field
+     */
+    FieldMask get(String field) {
+        if (fields == null) {
+            return ALL;
+        }
+        FieldMask mask = fields.get(field);
+        return mask != null ? mask : NONE;
+    }
+}
@@ -0,0 +1,158 @@
+package com.tbachir.plugins.chromecast;
+
+import java.util.Arrays;
+
+/**
+ * A set of ints, for the item ids the queue controller is waiting for.
+ *
+ * An open addressing hash table with linear probing: nothing is boxed, and the table only grows,
+ * so once it is big enough for a window, adding and removing ids doesn't allocate.  Removing an id
+ * moves the following ones of its probe sequence back instead of leaving a marker, so the table
+ * doesn't fill up with removed ids.  Not thread safe.
+ */
+final class IntSet {
+
+    /** Marks a free slot, the value itself is kept apart. */
+    private static final int FREE = Integer.MIN_VALUE;
+
+    /** The slots, the length is a power of two. */
+    private int[] table;
+    /** Number of values in the table. */
+    private int size = 0;
+    /** Whether FREE is in the set. */
+    private boolean hasFreeValue = false;
+
+    /**
+     * IntSet constructor.
+     * @param capacity number of values the set holds before it grows
+     */
+    IntSet(int capacity) {
+        table = new int[Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2];
+        Arrays.fill(table, FREE);
+    }
+
+    /**
+     * @return the number of values in the set
+     */
+    int size() {
+        return size + (hasFreeValue ? 1 : 0);
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    boolean contains(int value) {
+        if (value == FREE) {
+            return hasFreeValue;
+        }
+        return find(value) >= 0;
+    }
+
+    /**
+     * @param value the value to add
+     * @return true if it wasn't in the set
+     */
+    boolean add(int value) {
+        if (value == FREE) {
+            boolean added = !hasFreeValue;
+            hasFreeValue = true;
+            return added;
+        }
+        if (find(value) >= 0) {
+            return false;
+        }
+        if ((size + 1) * 2 > table.length) {
+            grow();
+        }
+        insert(value);
+        size++;
+        return true;
+    }
+
+    /**
+     * @param value the value to remove
+     * @return true if it was in the set
+     */
+    boolean remove(int value) {
+        if (value == FREE) {
+            boolean removed = hasFreeValue;
+            hasFreeValue = false;
+            return removed;
+        }
+        int i = find(value);
+        if (i < 0) {
+            return false;
+        }
+        // Move back the values that would no longer be found past the free slot
+        int mask = table.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (table[j] == FREE) {
+                break;
+            }
+            int home = slot(table[j]);
+            boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+            if (movable) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = FREE;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all the values, the table is kept.
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(table, FREE);
+            size = 0;
+        }
+        hasFreeValue = false;
+    }
+
+    /**
+     * @return the slot of the value, -1 if it isn't in the table
+     */
+    private int find(int value) {
+        int mask = table.length - 1;
+        for (int i = slot(value); table[i] != FREE; i = (i + 1) & mask) {
+            if (table[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int value) {
+        int mask = table.length - 1;
+        int i = slot(value);
+        while (table[i] != FREE) {
+            i = (i + 1) & mask;
+        }
+        table[i] = value;
+    }
+
+    private void grow() {
+        int[] previous = table;
+        table = new int[previous.length * 2];
+        Arrays.fill(table, FREE);
+        for (int value : previous) {
+            if (value != FREE) {
+                insert(value);
+            }
+        }
+    }
+
+    /**
+     * @return the first slot to look for the value in, the ids that follow each other are spread
+     */
+    private int slot(int value) {
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.MediaInfo;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.JSONObject;
+
+/**
+ * Keeps the serialized media sub-object of the recent MediaInfo instances.
+ *
+ * The MediaInfo of the current item is the same instance for every status update of that item,
+ * so the metadata, tracks and text track style only have to be serialized once per item.
+ * Entries are keyed by the MediaInfo identity and the field mask, the least recently used entry is
+ * evicted when the cache is full, and everything is dropped when the current item or the queue changes.
+ * The cached objects are shared between updates and must not be modified.
+ */
+final class MediaInfoCache {
+
+    /** Default maximum number of entries. */
+    static final int DEFAULT_CAPACITY = 4;
+
+    /** Maximum number of entries. */
+    private final int capacity;
+    /** The entries, least recently used first. */
+    private final LinkedHashMap<Key, JSONObject> entries;
+    /** The item the entries belong to. */
+    private int currentItemId = 0;
+
+    /**
+     * MediaInfoCache constructor.
+     * @param capacity maximum number of entries
+     */
+    MediaInfoCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries =
+            new LinkedHashMap<Key, JSONObject>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, JSONObject> eldest) {
+                    return size() > MediaInfoCache.this.capacity;
+                }
+            };
+    }
+
+    /**
+     * @param itemId the current item, the cache is cleared if it changed
+     * @param mediaInfo the media info
+     * @param fields the fields of the media object
+     * @return the cached media object, or null
+     */
+    synchronized JSONObject get(int itemId, MediaInfo mediaInfo, FieldMask fields) {
+        if (itemId != currentItemId) {
+            entries.clear();
+            currentItemId = itemId;
+            return null;
+        }
+        return entries.get(new Key(mediaInfo, fields));
+    }
+
+    /**
+     * @param itemId the current item
+     * @param mediaInfo the media info
+     * @param fields the fields of the media object
+     * @param media the media object built for them
+     */
+    synchronized void put(int itemId, MediaInfo mediaInfo, FieldMask fields, JSONObject media) {
+        if (itemId != currentItemId) {
+            entries.clear();
+            currentItemId = itemId;
+        }
+        entries.put(new Key(mediaInfo, fields), media);
+    }
+
+    /**
+     * Drops all the entries.
+     */
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of entries
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Compares the MediaInfo and the mask by identity, hashing the MediaInfo contents would cost
+     * about as much as serializing it.
+     */
+    private static final class Key {
+
+        private final MediaInfo mediaInfo;
+        private final FieldMask fields;
+
+        Key(MediaInfo mediaInfo, FieldMask fields) {
+            this.mediaInfo = mediaInfo;
+            this.fields = fields;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mediaInfo == other.mediaInfo && fields == other.fields;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(mediaInfo) + System.identityHashCode(fields);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaStatus;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Parses the client load requests (chrome.cast.media.MediaInfo, QueueItem and QueueLoadRequest).
+ *
+ * Each request type is described by a schema of its fields, which are read with presence checks
+ * and typed accessors, so that the optional fields a sparse request leaves out cost nothing and no
+ * JSONException is thrown and caught per field.  Every invalid field is recorded with its path
+ * (eg. "items[3].media.duration") and reported at once instead of failing on the first one.
+ * A parser is meant to be used for one request.
+ */
+final class MediaRequestParser {
+
+    /** Field types. */
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_NUMBER = 1;
+    private static final int TYPE_BOOLEAN = 2;
+    private static final int TYPE_OBJECT = 3;
+    private static final int TYPE_ARRAY = 4;
+    /** An object, or an object already serialized as a string. */
+    private static final int TYPE_CUSTOM_DATA = 5;
+
+    /** Names of the types, by type. */
+    private static final String[] TYPE_NAMES = {
+        "a string",
+        "a number",
+        "a boolean",
+        "an object",
+        "an array",
+        "an object or a JSON object string"
+    };
+
+    /** chrome.cast.media.MediaInfo */
+    private static final Field CONTENT_ID = new Field("contentId", TYPE_STRING, false);
+    private static final Field CUSTOM_DATA = new Field("customData", TYPE_CUSTOM_DATA, false);
+    private static final Field CONTENT_TYPE = new Field("contentType", TYPE_STRING, false);
+    private static final Field DURATION = new Field("duration", TYPE_NUMBER, false);
+    private static final Field STREAM_TYPE = new Field("streamType", TYPE_STRING, false);
+    private static final Field METADATA = new Field("metadata", TYPE_OBJECT, false);
+    private static final Field TEXT_TRACK_STYLE = new Field("textTrackStyle", TYPE_OBJECT, false);
+
+    /** chrome.cast.media.QueueItem */
+    private static final Field MEDIA = new Field("media", TYPE_OBJECT, true);
+    private static final Field ACTIVE_TRACK_IDS = new Field("activeTrackIds", TYPE_ARRAY, false);
+    private static final Field AUTOPLAY = new Field("autoplay", TYPE_BOOLEAN, false);
+    private static final Field PLAYBACK_DURATION = new Field("playbackDuration", TYPE_NUMBER, false);
+    private static final Field PRELOAD_TIME = new Field("preloadTime", TYPE_NUMBER, false);
+    private static final Field START_TIME = new Field("startTime", TYPE_NUMBER, false);
+
+    /** chrome.cast.media.QueueLoadRequest */
+    private static final Field ITEMS = new Field("items", TYPE_ARRAY, true);
+    private static final Field START_INDEX = new Field("startIndex", TYPE_NUMBER, true);
+    private static final Field REPEAT_MODE = new Field("repeatMode", TYPE_STRING, true);
+
+    /** The validation errors, "path: message". */
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * A field of a request.
+     */
+    private static final class Field {
+
+        final String name;
+        final int type;
+        final boolean required;
+
+        Field(String name, int type, boolean required) {
+            this.name = name;
+            this.type = type;
+            this.required = required;
+        }
+    }
+
+    /**
+     * A parsed chrome.cast.media.QueueLoadRequest.
+     */
+    static final class QueueLoadRequest {
+
+        final MediaQueueItem[] items;
+        final int startIndex;
+        final int repeatMode;
+        final JSONObject customData;
+
+        QueueLoadRequest(MediaQueueItem[] items, int startIndex, int repeatMode, JSONObject customData) {
+            this.items = items;
+            this.startIndex = startIndex;
+            this.repeatMode = repeatMode;
+            this.customData = customData;
+        }
+    }
+
+    /**
+     * @return true if an invalid field was found
+     */
+    boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * @return the validation errors, in the order they were found
+     */
+    List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return all the validation errors in one message
+     */
+    String getErrorMessage() {
+        StringBuilder out = new StringBuilder();
+        for (String error : errors) {
+            if (out.length() > 0) {
+                out.append("; ");
+            }
+            out.append(error);
+        }
+        return out.toString();
+    }
+
+    /**
+     * @param json chrome.cast.media.QueueLoadRequest
+     * @return the request, or null if it is invalid (see getErrors)
+     */
+    QueueLoadRequest parseQueueLoadRequest(JSONObject json) {
+        JSONArray jsonItems = getArray(json, ITEMS, null, null);
+        int startIndex = (int) getLong(json, START_INDEX, null, 0);
+        String repeatMode = getString(json, REPEAT_MODE, null, null);
+        JSONObject customData = getObject(json, CUSTOM_DATA, null, null);
+
+        int intRepeatMode = MediaStatus.REPEAT_MODE_REPEAT_OFF;
+        if (repeatMode != null) {
+            intRepeatMode = ChromecastUtilities.findAndroidRepeatMode(repeatMode);
+            if (intRepeatMode < 0) {
+                error(null, REPEAT_MODE.name, "invalid repeat mode " + repeatMode);
+            }
+        }
+        MediaQueueItem[] items = null;
+        if (jsonItems != null) {
+            items = new MediaQueueItem[jsonItems.length()];
+            for (int i = 0; i < items.length; i++) {
+                String path = "items[" + i + "]";
+                JSONObject jsonItem = jsonItems.optJSONObject(i);
+                if (jsonItem == null) {
+                    error(null, path, "expected an object");
+                    continue;
+                }
+                items[i] = parseQueueItem(jsonItem, path);
+            }
+            if (startIndex < 0 || startIndex >= items.length) {
+                error(null, START_INDEX.name, "out of range");
+            }
+        }
+        if (hasErrors()) {
+            return null;
+        }
+        return new QueueLoadRequest(items, startIndex, intRepeatMode, customData);
+    }
+
+    /**
+     * @param json chrome.cast.media.QueueItem
+     * @param path path of the item in the request, for the errors, null for the root
+     * @return the item, or null if the media is missing
+     */
+    MediaQueueItem parseQueueItem(JSONObject json, String path) {
+        JSONObject media = getObject(json, MEDIA, path, null);
+        if (media == null) {
+            return null;
+        }
+        MediaQueueItem.Builder builder = new MediaQueueItem.Builder(parseMediaInfo(media, join(path, MEDIA.name)));
+
+        JSONArray trackIds = getArray(json, ACTIVE_TRACK_IDS, path, null);
+        if (trackIds != null) {
+            long[] activeTrackIds = new long[trackIds.length()];
+            for (int i = 0; i < activeTrackIds.length; i++) {
+                Object trackId = trackIds.opt(i);
+                if (trackId instanceof Number) {
+                    activeTrackIds[i] = ((Number) trackId).longValue();
+                } else {
+                    error(path, ACTIVE_TRACK_IDS.name + "[" + i + "]", "expected a number");
+                }
+            }
+            builder.setActiveTrackIds(activeTrackIds);
+        }
+        if (has(json, AUTOPLAY)) {
+            builder.setAutoplay(getBoolean(json, AUTOPLAY, path, true));
+        }
+        JSONObject customData = getObject(json, CUSTOM_DATA, path, null);
+        if (customData != null) {
+            builder.setCustomData(customData);
+        }
+        if (has(json, PLAYBACK_DURATION)) {
+            builder.setPlaybackDuration(getDouble(json, PLAYBACK_DURATION, path, 0));
+        }
+        if (has(json, PRELOAD_TIME)) {
+            builder.setPreloadTime(getDouble(json, PRELOAD_TIME, path, 0));
+        }
+        if (has(json, START_TIME)) {
+            builder.setStartTime(getDouble(json, START_TIME, path, 0));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param json chrome.cast.media.MediaInfo
+     * @param path path of the media in the request, for the errors, null for the root
+     * @return the media info, the missing fields get the same defaults as before
+     */
+    MediaInfo parseMediaInfo(JSONObject json, String path) {
+        return ChromecastUtilities.createMediaInfo(
+            getString(json, CONTENT_ID, path, ""),
+            getObject(json, CUSTOM_DATA, path, new JSONObject()),
+            getString(json, CONTENT_TYPE, path, "unknown"),
+            getLong(json, DURATION, path, 0),
+            getString(json, STREAM_TYPE, path, "unknown"),
+            getObject(json, METADATA, path, new JSONObject()),
+            getObject(json, TEXT_TRACK_STYLE, path, new JSONObject())
+        );
+    }
+
+    /**
+     * @param json a request with a customData (chrome.cast.media.LoadRequest)
+     * @param path path of the request, for the errors, null for the root
+     * @return the customData, or null if it is missing or invalid (see getErrors)
+     */
+    JSONObject parseCustomData(JSONObject json, String path) {
+        return getObject(json, CUSTOM_DATA, path, null);
+    }
+
+    /* -------------------   Typed accessors  ---------------------------------- */
+
+    /**
+     * @return true if the field is set (null counts as not set)
+     */
+    private static boolean has(JSONObject json, Field field) {
+        return !json.isNull(field.name);
+    }
+
+    /**
+     * Reads a field, recording an error if a required field is missing or has the wrong type.
+     * Numbers and booleans may also be sent as strings, like JSONObject.getXxx() accept them, and
+     * the customData as a JSON string.
+     * @return the value converted to the field type (String, Number, Boolean, JSONObject or JSONArray), or null
+     */
+    private Object read(JSONObject json, Field field, String path) {
+        Object value = json.opt(field.name);
+        if (value == null || value == JSONObject.NULL) {
+            if (field.required) {
+                error(path, field.name, "is required");
+            }
+            return null;
+        }
+        switch (field.type) {
+            case TYPE_STRING:
+                return value instanceof String ? value : String.valueOf(value);
+            case TYPE_NUMBER:
+                if (value instanceof Number) {
+                    return value;
+                }
+                if (value instanceof String && isNumber((String) value)) {
+                    return Double.valueOf((String) value);
+                }
+                break;
+            case TYPE_BOOLEAN:
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                if ("true".equalsIgnoreCase(String.valueOf(value))) {
+                    return Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase(String.valueOf(value))) {
+                    return Boolean.FALSE;
+                }
+                break;
+            case TYPE_OBJECT:
+                if (value instanceof JSONObject) {
+                    return value;
+                }
+                break;
+            case TYPE_ARRAY:
+                if (value instanceof JSONArray) {
+                    return value;
+                }
+                break;
+            case TYPE_CUSTOM_DATA:
+                JSONObject customData = ChromecastUtilities.getCustomData(value);
+                if (customData != null) {
+                    return customData;
+                }
+                break;
+            default:
+        }
+        error(path, field.name, "expected " + TYPE_NAMES[field.type]);
+        return null;
+    }
+
+    private String getString(JSONObject json, Field field, String path, String defaultValue) {
+        Object value = read(json, field, path);
+        return value != null ? (String) value : defaultValue;
+    }
+
+    private long getLong(JSONObject json, Field field, String path, long defaultValue) {
+        Object value = read(json, field, path);
+        return value != null ? ((Number) value).longValue() : defaultValue;
+    }
+
+    private double getDouble(JSONObject json, Field field, String path, double defaultValue) {
+        Object value = read(json, field, path);
+        return value != null ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    private boolean getBoolean(JSONObject json, Field field, String path, boolean defaultValue) {
+        Object value = read(json, field, path);
+        return value != null ? (Boolean) value : defaultValue;
+    }
+
+    private JSONObject getObject(JSONObject json, Field field, String path, JSONObject defaultValue) {
+        Object value = read(json, field, path);
+        return value != null ? (JSONObject) value : defaultValue;
+    }
+
+    private JSONArray getArray(JSONObject json, Field field, String path, JSONArray defaultValue) {
+        Object value = read(json, field, path);
+        return value != null ? (JSONArray) value : defaultValue;
+    }
+
+    /**
+     * @return true if the string is a decimal number, checked without throwing a NumberFormatException
+     */
+    private static boolean isNumber(String value) {
+        int length = value.length();
+        int i = 0;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        boolean digits = false;
+        boolean dot = false;
+        boolean exponent = false;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !dot && !exponent) {
+                dot = true;
+            } else if ((c == 'e' || c == 'E') && digits && !exponent) {
+                exponent = true;
+                digits = false;
+                if (i + 1 < length && (value.charAt(i + 1) == '-' || value.charAt(i + 1) == '+')) {
+                    i++;
+                }
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    private void error(String path, String name, String message) {
+        errors.add(join(path, name) + ": " + message);
+    }
+
+    private static String join(String path, String name) {
+        return path == null ? name : path + "." + name;
+    }
+}
@@ -0,0 +1,228 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.AdBreakStatus;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaLiveSeekableRange;
+import com.google.android.gms.cast.MediaQueueData;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.cast.VideoInfo;
+import com.google.android.gms.cast.framework.CastSession;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+import org.json.JSONObject;
+
+/**
+ * Immutable copy of the values needed to build a media object.
+ *
+ * Capturing only reads from the Cast SDK, which has to happen on the main thread,
+ * the JSON can then be built with {@link ChromecastUtilities#createMediaObject(MediaStatusSnapshot)}
+ * on any thread.  MediaInfo, MediaQueueData, the customData, the break, seekable range and
+ * video infos and the queue snapshot are kept as references since they are not modified once
+ * they have been received.
+ */
+final class MediaStatusSnapshot {
+
+    final int currentItemId;
+    /** Stream position in ms. */
+    final long streamPosition;
+    final JSONObject customData;
+    final int idleReason;
+    final boolean isAlive;
+    final int loadingItemId;
+    final MediaInfo mediaInfo;
+    final double playbackRate;
+    final int playerState;
+    final int preloadedItemId;
+    final MediaQueueData queueData;
+    final int queueRepeatMode;
+    final String sessionId;
+    final double volume;
+    final boolean mute;
+    final long[] activeTrackIds;
+    /** The queue items of this session, null if there are none. */
+    final QueueSnapshot queue;
+    /** Null if no ad break is playing. */
+    final AdBreakStatus breakStatus;
+    /** Null if the media isn't a live stream. */
+    final MediaLiveSeekableRange liveSeekableRange;
+    /** Null if unknown. */
+    final VideoInfo videoInfo;
+    /** MediaStatus.COMMAND_* flags. */
+    final long supportedMediaCommands;
+
+    MediaStatusSnapshot(
+        int currentItemId,
+        long streamPosition,
+        JSONObject customData,
+        int idleReason,
+        boolean isAlive,
+        int loadingItemId,
+        MediaInfo mediaInfo,
+        double playbackRate,
+        int playerState,
+        int preloadedItemId,
+        MediaQueueData queueData,
+        int queueRepeatMode,
+        String sessionId,
+        double volume,
+        boolean mute,
+        long[] activeTrackIds,
+        QueueSnapshot queue
+    ) {
+        this(
+            currentItemId,
+            streamPosition,
+            customData,
+            idleReason,
+            isAlive,
+            loadingItemId,
+            mediaInfo,
+            playbackRate,
+            playerState,
+            preloadedItemId,
+            queueData,
+            queueRepeatMode,
+            sessionId,
+            volume,
+            mute,
+            activeTrackIds,
+            queue,
+            null,
+            null,
+            null,
+            0
+        );
+    }
+
+    MediaStatusSnapshot(
+        int currentItemId,
+        long streamPosition,
+        JSONObject customData,
+        int idleReason,
+        boolean isAlive,
+        int loadingItemId,
+        MediaInfo mediaInfo,
+        double playbackRate,
+        int playerState,
+        int preloadedItemId,
+        MediaQueueData queueData,
+        int queueRepeatMode,
+        String sessionId,
+        double volume,
+        boolean mute,
+        long[] activeTrackIds,
+        QueueSnapshot queue,
+        AdBreakStatus breakStatus,
+        MediaLiveSeekableRange liveSeekableRange,
+        VideoInfo videoInfo,
+        long supportedMediaCommands
+    ) {
+        this.currentItemId = currentItemId;
+        this.streamPosition = streamPosition;
+        this.customData = customData;
+        this.idleReason = idleReason;
+        this.isAlive = isAlive;
+        this.loadingItemId = loadingItemId;
+        this.mediaInfo = mediaInfo;
+        this.playbackRate = playbackRate;
+        this.playerState = playerState;
+        this.preloadedItemId = preloadedItemId;
+        this.queueData = queueData;
+        this.queueRepeatMode = queueRepeatMode;
+        this.sessionId = sessionId;
+        this.volume = volume;
+        this.mute = mute;
+        this.activeTrackIds = activeTrackIds;
+        this.queue = queue;
+        this.breakStatus = breakStatus;
+        this.liveSeekableRange = liveSeekableRange;
+        this.videoInfo = videoInfo;
+        this.supportedMediaCommands = supportedMediaCommands;
+    }
+
+    /**
+     * Reads the current media status of a session.
+     * @param session the session
+     * @param queue the queue items to include, left out if they were read from another session
+     * @return the snapshot, or null if there is no media status
+     */
+    static MediaStatusSnapshot capture(CastSession session, QueueSnapshot queue) {
+        if (session == null) {
+            return null;
+        }
+        RemoteMediaClient client = session.getRemoteMediaClient();
+        if (client == null) {
+            return null;
+        }
+        return capture(session.getSessionId(), client.getMediaStatus(), client.getMediaInfo(), queue);
+    }
+
+    /**
+     * Reads a media status, on the calling thread.
+     * @param sessionId id of the session the status belongs to
+     * @param mediaStatus the media status
+     * @param mediaInfo the media of the status
+     * @param queue the queue items to include, left out if they were read from another session
+     * @return the snapshot, or null if there is no media status
+     */
+    static MediaStatusSnapshot capture(String sessionId, MediaStatus mediaStatus, MediaInfo mediaInfo, QueueSnapshot queue) {
+        if (mediaStatus == null) {
+            return null;
+        }
+        long[] activeTrackIds = mediaStatus.getActiveTrackIds();
+        return new MediaStatusSnapshot(
+            mediaStatus.getCurrentItemId(),
+            mediaStatus.getStreamPosition(),
+            mediaStatus.getCustomData(),
+            mediaStatus.getIdleReason(),
+            mediaStatus.getPlayerState() != MediaStatus.PLAYER_STATE_IDLE,
+            mediaStatus.getLoadingItemId(),
+            mediaInfo,
+            mediaStatus.getPlaybackRate(),
+            mediaStatus.getPlayerState(),
+            mediaStatus.getPreloadedItemId(),
+            mediaStatus.getQueueData(),
+            mediaStatus.getQueueRepeatMode(),
+            sessionId,
+            mediaStatus.getStreamVolume(),
+            mediaStatus.isMute(),
+            activeTrackIds != null ? activeTrackIds.clone() : null,
+            queue != null && queue.getItems(sessionId) != null ? queue : null,
+            mediaStatus.getAdBreakStatus(),
+            mediaStatus.getLiveSeekableRange(),
+            mediaStatus.getVideoInfo(),
+            mediaStatus.getSupportedMediaCommands()
+        );
+    }
+
+    /**
+     * Creates a copy of this snapshot that reports the media as idle.
+     * Used to tell the client that the previous media finished or was interrupted.
+     * @param reason the MediaStatus idle reason
+     * @return the idle snapshot
+     */
+    MediaStatusSnapshot withIdleReason(int reason) {
+        return new MediaStatusSnapshot(
+            currentItemId,
+            streamPosition,
+            customData,
+            reason,
+            isAlive,
+            loadingItemId,
+            mediaInfo,
+            playbackRate,
+            MediaStatus.PLAYER_STATE_IDLE,
+            preloadedItemId,
+            queueData,
+            queueRepeatMode,
+            sessionId,
+            volume,
+            mute,
+            activeTrackIds,
+            queue,
+            breakStatus,
+            liveSeekableRange,
+            videoInfo,
+            supportedMediaCommands
+        );
+    }
+}
@@ -0,0 +1,45 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.framework.CastSession;
+
+/**
+ * The work ChromecastSession does on the main thread for each media status update: reads the status
+ * into a snapshot and anchors the playback clock on it.
+ *
+ * Must be called on the main thread.  Doesn't depend on the rest of the session so that it can be
+ * run against fakes of the Cast SDK.
+ */
+final class MediaStatusTracker {
+
+    /** Anchored on each captured status. */
+    private final PlaybackClock playbackClock;
+    /** Last captured media status. */
+    private MediaStatusSnapshot lastMediaStatus;
+
+    /**
+     * MediaStatusTracker constructor.
+     * @param playbackClock the clock to anchor on each captured status
+     */
+    MediaStatusTracker(PlaybackClock playbackClock) {
+        this.playbackClock = playbackClock;
+    }
+
+    /**
+     * Reads the current media status of the session, or reports the last one as idle.
+     * @param session the session
+     * @param queue the queue items of the session
+     * @param idleReason the MediaStatus idle reason to report the last status with, null to read the current status
+     * @param now SystemClock.elapsedRealtime()
+     * @return the snapshot, or null if there is no media status
+     */
+    MediaStatusSnapshot capture(CastSession session, QueueSnapshot queue, Integer idleReason, long now) {
+        if (idleReason != null && lastMediaStatus != null) {
+            lastMediaStatus = lastMediaStatus.withIdleReason(idleReason);
+            return lastMediaStatus;
+        }
+        MediaStatusSnapshot out = MediaStatusSnapshot.capture(session, queue);
+        lastMediaStatus = out;
+        playbackClock.anchor(out, now);
+        return out;
+    }
+}
@@ -0,0 +1,208 @@
+package com.tbachir.plugins.chromecast;
+
+import com.getcapacitor.JSObject;
+import java.util.Iterator;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Turns consecutive MEDIA_UPDATE payloads into small patches when the "delta" update mode is enabled.
+ *
+ * Every encoded payload carries a sequence number so the JS-side can detect a missed update.
+ * A full snapshot is sent for the first update, every {@link #snapshotInterval} updates
+ * and whenever one is requested, the updates in between only contain a JSON merge patch
+ * (RFC 7396) of the fields that changed, removed fields are set to null.  As in any merge patch,
+ * a null in the patch means "delete": a member set to null inside customData (or any other nested
+ * object) is removed by the JS-side instead of being kept with a null value.  The next snapshot
+ * has it again.
+ *
+ * The encoder keeps a reference to the last emitted media object instead of a copy: the media
+ * objects are built for each update and never modified once sent, and the sub-objects cached between
+ * updates (eg. the media information) are the same instance, so comparing them costs nothing.
+ *
+ * Snapshot: {"sequence": 12, "snapshot": true, "media": {...}}
+ * Patch:    {"sequence": 13, "snapshot": false, "patch": {"currentTime": 42.5}}
+ */
+final class MediaUpdateEncoder {
+
+    /** Default number of updates between two full snapshots. */
+    static final int DEFAULT_SNAPSHOT_INTERVAL = 50;
+
+    /** Whether payloads should be encoded at all. */
+    private boolean enabled = false;
+    /** Number of updates between two full snapshots. */
+    private int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+    /** The last emitted media object, it is replaced but never modified. */
+    private JSONObject lastMedia;
+    /** Sequence number of the last emitted payload. */
+    private long sequence = 0;
+    /** Number of patches sent since the last snapshot. */
+    private int patchesSinceSnapshot = 0;
+    /** Whether the next payload must be a snapshot. */
+    private boolean snapshotRequested = true;
+
+    /**
+     * Enables or disables the encoding, this always resets the encoder.
+     * @param enabled true to send patches instead of full media objects
+     * @param snapshotInterval number of updates between two full snapshots, values below 1 use the default
+     */
+    synchronized void configure(boolean enabled, int snapshotInterval) {
+        this.enabled = enabled;
+        this.snapshotInterval = snapshotInterval > 0 ? snapshotInterval : DEFAULT_SNAPSHOT_INTERVAL;
+        reset();
+    }
+
+    synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Forgets the last emitted media object, the next payload will be a snapshot.
+     */
+    synchronized void reset() {
+        lastMedia = null;
+        snapshotRequested = true;
+    }
+
+    /**
+     * Makes the next payload a snapshot.
+     * @return the last emitted media object, shared so it must not be modified, or null if there is none
+     */
+    synchronized JSObject requestSnapshot() {
+        snapshotRequested = true;
+        try {
+            return ChromecastUtilities.toJSObject(lastMedia);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encodes a media object.
+     * @param media the full media object, kept until the next update so it must not be modified afterwards
+     * @return the payload to send, or null if nothing changed since the last payload
+     */
+    synchronized JSObject encode(JSONObject media) {
+        JSObject out = new JSObject();
+        try {
+            if (!snapshotRequested && lastMedia != null && patchesSinceSnapshot < snapshotInterval - 1) {
+                JSONObject patch = diff(lastMedia, media);
+                if (patch == null) {
+                    return null;
+                }
+                lastMedia = media;
+                patchesSinceSnapshot++;
+                out.put("sequence", ++sequence);
+                out.put("snapshot", false);
+                out.put("patch", patch);
+                return out;
+            }
+            lastMedia = media;
+            snapshotRequested = false;
+            patchesSinceSnapshot = 0;
+            out.put("sequence", ++sequence);
+            out.put("snapshot", true);
+            out.put("media", lastMedia);
+        } catch (JSONException e) {}
+        return out;
+    }
+
+    /**
+     * Creates the merge patch that turns previous into current.
+     * Nested objects are patched recursively, arrays and other values are replaced as a whole.
+     * The same instance in both objects is unchanged without being walked.  The patch shares the
+     * changed values with current.
+     * @param previous the previous object
+     * @param current the current object
+     * @return the patch, or null if both objects are equal
+     * @throws JSONException if a value can't be written to the patch
+     */
+    static JSONObject diff(JSONObject previous, JSONObject current) throws JSONException {
+        JSONObject patch = null;
+        Iterator<String> keys = current.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = current.opt(key);
+            Object oldValue = previous.opt(key);
+            if (oldValue == value) {
+                continue;
+            }
+            Object change = null;
+            if (oldValue instanceof JSONObject && value instanceof JSONObject) {
+                change = diff((JSONObject) oldValue, (JSONObject) value);
+            } else if (oldValue == null || !valueEquals(oldValue, value)) {
+                change = value;
+            }
+            if (change != null) {
+                if (patch == null) {
+                    patch = new JSONObject();
+                }
+                patch.put(key, change);
+            }
+        }
+        keys = previous.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (!current.has(key)) {
+                if (patch == null) {
+                    patch = new JSONObject();
+                }
+                patch.put(key, JSONObject.NULL);
+            }
+        }
+        return patch;
+    }
+
+    /**
+     * Deep equality of two JSON values.
+     * Numbers are compared by value so that eg. an Integer and a Long holding the same id are equal.
+     */
+    static boolean valueEquals(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            if (isIntegral(a) && isIntegral(b)) {
+                return ((Number) a).longValue() == ((Number) b).longValue();
+            }
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue()) == 0;
+        }
+        if (a instanceof JSONObject && b instanceof JSONObject) {
+            JSONObject objA = (JSONObject) a;
+            JSONObject objB = (JSONObject) b;
+            if (objA.length() != objB.length()) {
+                return false;
+            }
+            Iterator<String> keys = objA.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!objB.has(key) || !valueEquals(objA.opt(key), objB.opt(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof JSONArray && b instanceof JSONArray) {
+            JSONArray arrA = (JSONArray) a;
+            JSONArray arrB = (JSONArray) b;
+            if (arrA.length() != arrB.length()) {
+                return false;
+            }
+            for (int i = 0; i < arrA.length(); i++) {
+                if (!valueEquals(arrA.opt(i), arrB.opt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return a.equals(b);
+    }
+
+    private static boolean isIntegral(Object number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+}
@@ -0,0 +1,208 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.MediaMetadata;
+import java.util.HashMap;
+import java.util.Iterator;
+import org.json.JSONObject;
+
+/**
+ * Translates the metadata keys between the client (chrome.cast) names and the MediaMetadata names.
+ *
+ * The well known keys are registered once, each translation is then a single hash lookup in either
+ * direction instead of a walk through a string switch.  Apps can add their own keys with the
+ * metadataKeys option of initialize, so that they are sent and read with their type rather than as
+ * strings.  A registry is filled before it is published with {@link #setDefault}, then only read,
+ * so the event thread never sees a registry being modified.
+ */
+final class MetadataKeyRegistry {
+
+    /** Key types, the values match the MediaMetadata ones. */
+    static final int TYPE_CUSTOM = 0;
+    static final int TYPE_STRING = 1;
+    static final int TYPE_INT = 2;
+    static final int TYPE_DOUBLE = 3;
+    static final int TYPE_DATE = 4;
+    static final int TYPE_MS = 5;
+
+    /** Names of the types, by type. */
+    private static final String[] TYPE_NAMES = { "custom", "string", "int", "double", "date", "ms" };
+
+    /** The registry used by ChromecastUtilities, replaced as a whole by initialize. */
+    private static volatile MetadataKeyRegistry current = createDefault();
+
+    /** Keys by client name, including the aliases. */
+    private final HashMap<String, Key> byClientName = new HashMap<>();
+    /** Keys by Android name. */
+    private final HashMap<String, Key> byAndroidName = new HashMap<>();
+
+    /**
+     * A metadata key.
+     */
+    static final class Key {
+
+        /** The name sent to the client. */
+        final String clientName;
+        /** The MediaMetadata name. */
+        final String androidName;
+        /** One of the TYPE_ constants. */
+        final int type;
+
+        Key(String clientName, String androidName, int type) {
+            this.clientName = clientName;
+            this.androidName = androidName;
+            this.type = type;
+        }
+    }
+
+    /**
+     * @return the registry used to translate the metadata
+     */
+    static MetadataKeyRegistry getDefault() {
+        return current;
+    }
+
+    /**
+     * Publishes the registry used to translate the metadata, it must not be modified afterwards.
+     * @param registry the new registry
+     */
+    static void setDefault(MetadataKeyRegistry registry) {
+        current = registry;
+    }
+
+    /**
+     * Builds a registry of the well known keys plus the app keys, sent and read under the same name.
+     * @param keys the type name of each app key, eg. {"rating": "double"}, null for none
+     * @return the new registry, not published yet
+     * @throws IllegalArgumentException if a type is unknown or a key is already a well known one
+     */
+    static MetadataKeyRegistry withCustomKeys(JSONObject keys) {
+        MetadataKeyRegistry registry = createDefault();
+        if (keys == null) {
+            return registry;
+        }
+        Iterator<String> names = keys.keys();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (registry.fromClient(name) != null || registry.fromAndroid(name) != null) {
+                throw new IllegalArgumentException("metadataKeys: " + name + " is a well known key");
+            }
+            int type = parseType(keys.optString(name));
+            if (type == TYPE_CUSTOM) {
+                throw new IllegalArgumentException("metadataKeys: invalid type for " + name + ": " + keys.opt(name));
+            }
+            registry.register(name, name, type);
+        }
+        return registry;
+    }
+
+    /**
+     * Registers a key in both directions, replacing any previous registration of either name.
+     * @param clientName the client name
+     * @param androidName the MediaMetadata name
+     * @param type one of the TYPE_ constants
+     */
+    void register(String clientName, String androidName, int type) {
+        if (type < TYPE_CUSTOM || type > TYPE_MS) {
+            throw new IllegalArgumentException("Invalid metadata type: " + type);
+        }
+        Key key = new Key(clientName, androidName, type);
+        byClientName.put(clientName, key);
+        byAndroidName.put(androidName, key);
+    }
+
+    /**
+     * Registers another client name for a registered Android key, only used to read the client metadata.
+     * @param clientName the other client name
+     * @param androidName the registered MediaMetadata name
+     */
+    void registerAlias(String clientName, String androidName) {
+        Key key = byAndroidName.get(androidName);
+        if (key == null) {
+            throw new IllegalArgumentException("Unknown metadata key: " + androidName);
+        }
+        byClientName.put(clientName, key);
+    }
+
+    /**
+     * @param clientName a client name
+     * @return the key, or null if the name isn't registered
+     */
+    Key fromClient(String clientName) {
+        return byClientName.get(clientName);
+    }
+
+    /**
+     * @param androidName a MediaMetadata name
+     * @return the key, or null if the name isn't registered
+     */
+    Key fromAndroid(String androidName) {
+        return byAndroidName.get(androidName);
+    }
+
+    /**
+     * @param androidName a MediaMetadata name
+     * @return the type of the key, TYPE_CUSTOM if it isn't registered
+     */
+    int getType(String androidName) {
+        Key key = byAndroidName.get(androidName);
+        return key != null ? key.type : TYPE_CUSTOM;
+    }
+
+    /**
+     * @param type one of the TYPE_ constants
+     * @return the name of the type ("string", "int", "double", "date", "ms" or "custom")
+     */
+    static String getTypeName(int type) {
+        return type >= 0 && type < TYPE_NAMES.length ? TYPE_NAMES[type] : TYPE_NAMES[TYPE_CUSTOM];
+    }
+
+    /**
+     * @param typeName "string", "int", "double", "date" or "ms"
+     * @return the TYPE_ constant of the name, TYPE_CUSTOM if it isn't one of them
+     */
+    static int parseType(String typeName) {
+        for (int type = TYPE_STRING; type < TYPE_NAMES.length; type++) {
+            if (TYPE_NAMES[type].equals(typeName)) {
+                return type;
+            }
+        }
+        return TYPE_CUSTOM;
+    }
+
+    private static MetadataKeyRegistry createDefault() {
+        MetadataKeyRegistry registry = new MetadataKeyRegistry();
+        registry.register("albumArtist", MediaMetadata.KEY_ALBUM_ARTIST, TYPE_STRING);
+        registry.register("albumName", MediaMetadata.KEY_ALBUM_TITLE, TYPE_STRING);
+        registry.register("artist", MediaMetadata.KEY_ARTIST, TYPE_STRING);
+        registry.register("bookTitle", MediaMetadata.KEY_BOOK_TITLE, TYPE_STRING);
+        registry.register("broadcastDate", MediaMetadata.KEY_BROADCAST_DATE, TYPE_DATE);
+        registry.register("chapterNumber", MediaMetadata.KEY_CHAPTER_NUMBER, TYPE_STRING);
+        registry.register("chapterTitle", MediaMetadata.KEY_CHAPTER_TITLE, TYPE_STRING);
+        registry.register("composer", MediaMetadata.KEY_COMPOSER, TYPE_STRING);
+        registry.register("creationDate", MediaMetadata.KEY_CREATION_DATE, TYPE_DATE);
+        registry.register("discNumber", MediaMetadata.KEY_DISC_NUMBER, TYPE_INT);
+        registry.register("episode", MediaMetadata.KEY_EPISODE_NUMBER, TYPE_INT);
+        registry.register("height", MediaMetadata.KEY_HEIGHT, TYPE_INT);
+        registry.register("latitude", MediaMetadata.KEY_LOCATION_LATITUDE, TYPE_DOUBLE);
+        registry.register("longitude", MediaMetadata.KEY_LOCATION_LONGITUDE, TYPE_DOUBLE);
+        registry.register("location", MediaMetadata.KEY_LOCATION_NAME, TYPE_STRING);
+        registry.register("queueItemId", MediaMetadata.KEY_QUEUE_ITEM_ID, TYPE_INT);
+        registry.register("releaseDate", MediaMetadata.KEY_RELEASE_DATE, TYPE_DATE);
+        registry.register("season", MediaMetadata.KEY_SEASON_NUMBER, TYPE_INT);
+        registry.register("sectionDuration", MediaMetadata.KEY_SECTION_DURATION, TYPE_MS);
+        registry.register("sectionStartAbsoluteTime", MediaMetadata.KEY_SECTION_START_ABSOLUTE_TIME, TYPE_MS);
+        registry.register("sectionStartTimeInContainer", MediaMetadata.KEY_SECTION_START_TIME_IN_CONTAINER, TYPE_MS);
+        registry.register("sectionStartTimeInMedia", MediaMetadata.KEY_SECTION_START_TIME_IN_MEDIA, TYPE_MS);
+        registry.register("seriesTitle", MediaMetadata.KEY_SERIES_TITLE, TYPE_STRING);
+        registry.register("studio", MediaMetadata.KEY_STUDIO, TYPE_STRING);
+        registry.register("subtitle", MediaMetadata.KEY_SUBTITLE, TYPE_STRING);
+        registry.register("title", MediaMetadata.KEY_TITLE, TYPE_STRING);
+        registry.register("trackNumber", MediaMetadata.KEY_TRACK_NUMBER, TYPE_INT);
+        registry.register("width", MediaMetadata.KEY_WIDTH, TYPE_INT);
+        // The names used by chrome.cast for the same keys
+        registry.registerAlias("creationDateTime", MediaMetadata.KEY_CREATION_DATE);
+        registry.registerAlias("originalAirDate", MediaMetadata.KEY_RELEASE_DATE);
+        registry.registerAlias("locationName", MediaMetadata.KEY_LOCATION_NAME);
+        return registry;
+    }
+}
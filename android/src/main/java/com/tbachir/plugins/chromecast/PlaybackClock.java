@@ -0,0 +1,111 @@
+package com.tbachir.plugins.chromecast;
+
+import com.getcapacitor.JSObject;
+import com.google.android.gms.cast.MediaStatus;
+
+/**
+ * Estimates the playback position between two media statuses.
+ *
+ * The stream position of a MediaStatus is the position when the receiver sent it, the clock
+ * is anchored on each status and extrapolates from there with the playback rate, so the position
+ * can be read at any time without a round trip to the receiver.
+ * Times are SystemClock.elapsedRealtime() values, passed in to keep the clock testable.
+ */
+final class PlaybackClock {
+
+    /** False until the first status, or after the media is gone. */
+    private boolean anchored = false;
+    /** Stream position in ms at anchorTime. */
+    private long position;
+    /** Stream duration in ms, 0 or less if unknown (eg. live streams). */
+    private long duration;
+    /** Position ms per elapsed ms, 0 while not playing. */
+    private double rate;
+    /** When the position was read. */
+    private long anchorTime;
+
+    /**
+     * Re-anchors the clock on a media status.
+     * @param status the media status, null if there is no media
+     * @param now the current time
+     */
+    synchronized void anchor(MediaStatusSnapshot status, long now) {
+        if (status == null) {
+            anchored = false;
+            return;
+        }
+        boolean playing = status.playerState == MediaStatus.PLAYER_STATE_PLAYING;
+        long durationMs = status.mediaInfo != null ? status.mediaInfo.getStreamDuration() : 0;
+        anchor(status.streamPosition, durationMs, playing ? status.playbackRate : 0, now);
+    }
+
+    /**
+     * Re-anchors the clock.
+     * @param positionMs the stream position at now
+     * @param durationMs the stream duration, 0 or less if unknown
+     * @param playbackRate the playback rate, 0 if not playing
+     * @param now the current time
+     */
+    synchronized void anchor(long positionMs, long durationMs, double playbackRate, long now) {
+        duration = durationMs;
+        if (anchored && position == positionMs && rate == playbackRate) {
+            // The same status read again, keep the time it was first seen
+            return;
+        }
+        anchored = true;
+        position = positionMs;
+        rate = playbackRate;
+        anchorTime = now;
+    }
+
+    /**
+     * @return true if a position can be estimated
+     */
+    synchronized boolean isAnchored() {
+        return anchored;
+    }
+
+    /**
+     * @param now the current time
+     * @return the estimated stream position in ms, 0 if the clock isn't anchored
+     */
+    synchronized long getPosition(long now) {
+        if (!anchored) {
+            return 0;
+        }
+        long out = position + (long) (Math.max(0, now - anchorTime) * rate);
+        if (duration > 0) {
+            out = Math.min(out, duration);
+        }
+        return Math.max(0, out);
+    }
+
+    /**
+     * Creates the position object (the MEDIA_PROGRESS payload and getEstimatedPosition result).
+     * @param now the current time
+     * @return the position object, or null if the clock isn't anchored
+     */
+    synchronized JSObject createPositionObject(long now) {
+        if (!anchored) {
+            return null;
+        }
+        return createPositionObject(getPosition(now), duration, rate, now);
+    }
+
+    /**
+     * Creates a position object.
+     * @param positionMs the stream position
+     * @param durationMs the stream duration
+     * @param playbackRate the rate at which the position moves, 0 if not playing
+     * @param timestamp when the position was read
+     * @return the position object
+     */
+    static JSObject createPositionObject(long positionMs, long durationMs, double playbackRate, long timestamp) {
+        JSObject out = new JSObject();
+        out.put("currentTime", positionMs / 1000.0);
+        out.put("duration", Math.max(0, durationMs) / 1000.0);
+        out.put("playbackRate", playbackRate);
+        out.put("timestamp", timestamp);
+        return out;
+    }
+}
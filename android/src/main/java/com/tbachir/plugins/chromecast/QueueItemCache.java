@@ -0,0 +1,162 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.MediaQueueItem;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Keeps the serialized queue items for the pages of getQueueItems, keyed by item id.
+ *
+ * An item is serialized again only when its MediaQueueItem instance or its position changed.  The
+ * size of each item is estimated when it is serialized, and the least recently used items are
+ * evicted until the total fits in the maximum size.  An item larger than the maximum size is not kept.
+ * Must be used from one thread (the main thread for the MediaQueue callbacks).
+ */
+final class QueueItemCache {
+
+    /** Default maximum size in bytes (1 MB). */
+    static final int DEFAULT_MAX_SIZE = 1024 * 1024;
+
+    /** Estimated bytes of a String without its chars (object, array and hash). */
+    private static final int STRING_OVERHEAD = 40;
+    /** Estimated bytes of a JSONObject and its empty map. */
+    private static final int OBJECT_OVERHEAD = 64;
+    /** Estimated bytes of a member of a JSONObject without its value (map node, the key is shared). */
+    private static final int MEMBER_OVERHEAD = 32;
+    /** Estimated bytes of a JSONArray and its empty list. */
+    private static final int ARRAY_OVERHEAD = 40;
+    /** Estimated bytes of an element of a JSONArray without its value (list slot). */
+    private static final int ELEMENT_OVERHEAD = 8;
+    /** Estimated bytes of a boxed number or boolean. */
+    private static final int BOX_SIZE = 16;
+
+    /** Maximum estimated size in bytes of the items held. */
+    private final int maxSize;
+    /** Estimated size in bytes of the items held. */
+    private int size = 0;
+    /** The items, least recently used first. */
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * A serialized queue item and what it was serialized from.
+     */
+    private static final class Entry {
+
+        final MediaQueueItem item;
+        final int orderId;
+        final JSONObject object;
+        /** Estimated size in bytes of object. */
+        final int size;
+
+        Entry(MediaQueueItem item, int orderId, JSONObject object, int size) {
+            this.item = item;
+            this.orderId = orderId;
+            this.object = object;
+            this.size = size;
+        }
+    }
+
+    /**
+     * QueueItemCache constructor.
+     * @param maxSize maximum estimated size in bytes of the items held
+     */
+    QueueItemCache(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+    }
+
+    /**
+     * Returns the queue item object, serialized again only if the item or its position changed.
+     * @param itemId id of the item
+     * @param item the item read from the MediaQueue
+     * @param orderId the position of the item in the queue
+     * @return the queue item object (see ChromecastUtilities.createQueueItem), shared so it must not be modified
+     */
+    JSONObject getQueueItem(int itemId, MediaQueueItem item, int orderId) {
+        Entry entry = entries.get(itemId);
+        if (entry != null && entry.item == item && entry.orderId == orderId) {
+            return entry.object;
+        }
+        JSONObject object = ChromecastUtilities.createQueueItem(item, orderId);
+        remove(itemId);
+        int objectSize = estimateSize(object);
+        if (objectSize <= maxSize) {
+            entries.put(itemId, new Entry(item, orderId, object, objectSize));
+            size += objectSize;
+            evict();
+        }
+        return object;
+    }
+
+    /**
+     * @param itemId id of an item that was removed or changed
+     */
+    void remove(int itemId) {
+        Entry entry = entries.remove(itemId);
+        if (entry != null) {
+            size -= entry.size;
+        }
+    }
+
+    /**
+     * Drops all the items.
+     */
+    void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * @return the number of items held
+     */
+    int getItemCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated size in bytes of the items held
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap held by a value of a queue item object, from its strings and members.
+     * The keys are not counted as they are literals shared by all the items.
+     * @param value a JSONObject, JSONArray, String or boxed primitive
+     * @return the estimated size in bytes
+     */
+    static int estimateSize(Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            int out = OBJECT_OVERHEAD;
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                out += MEMBER_OVERHEAD + estimateSize(object.opt(keys.next()));
+            }
+            return out;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            int out = ARRAY_OVERHEAD;
+            for (int i = 0; i < array.length(); i++) {
+                out += ELEMENT_OVERHEAD + estimateSize(array.opt(i));
+            }
+            return out;
+        }
+        if (value instanceof String) {
+            return STRING_OVERHEAD + 2 * ((String) value).length();
+        }
+        return value != null ? BOX_SIZE : 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Integer, Entry>> it = entries.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            size -= it.next().getValue().size;
+            it.remove();
+        }
+    }
+}
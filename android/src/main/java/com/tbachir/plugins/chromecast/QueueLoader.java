@@ -0,0 +1,183 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaStatus;
+import java.util.Arrays;
+
+/**
+ * Splits a large queue load into chunks, so that the receiver gets small messages and playback
+ * starts as soon as the first chunk is loaded.
+ *
+ * The first chunk starts at the start item and is sent with queueLoad.  The items after it are then
+ * appended in batches with queueInsertItems, and the items before the start item are inserted last,
+ * each batch before the start item (the anchor) so that they keep their order.  The id of the anchor is
+ * taken from the status of the loaded first chunk, the load fails if it can't be found.  A loader only plans
+ * the batches, the session sends them one at a time.  Must be used from one thread.
+ */
+final class QueueLoader {
+
+    /** The items of the queue, in order. */
+    private final MediaQueueItem[] items;
+    /** Index of the item to start playing. */
+    private final int startIndex;
+    /** Maximum number of items per message. */
+    private final int chunkSize;
+    /** Start of the first chunk. */
+    private final int firstStart;
+    /** End of the first chunk (exclusive). */
+    private final int firstEnd;
+    /** Start of the next batch appended after the first chunk. */
+    private int nextAfter;
+    /** Start of the next batch inserted before the first chunk, once all the following items were appended. */
+    private int nextBefore = 0;
+    /** Number of items loaded by the receiver. */
+    private int loaded = 0;
+    /** Id the receiver gave the start item, the items before it are inserted before this one. */
+    private int anchorItemId = MediaQueueItem.INVALID_ITEM_ID;
+
+    /**
+     * A batch of items to insert.
+     */
+    static final class Batch {
+
+        final MediaQueueItem[] items;
+        /** True if the items go before the anchor, false if they are appended. */
+        final boolean beforeAnchor;
+
+        Batch(MediaQueueItem[] items, boolean beforeAnchor) {
+            this.items = items;
+            this.beforeAnchor = beforeAnchor;
+        }
+    }
+
+    /**
+     * QueueLoader constructor.
+     * @param items the items of the queue, in order
+     * @param startIndex index of the item to start playing
+     * @param chunkSize maximum number of items per message, 0 or less to load all of them at once
+     */
+    QueueLoader(MediaQueueItem[] items, int startIndex, int chunkSize) {
+        this.items = items;
+        this.startIndex = startIndex;
+        if (chunkSize <= 0 || items.length <= chunkSize) {
+            // Everything fits in one message
+            this.chunkSize = items.length;
+            firstStart = 0;
+            firstEnd = items.length;
+        } else {
+            this.chunkSize = chunkSize;
+            firstStart = startIndex;
+            firstEnd = (int) Math.min(items.length, (long) startIndex + chunkSize);
+        }
+        nextAfter = firstEnd;
+    }
+
+    /**
+     * @return the items sent with queueLoad
+     */
+    MediaQueueItem[] getFirstChunk() {
+        return Arrays.copyOfRange(items, firstStart, firstEnd);
+    }
+
+    /**
+     * @return the index of the start item in the first chunk
+     */
+    int getFirstStartIndex() {
+        return startIndex - firstStart;
+    }
+
+    /**
+     * @return true if the items don't all fit in the first chunk
+     */
+    boolean isChunked() {
+        return firstEnd - firstStart < items.length;
+    }
+
+    /**
+     * @param itemId id the receiver gave the start item
+     */
+    void setAnchorItemId(int itemId) {
+        anchorItemId = itemId;
+    }
+
+    /**
+     * @return true if items are inserted before the start item, so its id must be known
+     */
+    boolean needsAnchor() {
+        return firstStart > 0;
+    }
+
+    /**
+     * Takes the id the receiver gave the start item from the media status of the loaded first chunk.
+     * The queue of the status must be the first chunk: the start item is looked up at its index in the
+     * chunk and must have the same content, a status of the previous queue is never used.
+     * @param status the media status once the first chunk is loaded, can be null
+     * @return true if the anchor was found
+     */
+    boolean findAnchor(MediaStatus status) {
+        if (status == null) {
+            return false;
+        }
+        MediaQueueItem loaded = status.getQueueItem(getFirstStartIndex());
+        if (loaded == null || loaded.getItemId() == MediaQueueItem.INVALID_ITEM_ID || !isSameContent(loaded, items[startIndex])) {
+            return false;
+        }
+        anchorItemId = loaded.getItemId();
+        return true;
+    }
+
+    int getAnchorItemId() {
+        return anchorItemId;
+    }
+
+    /**
+     * @param count number of items the receiver just loaded
+     */
+    void onLoaded(int count) {
+        loaded += count;
+    }
+
+    /**
+     * @return the number of items loaded by the receiver
+     */
+    int getLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return the number of items of the queue
+     */
+    int getTotal() {
+        return items.length;
+    }
+
+    private static boolean isSameContent(MediaQueueItem loaded, MediaQueueItem sent) {
+        MediaInfo loadedMedia = loaded.getMedia();
+        MediaInfo sentMedia = sent.getMedia();
+        if (loadedMedia == null || sentMedia == null) {
+            return loadedMedia == sentMedia;
+        }
+        String contentId = sentMedia.getContentId();
+        return contentId != null ? contentId.equals(loadedMedia.getContentId()) : loadedMedia.getContentId() == null;
+    }
+
+    /**
+     * @return the next batch to insert, or null if all the items were sent
+     */
+    Batch nextBatch() {
+        if (nextAfter < items.length) {
+            int end = (int) Math.min(items.length, (long) nextAfter + chunkSize);
+            Batch batch = new Batch(Arrays.copyOfRange(items, nextAfter, end), false);
+            nextAfter = end;
+            return batch;
+        }
+        if (nextBefore < firstStart) {
+            int end = (int) Math.min(firstStart, (long) nextBefore + chunkSize);
+            Batch batch = new Batch(Arrays.copyOfRange(items, nextBefore, end), true);
+            nextBefore = end;
+            return batch;
+        }
+        return null;
+    }
+}
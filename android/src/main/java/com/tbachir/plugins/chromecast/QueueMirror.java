@@ -0,0 +1,185 @@
+package com.tbachir.plugins.chromecast;
+
+import com.getcapacitor.JSObject;
+import com.google.android.gms.cast.MediaQueueItem;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Mirrors the item ids of the receiver queue, in order, and keeps the queue item objects that were
+ * built, keyed by item id.
+ *
+ * The MediaQueue callbacks are applied as deltas: an insert, remove or update only touches the
+ * items it is about, and returns the QUEUE_ITEMS_CHANGED payload that describes it.  The removed
+ * item ids are known here even though the MediaQueue no longer has them.  A queue item object is
+ * built again only when its MediaQueueItem or its position changed.  Must be used from one thread
+ * (the main thread for the MediaQueue callbacks).
+ */
+final class QueueMirror {
+
+    /** The item ids, in queue order, the first size ones are used. */
+    private int[] itemIds = new int[0];
+    /** Number of items in the queue. */
+    private int size = 0;
+    /** The queue item objects that were built, by item id. */
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    /**
+     * A queue item object and what it was built from.
+     */
+    private static final class Entry {
+
+        final MediaQueueItem item;
+        final int orderId;
+        final JSONObject object;
+
+        Entry(MediaQueueItem item, int orderId, JSONObject object) {
+            this.item = item;
+            this.orderId = orderId;
+            this.object = object;
+        }
+    }
+
+    /**
+     * @return the number of items in the queue
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index index of an item
+     * @return the item id, MediaQueueItem.INVALID_ITEM_ID if the index is out of the queue
+     */
+    int getItemId(int index) {
+        return index >= 0 && index < size ? itemIds[index] : MediaQueueItem.INVALID_ITEM_ID;
+    }
+
+    /**
+     * @param itemId id of an item
+     * @return the index of the item, -1 if it isn't in the queue
+     */
+    int indexOf(int itemId) {
+        for (int i = 0; i < size; i++) {
+            if (itemIds[i] == itemId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces the whole queue, the item objects are dropped with the previous items.
+     * @param newItemIds the item ids, in queue order
+     * @return the RELOAD change
+     */
+    JSObject reload(int[] newItemIds) {
+        itemIds = Arrays.copyOf(newItemIds, newItemIds.length);
+        size = newItemIds.length;
+        entries.clear();
+        return createChange("RELOAD", newItemIds);
+    }
+
+    /**
+     * Sets the new order of the same items, the item objects are kept until they are read again.
+     * @param newItemIds the item ids, in queue order
+     * @return the REORDER change
+     */
+    JSObject reorder(int[] newItemIds) {
+        itemIds = Arrays.copyOf(newItemIds, newItemIds.length);
+        size = newItemIds.length;
+        return createChange("REORDER", newItemIds);
+    }
+
+    /**
+     * @param startIndex index of the first inserted item
+     * @param insertedItemIds ids of the inserted items, in queue order
+     * @return the INSERT change, with the id of the item they were inserted before if any
+     */
+    JSObject insert(int startIndex, int[] insertedItemIds) {
+        startIndex = Math.max(0, Math.min(startIndex, size));
+        int count = insertedItemIds.length;
+        if (size + count > itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, Math.max(size + count, itemIds.length * 2));
+        }
+        System.arraycopy(itemIds, startIndex, itemIds, startIndex + count, size - startIndex);
+        System.arraycopy(insertedItemIds, 0, itemIds, startIndex, count);
+        size += count;
+
+        JSObject out = createChange("INSERT", insertedItemIds);
+        if (startIndex + count < size) {
+            out.put("insertBefore", itemIds[startIndex + count]);
+        }
+        return out;
+    }
+
+    /**
+     * @param indexes indexes of the removed items, before they were removed
+     * @return the REMOVE change
+     */
+    JSObject remove(int[] indexes) {
+        int[] sorted = Arrays.copyOf(indexes, indexes.length);
+        Arrays.sort(sorted);
+        int[] removedItemIds = new int[sorted.length];
+        if (sorted.length == 0 || sorted[0] < 0) {
+            return createChange("REMOVE", removedItemIds);
+        }
+        int write = sorted[0];
+        int next = 0;
+        for (int read = sorted[0]; read < size; read++) {
+            if (next < sorted.length && sorted[next] == read) {
+                removedItemIds[next++] = itemIds[read];
+                entries.remove(itemIds[read]);
+            } else {
+                itemIds[write++] = itemIds[read];
+            }
+        }
+        size = write;
+        return createChange("REMOVE", removedItemIds);
+    }
+
+    /**
+     * @param indexes indexes of the items that changed
+     * @param items the new items at the same positions, null for the ones that aren't in the cache
+     * @return the UPDATE change, with the objects of the items that are in the cache
+     */
+    JSObject update(int[] indexes, MediaQueueItem[] items) {
+        int[] updatedItemIds = new int[indexes.length];
+        JSONArray objects = new JSONArray();
+        for (int i = 0; i < indexes.length; i++) {
+            updatedItemIds[i] = getItemId(indexes[i]);
+            entries.remove(updatedItemIds[i]);
+            if (items[i] != null) {
+                objects.put(getQueueItem(indexes[i], items[i]));
+            }
+        }
+        return createChange("UPDATE", updatedItemIds).put("items", objects);
+    }
+
+    /**
+     * Returns the queue item object, built again only if the item or its position changed.
+     * @param index index of the item
+     * @param item the item read from the MediaQueue
+     * @return the queue item object (see ChromecastUtilities.createQueueItem), not to be modified
+     */
+    JSONObject getQueueItem(int index, MediaQueueItem item) {
+        int itemId = getItemId(index);
+        Entry entry = entries.get(itemId);
+        if (entry == null || entry.item != item || entry.orderId != index) {
+            entry = new Entry(item, index, ChromecastUtilities.createQueueItem(item, index));
+            entries.put(itemId, entry);
+        }
+        return entry.object;
+    }
+
+    private static JSObject createChange(String changeType, int[] changedItemIds) {
+        JSONArray ids = new JSONArray();
+        for (int itemId : changedItemIds) {
+            ids.put(itemId);
+        }
+        return new JSObject().put("changeType", changeType).put("itemIds", ids);
+    }
+}
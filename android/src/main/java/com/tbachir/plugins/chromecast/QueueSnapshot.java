@@ -0,0 +1,51 @@
+package com.tbachir.plugins.chromecast;
+
+import org.json.JSONArray;
+
+/**
+ * Immutable, versioned copy of the queue items sent with the media objects.
+ *
+ * A ChromecastSession publishes a new snapshot through an AtomicReference each time its queue
+ * changes, so the updates built on other threads read a complete set of items without locking.
+ * The items array is built before publication and never modified afterwards.  A snapshot belongs
+ * to the cast session it was built for, the items are not returned for any other session so that
+ * a late update of a previous session can't leak its items into the next one.
+ */
+final class QueueSnapshot {
+
+    /** No items, the initial snapshot of a ChromecastSession. */
+    static final QueueSnapshot EMPTY = new QueueSnapshot(0, null, null);
+
+    /** Incremented on each change, never reused by the ChromecastSession that published it. */
+    final long version;
+    /** Id of the cast session the items were read from, null if there are none. */
+    final String sessionId;
+    /** The queue items (see ChromecastUtilities.createQueueItem), null if there are none. */
+    final JSONArray items;
+
+    QueueSnapshot(long version, String sessionId, JSONArray items) {
+        this.version = version;
+        this.sessionId = sessionId;
+        this.items = items;
+    }
+
+    /**
+     * @param newSessionId the session the new items were read from
+     * @param newItems the new items, must not be modified afterwards
+     * @return the snapshot that follows this one
+     */
+    QueueSnapshot next(String newSessionId, JSONArray newItems) {
+        return new QueueSnapshot(version + 1, newSessionId, newItems);
+    }
+
+    /**
+     * @param currentSessionId id of the session the items are requested for
+     * @return the items, or null if there are none or they belong to another session
+     */
+    JSONArray getItems(String currentSessionId) {
+        if (items == null || currentSessionId == null || !currentSessionId.equals(sessionId)) {
+            return null;
+        }
+        return items;
+    }
+}
@@ -0,0 +1,111 @@
+package com.tbachir.plugins.chromecast;
+
+import org.json.JSONObject;
+
+/**
+ * The range of queue items sent with the media objects, around the current item.
+ *
+ * The window holds the current item, `before` items before it and `after` items after it, the
+ * items out of the queue are left out.  `prefetch` more items past each end are fetched from the
+ * receiver ahead of need, so that they are already in the MediaQueue cache when the window moves,
+ * but they are not sent.  The default window of one item on each side matches the desktop SDK.
+ */
+final class QueueWindow {
+
+    /** Items [i-1, i, i+1], no prefetch. */
+    static final QueueWindow DEFAULT = new QueueWindow(1, 1, 0, FetchLimiter.DEFAULT_FETCH_RATE);
+
+    /** Number of items before the current one. */
+    final int before;
+    /** Number of items after the current one. */
+    final int after;
+    /** Number of items fetched ahead of need past each end of the window. */
+    final int prefetch;
+    /** Maximum number of items fetched from the receiver per second. */
+    final int fetchRate;
+
+    /**
+     * QueueWindow constructor, negative counts are taken as 0.
+     * @param before number of items before the current one
+     * @param after number of items after the current one
+     * @param prefetch number of items fetched ahead of need past each end
+     * @param fetchRate maximum number of items fetched per second, at least 1
+     */
+    QueueWindow(int before, int after, int prefetch, int fetchRate) {
+        this.before = Math.max(0, before);
+        this.after = Math.max(0, after);
+        this.prefetch = Math.max(0, prefetch);
+        this.fetchRate = Math.max(1, fetchRate);
+    }
+
+    /**
+     * @param json the queueWindow option ({ before, after, prefetch, fetchRate }), the missing
+     *             members get the default values
+     * @return the window, DEFAULT if json is null
+     */
+    static QueueWindow parse(JSONObject json) {
+        if (json == null) {
+            return DEFAULT;
+        }
+        return new QueueWindow(
+            json.optInt("before", DEFAULT.before),
+            json.optInt("after", DEFAULT.after),
+            json.optInt("prefetch", DEFAULT.prefetch),
+            json.optInt("fetchRate", DEFAULT.fetchRate)
+        );
+    }
+
+    /**
+     * @param current index of the current item
+     * @return index of the first item of the window
+     */
+    int getStart(int current) {
+        return Math.max(0, current - before);
+    }
+
+    /**
+     * @param current index of the current item
+     * @param count number of items in the queue
+     * @return index of the last item of the window
+     */
+    int getEnd(int current, int count) {
+        return (int) Math.min(count - 1L, (long) current + after);
+    }
+
+    /**
+     * @param current index of the current item
+     * @param index index of an item
+     * @return true if the item is in the window, the end of the queue isn't checked
+     */
+    boolean contains(int current, int index) {
+        return index >= getStart(current) && index <= (long) current + after;
+    }
+
+    /**
+     * Lists the items to fetch ahead of need, the closest to the window first.  At the same distance
+     * the item after the window comes first, since the queue usually moves forward.
+     * @param current index of the current item
+     * @param count number of items in the queue
+     * @return the indexes of the items to prefetch, empty if there are none
+     */
+    int[] getPrefetchIndexes(int current, int count) {
+        if (prefetch == 0 || current < 0) {
+            return new int[0];
+        }
+        int start = getStart(current);
+        int end = getEnd(current, count);
+        int afterCount = (int) Math.min(prefetch, count - 1L - end);
+        int beforeCount = Math.min(prefetch, start);
+        int[] out = new int[afterCount + beforeCount];
+        int n = 0;
+        for (int i = 1; i <= Math.max(afterCount, beforeCount); i++) {
+            if (i <= afterCount) {
+                out[n++] = end + i;
+            }
+            if (i <= beforeCount) {
+                out[n++] = start - i;
+            }
+        }
+        return out;
+    }
+}
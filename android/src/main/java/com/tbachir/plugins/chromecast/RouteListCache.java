@@ -0,0 +1,175 @@
+package com.tbachir.plugins.chromecast;
+
+import android.os.Bundle;
+import androidx.mediarouter.media.MediaRouter.RouteInfo;
+import com.google.android.gms.cast.CastDevice;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Keeps the route objects of a scan, keyed by route id, so that a scan update only serializes
+ * the routes that changed.
+ *
+ * A route is considered changed when its fingerprint (name, description, group flag and network
+ * locality) changes.  The CastDevice, needed for the network locality, is only read again from the
+ * route extras when the route has new extras.  Each update returns the added, removed and changed
+ * routes.  Must be used from one thread (the main thread for the scan callbacks).
+ */
+final class RouteListCache {
+
+    /** The routes of the last update, in the order they were listed. */
+    private Map<String, Entry> entries = new LinkedHashMap<>();
+    /** The route objects of the last update, rebuilt only when something changed. */
+    private JSONArray routes = new JSONArray();
+
+    /**
+     * The values of a route that end up in its route object.
+     */
+    static final class Route {
+
+        final String id;
+        final String name;
+        final String description;
+        final boolean isGroup;
+        /** The route extras, that hold the CastDevice, null if there are none. */
+        final Bundle extras;
+
+        Route(String id, String name, String description, boolean isGroup, Bundle extras) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.isGroup = isGroup;
+            this.extras = extras;
+        }
+
+        static Route from(RouteInfo route) {
+            return new Route(route.getId(), route.getName(), route.getDescription(), route.isGroup(), route.getExtras());
+        }
+    }
+
+    /**
+     * The changes between two updates.
+     */
+    static final class Diff {
+
+        /** Route objects of the new routes. */
+        final JSONArray added = new JSONArray();
+        /** Ids of the routes that are gone. */
+        final JSONArray removed = new JSONArray();
+        /** Route objects of the routes whose fingerprint changed. */
+        final JSONArray changed = new JSONArray();
+
+        /**
+         * @return true if the routes are the same as in the previous update
+         */
+        boolean isEmpty() {
+            return added.length() == 0 && removed.length() == 0 && changed.length() == 0;
+        }
+    }
+
+    /**
+     * A cached route.
+     */
+    private static final class Entry {
+
+        final Bundle extras;
+        final CastDevice device;
+        final String fingerprint;
+        final JSONObject object;
+
+        Entry(Bundle extras, CastDevice device, String fingerprint, JSONObject object) {
+            this.extras = extras;
+            this.device = device;
+            this.fingerprint = fingerprint;
+            this.object = object;
+        }
+    }
+
+    /**
+     * @param routeInfos the currently available routes
+     * @return the changes since the previous update
+     */
+    Diff update(List<RouteInfo> routeInfos) {
+        List<Route> out = new ArrayList<>(routeInfos.size());
+        for (RouteInfo route : routeInfos) {
+            out.add(Route.from(route));
+        }
+        return updateRoutes(out);
+    }
+
+    /**
+     * @param newRoutes the currently available routes
+     * @return the changes since the previous update
+     */
+    Diff updateRoutes(List<Route> newRoutes) {
+        Diff diff = new Diff();
+        Map<String, Entry> next = new LinkedHashMap<>();
+        for (Route route : newRoutes) {
+            Entry previous = entries.get(route.id);
+            CastDevice device;
+            if (previous != null && previous.extras == route.extras) {
+                device = previous.device;
+            } else {
+                device = CastDevice.getFromBundle(route.extras);
+            }
+            String fingerprint = getFingerprint(route, device);
+            Entry entry;
+            if (previous == null) {
+                entry = new Entry(route.extras, device, fingerprint, createRouteObject(route, device));
+                diff.added.put(entry.object);
+            } else if (!fingerprint.equals(previous.fingerprint)) {
+                entry = new Entry(route.extras, device, fingerprint, createRouteObject(route, device));
+                diff.changed.put(entry.object);
+            } else {
+                entry = previous.extras == route.extras ? previous : new Entry(route.extras, device, fingerprint, previous.object);
+            }
+            next.put(route.id, entry);
+        }
+        for (String id : entries.keySet()) {
+            if (!next.containsKey(id)) {
+                diff.removed.put(id);
+            }
+        }
+        // Same routes in another order still need a new list
+        if (!diff.isEmpty() || !new ArrayList<>(entries.keySet()).equals(new ArrayList<>(next.keySet()))) {
+            routes = new JSONArray();
+            for (Entry entry : next.values()) {
+                routes.put(entry.object);
+            }
+        }
+        entries = next;
+        return diff;
+    }
+
+    /**
+     * @return the route objects of the last update, not to be modified
+     */
+    JSONArray getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Forgets the routes, the next update reports all of them as added.
+     */
+    void clear() {
+        entries = new LinkedHashMap<>();
+        routes = new JSONArray();
+    }
+
+    private static String getFingerprint(Route route, CastDevice device) {
+        StringBuilder out = new StringBuilder();
+        out.append(route.name).append('\n').append(route.description).append('\n').append(route.isGroup);
+        if (device != null) {
+            out.append('\n').append(device.isOnLocalNetwork());
+        }
+        return out.toString();
+    }
+
+    private static JSONObject createRouteObject(Route route, CastDevice device) {
+        return ChromecastUtilities.createRouteObject(route.id, route.name, route.description, route.isGroup, device);
+    }
+}
@@ -0,0 +1,62 @@
+package com.tbachir.plugins.chromecast;
+
+import com.google.android.gms.cast.ApplicationMetadata;
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.framework.CastSession;
+
+/**
+ * Immutable copy of the values needed to build a session object.
+ * See {@link MediaStatusSnapshot}, the JSON is built with
+ * {@link ChromecastUtilities#createSessionObject(SessionSnapshot)} on any thread.
+ */
+final class SessionSnapshot {
+
+    /** Null if the session has no application, the session object is empty in that case. */
+    final ApplicationMetadata applicationMetadata;
+    final CastDevice castDevice;
+    final double volume;
+    final boolean mute;
+    final String sessionId;
+    /** Null if there is no media. */
+    final MediaStatusSnapshot media;
+
+    SessionSnapshot(
+        ApplicationMetadata applicationMetadata,
+        CastDevice castDevice,
+        double volume,
+        boolean mute,
+        String sessionId,
+        MediaStatusSnapshot media
+    ) {
+        this.applicationMetadata = applicationMetadata;
+        this.castDevice = castDevice;
+        this.volume = volume;
+        this.mute = mute;
+        this.sessionId = sessionId;
+        this.media = media;
+    }
+
+    /**
+     * Reads the current state of a session.
+     * @param session the session
+     * @param queue the queue items to include in the media object
+     * @return the snapshot
+     */
+    static SessionSnapshot capture(CastSession session, QueueSnapshot queue) {
+        ApplicationMetadata metadata = null;
+        CastDevice device = null;
+        double volume = 0;
+        boolean mute = false;
+        String sessionId = null;
+        MediaStatusSnapshot media = null;
+        try {
+            metadata = session.getApplicationMetadata();
+            device = session.getCastDevice();
+            volume = session.getVolume();
+            mute = session.isMute();
+            sessionId = session.getSessionId();
+            media = MediaStatusSnapshot.capture(session, queue);
+        } catch (NullPointerException e) {} catch (IllegalStateException e) {}
+        return new SessionSnapshot(metadata, device, volume, mute, sessionId, media);
+    }
+}
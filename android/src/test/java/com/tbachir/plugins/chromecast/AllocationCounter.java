@@ -0,0 +1,43 @@
+package com.tbachir.plugins.chromecast;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the heap allocated by the current thread, used by the allocation tests.
+ * Relies on the HotSpot specific com.sun.management.ThreadMXBean.
+ */
+final class AllocationCounter {
+
+    private AllocationCounter() {
+        //not called
+    }
+
+    /**
+     * @return true if the JVM can report per thread allocations
+     */
+    static boolean isSupported() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported();
+    }
+
+    /**
+     * Runs the code and returns the average number of bytes it allocated per run.
+     * @param iterations number of runs, after the same number of warmup runs
+     * @param code the code to measure
+     * @return the bytes allocated per run
+     */
+    static long bytesPerRun(int iterations, Runnable code) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        bean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < iterations; i++) {
+            code.run();
+        }
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            code.run();
+        }
+        return (bean.getThreadAllocatedBytes(threadId) - before) / iterations;
+    }
+}
@@ -0,0 +1,224 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.getcapacitor.JSObject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for ChromecastEventDispatcher.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ChromecastEventDispatcherTest {
+
+    private final List<String> delivered = new ArrayList<>();
+    private final Set<String> listened = new HashSet<>();
+    private ChromecastEventDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher =
+            new ChromecastEventDispatcher(
+                new Handler(Looper.getMainLooper()),
+                new ChromecastEventDispatcher.Sink() {
+                    @Override
+                    public boolean hasListeners(String eventName) {
+                        return listened.contains(eventName);
+                    }
+
+                    @Override
+                    public void deliver(String eventName, JSObject data) {
+                        delivered.add(eventName + ":" + data.optString("v"));
+                    }
+                }
+            );
+        dispatcher.setWindow(200);
+        listened.add("MEDIA_UPDATE");
+        listened.add("SESSION_UPDATE");
+        listened.add("SESSION_ENDED");
+    }
+
+    private static JSObject payload(String value) {
+        JSObject data = new JSObject();
+        data.put("v", value);
+        return data;
+    }
+
+    /** A lazy payload that counts how many times it was created. */
+    private static ChromecastEventDispatcher.Payload lazyPayload(final String value, final int[] created) {
+        return new ChromecastEventDispatcher.Payload() {
+            @Override
+            public JSObject create() {
+                created[0]++;
+                return payload(value);
+            }
+        };
+    }
+
+    private void advance(long ms) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(ms));
+    }
+
+    // ==================== Coalescing Tests ====================
+
+    @Test
+    public void testCoalesce_WindowDisabledSendsEverything() {
+        dispatcher.setWindow(0);
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("1"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("2"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("3"));
+        assertEquals(3, delivered.size());
+    }
+
+    @Test
+    public void testCoalesce_FirstUpdateIsImmediate() {
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("1"));
+        assertEquals(1, delivered.size());
+        assertEquals("MEDIA_UPDATE:1", delivered.get(0));
+    }
+
+    @Test
+    public void testCoalesce_LatestWinsWithinWindow() {
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("1"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("2"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("3"));
+        assertEquals(1, delivered.size());
+
+        advance(200);
+        assertEquals(2, delivered.size());
+        assertEquals("MEDIA_UPDATE:3", delivered.get(1));
+
+        // Nothing else pending
+        advance(1000);
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    public void testCoalesce_StateChangeIsImmediate() {
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("1"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("2"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PAUSED", payload("3"));
+        assertEquals(2, delivered.size());
+        assertEquals("MEDIA_UPDATE:3", delivered.get(1));
+
+        // The pending update was replaced by the state change
+        advance(1000);
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    public void testCoalesce_EventNamesAreIndependent() {
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("1"));
+        dispatcher.coalesce("SESSION_UPDATE", "session", payload("2"));
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    public void testSend_JumpsAheadOfPending() {
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("1"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("2"));
+        dispatcher.send("SESSION_UPDATE", payload("3"));
+        assertEquals(2, delivered.size());
+        assertEquals("SESSION_UPDATE:3", delivered.get(1));
+
+        advance(200);
+        assertEquals(3, delivered.size());
+        assertEquals("MEDIA_UPDATE:2", delivered.get(2));
+    }
+
+    @Test
+    public void testSend_SessionEndedIsLast() {
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("1"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("2"));
+        dispatcher.send("SESSION_ENDED", payload("3"));
+        assertEquals(3, delivered.size());
+        assertEquals("MEDIA_UPDATE:2", delivered.get(1));
+        assertEquals("SESSION_ENDED:3", delivered.get(2));
+
+        // No media event of the ended session arrives after it
+        advance(1000);
+        assertEquals(3, delivered.size());
+        assertEquals("SESSION_ENDED:3", delivered.get(delivered.size() - 1));
+    }
+
+    @Test
+    public void testClear_DropsPending() {
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("1"));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", payload("2"));
+        dispatcher.clear();
+        advance(1000);
+        assertEquals(1, delivered.size());
+    }
+
+    // ==================== Listener Tests ====================
+
+    @Test
+    public void testSend_NoListenerSkipsPayload() {
+        int[] created = new int[1];
+        dispatcher.send("RECEIVER_MESSAGE", lazyPayload("1", created));
+        assertEquals(0, created[0]);
+        assertTrue(delivered.isEmpty());
+
+        listened.add("RECEIVER_MESSAGE");
+        dispatcher.send("RECEIVER_MESSAGE", lazyPayload("2", created));
+        assertEquals(1, created[0]);
+        assertEquals("RECEIVER_MESSAGE:2", delivered.get(0));
+    }
+
+    @Test
+    public void testCoalesce_SupersededPayloadIsNotCreated() {
+        int[] created = new int[1];
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", lazyPayload("1", created));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", lazyPayload("2", created));
+        dispatcher.coalesce("MEDIA_UPDATE", "PLAYING", lazyPayload("3", created));
+        assertEquals(1, created[0]);
+
+        advance(200);
+        assertEquals(2, created[0]);
+        assertEquals("MEDIA_UPDATE:3", delivered.get(1));
+    }
+
+    @Test
+    public void testSend_NullPayloadIsDropped() {
+        dispatcher.send(
+            "SESSION_ENDED",
+            new ChromecastEventDispatcher.Payload() {
+                @Override
+                public JSObject create() {
+                    return null;
+                }
+            }
+        );
+        assertTrue(delivered.isEmpty());
+    }
+
+    // ==================== State Key Tests ====================
+
+    @Test
+    public void testGetMediaStateKey() throws JSONException {
+        JSONObject media = new JSONObject();
+        media.put("playerState", "PLAYING");
+        media.put("currentItemId", 3);
+        media.put("currentTime", 12.5);
+        String key = ChromecastEventDispatcher.getMediaStateKey(media);
+
+        media.put("currentTime", 13.5);
+        assertEquals("currentTime should not change the state", key, ChromecastEventDispatcher.getMediaStateKey(media));
+
+        media.put("currentItemId", 4);
+        assertNotEquals("currentItemId should change the state", key, ChromecastEventDispatcher.getMediaStateKey(media));
+    }
+}
@@ -148,91 +148,61 @@ public class ChromecastTest {
 
     @Test
     public void testDetectContentType_HLS() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, "https://example.com/video.m3u8", null);
+        String result = ChromecastUtilities.detectContentType("https://example.com/video.m3u8", null);
         assertEquals("application/x-mpegURL", result);
     }
 
     @Test
     public void testDetectContentType_HLS_WithQueryParams() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, "https://example.com/video.m3u8?token=abc", null);
+        String result = ChromecastUtilities.detectContentType("https://example.com/video.m3u8?token=abc", null);
         assertEquals("application/x-mpegURL", result);
     }
 
     @Test
     public void testDetectContentType_DASH() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, "https://example.com/video.mpd", null);
+        String result = ChromecastUtilities.detectContentType("https://example.com/video.mpd", null);
         assertEquals("application/dash+xml", result);
     }
 
     @Test
     public void testDetectContentType_MP4() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, "https://example.com/video.mp4", null);
+        String result = ChromecastUtilities.detectContentType("https://example.com/video.mp4", null);
         assertEquals("video/mp4", result);
     }
 
     @Test
     public void testDetectContentType_WebM() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, "https://example.com/video.webm", null);
+        String result = ChromecastUtilities.detectContentType("https://example.com/video.webm", null);
         assertEquals("video/webm", result);
     }
 
     @Test
     public void testDetectContentType_MKV() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, "https://example.com/video.mkv", null);
+        String result = ChromecastUtilities.detectContentType("https://example.com/video.mkv", null);
         assertEquals("video/x-matroska", result);
     }
 
     @Test
     public void testDetectContentType_UsesProvidedType() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, "https://example.com/video", "video/mp4");
+        String result = ChromecastUtilities.detectContentType("https://example.com/video", "video/mp4");
         assertEquals("video/mp4", result);
     }
 
     @Test
     public void testDetectContentType_DefaultsToMP4() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, "https://example.com/video", null);
+        String result = ChromecastUtilities.detectContentType("https://example.com/video", null);
         assertEquals("video/mp4", result);
     }
 
     @Test
     public void testDetectContentType_NullUrl() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, null, "video/mp4");
+        String result = ChromecastUtilities.detectContentType(null, "video/mp4");
         assertEquals("video/mp4", result);
     }
 
     @Test
     public void testDetectContentType_NullUrlAndType() throws Exception {
-        Method method = Chromecast.class.getDeclaredMethod("detectContentType", String.class, String.class);
-        method.setAccessible(true);
-
-        String result = (String) method.invoke(chromecast, null, null);
+        String result = ChromecastUtilities.detectContentType(null, null);
         assertEquals("video/mp4", result);
     }
 
@@ -328,6 +298,13 @@ public class ChromecastTest {
 
         String[] expectedPluginMethods = {
             "initialize",
+            "addListener",
+            "removeListener",
+            "removeAllListeners",
+            "getEstimatedPosition",
+            "getQueueItems",
+            "queueLoad",
+            "cancelQueueLoad",
             "requestSession",
             "selectRoute",
             "loadMedia",
@@ -345,7 +322,8 @@ public class ChromecastTest {
             "sendMessage",
             "addMessageListener",
             "removeMessageListener",
-            "networkDiagnostic"
+            "networkDiagnostic",
+            "requestMediaSnapshot"
         };
 
         for (String methodName : expectedPluginMethods) {
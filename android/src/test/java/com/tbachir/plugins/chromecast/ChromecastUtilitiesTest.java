@@ -1,10 +1,20 @@
 package com.tbachir.plugins.chromecast;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.getcapacitor.JSObject;
+import com.google.android.gms.cast.AdBreakClipInfo;
+import com.google.android.gms.cast.AdBreakInfo;
 import com.google.android.gms.cast.MediaInfo;
 import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.MediaQueueItem;
 import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.cast.VastAdsRequest;
+import com.google.android.gms.cast.VideoInfo;
+import java.util.Collections;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
@@ -319,6 +329,30 @@ public class ChromecastUtilitiesTest {
         assertEquals("", error.getString("description"));
     }
 
+    // ==================== customData Tests ====================
+
+    @Test
+    public void testGetCustomData() throws JSONException {
+        JSONObject customData = new JSONObject().put("license", "token");
+        assertSame(customData, ChromecastUtilities.getCustomData(customData));
+        assertEquals("token", ChromecastUtilities.getCustomData("{\"license\":\"token\"}").getString("license"));
+        assertNull(ChromecastUtilities.getCustomData(null));
+        assertNull(ChromecastUtilities.getCustomData("not json"));
+        assertNull(ChromecastUtilities.getCustomData(new JSONArray()));
+    }
+
+    @Test
+    public void testCopyTopLevel() throws JSONException {
+        JSONObject drm = new JSONObject().put("type", "widevine");
+        JSONObject customData = new JSONObject().put("drm", drm).put("userId", "abc");
+        JSONObject copy = ChromecastUtilities.copyTopLevel(customData);
+        copy.put("authToken", "token");
+
+        assertFalse(customData.has("authToken"));
+        assertEquals("abc", copy.getString("userId"));
+        assertSame(drm, copy.getJSONObject("drm"));
+    }
+
     // ==================== createMediaInfo Tests ====================
 
     @Test
@@ -433,12 +467,330 @@ public class ChromecastUtilitiesTest {
         }
     }
 
-    // ==================== setQueueItems Tests ====================
+    // ==================== JSObject Tests ====================
+
+    private static MediaStatusSnapshot createMediaStatusSnapshot() throws JSONException {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < 3; i++) {
+            items.put(new JSONObject().put("itemId", i + 1).put("orderId", i));
+        }
+        return new MediaStatusSnapshot(
+            1,
+            12000,
+            new JSONObject().put("userId", "abc"),
+            MediaStatus.IDLE_REASON_NONE,
+            true,
+            0,
+            null,
+            1,
+            MediaStatus.PLAYER_STATE_PLAYING,
+            0,
+            null,
+            MediaStatus.REPEAT_MODE_REPEAT_OFF,
+            "session-id",
+            0.5,
+            false,
+            new long[] { 1, 2 },
+            new QueueSnapshot(1, "session-id", items)
+        );
+    }
+
+    @Test
+    public void testCreateMediaObject_IsJSObject() throws JSONException {
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot());
+        assertTrue(media instanceof JSObject);
+        assertSame(media, ChromecastUtilities.toJSObject(media));
+        assertEquals("PLAYING", media.getString("playerState"));
+        assertEquals(12.0, media.getDouble("currentTime"), 0.001);
+    }
+
+    @Test
+    public void testToJSObject_CopiesJSONObject() throws JSONException {
+        JSONObject object = new JSONObject().put("key", "value");
+        JSObject out = ChromecastUtilities.toJSObject(object);
+        assertNotSame(object, out);
+        assertEquals("value", out.getString("key"));
+        assertNull(ChromecastUtilities.toJSObject(null));
+    }
+
+    @Test
+    public void testCreateMediaObject_ReturnsBuiltInstance() throws JSONException {
+        MediaStatusSnapshot status = createMediaStatusSnapshot();
+        JSObject media = ChromecastUtilities.createMediaObject(status);
+        // The bridge gets the object the codec built, not a copy of it
+        assertSame(media, ChromecastUtilities.toJSObject(media));
+        assertEquals(JSObject.class, media.getClass());
+        // Every update gets its own object, nothing is shared with the previous event
+        assertNotSame(media, ChromecastUtilities.createMediaObject(status));
+    }
+
+    // ==================== Field Projection Tests ====================
+
+    private static MediaStatusSnapshot createMediaStatusSnapshot(MediaInfo mediaInfo) throws JSONException {
+        MediaStatusSnapshot status = createMediaStatusSnapshot();
+        return new MediaStatusSnapshot(
+            status.currentItemId,
+            status.streamPosition,
+            status.customData,
+            status.idleReason,
+            status.isAlive,
+            status.loadingItemId,
+            mediaInfo,
+            status.playbackRate,
+            status.playerState,
+            status.preloadedItemId,
+            status.queueData,
+            status.queueRepeatMode,
+            status.sessionId,
+            status.volume,
+            status.mute,
+            status.activeTrackIds,
+            status.queue
+        );
+    }
+
+    @Test
+    public void testCreateMediaObject_AllFields() throws JSONException {
+        JSONObject all = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot());
+        JSONObject projected = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot(), FieldMask.parse(null));
+        assertEquals(all.toString(), projected.toString());
+        assertTrue(all.has("items"));
+        assertTrue(all.has("volume"));
+    }
+
+    @Test
+    public void testCreateMediaObject_OnlyRequestedFields() throws JSONException {
+        FieldMask fields = FieldMask.parse(new JSONArray().put("playerState").put("currentTime").put("currentItemId"));
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot(), fields);
+        assertEquals(3, media.length());
+        assertEquals("PLAYING", media.getString("playerState"));
+        assertEquals(12.0, media.getDouble("currentTime"), 0.001);
+        assertEquals(1, media.getInt("currentItemId"));
+    }
+
+    @Test
+    public void testCreateMediaObject_NestedFields() throws JSONException {
+        MediaInfo mediaInfo = new MediaInfo.Builder("https://example.com/video.mp4")
+            .setContentType("video/mp4")
+            .setStreamDuration(596000)
+            .build();
+        FieldMask fields = FieldMask.parse(new JSONArray().put("media.duration").put("volume.level").put("media.contentId"));
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot(mediaInfo), fields);
+        assertEquals(2, media.length());
+
+        JSONObject info = media.getJSONObject("media");
+        assertEquals(2, info.length());
+        assertEquals(596.0, info.getDouble("duration"), 0.001);
+        assertEquals("https://example.com/video.mp4", info.getString("contentId"));
+        assertFalse(info.has("metadata"));
+        assertFalse(info.has("tracks"));
+
+        JSONObject volume = media.getJSONObject("volume");
+        assertEquals(0.5, volume.getDouble("level"), 0.001);
+        assertFalse(volume.has("muted"));
+    }
+
+    @Test
+    public void testCreateMediaObject_WholeFieldWinsOverSubFields() throws JSONException {
+        FieldMask fields = FieldMask.parse(new JSONArray().put("volume.level").put("volume"));
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot(), fields);
+        JSONObject volume = media.getJSONObject("volume");
+        assertTrue(volume.has("level"));
+        assertTrue(volume.has("muted"));
+    }
+
+    @Test
+    public void testCreateMediaObject_EmptyMask() throws JSONException {
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot(), FieldMask.parse(new JSONArray()));
+        assertEquals(0, media.length());
+        assertNull(ChromecastUtilities.createMediaObject(null, FieldMask.ALL));
+    }
+
+    // ==================== MediaInfo Cache Tests ====================
+
+    @Test
+    public void testCreateMediaObject_ReusesMediaInfoObject() throws JSONException {
+        MediaInfo mediaInfo = new MediaInfo.Builder("https://example.com/video.mp4").setContentType("video/mp4").build();
+        MediaStatusSnapshot status = createMediaStatusSnapshot(mediaInfo);
+        JSONObject first = ChromecastUtilities.createMediaObject(status).getJSONObject("media");
+        JSONObject second = ChromecastUtilities.createMediaObject(status).getJSONObject("media");
+        assertSame(first, second);
+        assertEquals("video/mp4", second.getString("contentType"));
+    }
+
+    @Test
+    public void testCreateMediaObject_ReusesMediaInfoObjectAcrossUpdates() throws JSONException {
+        MediaInfo mediaInfo = new MediaInfo.Builder("https://example.com/video.mp4").build();
+        MediaStatusSnapshot status = createMediaStatusSnapshot(mediaInfo);
+        JSONObject first = ChromecastUtilities.createMediaObject(status).getJSONObject("media");
+        // The next status update of the same media only moves the position
+        MediaStatusSnapshot next = new MediaStatusSnapshot(
+            status.currentItemId,
+            status.streamPosition + 1000,
+            status.customData,
+            status.idleReason,
+            status.isAlive,
+            status.loadingItemId,
+            mediaInfo,
+            status.playbackRate,
+            status.playerState,
+            status.preloadedItemId,
+            status.queueData,
+            status.queueRepeatMode,
+            status.sessionId,
+            status.volume,
+            status.mute,
+            status.activeTrackIds,
+            status.queue
+        );
+        JSObject media = ChromecastUtilities.createMediaObject(next);
+        assertSame(first, media.getJSONObject("media"));
+        assertEquals(13.0, media.getDouble("currentTime"), 0.001);
+    }
+
+    @Test
+    public void testCreateMediaObject_NewMediaInfoIsSerialized() throws JSONException {
+        MediaStatusSnapshot status = createMediaStatusSnapshot(new MediaInfo.Builder("https://example.com/video.mp4").build());
+        MediaStatusSnapshot next = createMediaStatusSnapshot(new MediaInfo.Builder("https://example.com/other.mp4").build());
+        JSONObject first = ChromecastUtilities.createMediaObject(status).getJSONObject("media");
+        JSONObject second = ChromecastUtilities.createMediaObject(next).getJSONObject("media");
+        assertNotSame(first, second);
+        assertEquals("https://example.com/other.mp4", second.getString("contentId"));
+    }
+
+    @Test
+    public void testCreateMediaObject_ClearInvalidatesMediaInfoObject() throws JSONException {
+        MediaInfo mediaInfo = new MediaInfo.Builder("https://example.com/video.mp4").build();
+        MediaStatusSnapshot status = createMediaStatusSnapshot(mediaInfo);
+        JSONObject first = ChromecastUtilities.createMediaObject(status).getJSONObject("media");
+        ChromecastUtilities.clearMediaInfoCache();
+        assertNotSame(first, ChromecastUtilities.createMediaObject(status).getJSONObject("media"));
+    }
+
+    // ==================== Media Status Fields Tests ====================
+
+    private static MediaStatusSnapshot createMediaStatusSnapshot(double playbackRate, long supportedMediaCommands) throws JSONException {
+        MediaStatusSnapshot status = createMediaStatusSnapshot();
+        return new MediaStatusSnapshot(
+            status.currentItemId,
+            status.streamPosition,
+            status.customData,
+            status.idleReason,
+            status.isAlive,
+            status.loadingItemId,
+            status.mediaInfo,
+            playbackRate,
+            status.playerState,
+            status.preloadedItemId,
+            status.queueData,
+            status.queueRepeatMode,
+            status.sessionId,
+            status.volume,
+            status.mute,
+            status.activeTrackIds,
+            status.queue,
+            null,
+            null,
+            null,
+            supportedMediaCommands
+        );
+    }
+
+    @Test
+    public void testCreateMediaObject_SupportedMediaCommands() throws JSONException {
+        JSONObject media = ChromecastUtilities.createMediaObject(
+            createMediaStatusSnapshot(1, MediaStatus.COMMAND_PAUSE | MediaStatus.COMMAND_SEEK | MediaStatus.COMMAND_QUEUE_NEXT)
+        );
+        JSONArray commands = media.getJSONArray("supportedMediaCommands");
+        assertEquals(3, commands.length());
+        assertEquals("pause", commands.getString(0));
+        assertEquals("seek", commands.getString(1));
+        assertEquals("queue_next", commands.getString(2));
+    }
+
+    @Test
+    public void testCreateMediaObject_NonFiniteNumberLeftOut() throws JSONException {
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot(Double.NaN, 0));
+        assertFalse(media.has("playbackRate"));
+        assertEquals("PLAYING", media.getString("playerState"));
+    }
+
+    @Test
+    public void testCreateMediaObject_NoMediaInfo() throws JSONException {
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot());
+        assertFalse(media.has("media"));
+        assertEquals(1, media.getInt("mediaSessionId"));
+    }
+
+    @Test
+    public void testCreateMediaInfoObject_Breaks() throws JSONException {
+        AdBreakClipInfo clip = mock(AdBreakClipInfo.class);
+        when(clip.getId()).thenReturn("clip-1");
+        when(clip.getDurationInMs()).thenReturn(15000L);
+        when(clip.getWhenSkippableInMs()).thenReturn(-1L);
+        when(clip.getVastAdsRequest()).thenReturn(new VastAdsRequest.Builder().setAdTagUrl("https://example.com/vast.xml").build());
+        AdBreakInfo adBreak = new AdBreakInfo.Builder(30000)
+            .setId("break-1")
+            .setBreakClipIds(new String[] { "clip-1" })
+            .setDurationInMs(15000)
+            .build();
+        MediaInfo mediaInfo = new MediaInfo.Builder("https://example.com/video.mp4")
+            .setAdBreakClips(Collections.singletonList(clip))
+            .setAdBreaks(Collections.singletonList(adBreak))
+            .build();
+
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot(mediaInfo)).getJSONObject("media");
+        JSONObject breakClip = media.getJSONArray("breakClips").getJSONObject(0);
+        assertEquals("clip-1", breakClip.getString("id"));
+        assertEquals(15.0, breakClip.getDouble("duration"), 0.001);
+        assertEquals("https://example.com/vast.xml", breakClip.getJSONObject("vastAdsRequest").getString("adTagUrl"));
+        // Negative if the clip can't be skipped
+        assertFalse(breakClip.has("whenSkippable"));
+        JSONObject breakObject = media.getJSONArray("breaks").getJSONObject(0);
+        assertEquals("break-1", breakObject.getString("id"));
+        assertEquals("clip-1", breakObject.getJSONArray("breakClipIds").getString(0));
+        assertEquals(30.0, breakObject.getDouble("position"), 0.001);
+        assertFalse(breakObject.getBoolean("isWatched"));
+    }
+
+    @Test
+    public void testCreateQueueItem_InfiniteDurationLeftOut() throws JSONException {
+        MediaQueueItem item = ChromecastUtilities.createMediaQueueItem(
+            new JSONObject().put("media", new JSONObject().put("contentId", "https://example.com/video.mp4"))
+        );
+        JSONObject out = ChromecastUtilities.createQueueItem(item, 4);
+        assertEquals(4, out.getInt("orderId"));
+        assertEquals("https://example.com/video.mp4", out.getJSONObject("media").getString("contentId"));
+        assertFalse(out.has("playbackDuration"));
+        assertFalse(out.has("startTime"));
+        assertFalse(out.has("activeTrackIds"));
+    }
+
+    @Test
+    public void testCreateSessionObject_WithoutApplicationOrDevice() throws JSONException {
+        SessionSnapshot snapshot = new SessionSnapshot(null, null, 0.5, false, "session-id", createMediaStatusSnapshot());
+        JSONObject session = ChromecastUtilities.createSessionObject(snapshot);
+        assertFalse(session.has("appId"));
+        assertFalse(session.has("receiver"));
+        assertEquals("session-id", session.getString("sessionId"));
+        assertEquals("PLAYING", session.getJSONArray("media").getJSONObject(0).getString("playerState"));
+    }
+
+    @Test
+    public void testGetHdrType() {
+        assertEquals("sdr", ChromecastUtilities.getHdrType(VideoInfo.HDR_TYPE_SDR));
+        assertEquals("hdr", ChromecastUtilities.getHdrType(VideoInfo.HDR_TYPE_HDR10));
+        assertEquals("dv", ChromecastUtilities.getHdrType(VideoInfo.HDR_TYPE_DV));
+        assertNull(ChromecastUtilities.getHdrType(VideoInfo.HDR_TYPE_UNKNOWN));
+    }
 
     @Test
-    public void testSetQueueItems_Null() {
-        ChromecastUtilities.setQueueItems(null);
-        // Should not throw
+    public void testCreateMediaObject_OptionalStatusFields() throws JSONException {
+        JSONObject media = ChromecastUtilities.createMediaObject(createMediaStatusSnapshot());
+        assertFalse(media.has("breakStatus"));
+        assertFalse(media.has("liveSeekableRange"));
+        assertFalse(media.has("videoInfo"));
+        assertEquals(0, media.getJSONArray("supportedMediaCommands").length());
     }
 
     // ==================== Repeat Mode Bidirectional Tests ====================
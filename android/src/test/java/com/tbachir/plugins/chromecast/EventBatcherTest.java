@@ -0,0 +1,135 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.getcapacitor.JSObject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for EventBatcher.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class EventBatcherTest {
+
+    private final List<String> delivered = new ArrayList<>();
+    private final List<JSObject> batches = new ArrayList<>();
+    private final Set<String> listened = new HashSet<>();
+    private EventBatcher batcher;
+
+    @Before
+    public void setUp() {
+        batcher =
+            new EventBatcher(
+                new Handler(Looper.getMainLooper()),
+                new ChromecastEventDispatcher.Sink() {
+                    @Override
+                    public boolean hasListeners(String eventName) {
+                        return listened.contains(eventName);
+                    }
+
+                    @Override
+                    public void deliver(String eventName, JSObject data) {
+                        delivered.add(eventName);
+                        if (EventBatcher.EVENT_BATCH.equals(eventName)) {
+                            batches.add(data);
+                        }
+                    }
+                }
+            );
+        batcher.setWindow(0);
+        listened.add(EventBatcher.EVENT_BATCH);
+    }
+
+    private static JSObject payload(String value) {
+        JSObject data = new JSObject();
+        data.put("v", value);
+        return data;
+    }
+
+    private void advance(long ms) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(ms));
+    }
+
+    @Test
+    public void testBatchesEventsOfTheSameTurn() throws JSONException {
+        batcher.add("SESSION_STARTED", payload("1"));
+        batcher.add("SESSION_UPDATE", payload("2"));
+        assertTrue(delivered.isEmpty());
+
+        advance(0);
+        assertEquals(1, delivered.size());
+        JSONArray events = batches.get(0).getJSONArray("events");
+        assertEquals(2, events.length());
+        assertEquals("SESSION_STARTED", events.getJSONObject(0).getString("eventName"));
+        assertEquals("2", events.getJSONObject(1).getJSONObject("data").getString("v"));
+    }
+
+    @Test
+    public void testWindow() {
+        batcher.setWindow(100);
+        batcher.add("MEDIA_LOAD", payload("1"));
+        advance(50);
+        batcher.add("MEDIA_UPDATE", payload("2"));
+        assertTrue(delivered.isEmpty());
+
+        advance(50);
+        assertEquals(1, delivered.size());
+        assertEquals(2, batches.get(0).optJSONArray("events").length());
+    }
+
+    @Test
+    public void testDisabledSendsEventsDirectly() {
+        batcher.setWindow(-1);
+        batcher.add("SESSION_STARTED", payload("1"));
+        assertEquals(1, delivered.size());
+        assertEquals("SESSION_STARTED", delivered.get(0));
+        assertFalse(batcher.isBatching());
+    }
+
+    @Test
+    public void testNoBatchListenerSendsEventsDirectly() {
+        listened.clear();
+        batcher.add("SESSION_STARTED", payload("1"));
+        assertEquals(1, delivered.size());
+        assertEquals("SESSION_STARTED", delivered.get(0));
+    }
+
+    @Test
+    public void testDisablingFlushesPending() {
+        batcher.add("SESSION_STARTED", payload("1"));
+        batcher.setWindow(-1);
+        assertEquals(1, delivered.size());
+        assertEquals(EventBatcher.EVENT_BATCH, delivered.get(0));
+    }
+
+    @Test
+    public void testDirectEventFlushesPendingFirst() {
+        batcher.add("SESSION_STARTED", payload("1"));
+        listened.clear();
+        batcher.add("SESSION_UPDATE", payload("2"));
+        assertEquals(2, delivered.size());
+        assertEquals(EventBatcher.EVENT_BATCH, delivered.get(0));
+        assertEquals("SESSION_UPDATE", delivered.get(1));
+    }
+
+    @Test
+    public void testClearDropsPending() {
+        batcher.add("SESSION_STARTED", payload("1"));
+        batcher.clear();
+        advance(100);
+        assertTrue(delivered.isEmpty());
+    }
+}
@@ -0,0 +1,288 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for EventScheduler.
+ * The main looper plays the event thread, tasks are scheduled from another thread.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class EventSchedulerTest {
+
+    private final List<String> ran = new ArrayList<>();
+    private EventScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new EventScheduler(new Handler(Looper.getMainLooper()), 3);
+    }
+
+    private Runnable task(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                ran.add(name);
+            }
+        };
+    }
+
+    /** Runs the code on a thread that isn't the event thread. */
+    private void fromOtherThread(Runnable code) throws InterruptedException {
+        Thread thread = new Thread(code);
+        thread.start();
+        thread.join();
+    }
+
+    private void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    @Test
+    public void testControlJumpsAheadOfTelemetry() throws InterruptedException {
+        fromOtherThread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.schedule("MEDIA_UPDATE", null, task("update1"));
+                    scheduler.schedule("MEDIA_UPDATE", null, task("update2"));
+                    scheduler.schedule("SESSION_UPDATE", null, task("session"));
+                }
+            }
+        );
+        idle();
+        assertEquals(3, ran.size());
+        assertEquals("session", ran.get(0));
+        assertEquals("update1", ran.get(1));
+        assertEquals("update2", ran.get(2));
+    }
+
+    @Test
+    public void testTelemetryWithSameKeyIsCoalesced() throws InterruptedException {
+        fromOtherThread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.schedule("MEDIA_PROGRESS", "MEDIA_PROGRESS", task("progress1"));
+                    scheduler.schedule("RECEIVER_MESSAGE", null, task("message"));
+                    scheduler.schedule("MEDIA_PROGRESS", "MEDIA_PROGRESS", task("progress2"));
+                }
+            }
+        );
+        idle();
+        assertEquals(2, ran.size());
+        assertEquals("message", ran.get(0));
+        assertEquals("progress2", ran.get(1));
+    }
+
+    @Test
+    public void testSessionEndedRunsAfterTelemetry() throws InterruptedException {
+        fromOtherThread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.schedule("MEDIA_UPDATE", null, task("update1"));
+                    scheduler.schedule("RECEIVER_MESSAGE", null, task("message"));
+                    scheduler.schedule("SESSION_ENDED", null, task("ended"));
+                }
+            }
+        );
+        idle();
+        assertEquals(3, ran.size());
+        assertEquals("update1", ran.get(0));
+        assertEquals("message", ran.get(1));
+        assertEquals("ended", ran.get(2));
+    }
+
+    @Test
+    public void testSessionEndedOnEventThreadRunsAfterTelemetry() throws InterruptedException {
+        fromOtherThread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.schedule("MEDIA_UPDATE", null, task("update1"));
+                }
+            }
+        );
+        scheduler.schedule("SESSION_ENDED", null, task("ended"));
+        assertEquals(2, ran.size());
+        assertEquals("update1", ran.get(0));
+        assertEquals("ended", ran.get(1));
+
+        // The drain posted for the update finds the lane empty
+        idle();
+        assertEquals(2, ran.size());
+    }
+
+    @Test
+    public void testKeyedTelemetryIsBounded() throws InterruptedException {
+        fromOtherThread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 5; i++) {
+                        scheduler.schedule("MEDIA_UPDATE", "key" + i, task("update" + i));
+                    }
+                }
+            }
+        );
+        idle();
+        assertEquals(3, ran.size());
+        assertEquals("update2", ran.get(0));
+        assertEquals(2, scheduler.getDropped());
+    }
+
+    @Test
+    public void testReceiverMessagesDropOldest() throws InterruptedException {
+        fromOtherThread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.schedule("MEDIA_UPDATE", "MEDIA_UPDATE", task("update"));
+                    for (int i = 0; i < 5; i++) {
+                        scheduler.schedule("RECEIVER_MESSAGE", null, task("message" + i));
+                    }
+                    scheduler.schedule("MEDIA_PROGRESS", "MEDIA_PROGRESS", task("progress"));
+                }
+            }
+        );
+        assertEquals(3, scheduler.getTelemetrySize());
+        idle();
+        // The keyed update went first, then the oldest messages
+        assertEquals(3, ran.size());
+        assertEquals("message3", ran.get(0));
+        assertEquals("message4", ran.get(1));
+        assertEquals("progress", ran.get(2));
+        assertEquals(4, scheduler.getDropped());
+    }
+
+    @Test
+    public void testTransitionsDroppedAfterMessages() throws InterruptedException {
+        fromOtherThread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.schedule("MEDIA_UPDATE", null, task("transition"));
+                    for (int i = 0; i < 3; i++) {
+                        scheduler.schedule("RECEIVER_MESSAGE", null, task("message" + i));
+                    }
+                }
+            }
+        );
+        idle();
+        assertEquals(3, ran.size());
+        assertEquals("transition", ran.get(0));
+        assertEquals("message1", ran.get(1));
+        assertEquals("message2", ran.get(2));
+        assertEquals(1, scheduler.getDropped());
+    }
+
+    @Test
+    public void testUnkeyedFloodIsBounded() throws InterruptedException {
+        HandlerThread thread = new HandlerThread("events");
+        thread.start();
+        try {
+            final List<String> done = Collections.synchronizedList(new ArrayList<String>());
+            final CountDownLatch release = new CountDownLatch(1);
+            EventScheduler blocked = new EventScheduler(new Handler(thread.getLooper()), 8);
+            // Blocks the event thread until the flood is over
+            blocked.schedule(
+                "SESSION_UPDATE",
+                null,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            );
+            for (int i = 0; i < 1000; i++) {
+                final String name = (i % 2 == 0 ? "update" : "message") + i;
+                blocked.schedule(
+                    i % 2 == 0 ? "MEDIA_UPDATE" : "RECEIVER_MESSAGE",
+                    null,
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            done.add(name);
+                        }
+                    }
+                );
+                assertTrue(blocked.getTelemetrySize() <= 8);
+            }
+            assertEquals(8, blocked.getTelemetrySize());
+            assertEquals(992, blocked.getDropped());
+
+            release.countDown();
+            final CountDownLatch drained = new CountDownLatch(1);
+            blocked.schedule(
+                "SESSION_ENDED",
+                null,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        drained.countDown();
+                    }
+                }
+            );
+            assertTrue(drained.await(5, TimeUnit.SECONDS));
+            // The messages were dropped before the transitions, only the latest one is left
+            assertEquals(8, done.size());
+            assertEquals("update986", done.get(0));
+            assertEquals("update998", done.get(6));
+            assertEquals("message999", done.get(7));
+        } finally {
+            thread.quit();
+        }
+    }
+
+    @Test
+    public void testControlIsNeverDropped() throws InterruptedException {
+        fromOtherThread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10; i++) {
+                        scheduler.schedule("SESSION_UPDATE", null, task("session" + i));
+                    }
+                }
+            }
+        );
+        idle();
+        assertEquals(10, ran.size());
+        assertEquals("session0", ran.get(0));
+        assertEquals("session9", ran.get(9));
+    }
+
+    @Test
+    public void testEventThreadRunsImmediately() {
+        scheduler.schedule("MEDIA_UPDATE", null, task("update"));
+        assertEquals(1, ran.size());
+    }
+
+    @Test
+    public void testIsTelemetry() {
+        assertTrue(EventScheduler.isTelemetry("MEDIA_UPDATE"));
+        assertTrue(EventScheduler.isTelemetry("MEDIA_PROGRESS"));
+        assertTrue(EventScheduler.isTelemetry("RECEIVER_MESSAGE"));
+        assertFalse(EventScheduler.isTelemetry("SESSION_ENDED"));
+        assertFalse(EventScheduler.isTelemetry("MEDIA_LOAD"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for FetchLimiter.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FetchLimiterTest {
+
+    @Test
+    public void testLimitPerPeriod() {
+        FetchLimiter limiter = new FetchLimiter(3);
+        assertEquals(0, limiter.getDelay(1000));
+        assertTrue(limiter.tryAcquire(1000));
+        assertTrue(limiter.tryAcquire(1100));
+        assertTrue(limiter.tryAcquire(1200));
+        assertEquals(800, limiter.getDelay(1200));
+
+        assertFalse(limiter.tryAcquire(1300));
+        assertEquals(700, limiter.getDelay(1300));
+    }
+
+    @Test
+    public void testNextPeriod() {
+        FetchLimiter limiter = new FetchLimiter(1);
+        assertTrue(limiter.tryAcquire(0));
+        assertFalse(limiter.tryAcquire(999));
+        assertTrue(limiter.tryAcquire(1000));
+        assertFalse(limiter.tryAcquire(1500));
+        assertEquals(500, limiter.getDelay(1500));
+    }
+}
@@ -0,0 +1,77 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for IntSet.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class IntSetTest {
+
+    @Test
+    public void testAddContainsRemove() {
+        IntSet set = new IntSet(2);
+        assertTrue(set.add(5));
+        assertTrue(set.add(1));
+        assertTrue(set.add(9));
+        assertFalse(set.add(5));
+        assertEquals(3, set.size());
+        assertTrue(set.contains(9));
+        assertFalse(set.contains(2));
+
+        assertTrue(set.remove(5));
+        assertFalse(set.remove(5));
+        assertFalse(set.contains(5));
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(9));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void testMinValue() {
+        IntSet set = new IntSet(4);
+        assertFalse(set.contains(Integer.MIN_VALUE));
+        assertTrue(set.add(Integer.MIN_VALUE));
+        assertTrue(set.contains(Integer.MIN_VALUE));
+        assertEquals(1, set.size());
+        assertTrue(set.remove(Integer.MIN_VALUE));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testClear() {
+        IntSet set = new IntSet(1);
+        set.add(3);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(3));
+        assertTrue(set.add(3));
+    }
+
+    @Test
+    public void testSameAsHashSet() {
+        // Random adds and removes, with growth and values sharing probe sequences
+        IntSet set = new IntSet(4);
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(600);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (int value = 0; value < 600; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.google.android.gms.cast.MediaInfo;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for MediaInfoCache.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MediaInfoCacheTest {
+
+    private MediaInfoCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new MediaInfoCache(2);
+    }
+
+    private static MediaInfo mediaInfo(String contentId) {
+        return new MediaInfo.Builder(contentId).build();
+    }
+
+    @Test
+    public void testHitForSameInstance() {
+        MediaInfo info = mediaInfo("a");
+        JSONObject media = new JSONObject();
+        assertNull(cache.get(1, info, FieldMask.ALL));
+        cache.put(1, info, FieldMask.ALL, media);
+        assertSame(media, cache.get(1, info, FieldMask.ALL));
+    }
+
+    @Test
+    public void testKeyedByIdentity() {
+        cache.put(1, mediaInfo("a"), FieldMask.ALL, new JSONObject());
+        // Same contents, but another instance
+        assertNull(cache.get(1, mediaInfo("a"), FieldMask.ALL));
+    }
+
+    @Test
+    public void testKeyedByFieldMask() {
+        MediaInfo info = mediaInfo("a");
+        cache.put(1, info, FieldMask.ALL, new JSONObject());
+        assertNull(cache.get(1, info, FieldMask.parse(new JSONArray().put("duration"))));
+    }
+
+    @Test
+    public void testItemChangeClears() {
+        MediaInfo info = mediaInfo("a");
+        cache.put(1, info, FieldMask.ALL, new JSONObject());
+        assertNull(cache.get(2, info, FieldMask.ALL));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        MediaInfo a = mediaInfo("a");
+        MediaInfo b = mediaInfo("b");
+        MediaInfo c = mediaInfo("c");
+        cache.put(1, a, FieldMask.ALL, new JSONObject());
+        cache.put(1, b, FieldMask.ALL, new JSONObject());
+        cache.get(1, a, FieldMask.ALL);
+        cache.put(1, c, FieldMask.ALL, new JSONObject());
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(1, a, FieldMask.ALL));
+        assertNull(cache.get(1, b, FieldMask.ALL));
+        assertNotNull(cache.get(1, c, FieldMask.ALL));
+    }
+
+    @Test
+    public void testClear() {
+        cache.put(1, mediaInfo("a"), FieldMask.ALL, new JSONObject());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,249 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaStatus;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for MediaRequestParser.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MediaRequestParserTest {
+
+    private MediaRequestParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new MediaRequestParser();
+    }
+
+    private static JSONObject createItem(String contentId) throws JSONException {
+        return new JSONObject().put("media", new JSONObject().put("contentId", contentId));
+    }
+
+    @Test
+    public void testParseMediaInfo_Defaults() {
+        MediaInfo mediaInfo = parser.parseMediaInfo(new JSONObject(), null);
+        assertEquals("", mediaInfo.getContentId());
+        assertEquals("unknown", mediaInfo.getContentType());
+        assertEquals(0, mediaInfo.getStreamDuration());
+        assertEquals(MediaInfo.STREAM_TYPE_NONE, mediaInfo.getStreamType());
+        assertFalse(parser.hasErrors());
+    }
+
+    @Test
+    public void testParseMediaInfo_Values() throws JSONException {
+        JSONObject json = new JSONObject()
+            .put("contentId", "https://example.com/video.mp4")
+            .put("contentType", "video/mp4")
+            .put("duration", 120)
+            .put("streamType", "buffered")
+            .put("customData", new JSONObject().put("userId", "abc"));
+        MediaInfo mediaInfo = parser.parseMediaInfo(json, null);
+        assertEquals("https://example.com/video.mp4", mediaInfo.getContentId());
+        assertEquals("video/mp4", mediaInfo.getContentType());
+        assertEquals(120, mediaInfo.getStreamDuration());
+        assertEquals(MediaInfo.STREAM_TYPE_BUFFERED, mediaInfo.getStreamType());
+        assertEquals("abc", mediaInfo.getCustomData().getString("userId"));
+    }
+
+    @Test
+    public void testParseMediaInfo_NumericString() throws JSONException {
+        MediaInfo mediaInfo = parser.parseMediaInfo(new JSONObject().put("duration", "90"), null);
+        assertEquals(90, mediaInfo.getStreamDuration());
+        assertFalse(parser.hasErrors());
+    }
+
+    @Test
+    public void testParseQueueItem_Fields() throws JSONException {
+        JSONObject json = createItem("a")
+            .put("autoplay", false)
+            .put("startTime", 12.5)
+            .put("preloadTime", 5)
+            .put("activeTrackIds", new JSONArray().put(1).put(3))
+            .put("customData", new JSONObject().put("position", 2));
+        MediaQueueItem item = parser.parseQueueItem(json, null);
+        assertFalse(item.getAutoplay());
+        assertEquals(12.5, item.getStartTime(), 0);
+        assertEquals(5, item.getPreloadTime(), 0);
+        assertArrayEquals(new long[] { 1, 3 }, item.getActiveTrackIds());
+        assertEquals(2, item.getCustomData().getInt("position"));
+        assertFalse(parser.hasErrors());
+    }
+
+    @Test
+    public void testParseQueueItem_MissingMedia() {
+        assertNull(parser.parseQueueItem(new JSONObject(), "items[0]"));
+        assertEquals(1, parser.getErrors().size());
+        assertEquals("items[0].media: is required", parser.getErrors().get(0));
+    }
+
+    @Test
+    public void testParseQueueLoadRequest() throws JSONException {
+        JSONObject json = new JSONObject()
+            .put("items", new JSONArray().put(createItem("a")).put(createItem("b")))
+            .put("startIndex", 1)
+            .put("repeatMode", "REPEAT_ALL")
+            .put("customData", new JSONObject().put("playlist", "p1"));
+        MediaRequestParser.QueueLoadRequest request = parser.parseQueueLoadRequest(json);
+        assertNotNull(request);
+        assertEquals(2, request.items.length);
+        assertEquals("b", request.items[1].getMedia().getContentId());
+        assertEquals(1, request.startIndex);
+        assertEquals(MediaStatus.REPEAT_MODE_REPEAT_ALL, request.repeatMode);
+        assertEquals("p1", request.customData.getString("playlist"));
+    }
+
+    @Test
+    public void testParseQueueLoadRequest_SparseItems() throws JSONException {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < 500; i++) {
+            JSONObject media = new JSONObject()
+                .put("contentId", "https://example.com/video-" + i + ".mp4")
+                .put("metadata", new JSONObject().put("title", "Video " + i));
+            items.put(new JSONObject().put("media", media));
+        }
+        JSONObject json = new JSONObject().put("items", items).put("startIndex", 499).put("repeatMode", "REPEAT_OFF");
+        MediaRequestParser.QueueLoadRequest request = parser.parseQueueLoadRequest(json);
+        assertNotNull(request);
+        assertFalse(parser.hasErrors());
+        assertEquals(500, request.items.length);
+        assertEquals(499, request.startIndex);
+        assertNull(request.customData);
+        MediaQueueItem item = request.items[499];
+        assertEquals("https://example.com/video-499.mp4", item.getMedia().getContentId());
+        assertEquals("Video 499", item.getMedia().getMetadata().getString(MediaMetadata.KEY_TITLE));
+        assertEquals("unknown", item.getMedia().getContentType());
+        // The fields left out keep the defaults of the builder
+        assertTrue(item.getAutoplay());
+        assertNull(item.getActiveTrackIds());
+        assertNull(item.getCustomData());
+    }
+
+    @Test
+    public void testParseQueueItem_NullFieldsAreMissing() throws JSONException {
+        JSONObject json = createItem("a").put("autoplay", JSONObject.NULL).put("startTime", JSONObject.NULL);
+        MediaQueueItem item = parser.parseQueueItem(json, null);
+        assertFalse(parser.hasErrors());
+        assertTrue(item.getAutoplay());
+    }
+
+    @Test
+    public void testParseQueueItem_WrongTypes() throws JSONException {
+        JSONObject json = createItem("a")
+            .put("autoplay", "maybe")
+            .put("startTime", true)
+            .put("activeTrackIds", new JSONArray().put(1).put("two"));
+        json.getJSONObject("media").put("metadata", "Episode 1").put("duration", new JSONArray());
+
+        assertNotNull(parser.parseQueueItem(json, "items[3]"));
+        assertEquals(5, parser.getErrors().size());
+        assertTrue(parser.getErrors().contains("items[3].autoplay: expected a boolean"));
+        assertTrue(parser.getErrors().contains("items[3].startTime: expected a number"));
+        assertTrue(parser.getErrors().contains("items[3].activeTrackIds[1]: expected a number"));
+        assertTrue(parser.getErrors().contains("items[3].media.metadata: expected an object"));
+        assertTrue(parser.getErrors().contains("items[3].media.duration: expected a number"));
+    }
+
+    @Test
+    public void testParseQueueLoadRequest_WrongRootTypes() throws JSONException {
+        JSONObject json = new JSONObject().put("items", new JSONObject()).put("startIndex", "first").put("repeatMode", "REPEAT_OFF");
+        assertNull(parser.parseQueueLoadRequest(json));
+        assertEquals("items: expected an array; startIndex: expected a number", parser.getErrorMessage());
+    }
+
+    @Test
+    public void testParseQueueLoadRequest_ReportsAllErrors() throws JSONException {
+        JSONObject json = new JSONObject()
+            .put("items", new JSONArray().put(createItem("a")).put(new JSONObject()).put("not an item"))
+            .put("startIndex", 5)
+            .put("repeatMode", "REPEAT_SOMETIMES");
+        ((JSONObject) json.getJSONArray("items").get(0)).getJSONObject("media").put("duration", "long");
+
+        assertNull(parser.parseQueueLoadRequest(json));
+        assertEquals(5, parser.getErrors().size());
+        assertTrue(parser.getErrors().contains("repeatMode: invalid repeat mode REPEAT_SOMETIMES"));
+        assertTrue(parser.getErrors().contains("items[0].media.duration: expected a number"));
+        assertTrue(parser.getErrors().contains("items[1].media: is required"));
+        assertTrue(parser.getErrors().contains("items[2]: expected an object"));
+        assertTrue(parser.getErrors().contains("startIndex: out of range"));
+    }
+
+    @Test
+    public void testParseQueueLoadRequest_MissingFields() {
+        assertNull(parser.parseQueueLoadRequest(new JSONObject()));
+        assertEquals("items: is required; startIndex: is required; repeatMode: is required", parser.getErrorMessage());
+    }
+
+    @Test
+    public void testCustomData_NotCopied() throws JSONException {
+        JSONObject customData = new JSONObject().put("license", "token");
+        MediaInfo mediaInfo = parser.parseMediaInfo(new JSONObject().put("customData", customData), null);
+        assertSame(customData, mediaInfo.getCustomData());
+
+        MediaQueueItem item = parser.parseQueueItem(createItem("a").put("customData", customData), null);
+        assertSame(customData, item.getCustomData());
+    }
+
+    @Test
+    public void testCustomData_String() throws JSONException {
+        JSONObject json = createItem("a").put("customData", "{\"license\":\"token\"}");
+        json.getJSONObject("media").put("customData", "{\"drm\":{\"type\":\"widevine\"}}");
+        MediaQueueItem item = parser.parseQueueItem(json, null);
+        assertFalse(parser.hasErrors());
+        assertEquals("token", item.getCustomData().getString("license"));
+        assertEquals("widevine", item.getMedia().getCustomData().getJSONObject("drm").getString("type"));
+    }
+
+    @Test
+    public void testCustomData_InvalidString() throws JSONException {
+        parser.parseQueueItem(createItem("a").put("customData", "not json"), "items[0]");
+        assertEquals("items[0].customData: expected an object or a JSON object string", parser.getErrorMessage());
+    }
+
+    @Test
+    public void testParseCustomData() throws JSONException {
+        JSONObject customData = new JSONObject().put("license", "token");
+        assertSame(customData, parser.parseCustomData(new JSONObject().put("customData", customData), null));
+        JSONObject parsed = parser.parseCustomData(new JSONObject().put("customData", "{\"license\":\"token\"}"), null);
+        assertEquals("token", parsed.getString("license"));
+        assertNull(parser.parseCustomData(new JSONObject(), null));
+        assertNull(parser.parseCustomData(new JSONObject().put("customData", JSONObject.NULL), null));
+        assertFalse(parser.hasErrors());
+    }
+
+    @Test
+    public void testParseCustomData_InvalidString() throws JSONException {
+        assertNull(parser.parseCustomData(new JSONObject().put("customData", "{license: "), null));
+        assertEquals("customData: expected an object or a JSON object string", parser.getErrorMessage());
+    }
+
+    @Test
+    public void testParseCustomData_NotAnObject() throws JSONException {
+        assertNull(parser.parseCustomData(new JSONObject().put("customData", "[1, 2]"), null));
+        assertNull(parser.parseCustomData(new JSONObject().put("customData", 42), null));
+        assertEquals(2, parser.getErrors().size());
+    }
+
+    @Test
+    public void testCreateMediaQueueItem_KeepsCustomData() throws JSONException {
+        JSONObject json = createItem("a").put("customData", new JSONObject().put("position", 2));
+        MediaQueueItem item = ChromecastUtilities.createMediaQueueItem(json);
+        assertEquals(2, item.getCustomData().getInt("position"));
+    }
+
+    @Test(expected = JSONException.class)
+    public void testCreateMediaQueueItem_Invalid() throws JSONException {
+        ChromecastUtilities.createMediaQueueItem(createItem("a").put("startTime", "soon"));
+    }
+}
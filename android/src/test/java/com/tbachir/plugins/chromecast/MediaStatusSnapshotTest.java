@@ -0,0 +1,127 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaStatus;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for MediaStatusSnapshot.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MediaStatusSnapshotTest {
+
+    private static final String SESSION_ID = "session-id";
+
+    private MediaInfo mediaInfo;
+    private JSONObject customData;
+    private long[] activeTrackIds;
+    private QueueSnapshot queue;
+
+    @Before
+    public void setUp() throws JSONException {
+        mediaInfo = new MediaInfo.Builder("https://example.com/video.mp4").setContentType("video/mp4").build();
+        customData = new JSONObject().put("userId", "abc");
+        activeTrackIds = new long[] { 1, 2 };
+        queue = new QueueSnapshot(1, SESSION_ID, new JSONArray().put(new JSONObject().put("itemId", 3).put("orderId", 0)));
+    }
+
+    private MediaStatus createStatus(int playerState) {
+        return new MediaStatus.Builder()
+            .setMediaInfo(mediaInfo)
+            .setCurrentItemId(3)
+            .setStreamPosition(12000)
+            .setCustomData(customData)
+            .setIdleReason(MediaStatus.IDLE_REASON_NONE)
+            .setLoadingItemId(4)
+            .setPlaybackRate(1.5)
+            .setPlayerState(playerState)
+            .setPreloadedItemId(5)
+            .setQueueRepeatMode(MediaStatus.REPEAT_MODE_REPEAT_ALL)
+            .setStreamVolume(0.5)
+            .setIsMute(true)
+            .setActiveTrackIds(activeTrackIds)
+            .setSupportedMediaCommands(MediaStatus.COMMAND_PAUSE | MediaStatus.COMMAND_SEEK)
+            .build();
+    }
+
+    private MediaStatusSnapshot capture(String sessionId, int playerState) {
+        return MediaStatusSnapshot.capture(sessionId, createStatus(playerState), mediaInfo, queue);
+    }
+
+    @Test
+    public void testCaptureCopiesStatus() {
+        MediaStatusSnapshot snapshot = capture(SESSION_ID, MediaStatus.PLAYER_STATE_PLAYING);
+        assertEquals(3, snapshot.currentItemId);
+        assertEquals(12000, snapshot.streamPosition);
+        assertSame(customData, snapshot.customData);
+        assertEquals(MediaStatus.IDLE_REASON_NONE, snapshot.idleReason);
+        assertTrue(snapshot.isAlive);
+        assertEquals(4, snapshot.loadingItemId);
+        assertSame(mediaInfo, snapshot.mediaInfo);
+        assertEquals(1.5, snapshot.playbackRate, 0);
+        assertEquals(MediaStatus.PLAYER_STATE_PLAYING, snapshot.playerState);
+        assertEquals(5, snapshot.preloadedItemId);
+        assertEquals(MediaStatus.REPEAT_MODE_REPEAT_ALL, snapshot.queueRepeatMode);
+        assertEquals(SESSION_ID, snapshot.sessionId);
+        assertEquals(0.5, snapshot.volume, 0);
+        assertTrue(snapshot.mute);
+        assertArrayEquals(new long[] { 1, 2 }, snapshot.activeTrackIds);
+        assertSame(queue, snapshot.queue);
+        assertEquals(MediaStatus.COMMAND_PAUSE | MediaStatus.COMMAND_SEEK, snapshot.supportedMediaCommands);
+    }
+
+    @Test
+    public void testCaptureCopiesActiveTrackIds() {
+        MediaStatusSnapshot snapshot = capture(SESSION_ID, MediaStatus.PLAYER_STATE_PLAYING);
+        // The SDK reuses its arrays, the snapshot must not see the next status
+        activeTrackIds[0] = 7;
+        assertArrayEquals(new long[] { 1, 2 }, snapshot.activeTrackIds);
+    }
+
+    @Test
+    public void testCaptureIdleIsNotAlive() {
+        MediaStatusSnapshot snapshot = capture(SESSION_ID, MediaStatus.PLAYER_STATE_IDLE);
+        assertFalse(snapshot.isAlive);
+        assertEquals(MediaStatus.PLAYER_STATE_IDLE, snapshot.playerState);
+    }
+
+    @Test
+    public void testCaptureLeavesOutQueueOfAnotherSession() {
+        MediaStatusSnapshot snapshot = capture("other-session", MediaStatus.PLAYER_STATE_PLAYING);
+        assertNull(snapshot.queue);
+    }
+
+    @Test
+    public void testCaptureWithoutStatus() {
+        assertNull(MediaStatusSnapshot.capture(SESSION_ID, null, mediaInfo, queue));
+        assertNull(MediaStatusSnapshot.capture(null, queue));
+    }
+
+    @Test
+    public void testCaptureRunsOnCallingThread() throws InterruptedException {
+        final MediaStatus status = createStatus(MediaStatus.PLAYER_STATE_PLAYING);
+        final MediaStatusSnapshot[] snapshot = new MediaStatusSnapshot[1];
+        // A thread without a Looper: capturing can't post anything, the snapshot is complete once it returns
+        Thread thread = new Thread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    snapshot[0] = MediaStatusSnapshot.capture(SESSION_ID, status, mediaInfo, queue);
+                }
+            }
+        );
+        thread.start();
+        thread.join();
+        assertNotNull(snapshot[0]);
+        assertEquals(12000, snapshot[0].streamPosition);
+        assertSame(queue, snapshot[0].queue);
+    }
+}
@@ -0,0 +1,235 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import android.app.Activity;
+import com.getcapacitor.JSObject;
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.cast.MediaTrack;
+import com.google.android.gms.cast.framework.CastSession;
+import com.google.android.gms.cast.framework.media.MediaQueue;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Fails when the MEDIA_UPDATE sent for a status update allocates too much more than the media object it sends.
+ *
+ * Drives the RemoteMediaClient.Callback that ChromecastSession registers, with a mocked CastSession.  The
+ * budget is relative to building the same media object alone, measured in the same run, so that it doesn't
+ * depend on the JVM (compressed oops, object headers).
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MediaUpdateAllocationTest {
+
+    private static final int ITERATIONS = 5000;
+    /**
+     * Allocations of a status update without the mocks, relative to building its media object alone: the update
+     * also captures the status and builds its state key.  Measured at about 1.05, raise it only with the reason
+     * in the commit message.
+     */
+    private static final double STATUS_UPDATE_BUDGET = 1.3;
+
+    private MediaStatus mediaStatus;
+    private MediaInfo mediaInfo;
+    private RemoteMediaClient client;
+    private RemoteMediaClient.Callback callback;
+    private int updates;
+    /** Number of calls to the mocks. */
+    private int mockCalls;
+    /** Keeps the results alive so the work isn't optimized away. */
+    private Object sink;
+
+    @Before
+    public void setUp() throws JSONException {
+        Assume.assumeTrue(AllocationCounter.isSupported());
+        MediaMetadata metadata = new MediaMetadata(MediaMetadata.MEDIA_TYPE_TV_SHOW);
+        metadata.putString(MediaMetadata.KEY_TITLE, "Episode 1");
+        metadata.putString(MediaMetadata.KEY_SERIES_TITLE, "Series");
+        metadata.putInt(MediaMetadata.KEY_SEASON_NUMBER, 2);
+        metadata.putInt(MediaMetadata.KEY_EPISODE_NUMBER, 1);
+        List<MediaTrack> tracks = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            tracks.add(new MediaTrack.Builder(i, MediaTrack.TYPE_TEXT).setName("Subtitles " + i).setLanguage("fr").build());
+        }
+        mediaInfo =
+            new MediaInfo.Builder("https://example.com/videos/episode-1.mp4")
+                .setContentType("video/mp4")
+                .setStreamType(MediaInfo.STREAM_TYPE_BUFFERED)
+                .setStreamDuration(1800000)
+                .setMetadata(metadata)
+                .setMediaTracks(tracks)
+                .build();
+        mediaStatus =
+            new MediaStatus.Builder()
+                .setMediaInfo(mediaInfo)
+                .setCurrentItemId(1)
+                .setStreamPosition(12000)
+                .setCustomData(new JSONObject().put("userId", "abc"))
+                .setPlaybackRate(1)
+                .setPlayerState(MediaStatus.PLAYER_STATE_PLAYING)
+                .setStreamVolume(0.5)
+                .setActiveTrackIds(new long[] { 1 })
+                .setSupportedMediaCommands(MediaStatus.COMMAND_PAUSE | MediaStatus.COMMAND_SEEK)
+                .build();
+
+        // Stub only: the mocks don't record the calls, which would allocate more and more
+        client = mock(RemoteMediaClient.class, withSettings().stubOnly().defaultAnswer(new CountingAnswer(null)));
+        when(client.getMediaStatus()).thenAnswer(new CountingAnswer(mediaStatus));
+        when(client.getMediaInfo()).thenAnswer(new CountingAnswer(mediaInfo));
+        when(client.getMediaQueue()).thenReturn(mock(MediaQueue.class, withSettings().stubOnly()));
+        doAnswer(
+            new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) {
+                    callback = invocation.getArgument(0);
+                    return null;
+                }
+            }
+        )
+            .when(client)
+            .registerCallback(any(RemoteMediaClient.Callback.class));
+        CastSession castSession = mock(CastSession.class, withSettings().stubOnly().defaultAnswer(new CountingAnswer(null)));
+        when(castSession.getRemoteMediaClient()).thenAnswer(new CountingAnswer(client));
+        when(castSession.getSessionId()).thenAnswer(new CountingAnswer("session-id"));
+
+        Activity activity = Robolectric.buildActivity(Activity.class).get();
+        ChromecastSession session = new ChromecastSession(activity, new MediaUpdateListener());
+        // The test runs on the main thread, so setSession registers the callback before returning
+        session.setSession(castSession);
+        assertNotNull("setSession registers a callback", callback);
+    }
+
+    @Test
+    public void testOnStatusUpdated() {
+        final MediaStatusSnapshot status = MediaStatusSnapshot.capture("session-id", mediaStatus, mediaInfo, null);
+        long mediaObject = AllocationCounter.bytesPerRun(
+            ITERATIONS,
+            new Runnable() {
+                @Override
+                public void run() {
+                    sink = ChromecastUtilities.createMediaObject(status, FieldMask.ALL);
+                }
+            }
+        );
+        mockCalls = 0;
+        long mockCall = AllocationCounter.bytesPerRun(
+            ITERATIONS,
+            new Runnable() {
+                @Override
+                public void run() {
+                    sink = client.getMediaInfo();
+                }
+            }
+        );
+        updates = 0;
+        mockCalls = 0;
+        long statusUpdate = AllocationCounter.bytesPerRun(
+            ITERATIONS,
+            new Runnable() {
+                @Override
+                public void run() {
+                    callback.onStatusUpdated();
+                }
+            }
+        );
+        assertEquals("Each status update sends a MEDIA_UPDATE", 2 * ITERATIONS, updates);
+        assertNotNull(sink);
+        // The calls to the mocks allocate much more than the calls to the Cast SDK they stand for
+        long plugin = statusUpdate - mockCalls / (2 * ITERATIONS) * mockCall;
+        double ratio = (double) plugin / mediaObject;
+        assertTrue(
+            String.format(
+                Locale.US,
+                "A status update allocates %d bytes without the mocks, %.2f times its media object (%d bytes), the budget is %.2f",
+                plugin,
+                ratio,
+                mediaObject,
+                STATUS_UPDATE_BUDGET
+            ),
+            ratio <= STATUS_UPDATE_BUDGET
+        );
+    }
+
+    /**
+     * Returns the same value, or the default one if it is null, and counts the calls.
+     */
+    private class CountingAnswer implements Answer<Object> {
+
+        private final Object value;
+
+        CountingAnswer(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object answer(InvocationOnMock invocation) throws Throwable {
+            mockCalls++;
+            return value != null ? value : RETURNS_DEFAULTS.answer(invocation);
+        }
+    }
+
+    /**
+     * Sends every update, as the MEDIA_UPDATE listener of the plugin would.
+     */
+    private class MediaUpdateListener implements ChromecastSession.Listener {
+
+        @Override
+        public boolean isListening(String eventName) {
+            return true;
+        }
+
+        @Override
+        public FieldMask getFields(String eventName) {
+            return FieldMask.ALL;
+        }
+
+        @Override
+        public void onMediaProgress(JSObject progress) {}
+
+        @Override
+        public void onQueueItemsChanged(JSObject change) {}
+
+        @Override
+        public void onQueueLoadProgress(JSObject progress) {}
+
+        @Override
+        public void onMediaLoaded(JSONObject jsonMedia) {}
+
+        @Override
+        public void onMediaUpdate(JSONObject jsonMedia) {
+            // Where the plugin hands the media object to the bridge
+            sink = jsonMedia;
+            updates++;
+        }
+
+        @Override
+        public void onSessionUpdate(JSONObject jsonSession) {}
+
+        @Override
+        public void onSessionEnd(JSONObject jsonSession) {}
+
+        @Override
+        public void onMessageReceived(CastDevice castDevice, String namespace, String message) {}
+    }
+}
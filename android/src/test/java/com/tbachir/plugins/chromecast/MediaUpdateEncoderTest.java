@@ -0,0 +1,169 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.getcapacitor.JSObject;
+import java.util.Iterator;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for MediaUpdateEncoder.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MediaUpdateEncoderTest {
+
+    private MediaUpdateEncoder encoder;
+
+    @Before
+    public void setUp() {
+        encoder = new MediaUpdateEncoder();
+        encoder.configure(true, 3);
+    }
+
+    private static JSONObject media(double currentTime, String playerState) throws JSONException {
+        JSONObject volume = new JSONObject();
+        volume.put("level", 0.5);
+        volume.put("muted", false);
+        JSONObject metadata = new JSONObject();
+        metadata.put("title", "Big Buck Bunny");
+        JSONObject info = new JSONObject();
+        info.put("contentId", "https://example.com/video.mp4");
+        info.put("metadata", metadata);
+        JSONObject out = new JSONObject();
+        out.put("currentItemId", 1);
+        out.put("currentTime", currentTime);
+        out.put("playerState", playerState);
+        out.put("volume", volume);
+        out.put("media", info);
+        out.put("activeTrackIds", new JSONArray().put(1L).put(2L));
+        return out;
+    }
+
+    // ==================== Encoding Tests ====================
+
+    @Test
+    public void testEncode_FirstUpdateIsSnapshot() throws JSONException {
+        JSObject out = encoder.encode(media(1, "PLAYING"));
+        assertEquals(1, out.getLong("sequence"));
+        assertTrue(out.getBoolean("snapshot"));
+        assertEquals("Big Buck Bunny", out.getJSONObject("media").getJSONObject("media").getJSONObject("metadata").getString("title"));
+        assertFalse(out.has("patch"));
+    }
+
+    @Test
+    public void testEncode_PatchOnlyContainsChanges() throws JSONException {
+        encoder.encode(media(1, "PLAYING"));
+        JSObject out = encoder.encode(media(2, "PLAYING"));
+        assertEquals(2, out.getLong("sequence"));
+        assertFalse(out.getBoolean("snapshot"));
+        JSONObject patch = out.getJSONObject("patch");
+        assertEquals(1, patch.length());
+        assertEquals(2.0, patch.getDouble("currentTime"), 0.001);
+    }
+
+    @Test
+    public void testEncode_NestedAndRemovedFields() throws JSONException {
+        encoder.encode(media(1, "PLAYING"));
+        JSONObject next = media(1, "PLAYING");
+        next.getJSONObject("volume").put("muted", true);
+        next.remove("activeTrackIds");
+        JSONObject patch = encoder.encode(next).getJSONObject("patch");
+        assertEquals(2, patch.length());
+        assertEquals(1, patch.getJSONObject("volume").length());
+        assertTrue(patch.getJSONObject("volume").getBoolean("muted"));
+        assertTrue(patch.isNull("activeTrackIds"));
+    }
+
+    @Test
+    public void testEncode_UnchangedIsSkipped() throws JSONException {
+        encoder.encode(media(1, "PLAYING"));
+        assertNull(encoder.encode(media(1, "PLAYING")));
+        // The sequence isn't used up by skipped updates
+        assertEquals(2, encoder.encode(media(2, "PLAYING")).getLong("sequence"));
+    }
+
+    @Test
+    public void testEncode_SnapshotInterval() throws JSONException {
+        assertTrue(encoder.encode(media(1, "PLAYING")).getBoolean("snapshot"));
+        assertFalse(encoder.encode(media(2, "PLAYING")).getBoolean("snapshot"));
+        assertFalse(encoder.encode(media(3, "PLAYING")).getBoolean("snapshot"));
+        assertTrue(encoder.encode(media(4, "PLAYING")).getBoolean("snapshot"));
+    }
+
+    @Test
+    public void testEncode_KeepsReferences() throws JSONException {
+        JSONObject source = media(1, "PLAYING");
+        assertSame(source, encoder.encode(source).getJSONObject("media"));
+        JSONObject next = media(1, "PLAYING");
+        JSONArray trackIds = new JSONArray().put(3L);
+        next.put("activeTrackIds", trackIds);
+        // The changed values are shared with the media object, not copied
+        assertSame(trackIds, encoder.encode(next).getJSONObject("patch").get("activeTrackIds"));
+    }
+
+    @Test
+    public void testEncode_SharedSubtreeIsNotWalked() throws JSONException {
+        final int[] walks = { 0 };
+        JSONObject info = new JSONObject() {
+            @Override
+            public Iterator<String> keys() {
+                walks[0]++;
+                return super.keys();
+            }
+        };
+        info.put("contentId", "https://example.com/video.mp4");
+        encoder.encode(media(1, "PLAYING").put("media", info));
+        JSONObject patch = encoder.encode(media(2, "PLAYING").put("media", info)).getJSONObject("patch");
+        assertFalse(patch.has("media"));
+        assertEquals(0, walks[0]);
+    }
+
+    @Test
+    public void testEncode_NullInCustomDataIsADeletion() throws JSONException {
+        encoder.encode(media(1, "PLAYING").put("customData", new JSONObject().put("a", 1).put("b", 2)));
+        JSONObject next = media(1, "PLAYING").put("customData", new JSONObject().put("a", 1).put("b", JSONObject.NULL));
+        // A merge patch can't tell a null value from a removed member
+        JSONObject patch = encoder.encode(next).getJSONObject("patch");
+        assertTrue(patch.getJSONObject("customData").isNull("b"));
+    }
+
+    @Test
+    public void testRequestSnapshot() throws JSONException {
+        assertNull(encoder.requestSnapshot());
+        encoder.encode(media(1, "PLAYING"));
+        JSObject last = encoder.requestSnapshot();
+        assertEquals("PLAYING", last.getString("playerState"));
+        JSObject out = encoder.encode(last);
+        assertTrue(out.getBoolean("snapshot"));
+        assertEquals(2, out.getLong("sequence"));
+    }
+
+    @Test
+    public void testReset() throws JSONException {
+        encoder.encode(media(1, "PLAYING"));
+        encoder.reset();
+        assertTrue(encoder.encode(media(1, "PLAYING")).getBoolean("snapshot"));
+    }
+
+    // ==================== Equality Tests ====================
+
+    @Test
+    public void testValueEquals_Numbers() {
+        assertTrue(MediaUpdateEncoder.valueEquals(1, 1L));
+        assertTrue(MediaUpdateEncoder.valueEquals(1.5, 1.5f));
+        assertFalse(MediaUpdateEncoder.valueEquals(1, 2L));
+        assertFalse(MediaUpdateEncoder.valueEquals(1, "1"));
+    }
+
+    @Test
+    public void testValueEquals_Arrays() {
+        assertTrue(MediaUpdateEncoder.valueEquals(new JSONArray().put(1).put(2), new JSONArray().put(1L).put(2L)));
+        assertFalse(MediaUpdateEncoder.valueEquals(new JSONArray().put(1), new JSONArray().put(1).put(2)));
+    }
+}
@@ -0,0 +1,267 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.google.android.gms.cast.MediaMetadata;
+import java.util.Iterator;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for MetadataKeyRegistry.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MetadataKeyRegistryTest {
+
+    /** The client keys of chrome.cast.media.*MediaMetadata. */
+    private static final String[] CLIENT_KEYS = {
+        "albumArtist",
+        "albumName",
+        "artist",
+        "bookTitle",
+        "broadcastDate",
+        "chapterNumber",
+        "chapterTitle",
+        "composer",
+        "creationDate",
+        "discNumber",
+        "episode",
+        "height",
+        "latitude",
+        "longitude",
+        "location",
+        "queueItemId",
+        "releaseDate",
+        "season",
+        "sectionDuration",
+        "sectionStartAbsoluteTime",
+        "sectionStartTimeInContainer",
+        "sectionStartTimeInMedia",
+        "seriesTitle",
+        "studio",
+        "subtitle",
+        "title",
+        "trackNumber",
+        "width"
+    };
+
+    @After
+    public void tearDown() {
+        MetadataKeyRegistry.setDefault(MetadataKeyRegistry.withCustomKeys(null));
+    }
+
+    /**
+     * @param count number of keys, the well known ones then custom ones
+     * @return client metadata with a value of the type of each key
+     */
+    private static JSONObject createClientMetadata(int count) throws JSONException {
+        JSONObject metadata = new JSONObject().put("metadataType", MediaMetadata.MEDIA_TYPE_GENERIC);
+        for (int i = 0; i < count; i++) {
+            String key = i < CLIENT_KEYS.length ? CLIENT_KEYS[i] : "custom" + i;
+            switch (MetadataKeyRegistry.getDefault().getType(ChromecastUtilities.getAndroidMetadataName(key))) {
+                case MetadataKeyRegistry.TYPE_INT:
+                    metadata.put(key, i);
+                    break;
+                case MetadataKeyRegistry.TYPE_DOUBLE:
+                    metadata.put(key, i + 0.5);
+                    break;
+                case MetadataKeyRegistry.TYPE_DATE:
+                case MetadataKeyRegistry.TYPE_MS:
+                    metadata.put(key, 1600000000000L + i);
+                    break;
+                default:
+                    metadata.put(key, "value " + i);
+            }
+        }
+        return metadata;
+    }
+
+    @Test
+    public void testDefault_AllClientKeys() {
+        for (String clientName : CLIENT_KEYS) {
+            String androidName = ChromecastUtilities.getAndroidMetadataName(clientName);
+            assertNotEquals("No Android key for " + clientName, clientName, androidName);
+            assertEquals(clientName, ChromecastUtilities.getClientMetadataName(androidName));
+            assertNotEquals(MetadataKeyRegistry.TYPE_CUSTOM, MetadataKeyRegistry.getDefault().getType(androidName));
+        }
+    }
+
+    @Test
+    public void testRoundTrip_WellKnownAndCustomKeys() throws JSONException {
+        JSONObject metadata = createClientMetadata(100);
+        MediaMetadata mediaMetadata = ChromecastUtilities.createMediaInfo(
+            "id",
+            new JSONObject(),
+            "video/mp4",
+            0,
+            "buffered",
+            metadata,
+            new JSONObject()
+        )
+            .getMetadata();
+        assertEquals("value 25", mediaMetadata.getString(MediaMetadata.KEY_TITLE));
+        assertEquals(17, mediaMetadata.getInt(MediaMetadata.KEY_SEASON_NUMBER));
+
+        JSONObject out = ChromecastUtilities.createMetadataObject(mediaMetadata);
+        Iterator<String> keys = metadata.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            assertTrue("Missing " + key, out.has(key));
+            assertEquals(key, metadata.get(key).toString(), out.get(key).toString());
+        }
+    }
+
+    @Test
+    public void testDefault_BothDirections() {
+        MetadataKeyRegistry registry = MetadataKeyRegistry.getDefault();
+        MetadataKeyRegistry.Key key = registry.fromClient("season");
+        assertEquals(MediaMetadata.KEY_SEASON_NUMBER, key.androidName);
+        assertEquals(MetadataKeyRegistry.TYPE_INT, key.type);
+        assertSame(key, registry.fromAndroid(MediaMetadata.KEY_SEASON_NUMBER));
+    }
+
+    @Test
+    public void testDefault_Aliases() {
+        MetadataKeyRegistry registry = MetadataKeyRegistry.getDefault();
+        assertEquals(MediaMetadata.KEY_CREATION_DATE, registry.fromClient("creationDateTime").androidName);
+        assertEquals(MediaMetadata.KEY_RELEASE_DATE, registry.fromClient("originalAirDate").androidName);
+        assertEquals(MediaMetadata.KEY_LOCATION_NAME, registry.fromClient("locationName").androidName);
+        // The aliases are only read, the primary name is sent
+        assertEquals("releaseDate", registry.fromAndroid(MediaMetadata.KEY_RELEASE_DATE).clientName);
+        assertEquals("location", registry.fromAndroid(MediaMetadata.KEY_LOCATION_NAME).clientName);
+    }
+
+    @Test
+    public void testUnknownKeys() {
+        MetadataKeyRegistry registry = MetadataKeyRegistry.getDefault();
+        assertNull(registry.fromClient("customField"));
+        assertNull(registry.fromAndroid("customField"));
+        assertEquals(MetadataKeyRegistry.TYPE_CUSTOM, registry.getType("customField"));
+    }
+
+    @Test
+    public void testTypeNames() {
+        assertEquals("string", MetadataKeyRegistry.getTypeName(MetadataKeyRegistry.TYPE_STRING));
+        assertEquals("ms", MetadataKeyRegistry.getTypeName(MetadataKeyRegistry.TYPE_MS));
+        assertEquals("custom", MetadataKeyRegistry.getTypeName(42));
+    }
+
+    @Test
+    public void testRegister_CustomKey() {
+        MetadataKeyRegistry registry = new MetadataKeyRegistry();
+        registry.register("rating", "com.example.RATING", MetadataKeyRegistry.TYPE_DOUBLE);
+        assertEquals("com.example.RATING", registry.fromClient("rating").androidName);
+        assertEquals("rating", registry.fromAndroid("com.example.RATING").clientName);
+        assertEquals(MetadataKeyRegistry.TYPE_DOUBLE, registry.getType("com.example.RATING"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegister_InvalidType() {
+        new MetadataKeyRegistry().register("rating", "com.example.RATING", 9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterAlias_UnknownKey() {
+        new MetadataKeyRegistry().registerAlias("rating", "com.example.RATING");
+    }
+
+    @Test
+    public void testRoundTrip_TypedValues() throws JSONException {
+        JSONObject metadata = new JSONObject()
+            .put("metadataType", MediaMetadata.MEDIA_TYPE_TV_SHOW)
+            .put("title", "Episode")
+            .put("season", 2)
+            .put("latitude", 48.85)
+            .put("originalAirDate", 1600000000000L)
+            .put("sectionDuration", 90000L)
+            .put("customField", "value");
+        MediaMetadata mediaMetadata = ChromecastUtilities.createMediaInfo(
+            "id",
+            new JSONObject(),
+            "video/mp4",
+            0,
+            "buffered",
+            metadata,
+            new JSONObject()
+        )
+            .getMetadata();
+
+        assertEquals(2, mediaMetadata.getInt(MediaMetadata.KEY_SEASON_NUMBER));
+        assertEquals(48.85, mediaMetadata.getDouble(MediaMetadata.KEY_LOCATION_LATITUDE), 0);
+        assertEquals(1600000000000L, mediaMetadata.getDate(MediaMetadata.KEY_RELEASE_DATE).getTimeInMillis());
+        assertEquals(90000L, mediaMetadata.getTimeMillis(MediaMetadata.KEY_SECTION_DURATION));
+
+        JSONObject out = ChromecastUtilities.createMetadataObject(mediaMetadata);
+        assertEquals("Episode", out.getString("title"));
+        assertEquals(2, out.getInt("season"));
+        assertEquals(48.85, out.getDouble("latitude"), 0);
+        assertEquals(1600000000000L, out.getLong("releaseDate"));
+        assertEquals(90000L, out.getLong("sectionDuration"));
+        assertEquals("value", out.getString("customField"));
+    }
+
+    @Test
+    public void testWithCustomKeys() throws JSONException {
+        MetadataKeyRegistry registry = MetadataKeyRegistry.withCustomKeys(
+            new JSONObject().put("rating", "double").put("episodeCount", "int").put("recorded", "date")
+        );
+        assertEquals(MetadataKeyRegistry.TYPE_DOUBLE, registry.getType("rating"));
+        assertEquals(MetadataKeyRegistry.TYPE_INT, registry.getType("episodeCount"));
+        assertEquals("recorded", registry.fromClient("recorded").androidName);
+        // The well known keys are still there, and the published registry is unchanged until setDefault
+        assertEquals(MediaMetadata.KEY_TITLE, registry.fromClient("title").androidName);
+        assertNull(MetadataKeyRegistry.getDefault().fromClient("rating"));
+
+        MetadataKeyRegistry.setDefault(registry);
+        assertSame(registry, MetadataKeyRegistry.getDefault());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithCustomKeys_InvalidType() throws JSONException {
+        MetadataKeyRegistry.withCustomKeys(new JSONObject().put("rating", "float"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithCustomKeys_WellKnownKey() throws JSONException {
+        MetadataKeyRegistry.withCustomKeys(new JSONObject().put("season", "string"));
+    }
+
+    @Test
+    public void testParseType() {
+        assertEquals(MetadataKeyRegistry.TYPE_MS, MetadataKeyRegistry.parseType("ms"));
+        assertEquals(MetadataKeyRegistry.TYPE_CUSTOM, MetadataKeyRegistry.parseType("custom"));
+        assertEquals(MetadataKeyRegistry.TYPE_CUSTOM, MetadataKeyRegistry.parseType(null));
+    }
+
+    @Test
+    public void testRoundTrip_CustomKeys() throws JSONException {
+        MetadataKeyRegistry.setDefault(MetadataKeyRegistry.withCustomKeys(new JSONObject().put("rating", "double").put("episodeCount", "int")));
+        JSONObject metadata = new JSONObject()
+            .put("metadataType", MediaMetadata.MEDIA_TYPE_GENERIC)
+            .put("rating", 4.5)
+            .put("episodeCount", 12)
+            .put("customField", "value");
+        MediaMetadata mediaMetadata = ChromecastUtilities.createMediaInfo(
+            "id",
+            new JSONObject(),
+            "video/mp4",
+            0,
+            "buffered",
+            metadata,
+            new JSONObject()
+        )
+            .getMetadata();
+
+        assertEquals(4.5, mediaMetadata.getDouble("rating"), 0);
+        assertEquals(12, mediaMetadata.getInt("episodeCount"));
+
+        JSONObject out = ChromecastUtilities.createMetadataObject(mediaMetadata);
+        assertEquals(4.5, out.getDouble("rating"), 0);
+        assertEquals(12, out.get("episodeCount"));
+        assertEquals("value", out.getString("customField"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.getcapacitor.JSObject;
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for PlaybackClock.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PlaybackClockTest {
+
+    private PlaybackClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new PlaybackClock();
+    }
+
+    @Test
+    public void testNotAnchored() {
+        assertFalse(clock.isAnchored());
+        assertEquals(0, clock.getPosition(1000));
+        assertNull(clock.createPositionObject(1000));
+    }
+
+    @Test
+    public void testExtrapolatesWhilePlaying() {
+        clock.anchor(10000, 60000, 1, 1000);
+        assertEquals(10000, clock.getPosition(1000));
+        assertEquals(12500, clock.getPosition(3500));
+    }
+
+    @Test
+    public void testUsesPlaybackRate() {
+        clock.anchor(10000, 60000, 2, 1000);
+        assertEquals(14000, clock.getPosition(3000));
+    }
+
+    @Test
+    public void testStaysStillWhilePaused() {
+        clock.anchor(10000, 60000, 0, 1000);
+        assertEquals(10000, clock.getPosition(5000));
+    }
+
+    @Test
+    public void testClampsToDuration() {
+        clock.anchor(59000, 60000, 1, 1000);
+        assertEquals(60000, clock.getPosition(10000));
+    }
+
+    @Test
+    public void testUnknownDurationIsNotClamped() {
+        clock.anchor(59000, -1, 1, 1000);
+        assertEquals(68000, clock.getPosition(10000));
+    }
+
+    @Test
+    public void testReanchorsOnNewStatus() {
+        clock.anchor(10000, 60000, 1, 1000);
+        // The receiver reports it actually lagged behind
+        clock.anchor(10500, 60000, 1, 2000);
+        assertEquals(11500, clock.getPosition(3000));
+    }
+
+    @Test
+    public void testSameStatusKeepsAnchorTime() {
+        clock.anchor(10000, 60000, 1, 1000);
+        // The same status read again later must not move the position back
+        clock.anchor(10000, 60000, 1, 3000);
+        assertEquals(13000, clock.getPosition(4000));
+    }
+
+    @Test
+    public void testNullStatusResets() {
+        clock.anchor(10000, 60000, 1, 1000);
+        clock.anchor((MediaStatusSnapshot) null, 2000);
+        assertFalse(clock.isAnchored());
+    }
+
+    @Test
+    public void testCreatePositionObject() throws JSONException {
+        clock.anchor(10000, 60000, 1, 1000);
+        JSObject position = clock.createPositionObject(2000);
+        assertEquals(11.0, position.getDouble("currentTime"), 0.001);
+        assertEquals(60.0, position.getDouble("duration"), 0.001);
+        assertEquals(1.0, position.getDouble("playbackRate"), 0.001);
+        assertEquals(2000, position.getLong("timestamp"));
+    }
+}
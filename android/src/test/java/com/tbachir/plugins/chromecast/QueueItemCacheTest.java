@@ -0,0 +1,141 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.google.android.gms.cast.MediaQueueItem;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for QueueItemCache.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueueItemCacheTest {
+
+    private static MediaQueueItem createItem(String contentId) throws JSONException {
+        return ChromecastUtilities.createMediaQueueItem(new JSONObject().put("media", new JSONObject().put("contentId", contentId)));
+    }
+
+    @Test
+    public void testGetQueueItem_SameAsCreateQueueItem() throws JSONException {
+        QueueItemCache cache = new QueueItemCache(QueueItemCache.DEFAULT_MAX_SIZE);
+        MediaQueueItem item = createItem("a.mp4");
+        JSONObject object = cache.getQueueItem(1, item, 3);
+        assertEquals(ChromecastUtilities.createQueueItem(item, 3).toString(), object.toString());
+        assertEquals(3, object.getInt("orderId"));
+        assertEquals(1, cache.getItemCount());
+    }
+
+    @Test
+    public void testGetQueueItem_SerializedOnce() throws JSONException {
+        QueueItemCache cache = new QueueItemCache(QueueItemCache.DEFAULT_MAX_SIZE);
+        MediaQueueItem item = createItem("a.mp4");
+        JSONObject object = cache.getQueueItem(1, item, 0);
+        assertSame(object, cache.getQueueItem(1, item, 0));
+    }
+
+    @Test
+    public void testGetQueueItem_ChangedItemOrPosition() throws JSONException {
+        QueueItemCache cache = new QueueItemCache(QueueItemCache.DEFAULT_MAX_SIZE);
+        MediaQueueItem item = createItem("a.mp4");
+        JSONObject object = cache.getQueueItem(1, item, 0);
+
+        JSONObject moved = cache.getQueueItem(1, item, 1);
+        assertNotSame(object, moved);
+        assertEquals(1, moved.getInt("orderId"));
+
+        JSONObject updated = cache.getQueueItem(1, createItem("b.mp4"), 1);
+        assertEquals("b.mp4", updated.getJSONObject("media").getString("contentId"));
+        assertEquals(1, cache.getItemCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws JSONException {
+        MediaQueueItem first = createItem("a.mp4");
+        int itemSize = QueueItemCache.estimateSize(ChromecastUtilities.createQueueItem(first, 0));
+        // Room for two items of the same size, not three
+        QueueItemCache cache = new QueueItemCache(2 * itemSize + itemSize / 2);
+
+        JSONObject object = cache.getQueueItem(1, first, 0);
+        cache.getQueueItem(2, createItem("b.mp4"), 1);
+        assertEquals(2 * itemSize, cache.getSize());
+        // Reading the first item again makes the second one the least recently used
+        assertSame(object, cache.getQueueItem(1, first, 0));
+        cache.getQueueItem(3, createItem("c.mp4"), 2);
+
+        assertEquals(2, cache.getItemCount());
+        assertEquals(2 * itemSize, cache.getSize());
+        assertSame(object, cache.getQueueItem(1, first, 0));
+    }
+
+    @Test
+    public void testEvictsBySize() throws JSONException {
+        MediaQueueItem small = createItem("a.mp4");
+        int smallSize = QueueItemCache.estimateSize(ChromecastUtilities.createQueueItem(small, 0));
+        MediaQueueItem third = createItem("c.mp4");
+        QueueItemCache cache = new QueueItemCache(4 * smallSize);
+        JSONObject first = cache.getQueueItem(1, small, 0);
+        cache.getQueueItem(2, createItem("b.mp4"), 1);
+        JSONObject kept = cache.getQueueItem(3, third, 2);
+        assertEquals(3, cache.getItemCount());
+
+        // An item a bit larger than 2 small items evicts the 2 least recently used ones
+        StringBuilder contentId = new StringBuilder("d.mp4");
+        while (QueueItemCache.estimateSize(ChromecastUtilities.createQueueItem(createItem(contentId.toString()), 3)) <= 2 * smallSize) {
+            contentId.append('d');
+        }
+        JSONObject large = cache.getQueueItem(4, createItem(contentId.toString()), 3);
+
+        assertEquals(2, cache.getItemCount());
+        assertEquals(smallSize + QueueItemCache.estimateSize(large), cache.getSize());
+        assertTrue(cache.getSize() <= 4 * smallSize);
+        assertSame(kept, cache.getQueueItem(3, third, 2));
+        assertNotSame(first, cache.getQueueItem(1, small, 0));
+    }
+
+    @Test
+    public void testLargerThanMaxSize_NotKept() throws JSONException {
+        MediaQueueItem item = createItem("a.mp4");
+        int itemSize = QueueItemCache.estimateSize(ChromecastUtilities.createQueueItem(item, 0));
+        QueueItemCache cache = new QueueItemCache(itemSize * 3 / 2);
+        JSONObject object = cache.getQueueItem(1, item, 0);
+
+        StringBuilder contentId = new StringBuilder("b.mp4");
+        for (int i = 0; i < itemSize; i++) {
+            contentId.append('b');
+        }
+        assertNotNull(cache.getQueueItem(2, createItem(contentId.toString()), 1));
+
+        // The large item didn't evict the one that fits
+        assertEquals(1, cache.getItemCount());
+        assertEquals(itemSize, cache.getSize());
+        assertSame(object, cache.getQueueItem(1, item, 0));
+    }
+
+    @Test
+    public void testNoSize_NothingKept() throws JSONException {
+        QueueItemCache cache = new QueueItemCache(0);
+        assertNotNull(cache.getQueueItem(1, createItem("a.mp4"), 0));
+        assertEquals(0, cache.getItemCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testRemoveAndClear() throws JSONException {
+        QueueItemCache cache = new QueueItemCache(QueueItemCache.DEFAULT_MAX_SIZE);
+        cache.getQueueItem(1, createItem("a.mp4"), 0);
+        cache.getQueueItem(2, createItem("b.mp4"), 1);
+
+        cache.remove(1);
+        cache.remove(5);
+        assertEquals(1, cache.getItemCount());
+        assertEquals(QueueItemCache.estimateSize(cache.getQueueItem(2, createItem("b.mp4"), 1)), cache.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getItemCount());
+        assertEquals(0, cache.getSize());
+    }
+}
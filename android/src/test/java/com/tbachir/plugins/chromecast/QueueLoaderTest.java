@@ -0,0 +1,154 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaStatus;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for QueueLoader.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueueLoaderTest {
+
+    private static MediaQueueItem[] createItems(int count) throws JSONException {
+        MediaQueueItem[] items = new MediaQueueItem[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = ChromecastUtilities.createMediaQueueItem(new JSONObject().put("media", new JSONObject().put("contentId", "item" + i)));
+        }
+        return items;
+    }
+
+    /**
+     * Builds the status the receiver sends once it loaded the items, it gives them ids from firstItemId.
+     */
+    private static MediaStatus createLoadedStatus(MediaQueueItem[] loaded, int firstItemId) throws JSONException {
+        List<MediaQueueItem> queueItems = new ArrayList<>();
+        for (int i = 0; i < loaded.length; i++) {
+            JSONObject media = new JSONObject().put("contentId", loaded[i].getMedia().getContentId()).put("streamType", "BUFFERED");
+            queueItems.add(new MediaQueueItem.Builder(new JSONObject().put("itemId", firstItemId + i).put("media", media)).build());
+        }
+        return new MediaStatus.Builder().setQueueItems(queueItems).setCurrentItemId(firstItemId).build();
+    }
+
+    /**
+     * Applies the loads and inserts like the receiver would, anchor is the start item.
+     * @return the queue once all the batches were inserted
+     */
+    private static List<MediaQueueItem> load(QueueLoader loader, List<Integer> batchSizes) {
+        List<MediaQueueItem> queue = new ArrayList<>();
+        MediaQueueItem[] first = loader.getFirstChunk();
+        for (MediaQueueItem item : first) {
+            queue.add(item);
+        }
+        MediaQueueItem anchor = first[loader.getFirstStartIndex()];
+        QueueLoader.Batch batch;
+        while ((batch = loader.nextBatch()) != null) {
+            batchSizes.add(batch.items.length);
+            int at = batch.beforeAnchor ? queue.indexOf(anchor) : queue.size();
+            for (MediaQueueItem item : batch.items) {
+                queue.add(at++, item);
+            }
+        }
+        return queue;
+    }
+
+    @Test
+    public void testNotChunked() throws JSONException {
+        MediaQueueItem[] items = createItems(5);
+        QueueLoader loader = new QueueLoader(items, 3, 0);
+        assertFalse(loader.isChunked());
+        assertEquals(5, loader.getFirstChunk().length);
+        assertEquals(3, loader.getFirstStartIndex());
+        assertNull(loader.nextBatch());
+
+        assertFalse(new QueueLoader(items, 3, 5).isChunked());
+    }
+
+    @Test
+    public void testFirstChunkStartsAtStartIndex() throws JSONException {
+        MediaQueueItem[] items = createItems(10);
+        QueueLoader loader = new QueueLoader(items, 4, 3);
+        assertTrue(loader.isChunked());
+        MediaQueueItem[] first = loader.getFirstChunk();
+        assertEquals(3, first.length);
+        assertSame(items[4], first[0]);
+        assertEquals(0, loader.getFirstStartIndex());
+    }
+
+    @Test
+    public void testBatches_KeepTheOrder() throws JSONException {
+        MediaQueueItem[] items = createItems(10);
+        List<Integer> batchSizes = new ArrayList<>();
+        List<MediaQueueItem> queue = load(new QueueLoader(items, 4, 3), batchSizes);
+
+        // [7, 10) appended, then [0, 3) and [3, 4) inserted before the start item
+        assertEquals("[3, 3, 1]", batchSizes.toString());
+        assertEquals(10, queue.size());
+        for (int i = 0; i < items.length; i++) {
+            assertSame(items[i], queue.get(i));
+        }
+    }
+
+    @Test
+    public void testBatches_StartAtEnd() throws JSONException {
+        MediaQueueItem[] items = createItems(7);
+        List<Integer> batchSizes = new ArrayList<>();
+        List<MediaQueueItem> queue = load(new QueueLoader(items, 6, 2), batchSizes);
+
+        assertEquals("[2, 2, 2]", batchSizes.toString());
+        for (int i = 0; i < items.length; i++) {
+            assertSame(items[i], queue.get(i));
+        }
+    }
+
+    @Test
+    public void testLoaded() throws JSONException {
+        QueueLoader loader = new QueueLoader(createItems(10), 0, 4);
+        assertEquals(10, loader.getTotal());
+        loader.onLoaded(loader.getFirstChunk().length);
+        assertEquals(4, loader.getLoaded());
+        loader.onLoaded(loader.nextBatch().items.length);
+        loader.onLoaded(loader.nextBatch().items.length);
+        assertEquals(10, loader.getLoaded());
+        assertNull(loader.nextBatch());
+    }
+
+    @Test
+    public void testFindAnchor() throws JSONException {
+        QueueLoader loader = new QueueLoader(createItems(10), 4, 3);
+        assertTrue(loader.needsAnchor());
+        assertTrue(loader.findAnchor(createLoadedStatus(loader.getFirstChunk(), 21)));
+        assertEquals(21, loader.getAnchorItemId());
+    }
+
+    @Test
+    public void testFindAnchor_MissingStatus() throws JSONException {
+        QueueLoader loader = new QueueLoader(createItems(10), 4, 3);
+        assertFalse(loader.findAnchor(null));
+        assertEquals(MediaQueueItem.INVALID_ITEM_ID, loader.getAnchorItemId());
+    }
+
+    @Test
+    public void testFindAnchor_StatusOfPreviousQueue() throws JSONException {
+        QueueLoader loader = new QueueLoader(createItems(10), 4, 3);
+        // The status still shows the previous queue, starting with item0
+        assertFalse(loader.findAnchor(createLoadedStatus(createItems(3), 21)));
+        assertFalse(loader.findAnchor(new MediaStatus.Builder().setCurrentItemId(21).build()));
+        assertEquals(MediaQueueItem.INVALID_ITEM_ID, loader.getAnchorItemId());
+    }
+
+    @Test
+    public void testNeedsAnchor() throws JSONException {
+        // Nothing is inserted before the start item
+        assertFalse(new QueueLoader(createItems(10), 0, 3).needsAnchor());
+        assertFalse(new QueueLoader(createItems(10), 4, 0).needsAnchor());
+    }
+}
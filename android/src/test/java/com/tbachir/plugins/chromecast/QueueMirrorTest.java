@@ -0,0 +1,112 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import com.getcapacitor.JSObject;
+import com.google.android.gms.cast.MediaQueueItem;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for QueueMirror.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueueMirrorTest {
+
+    private QueueMirror mirror;
+
+    @Before
+    public void setUp() {
+        mirror = new QueueMirror();
+        mirror.reload(new int[] { 10, 11, 12, 13 });
+    }
+
+    private static MediaQueueItem createItem(String contentId) throws JSONException {
+        return ChromecastUtilities.createMediaQueueItem(new JSONObject().put("media", new JSONObject().put("contentId", contentId)));
+    }
+
+    private static String ids(JSONArray itemIds) {
+        return itemIds.toString();
+    }
+
+    @Test
+    public void testReload() throws JSONException {
+        JSObject change = mirror.reload(new int[] { 1, 2 });
+        assertEquals("RELOAD", change.getString("changeType"));
+        assertEquals("[1,2]", ids(change.getJSONArray("itemIds")));
+        assertEquals(2, mirror.size());
+        assertEquals(1, mirror.indexOf(2));
+        assertEquals(-1, mirror.indexOf(10));
+        assertEquals(MediaQueueItem.INVALID_ITEM_ID, mirror.getItemId(2));
+    }
+
+    @Test
+    public void testInsert() throws JSONException {
+        JSObject change = mirror.insert(1, new int[] { 20, 21 });
+        assertEquals("INSERT", change.getString("changeType"));
+        assertEquals("[20,21]", ids(change.getJSONArray("itemIds")));
+        assertEquals(11, change.getInt("insertBefore"));
+        assertEquals(6, mirror.size());
+        assertEquals(20, mirror.getItemId(1));
+        assertEquals(3, mirror.indexOf(11));
+
+        JSObject appended = mirror.insert(6, new int[] { 30 });
+        assertFalse(appended.has("insertBefore"));
+        assertEquals(30, mirror.getItemId(6));
+    }
+
+    @Test
+    public void testRemove() throws JSONException {
+        JSObject change = mirror.remove(new int[] { 2, 0 });
+        assertEquals("REMOVE", change.getString("changeType"));
+        assertEquals("[10,12]", ids(change.getJSONArray("itemIds")));
+        assertEquals(2, mirror.size());
+        assertEquals(11, mirror.getItemId(0));
+        assertEquals(13, mirror.getItemId(1));
+    }
+
+    @Test
+    public void testReorder() throws JSONException {
+        JSObject change = mirror.reorder(new int[] { 13, 12, 11, 10 });
+        assertEquals("REORDER", change.getString("changeType"));
+        assertEquals(0, mirror.indexOf(13));
+    }
+
+    @Test
+    public void testQueueItem_BuiltOnce() throws JSONException {
+        MediaQueueItem item = createItem("a");
+        JSONObject object = mirror.getQueueItem(1, item);
+        assertEquals(1, object.getInt("orderId"));
+        assertSame(object, mirror.getQueueItem(1, item));
+
+        // A new MediaQueueItem for the same id is built again
+        assertNotSame(object, mirror.getQueueItem(1, createItem("a")));
+    }
+
+    @Test
+    public void testQueueItem_NewPosition() throws JSONException {
+        MediaQueueItem item = createItem("a");
+        mirror.getQueueItem(1, item);
+        mirror.insert(0, new int[] { 20 });
+        assertEquals(2, mirror.getQueueItem(2, item).getInt("orderId"));
+    }
+
+    @Test
+    public void testUpdate() throws JSONException {
+        MediaQueueItem item = createItem("a");
+        JSONObject object = mirror.getQueueItem(1, item);
+
+        JSObject change = mirror.update(new int[] { 1, 2 }, new MediaQueueItem[] { createItem("b"), null });
+        assertEquals("UPDATE", change.getString("changeType"));
+        assertEquals("[11,12]", ids(change.getJSONArray("itemIds")));
+        // Only the item in the cache has an object
+        assertEquals(1, change.getJSONArray("items").length());
+        assertEquals("b", change.getJSONArray("items").getJSONObject(0).getJSONObject("media").getString("contentId"));
+        assertNotSame(object, mirror.getQueueItem(1, item));
+    }
+}
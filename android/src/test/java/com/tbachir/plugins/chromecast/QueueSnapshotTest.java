@@ -0,0 +1,62 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for QueueSnapshot.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueueSnapshotTest {
+
+    private static JSONArray createItems(int count) throws JSONException {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            items.put(new JSONObject().put("itemId", i + 1).put("orderId", i));
+        }
+        return items;
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, QueueSnapshot.EMPTY.version);
+        assertNull(QueueSnapshot.EMPTY.getItems("session-id"));
+    }
+
+    @Test
+    public void testNext_IncrementsVersion() throws JSONException {
+        QueueSnapshot first = QueueSnapshot.EMPTY.next("session-1", createItems(2));
+        QueueSnapshot second = first.next("session-2", null);
+        assertEquals(1, first.version);
+        assertEquals(2, second.version);
+        assertEquals("session-2", second.sessionId);
+        // The previous snapshot is left as it was
+        assertEquals(2, first.getItems("session-1").length());
+    }
+
+    @Test
+    public void testGetItems_OnlyForItsSession() throws JSONException {
+        JSONArray items = createItems(3);
+        QueueSnapshot queue = QueueSnapshot.EMPTY.next("session-1", items);
+        assertSame(items, queue.getItems("session-1"));
+        assertNull(queue.getItems("session-2"));
+        assertNull(queue.getItems(null));
+    }
+
+    private static MediaStatusSnapshot createStatus(QueueSnapshot queue) {
+        return new MediaStatusSnapshot(1, 0, null, 0, true, 0, null, 1, 0, 0, null, 0, "session-1", 1, false, null, queue);
+    }
+
+    @Test
+    public void testCreateMediaObject_Items() throws JSONException {
+        QueueSnapshot queue = QueueSnapshot.EMPTY.next("session-1", createItems(3));
+        assertEquals(3, ChromecastUtilities.createMediaObject(createStatus(queue)).getJSONArray("items").length());
+        assertFalse(ChromecastUtilities.createMediaObject(createStatus(null)).has("items"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for QueueWindow.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueueWindowTest {
+
+    @Test
+    public void testDefault_OneItemOnEachSide() {
+        QueueWindow window = QueueWindow.DEFAULT;
+        assertEquals(4, window.getStart(5));
+        assertEquals(6, window.getEnd(5, 20));
+        assertEquals(0, window.getPrefetchIndexes(5, 20).length);
+    }
+
+    @Test
+    public void testClampedToTheQueue() {
+        QueueWindow window = new QueueWindow(3, 10, 0, 20);
+        assertEquals(0, window.getStart(1));
+        assertEquals(7, window.getEnd(1, 8));
+        assertEquals(Integer.MAX_VALUE - 1, new QueueWindow(0, Integer.MAX_VALUE, 0, 20).getEnd(5, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testPrefetch_ClosestFirst() {
+        QueueWindow window = new QueueWindow(1, 2, 2, 20);
+        // Window [4, 7]
+        assertArrayEquals(new int[] { 8, 3, 9, 2 }, window.getPrefetchIndexes(5, 20));
+        // Window [0, 3], nothing before it
+        assertArrayEquals(new int[] { 4, 5 }, window.getPrefetchIndexes(1, 20));
+        // Window [17, 19], nothing after it
+        assertArrayEquals(new int[] { 16, 15 }, window.getPrefetchIndexes(18, 20));
+        assertEquals(0, window.getPrefetchIndexes(-1, 20).length);
+    }
+
+    @Test
+    public void testParse() throws JSONException {
+        assertSame(QueueWindow.DEFAULT, QueueWindow.parse(null));
+
+        QueueWindow window = QueueWindow.parse(new JSONObject().put("after", 10).put("prefetch", 5));
+        assertEquals(1, window.before);
+        assertEquals(10, window.after);
+        assertEquals(5, window.prefetch);
+        assertEquals(FetchLimiter.DEFAULT_FETCH_RATE, window.fetchRate);
+
+        QueueWindow invalid = QueueWindow.parse(new JSONObject().put("before", -2).put("fetchRate", 0));
+        assertEquals(0, invalid.before);
+        assertEquals(1, invalid.fetchRate);
+    }
+}
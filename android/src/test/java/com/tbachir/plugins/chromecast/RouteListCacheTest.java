@@ -0,0 +1,103 @@
+package com.tbachir.plugins.chromecast;
+
+import static org.junit.Assert.*;
+
+import android.os.Bundle;
+import java.util.Arrays;
+import java.util.Collections;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Unit tests for RouteListCache.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RouteListCacheTest {
+
+    private RouteListCache cache;
+    private RouteListCache.Route living;
+    private RouteListCache.Route kitchen;
+
+    @Before
+    public void setUp() {
+        cache = new RouteListCache();
+        living = new RouteListCache.Route("route-1", "Living Room", "Chromecast", false, null);
+        kitchen = new RouteListCache.Route("route-2", "Kitchen", "Nest Audio", false, new Bundle());
+    }
+
+    @Test
+    public void testFirstUpdate_AllAdded() throws JSONException {
+        RouteListCache.Diff diff = cache.updateRoutes(Arrays.asList(living, kitchen));
+        assertEquals(2, diff.added.length());
+        assertEquals(0, diff.removed.length());
+        assertEquals(0, diff.changed.length());
+
+        JSONArray routes = cache.getRoutes();
+        assertEquals(2, routes.length());
+        assertEquals("route-1", routes.getJSONObject(0).getString("id"));
+        assertEquals("Living Room", routes.getJSONObject(0).getString("name"));
+        assertEquals("Chromecast", routes.getJSONObject(0).getString("description"));
+    }
+
+    @Test
+    public void testSameRoutes_NothingSerialized() {
+        cache.updateRoutes(Arrays.asList(living, kitchen));
+        JSONArray routes = cache.getRoutes();
+
+        RouteListCache.Diff diff = cache.updateRoutes(Arrays.asList(living, kitchen));
+        assertTrue(diff.isEmpty());
+        assertSame(routes, cache.getRoutes());
+
+        // New route objects with the same values keep the cached objects
+        RouteListCache.Route renewed = new RouteListCache.Route("route-1", "Living Room", "Chromecast", false, null);
+        assertTrue(cache.updateRoutes(Arrays.asList(renewed, kitchen)).isEmpty());
+    }
+
+    @Test
+    public void testChangedRoute() throws JSONException {
+        cache.updateRoutes(Arrays.asList(living, kitchen));
+        Object kitchenObject = cache.getRoutes().get(1);
+
+        RouteListCache.Route renamed = new RouteListCache.Route("route-1", "Salon", "Chromecast", false, null);
+        RouteListCache.Diff diff = cache.updateRoutes(Arrays.asList(renamed, kitchen));
+        assertEquals(0, diff.added.length());
+        assertEquals(1, diff.changed.length());
+        assertEquals("Salon", diff.changed.getJSONObject(0).getString("name"));
+        assertEquals("Salon", cache.getRoutes().getJSONObject(0).getString("name"));
+        // The unchanged route isn't serialized again
+        assertSame(kitchenObject, cache.getRoutes().get(1));
+
+        RouteListCache.Route grouped = new RouteListCache.Route("route-1", "Salon", "Chromecast", true, null);
+        assertEquals(1, cache.updateRoutes(Arrays.asList(grouped, kitchen)).changed.length());
+    }
+
+    @Test
+    public void testRemovedRoute() throws JSONException {
+        cache.updateRoutes(Arrays.asList(living, kitchen));
+        RouteListCache.Diff diff = cache.updateRoutes(Collections.singletonList(kitchen));
+        assertEquals(1, diff.removed.length());
+        assertEquals("route-1", diff.removed.getString(0));
+        assertEquals(1, cache.getRoutes().length());
+        assertEquals("route-2", cache.getRoutes().getJSONObject(0).getString("id"));
+    }
+
+    @Test
+    public void testReorderedRoutes() throws JSONException {
+        cache.updateRoutes(Arrays.asList(living, kitchen));
+        RouteListCache.Diff diff = cache.updateRoutes(Arrays.asList(kitchen, living));
+        assertTrue(diff.isEmpty());
+        assertEquals("route-2", cache.getRoutes().getJSONObject(0).getString("id"));
+    }
+
+    @Test
+    public void testClear() {
+        cache.updateRoutes(Arrays.asList(living, kitchen));
+        cache.clear();
+        assertEquals(0, cache.getRoutes().length());
+        assertEquals(2, cache.updateRoutes(Arrays.asList(living, kitchen)).added.length());
+    }
+}
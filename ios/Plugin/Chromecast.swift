@@ -49,6 +49,27 @@ enum ChromecastError: Error, LocalizedError {
 // MARK: - Main Chromecast Class
 @objc public class Chromecast: NSObject {
 
+    /// The error of a customData that is neither an object nor a JSON object string, the same as on Android.
+    static let invalidCustomDataMessage = "customData: expected an object or a JSON object string"
+
+    /// Reads the customData of a load request, sent as an object or already serialized as a JSON string.
+    /// - Returns: the customData, nil if it is missing
+    /// - Throws: ChromecastError.invalidParameter if it is neither an object nor a JSON object string
+    static func parseCustomData(_ value: Any?) throws -> [String: Any]? {
+        guard let value = value, !(value is NSNull) else {
+            return nil
+        }
+        if let customData = value as? [String: Any] {
+            return customData
+        }
+        if let json = value as? String,
+           let data = json.data(using: .utf8),
+           let customData = (try? JSONSerialization.jsonObject(with: data)) as? [String: Any] {
+            return customData
+        }
+        throw ChromecastError.invalidParameter(invalidCustomDataMessage)
+    }
+
     // MARK: - Properties
     private var appId: String?
     private weak var listener: ChromecastListener?
@@ -287,6 +308,58 @@ enum ChromecastError: Error, LocalizedError {
         }
     }
 
+    /// Estimated playback position, extrapolated by the SDK from the last media status
+    public func estimatedPosition(completion: @escaping (Result<[String: Any], Error>) -> Void) {
+        DispatchQueue.main.async { [weak self] in
+            guard let client = self?.currentSession?.remoteMediaClient else {
+                completion(.failure(ChromecastError.noSession))
+                return
+            }
+            guard let mediaStatus = client.mediaStatus else {
+                completion(.failure(ChromecastError.sessionError("No media")))
+                return
+            }
+            let playing = mediaStatus.playerState == .playing
+            completion(.success([
+                "currentTime": client.approximateStreamPosition(),
+                "duration": max(0, mediaStatus.mediaInformation?.streamDuration ?? 0),
+                "playbackRate": playing ? Double(mediaStatus.playbackRate) : 0,
+                "timestamp": Int64(ProcessInfo.processInfo.systemUptime * 1000)
+            ]))
+        }
+    }
+
+    /// Read a page of the queue items the receiver sent with the media status
+    public func queueItems(offset: Int, limit: Int, completion: @escaping (Result<[String: Any], Error>) -> Void) {
+        DispatchQueue.main.async { [weak self] in
+            guard let self = self, let client = self.currentSession?.remoteMediaClient else {
+                completion(.failure(ChromecastError.noSession))
+                return
+            }
+            let total = Int(client.mediaStatus?.queueItemCount ?? 0)
+            var items: [[String: Any]] = []
+            if let mediaStatus = client.mediaStatus, offset < total {
+                for index in offset..<min(total, offset + limit) {
+                    guard let item = mediaStatus.queueItem(at: UInt(index)) else { continue }
+                    var result: [String: Any] = [
+                        "itemId": item.itemID,
+                        "orderId": index,
+                        "autoplay": item.autoplay,
+                        "preloadTime": item.preloadTime
+                    ]
+                    if let mediaInfo = item.mediaInformation {
+                        result["media"] = self.createMediaInfoObject(from: mediaInfo)
+                    }
+                    if !item.startTime.isNaN {
+                        result["startTime"] = item.startTime
+                    }
+                    items.append(result)
+                }
+            }
+            completion(.success(["offset": offset, "total": total, "items": items]))
+        }
+    }
+
     public func loadMedia(
         contentId: String,
         customData: [String: Any]?,
@@ -362,6 +435,88 @@ enum ChromecastError: Error, LocalizedError {
         }
     }
 
+    /// Load a queue of media, all the items in one request
+    public func queueLoad(
+        items: [[String: Any]],
+        startIndex: Int,
+        repeatMode: String,
+        customData: [String: Any]?,
+        completion: @escaping (Result<[String: Any], Error>) -> Void
+    ) {
+        DispatchQueue.main.async { [weak self] in
+            guard let self = self else {
+                completion(.failure(ChromecastError.notInitialized))
+                return
+            }
+
+            guard let client = self.currentSession?.remoteMediaClient else {
+                completion(.failure(ChromecastError.noSession))
+                return
+            }
+
+            var queueItems: [GCKMediaQueueItem] = []
+            for (index, item) in items.enumerated() {
+                guard let media = item["media"] as? [String: Any],
+                      let contentId = media["contentId"] as? String,
+                      let contentURL = URL(string: contentId) else {
+                    completion(.failure(ChromecastError.invalidParameter("items[\(index)].media.contentId")))
+                    return
+                }
+
+                let mediaInfoBuilder = GCKMediaInformationBuilder(contentURL: contentURL)
+                mediaInfoBuilder.contentID = contentId
+                mediaInfoBuilder.contentType = media["contentType"] as? String ?? "video/mp4"
+                mediaInfoBuilder.streamDuration = media["duration"] as? Double ?? 0
+                switch (media["streamType"] as? String)?.lowercased() {
+                case "live":
+                    mediaInfoBuilder.streamType = .live
+                default:
+                    mediaInfoBuilder.streamType = .buffered
+                }
+                if let metadata = media["metadata"] as? [String: Any] {
+                    mediaInfoBuilder.metadata = self.createMediaMetadata(from: metadata)
+                }
+                if let mediaCustomData = media["customData"] as? [String: Any] {
+                    mediaInfoBuilder.customData = mediaCustomData
+                }
+
+                let itemBuilder = GCKMediaQueueItemBuilder()
+                itemBuilder.mediaInformation = mediaInfoBuilder.build()
+                itemBuilder.autoplay = item["autoplay"] as? Bool ?? true
+                if let preloadTime = item["preloadTime"] as? Double {
+                    itemBuilder.preloadTime = preloadTime
+                }
+                if let startTime = item["startTime"] as? Double {
+                    itemBuilder.startTime = startTime
+                }
+                if let itemCustomData = item["customData"] as? [String: Any] {
+                    itemBuilder.customData = itemCustomData
+                }
+                queueItems.append(itemBuilder.build())
+            }
+
+            let loadOptions = GCKMediaQueueLoadOptions()
+            loadOptions.startIndex = UInt(startIndex)
+            loadOptions.customData = customData
+            switch repeatMode {
+            case "REPEAT_ALL":
+                loadOptions.repeatMode = .all
+            case "REPEAT_SINGLE":
+                loadOptions.repeatMode = .single
+            case "REPEAT_ALL_AND_SHUFFLE":
+                loadOptions.repeatMode = .allAndShuffle
+            default:
+                loadOptions.repeatMode = .off
+            }
+
+            // Store completion handler
+            self.pendingMediaCompletion = completion
+
+            let request = client.queueLoad(queueItems, with: loadOptions)
+            request.delegate = self
+        }
+    }
+
     /// Load media with authentication headers
     public func loadMediaWithHeaders(
         contentId: String,
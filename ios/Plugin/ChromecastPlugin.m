@@ -23,4 +23,9 @@ CAP_PLUGIN(ChromecastPlugin, "Chromecast",
            CAP_PLUGIN_METHOD(addMessageListener, CAPPluginReturnNone);
            CAP_PLUGIN_METHOD(removeMessageListener, CAPPluginReturnNone);
            CAP_PLUGIN_METHOD(networkDiagnostic, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(requestMediaSnapshot, CAPPluginReturnNone);
+           CAP_PLUGIN_METHOD(getEstimatedPosition, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(getQueueItems, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(queueLoad, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(cancelQueueLoad, CAPPluginReturnNone);
 )
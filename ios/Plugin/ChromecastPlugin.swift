@@ -26,7 +26,12 @@ public class ChromecastPlugin: CAPPlugin, CAPBridgedPlugin, ChromecastListener {
         CAPPluginMethod(name: "sendMessage", returnType: CAPPluginReturnPromise),
         CAPPluginMethod(name: "addMessageListener", returnType: CAPPluginReturnNone),
         CAPPluginMethod(name: "removeMessageListener", returnType: CAPPluginReturnNone),
-        CAPPluginMethod(name: "networkDiagnostic", returnType: CAPPluginReturnPromise)
+        CAPPluginMethod(name: "networkDiagnostic", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "requestMediaSnapshot", returnType: CAPPluginReturnNone),
+        CAPPluginMethod(name: "getEstimatedPosition", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "getQueueItems", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "queueLoad", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "cancelQueueLoad", returnType: CAPPluginReturnNone)
     ]
 
     // MARK: - Lifecycle
@@ -189,18 +194,35 @@ public class ChromecastPlugin: CAPPlugin, CAPBridgedPlugin, ChromecastListener {
         return "video/mp4"
     }
 
+    /// The customData of a load request, rejects the call with invalid_parameter if it is neither an
+    /// object nor a JSON object string.
+    /// - Returns: false if the call was rejected
+    private func readCustomData(_ call: CAPPluginCall, into customData: inout [String: Any]?) -> Bool {
+        do {
+            customData = try Chromecast.parseCustomData(call.options["customData"])
+            return true
+        } catch {
+            call.reject(Chromecast.invalidCustomDataMessage, "invalid_parameter")
+            return false
+        }
+    }
+
     @objc func loadMedia(_ call: CAPPluginCall) {
         guard let contentId = call.getString("contentId") else {
             call.reject("contentId is required")
             return
         }
 
+        var customData: [String: Any]?
+        guard readCustomData(call, into: &customData) else {
+            return
+        }
+
         guard let implementation = implementation, isInitialized else {
             call.reject("Plugin not initialized")
             return
         }
 
-        let customData = call.getObject("customData") as? [String: Any]
         let contentType = call.getString("contentType") ?? "video/mp4"
         let duration = call.getDouble("duration") ?? 0
         let streamType = call.getString("streamType") ?? "buffered"
@@ -237,12 +259,16 @@ public class ChromecastPlugin: CAPPlugin, CAPBridgedPlugin, ChromecastListener {
             return
         }
 
+        var customData: [String: Any]?
+        guard readCustomData(call, into: &customData) else {
+            return
+        }
+
         guard let implementation = implementation, isInitialized else {
             call.reject("Plugin not initialized")
             return
         }
 
-        let customData = call.getObject("customData") as? [String: Any]
         let contentType = call.getString("contentType") ?? detectContentType(url: contentId)
         let duration = call.getDouble("duration") ?? 0
         let streamType = call.getString("streamType") ?? "buffered"
@@ -458,6 +484,93 @@ public class ChromecastPlugin: CAPPlugin, CAPBridgedPlugin, ChromecastListener {
         }
     }
 
+    @objc func requestMediaSnapshot(_ call: CAPPluginCall) {
+        // MEDIA_UPDATE events always carry the full media object on iOS
+        call.resolve()
+    }
+
+    @objc func getEstimatedPosition(_ call: CAPPluginCall) {
+        guard let implementation = implementation, isInitialized else {
+            call.reject("Plugin not initialized")
+            return
+        }
+
+        implementation.estimatedPosition { result in
+            switch result {
+            case .success(let position):
+                call.resolve(position as PluginCallResultData)
+            case .failure(let error):
+                call.reject(error.localizedDescription)
+            }
+        }
+    }
+
+    @objc func getQueueItems(_ call: CAPPluginCall) {
+        guard let implementation = implementation, isInitialized else {
+            call.reject("Plugin not initialized")
+            return
+        }
+
+        let offset = call.getInt("offset") ?? 0
+        let limit = call.getInt("limit") ?? 20
+        guard offset >= 0, limit > 0 else {
+            call.reject("offset must be >= 0 and limit > 0")
+            return
+        }
+
+        implementation.queueItems(offset: offset, limit: min(limit, 100)) { result in
+            switch result {
+            case .success(let page):
+                call.resolve(page as PluginCallResultData)
+            case .failure(let error):
+                call.reject(error.localizedDescription)
+            }
+        }
+    }
+
+    @objc func queueLoad(_ call: CAPPluginCall) {
+        guard let items = call.getArray("items") as? [[String: Any]], !items.isEmpty else {
+            call.reject("items is required")
+            return
+        }
+
+        var customData: [String: Any]?
+        guard readCustomData(call, into: &customData) else {
+            return
+        }
+
+        guard let implementation = implementation, isInitialized else {
+            call.reject("Plugin not initialized")
+            return
+        }
+
+        let startIndex = call.getInt("startIndex") ?? 0
+        guard startIndex >= 0, startIndex < items.count else {
+            call.reject("startIndex is out of range")
+            return
+        }
+
+        // The whole queue is sent at once, chunkSize is only used on Android
+        implementation.queueLoad(
+            items: items,
+            startIndex: startIndex,
+            repeatMode: call.getString("repeatMode") ?? "REPEAT_OFF",
+            customData: customData
+        ) { result in
+            switch result {
+            case .success(let mediaObject):
+                call.resolve(mediaObject as PluginCallResultData)
+            case .failure(let error):
+                call.reject(error.localizedDescription)
+            }
+        }
+    }
+
+    @objc func cancelQueueLoad(_ call: CAPPluginCall) {
+        // queueLoad isn't chunked on iOS, there is nothing left to insert
+        call.resolve()
+    }
+
     @objc func sessionStop(_ call: CAPPluginCall) {
         guard let implementation = implementation, isInitialized else {
             call.reject("Plugin not initialized")
@@ -863,6 +863,41 @@ class ChromecastDataConversionTests: XCTestCase {
     }
 }
 
+// MARK: - Custom Data Tests
+
+class CustomDataTests: XCTestCase {
+
+    func testParseCustomData_Object() throws {
+        let customData = try Chromecast.parseCustomData(["license": "token"])
+        XCTAssertEqual(customData?["license"] as? String, "token")
+    }
+
+    func testParseCustomData_JSONString() throws {
+        let customData = try Chromecast.parseCustomData("{\"drm\":{\"type\":\"widevine\"}}")
+        let drm = customData?["drm"] as? [String: Any]
+        XCTAssertEqual(drm?["type"] as? String, "widevine")
+    }
+
+    func testParseCustomData_Missing() throws {
+        XCTAssertNil(try Chromecast.parseCustomData(nil))
+        XCTAssertNil(try Chromecast.parseCustomData(NSNull()))
+    }
+
+    func testParseCustomData_InvalidString() {
+        XCTAssertThrowsError(try Chromecast.parseCustomData("{license: ")) { error in
+            guard case ChromecastError.invalidParameter(let message) = error else {
+                return XCTFail("Expected invalidParameter, got \(error)")
+            }
+            XCTAssertEqual(message, Chromecast.invalidCustomDataMessage)
+        }
+    }
+
+    func testParseCustomData_NotAnObject() {
+        XCTAssertThrowsError(try Chromecast.parseCustomData("[1, 2]"))
+        XCTAssertThrowsError(try Chromecast.parseCustomData(42))
+    }
+}
+
 // MARK: - Content Type Detection Tests
 
 class ContentTypeDetectionTests: XCTestCase {
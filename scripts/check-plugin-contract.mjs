@@ -17,6 +17,12 @@ const paths = {
 };
 
 const ignoredInterfaceMethods = new Set(['addListener', 'removeAllListeners']);
+// Listener methods of the Capacitor Plugin class, overridden natively to track listeners
+const inheritedAndroidMethods = new Set([
+  'addListener',
+  'removeListener',
+  'removeAllListeners',
+]);
 
 let hasErrors = false;
 
@@ -156,7 +162,7 @@ function parseAndroidMethods() {
       const signatureMatch = next.match(
         /public\s+[A-Za-z0-9_<>,\s]+\s+([A-Za-z_][A-Za-z0-9_]*)\s*\(\s*(?:final\s+)?PluginCall\b/,
       );
-      if (signatureMatch) {
+      if (signatureMatch && !inheritedAndroidMethods.has(signatureMatch[1])) {
         methods.set(signatureMatch[1], {
           returnNone,
           line: j + 1,
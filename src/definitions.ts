@@ -4,11 +4,79 @@ export interface InitializeOptions {
   appId?: string;
   autoJoinPolicy?: 'tab_and_origin_scoped' | 'origin_scoped' | 'page_scoped';
   defaultActionPolicy?: 'create_session' | 'cast_this_tab';
+  /**
+   * Android only. Minimum time in ms between two MEDIA_UPDATE (or SESSION_UPDATE) events.
+   * Updates within the window are merged and the latest one wins, state changes
+   * (playerState, currentItemId, idleReason) are always sent immediately.
+   * Defaults to 0 (every update is sent), 100 to 250 is a good value for TV devices.
+   */
+  coalesceWindow?: number;
+  /**
+   * Android only. Format of the MEDIA_UPDATE events.
+   * - full: every event is a MediaObject (default)
+   * - delta: every event is a MediaUpdateDelta, use applyMediaUpdate to rebuild the MediaObject
+   */
+  mediaUpdates?: 'full' | 'delta';
+  /**
+   * Android only. Number of delta MEDIA_UPDATE events between two full snapshots.
+   * Defaults to 50.
+   */
+  snapshotInterval?: number;
+  /**
+   * Android only. Fields of the MediaObject sent with each media event, eg.
+   * `{ MEDIA_UPDATE: ['playerState', 'currentTime', 'currentItemId'] }`.
+   * Nested fields are separated with dots (`media.duration`, `volume.level`).
+   * Events that are not listed contain every field.
+   */
+  fields?: { MEDIA_UPDATE?: string[]; MEDIA_LOAD?: string[] };
+  /**
+   * Android only. Period in ms of the MEDIA_PROGRESS events, 0 disables them.
+   * Defaults to 1000.
+   */
+  progressInterval?: number;
+  /**
+   * Android only. While an EVENT_BATCH listener is registered, the events of a burst
+   * (eg. SESSION_STARTED + SESSION_UPDATE) are sent together as one EVENT_BATCH event instead of one by one.
+   * Defaults to false.
+   */
+  batchEvents?: boolean;
+  /**
+   * Android only. Time in ms the events of a batch are collected for.
+   * Defaults to 0, which only groups the events raised together.
+   */
+  batchWindow?: number;
+  /**
+   * Android only. Queue items sent in the `items` of the media objects: the current item,
+   * `before` items before it and `after` items after it (defaults to 1 and 1).
+   * `prefetch` more items past each end are requested from the receiver ahead of need but
+   * not sent (defaults to 0). At most `fetchRate` items are requested per second (defaults to 20).
+   */
+  queueWindow?: {
+    before?: number;
+    after?: number;
+    prefetch?: number;
+    fetchRate?: number;
+  };
+  /**
+   * Android only. Type of the app metadata keys, eg. `{ rating: 'double', episodeCount: 'int' }`,
+   * so that they are sent to the receiver and read back with their type instead of as strings.
+   * Dates are in ms since the epoch. The well known keys (title, season...) can't be redefined,
+   * initialize is rejected with invalid_parameter for them or for an unknown type.
+   */
+  metadataKeys?: { [name: string]: MetadataKeyType };
 }
 
+/** Type of an app metadata key, see InitializeOptions.metadataKeys. */
+export type MetadataKeyType = 'string' | 'int' | 'double' | 'date' | 'ms';
+
 export interface LoadMediaOptions {
   contentId: string;
-  customData?: Record<string, unknown>;
+  /**
+   * Sent to the receiver as it is. Large data (eg. DRM licenses) can also be passed already
+   * serialized as a JSON object string: it is parsed once instead of being copied. The call is
+   * rejected with the `invalid_parameter` code if it is neither an object nor a JSON object string.
+   */
+  customData?: Record<string, unknown> | string;
   contentType?: string;
   duration?: number;
   streamType?: 'buffered' | 'live' | 'other' | 'BUFFERED' | 'LIVE' | 'OTHER';
@@ -72,8 +140,99 @@ export interface MediaObject {
     duration: number;
     streamType: 'BUFFERED' | 'LIVE' | 'OTHER';
     metadata?: MediaMetadata;
+    /** The ad break clips of the media, times in seconds. */
+    breakClips?: Array<{
+      id: string;
+      title?: string;
+      contentId?: string;
+      contentUrl?: string;
+      contentType?: string;
+      clickThroughUrl?: string;
+      posterUrl?: string;
+      hlsSegmentFormat?: string;
+      customData?: Record<string, unknown>;
+      duration: number;
+      /** Absent if the clip can't be skipped. */
+      whenSkippable?: number;
+      vastAdsRequest?: { adTagUrl?: string; adsResponse?: string };
+    }>;
+    /** The ad breaks of the media, times in seconds. */
+    breaks?: Array<{
+      id: string;
+      breakClipIds: string[];
+      duration: number;
+      position: number;
+      isEmbedded: boolean;
+      isWatched: boolean;
+    }>;
   };
   sessionId: string;
+  /** Set while an ad break is playing, times in seconds. */
+  breakStatus?: {
+    breakId?: string;
+    breakClipId?: string;
+    currentBreakTime: number;
+    currentBreakClipTime: number;
+    /** Absent if the clip can't be skipped. */
+    whenSkippable?: number;
+  };
+  /** Set for live streams, times in seconds. */
+  liveSeekableRange?: {
+    start: number;
+    end: number;
+    isMovingWindow: boolean;
+    isLiveDone: boolean;
+  };
+  videoInfo?: {
+    width: number;
+    height: number;
+    hdrType?: 'sdr' | 'hdr' | 'dv';
+  };
+  /** Commands the receiver accepts for this media, eg. `pause`, `seek`, `stream_volume`, `queue_next`. */
+  supportedMediaCommands?: string[];
+}
+
+/**
+ * MEDIA_UPDATE payload when initialized with `mediaUpdates: 'delta'`.
+ * Either a full snapshot of the media, or a JSON merge patch (RFC 7396) of the
+ * fields that changed since the previous event, removed fields are set to null.
+ * A member set to null inside customData is therefore removed by applyMediaUpdate,
+ * it comes back with the next snapshot.
+ */
+export interface MediaUpdateDelta {
+  /** Increases by one for every event, a gap means an update was missed. */
+  sequence: number;
+  snapshot: boolean;
+  /** Set when snapshot is true. */
+  media?: MediaObject;
+  /** Set when snapshot is false. */
+  patch?: Record<string, unknown>;
+}
+
+/**
+ * Estimated playback position, returned by getEstimatedPosition and sent as MEDIA_PROGRESS (Android only).
+ * MEDIA_PROGRESS is sent every `progressInterval` ms while the app is in the foreground and has a listener.
+ *
+ * Between two updates the position can be extrapolated without asking the receiver:
+ * `currentTime + playbackRate * elapsedSeconds`.
+ */
+export interface MediaProgress {
+  /** Stream position in seconds. */
+  currentTime: number;
+  /** Stream duration in seconds, 0 if unknown (eg. live streams). */
+  duration: number;
+  /** Rate at which currentTime moves, 0 while paused or buffering. */
+  playbackRate: number;
+  /** Monotonic time in ms at which currentTime was estimated. */
+  timestamp: number;
+}
+
+/**
+ * EVENT_BATCH payload when initialized with `batchEvents: true` (Android only).
+ */
+export interface EventBatch {
+  /** The events, in the order they were raised. */
+  events: { eventName: string; data: Record<string, unknown> }[];
 }
 
 export interface RouteInfo {
@@ -81,6 +240,81 @@ export interface RouteInfo {
   name: string;
   description: string;
   isNearbyDevice: boolean;
+  isCastGroup?: boolean;
+}
+
+/**
+ * ROUTES_UPDATE payload, the changes of the routes found by startRouteScan (Android only).
+ * The first event of a scan lists every route as added.
+ */
+export interface RouteListUpdate {
+  added: RouteInfo[];
+  /** Ids of the routes that are no longer available. */
+  removed: string[];
+  changed: RouteInfo[];
+}
+
+/**
+ * QUEUE_ITEMS_CHANGED payload, one change of the receiver queue (Android only).
+ * - RELOAD: the queue was replaced, itemIds lists all of its items in order
+ * - INSERT: itemIds were inserted before the item insertBefore, or at the end if it is missing
+ * - REMOVE: itemIds were removed
+ * - UPDATE: itemIds changed, items holds the new values of the ones already fetched
+ * - REORDER: the same items moved, itemIds lists all of them in the new order
+ */
+export interface QueueItemsChange {
+  sessionId: string;
+  changeType: 'RELOAD' | 'INSERT' | 'REMOVE' | 'UPDATE' | 'REORDER';
+  itemIds: number[];
+  insertBefore?: number;
+  items?: Record<string, unknown>[];
+}
+
+export interface QueueLoadOptions {
+  /** The items of the queue, chrome.cast.media.QueueItem objects. */
+  items: Record<string, unknown>[];
+  /** Index of the item to play first. */
+  startIndex: number;
+  repeatMode:
+    | 'REPEAT_OFF'
+    | 'REPEAT_ALL'
+    | 'REPEAT_SINGLE'
+    | 'REPEAT_ALL_AND_SHUFFLE';
+  customData?: Record<string, unknown> | string;
+  /**
+   * Android only. Maximum number of items sent to the receiver per message. The items from
+   * `startIndex` that fit in a chunk are loaded first and playback starts, the others are then
+   * inserted in the background (see QueueLoadProgress). Defaults to 0: all the items are sent at once.
+   */
+  chunkSize?: number;
+}
+
+/**
+ * QUEUE_LOAD_PROGRESS payload, sent as a chunked queueLoad inserts its items (Android only).
+ * - LOADING: a chunk was loaded, more are coming
+ * - COMPLETED: all the items were loaded
+ * - CANCELLED: stopped by cancelQueueLoad, another load or the end of the session
+ * - FAILED: the receiver refused a chunk, the following ones were not sent
+ */
+export interface QueueLoadProgress {
+  sessionId?: string;
+  state: 'LOADING' | 'COMPLETED' | 'CANCELLED' | 'FAILED';
+  /** Number of items loaded so far. */
+  loaded: number;
+  /** Number of items of the queue. */
+  total: number;
+}
+
+/**
+ * A page of the receiver queue, returned by getQueueItems.
+ */
+export interface QueueItemsPage {
+  /** Index of the first item of the page. */
+  offset: number;
+  /** Number of items in the queue. */
+  total: number;
+  /** The items, in queue order. */
+  items: Record<string, unknown>[];
 }
 
 export interface NetworkDiagnosticResult {
@@ -206,6 +440,41 @@ export interface ChromecastPlugin {
    */
   networkDiagnostic(): Promise<NetworkDiagnosticResult>;
 
+  /**
+   * Send the current media as a full MEDIA_UPDATE snapshot.
+   * Only needed with `mediaUpdates: 'delta'` (Android), eg. when a gap in the sequence is detected.
+   * On the other platforms every MEDIA_UPDATE is already complete and this does nothing.
+   */
+  requestMediaSnapshot(): Promise<void>;
+
+  /**
+   * Estimate the current playback position from the last media status, without a round trip to the receiver.
+   */
+  getEstimatedPosition(): Promise<MediaProgress>;
+
+  /**
+   * Read `limit` items of the receiver queue from `offset` (defaults to 0 and 20, at most 100 items).
+   * On Android the items that the sender doesn't have yet are requested from the receiver and the
+   * page resolves once they arrived, or rejects with the `timeout` code if they didn't after 15s.
+   * On iOS and web the page only holds the items the receiver sent with the media status.
+   */
+  getQueueItems(options?: {
+    offset?: number;
+    limit?: number;
+  }): Promise<QueueItemsPage>;
+
+  /**
+   * Load a queue of media. Resolves with the media object once playback can start.
+   * On Android a `chunkSize` splits large queues into several messages, see QueueLoadOptions.
+   */
+  queueLoad(options: QueueLoadOptions): Promise<MediaObject>;
+
+  /**
+   * Stop inserting the remaining items of a chunked queueLoad (Android only), the items
+   * already loaded stay in the queue. Does nothing if no chunked load is in progress.
+   */
+  cancelQueueLoad(): Promise<void>;
+
   /**
    * Add a listener for Chromecast events.
    *
@@ -219,8 +488,13 @@ export interface ChromecastPlugin {
    * - RECEIVER_LISTENER: Fired when receiver availability changes
    * - MEDIA_LOAD: Fired when media is loaded
    * - MEDIA_UPDATE: Fired when media state changes
+   * - MEDIA_PROGRESS: Fired periodically with the playback position (Android only, see MediaProgress)
    * - RECEIVER_MESSAGE: Fired when a custom message is received
    * - SETUP: Fired when plugin is set up
+   * - EVENT_BATCH: Replaces all the other events with `batchEvents: true` (Android only, see EventBatch)
+   * - ROUTES_UPDATE: Fired during a route scan with the routes that were added, removed or changed (Android only, see RouteListUpdate)
+   * - QUEUE_ITEMS_CHANGED: Fired with each change of the receiver queue (Android only, see QueueItemsChange)
+   * - QUEUE_LOAD_PROGRESS: Fired as a chunked queueLoad inserts its items (Android only, see QueueLoadProgress)
    */
   addListener(
     eventName: string,
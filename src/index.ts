@@ -134,4 +134,5 @@ const Chromecast = new Proxy(ChromecastBase, {
 setupAutoInitialize();
 
 export * from './definitions';
+export { applyMediaUpdate } from './media-update';
 export { Chromecast };
@@ -0,0 +1,46 @@
+import type { MediaObject, MediaUpdateDelta } from './definitions';
+
+type JsonObject = Record<string, unknown>;
+
+const isObject = (value: unknown): value is JsonObject =>
+  typeof value === 'object' && value !== null && !Array.isArray(value);
+
+const mergePatch = (target: unknown, patch: JsonObject): JsonObject => {
+  const out: JsonObject = isObject(target) ? { ...target } : {};
+  for (const key of Object.keys(patch)) {
+    const value = patch[key];
+    if (value === null) {
+      delete out[key];
+    } else if (isObject(value)) {
+      out[key] = mergePatch(out[key], value);
+    } else {
+      out[key] = value;
+    }
+  }
+  return out;
+};
+
+/**
+ * Rebuilds the MediaObject from a MEDIA_UPDATE event received with `mediaUpdates: 'delta'`.
+ *
+ * Returns `null` when a patch can't be applied because an update was missed
+ * (or no snapshot was received yet), call `requestMediaSnapshot()` in that case.
+ *
+ * @param current the MediaObject rebuilt from the previous event and its sequence number
+ * @param update the MEDIA_UPDATE event payload
+ */
+export const applyMediaUpdate = (
+  current: { media: MediaObject; sequence: number } | null,
+  update: MediaUpdateDelta,
+): { media: MediaObject; sequence: number } | null => {
+  if (update.snapshot && update.media) {
+    return { media: update.media, sequence: update.sequence };
+  }
+  if (!current || !update.patch || update.sequence !== current.sequence + 1) {
+    return null;
+  }
+  return {
+    media: (mergePatch(current.media, update.patch) as unknown) as MediaObject,
+    sequence: update.sequence,
+  };
+};
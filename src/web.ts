@@ -6,7 +6,10 @@ import type {
   LoadMediaOptions,
   LoadMediaWithHeadersOptions,
   MediaObject,
+  MediaProgress,
   NetworkDiagnosticResult,
+  QueueItemsPage,
+  QueueLoadOptions,
   RouteInfo,
   SendMessageResult,
   SessionObject,
@@ -97,6 +100,14 @@ declare global {
     textTrackStyle: ChromeTextTrackStyle | null;
   }
 
+  interface ChromeQueueItem {
+    itemId: number;
+    autoplay: boolean;
+    preloadTime: number;
+    startTime: number;
+    media: ChromeMediaInfo;
+  }
+
   interface ChromeLoadRequest {
     mediaInfo: ChromeMediaInfo;
     autoplay: boolean;
@@ -176,6 +187,7 @@ declare global {
     currentTime: number;
     customData: Record<string, unknown>;
     currentItemId: number;
+    items?: ChromeQueueItem[];
     volume: { level: number; muted: boolean };
     getEstimatedTime(): number;
     queueNext(
@@ -480,6 +492,28 @@ export class ChromecastWeb
     return ChromecastWeb.DEFAULT_RECEIVER_APP_ID;
   }
 
+  /**
+   * The customData of a load request, sent as an object or already serialized as a JSON string.
+   * Throws an `invalid_parameter` error if it is neither, like the native platforms reject it.
+   */
+  private parseCustomData(customData: unknown): Record<string, unknown> {
+    let value = customData;
+    if (typeof value === 'string') {
+      try {
+        value = JSON.parse(value);
+      } catch {
+        value = undefined;
+      }
+    }
+    if (value === null || typeof value !== 'object' || Array.isArray(value)) {
+      throw Object.assign(
+        new Error('customData: expected an object or a JSON object string'),
+        { code: 'invalid_parameter' },
+      );
+    }
+    return value as Record<string, unknown>;
+  }
+
   private setupCastContext(options?: InitializeOptions): void {
     const context = window.cast.framework.CastContext.getInstance();
     this.context = context;
@@ -635,6 +669,10 @@ export class ChromecastWeb
   }
 
   async loadMedia(options: LoadMediaOptions): Promise<MediaObject> {
+    const customData =
+      options.customData !== undefined && options.customData !== null
+        ? this.parseCustomData(options.customData)
+        : undefined;
     const session = this.context?.getCurrentSession();
     if (!session) {
       throw new Error('No active session');
@@ -662,8 +700,8 @@ export class ChromecastWeb
       mediaInfo.duration = options.duration;
     }
 
-    if (options.customData) {
-      mediaInfo.customData = options.customData;
+    if (customData) {
+      mediaInfo.customData = customData;
     }
 
     // Set metadata if provided
@@ -710,7 +748,9 @@ export class ChromecastWeb
   ): Promise<MediaObject> {
     // For web, headers can be passed via customData to be handled by the receiver
     const customData = {
-      ...options.customData,
+      ...(options.customData !== undefined &&
+        options.customData !== null &&
+        this.parseCustomData(options.customData)),
       ...(options.authHeaders && { headers: options.authHeaders }),
       ...(options.authToken && { authToken: options.authToken }),
     };
@@ -870,6 +910,68 @@ export class ChromecastWeb
     };
   }
 
+  async requestMediaSnapshot(): Promise<void> {
+    // MEDIA_UPDATE events always carry the full media object on web
+  }
+
+  async getEstimatedPosition(): Promise<MediaProgress> {
+    const session = this.context?.getCurrentSession();
+    const mediaSession = session?.getMediaSession();
+    if (!mediaSession) {
+      throw new Error('No active media session');
+    }
+    const playing = mediaSession.playerState === 'PLAYING';
+    return {
+      currentTime: mediaSession.getEstimatedTime(),
+      duration: Math.max(0, mediaSession.media?.duration ?? 0),
+      playbackRate: playing ? mediaSession.playbackRate : 0,
+      timestamp: performance.now(),
+    };
+  }
+
+  async getQueueItems(options?: {
+    offset?: number;
+    limit?: number;
+  }): Promise<QueueItemsPage> {
+    const offset = options?.offset ?? 0;
+    const limit = options?.limit ?? 20;
+    if (offset < 0 || limit < 1) {
+      throw new Error('offset must be >= 0 and limit > 0');
+    }
+    const mediaSession = this.context?.getCurrentSession()?.getMediaSession();
+    if (!mediaSession) {
+      throw new Error('No active media session');
+    }
+    // The web sender only has the items the receiver sent with the media status
+    const queueItems = mediaSession.items ?? [];
+    const items = queueItems
+      .slice(offset, offset + Math.min(limit, 100))
+      .map((item, i) => ({
+        itemId: item.itemId,
+        orderId: offset + i,
+        autoplay: item.autoplay,
+        preloadTime: item.preloadTime,
+        startTime: item.startTime,
+        media: {
+          contentId: item.media.contentId,
+          contentType: item.media.contentType,
+          customData: item.media.customData || {},
+          duration: item.media.duration ?? 0,
+        },
+      }));
+    return { offset, total: queueItems.length, items };
+  }
+
+  async queueLoad(_options: QueueLoadOptions): Promise<MediaObject> {
+    throw new Error(
+      'queueLoad is not supported on web. Use loadMedia() to cast one media at a time.',
+    );
+  }
+
+  async cancelQueueLoad(): Promise<void> {
+    // queueLoad is not supported on web, there is never a load to cancel
+  }
+
   private createSessionObject(session: CastSession): SessionObject {
     const metadata = session.getApplicationMetadata();
     const device = session.getCastDevice();
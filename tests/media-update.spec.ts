@@ -0,0 +1,56 @@
+import { describe, expect, it } from 'vitest';
+
+import type { MediaObject } from '../src/definitions';
+import { applyMediaUpdate } from '../src/media-update';
+
+const snapshotMedia = ({
+  currentItemId: 1,
+  currentTime: 1,
+  playerState: 'PLAYING',
+  volume: { level: 0.5, muted: false },
+  activeTrackIds: [1, 2],
+} as unknown) as MediaObject;
+
+describe('applyMediaUpdate', () => {
+  it('starts from a snapshot', () => {
+    const state = applyMediaUpdate(null, {
+      sequence: 1,
+      snapshot: true,
+      media: snapshotMedia,
+    });
+    expect(state).toEqual({ media: snapshotMedia, sequence: 1 });
+  });
+
+  it('merges nested patches and removes null fields', () => {
+    const state = applyMediaUpdate(
+      { media: snapshotMedia, sequence: 1 },
+      {
+        sequence: 2,
+        snapshot: false,
+        patch: { currentTime: 2, volume: { muted: true }, activeTrackIds: null },
+      },
+    );
+    expect(state?.sequence).toBe(2);
+    expect(state?.media.currentTime).toBe(2);
+    expect(state?.media.volume).toEqual({ level: 0.5, muted: true });
+    expect(state?.media).not.toHaveProperty('activeTrackIds');
+    // The previous state is left untouched
+    expect(snapshotMedia.volume.muted).toBe(false);
+  });
+
+  it('returns null when an update was missed', () => {
+    expect(
+      applyMediaUpdate(
+        { media: snapshotMedia, sequence: 1 },
+        { sequence: 3, snapshot: false, patch: { currentTime: 3 } },
+      ),
+    ).toBeNull();
+    expect(
+      applyMediaUpdate(null, {
+        sequence: 2,
+        snapshot: false,
+        patch: { currentTime: 2 },
+      }),
+    ).toBeNull();
+  });
+});
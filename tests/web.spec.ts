@@ -265,3 +265,26 @@ describe('ChromecastWeb initialize', () => {
     ).toBeNull();
   });
 });
+
+describe('ChromecastWeb loadMedia customData', () => {
+  it('rejects a customData string that is not a JSON object', async () => {
+    const plugin = new ChromecastWeb();
+
+    await expect(
+      plugin.loadMedia({
+        contentId: 'https://example.com/video.mp4',
+        customData: '{license: ',
+      }),
+    ).rejects.toMatchObject({
+      code: 'invalid_parameter',
+      message: 'customData: expected an object or a JSON object string',
+    });
+    await expect(
+      plugin.loadMediaWithHeaders({
+        contentId: 'https://example.com/video.mp4',
+        customData: '[1, 2]',
+        authToken: 'token',
+      }),
+    ).rejects.toMatchObject({ code: 'invalid_parameter' });
+  });
+});